@@ -0,0 +1,61 @@
+package org.capatect.restatic.benchmarks;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.benchmarks.corpus.CorpusState;
+import org.capatect.restatic.core.RestaticCoreImpl;
+import org.capatect.restatic.core.RunStatistics;
+import org.capatect.restatic.core.configuration.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a complete RestaticCoreImpl run on the synthetic corpus: collecting, parsing and validating the resource
+ * bundles and generating the root class. The per-stage benchmarks show where the time of a run goes.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RestaticCoreBenchmark {
+    private Configuration configuration;
+
+    @Setup
+    public void createConfiguration(final CorpusState corpus) {
+        configuration = corpus.createConfigurationBuilder()
+                .withResourceBundleValidationEnabled(true)
+                .getConfiguration();
+    }
+
+    @Benchmark
+    public RunStatistics run() {
+        return new RestaticCoreImpl(configuration).run();
+    }
+}
@@ -0,0 +1,122 @@
+package org.capatect.restatic.benchmarks.corpus;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.capatect.restatic.core.corpus.CorpusGenerator;
+import org.capatect.restatic.core.corpus.GeneratedCorpus;
+import org.capatect.restatic.core.discoverer.file.AntStylePatternFileNameFilter;
+import org.capatect.restatic.core.discoverer.file.FileFilter;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * The corpus shared by the benchmarks of the generation pipeline, written once per trial by the CorpusGenerator of
+ * restatic-core. Its size is set with JMH parameters, so the benchmarks can be run for the size of a specific build,
+ * for example:
+ * <pre>
+ *     java -jar benchmarks.jar RestaticCoreBenchmark -p packageCount=2000 -p localeCount=8 -p keysPerBundle=200
+ * </pre>
+ * The corpus has no missing translations, so it passes validation.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+public class CorpusState {
+    /**
+     * Matches the .properties and the XML resource bundles of the corpus.
+     */
+    public static final FileFilter FILE_FILTER = AntStylePatternFileNameFilter.create("**/*.properties", "**/*.xml");
+
+    @Param({"42"})
+    private long seed;
+
+    @Param({"100"})
+    private int packageCount;
+
+    @Param({"5"})
+    private int bundlesPerPackage;
+
+    @Param({"4"})
+    private int localeCount;
+
+    @Param({"50"})
+    private int keysPerBundle;
+
+    @Param({"0.1"})
+    private double xmlBundleRatio;
+
+    private File workDirectory;
+    private GeneratedCorpus corpus;
+
+    @Setup(Level.Trial)
+    public void writeCorpus() throws IOException {
+        workDirectory = Files.createTempDirectory("restatic-corpus").toFile();
+        corpus = new CorpusGenerator()
+                .withSeed(seed)
+                .withPackageCount(packageCount)
+                .withBundlesPerPackage(bundlesPerPackage)
+                .withLocaleCount(localeCount)
+                .withKeysPerBundle(keysPerBundle)
+                .withXmlBundleRatio(xmlBundleRatio)
+                .withMissingTranslationRatio(0)
+                .generate(new File(workDirectory, "resources"));
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCorpus() {
+        delete(workDirectory);
+    }
+
+    /**
+     * @return A ConfigurationBuilder with the corpus as source directory and the output directories next to it.
+     */
+    public ConfigurationBuilder createConfigurationBuilder() {
+        return new ConfigurationBuilder()
+                .addSourceDirectory(corpus.getDirectory())
+                .addFileFilter(FILE_FILTER)
+                .toOutputDirectory(new File(workDirectory, "generated"))
+                .toClassOutputDirectory(new File(workDirectory, "classes"))
+                .withFullyQualitiedRootClassName("com.acme.R");
+    }
+
+    public File getSourceDirectory() {
+        return corpus.getDirectory();
+    }
+
+    public List<File> getResourceBundles() {
+        return corpus.getResourceBundles();
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
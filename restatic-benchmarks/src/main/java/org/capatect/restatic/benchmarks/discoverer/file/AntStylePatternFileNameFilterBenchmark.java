@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.benchmarks.discoverer.file;
+
+import org.capatect.restatic.core.discoverer.file.AntStylePatternFileNameFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.util.AntPathMatcher;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares matching candidate files against a dozen include patterns with the compiled AntStylePatternFileNameFilter
+ * and with the previous implementation, which created an AntPathMatcher per file and tokenized every pattern per path.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AntStylePatternFileNameFilterBenchmark {
+    private static final int PATH_COUNT = 10000;
+
+    private static final String[] PATTERNS = {
+            "com/acme/i18n/**/*.properties",
+            "com/acme/web/**/messages*.properties",
+            "com/acme/*/labels.properties",
+            "com/acme/**/errors_??.properties",
+            "org/capatect/**/*.properties",
+            "org/capatect/**/*.xml",
+            "nl/company/resources/*.properties",
+            "nl/company/**/bundle_*.properties",
+            "**/validation.properties",
+            "**/version.properties",
+            "META-INF/i18n/*.properties",
+            "net/example/**/i18n/*.xml"};
+
+    private static final String[] DIRECTORIES = {"com", "acme", "i18n", "web", "service", "org", "capatect", "nl",
+            "company", "resources", "META-INF", "net", "example", "model", "util"};
+
+    private static final String[] FILES = {"messages.properties", "messages_nl.properties", "labels.properties",
+            "errors_nl.properties", "bundle_en_US.properties", "validation.properties", "version.properties",
+            "Resources.java", "Service.class", "config.xml", "logback.xml", "README.txt"};
+
+    private final String[] paths = new String[PATH_COUNT];
+    private AntStylePatternFileNameFilter filter;
+
+    @Setup
+    public void setup() {
+        final Random random = new Random(42L);
+        for (int i = 0; i < PATH_COUNT; i++) {
+            final StringBuilder path = new StringBuilder();
+            final int depth = 1 + random.nextInt(7);
+            for (int j = 0; j < depth; j++) {
+                path.append(DIRECTORIES[random.nextInt(DIRECTORIES.length)]).append('/');
+            }
+            paths[i] = path.append(FILES[random.nextInt(FILES.length)]).toString();
+        }
+
+        filter = AntStylePatternFileNameFilter.create(PATTERNS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATH_COUNT)
+    public int compiledFilter() {
+        int matches = 0;
+        for (final String path : paths) {
+            if (filter.matches(path)) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PATH_COUNT)
+    public int antPathMatcher() {
+        int matches = 0;
+        for (final String path : paths) {
+            final AntPathMatcher antPathMatcher = new AntPathMatcher();
+            for (final String pattern : PATTERNS) {
+                if (antPathMatcher.match(pattern, path)) {
+                    matches++;
+                    break;
+                }
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,69 @@
+package org.capatect.restatic.benchmarks.discoverer.file;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.benchmarks.corpus.CorpusState;
+import org.capatect.restatic.core.discoverer.file.FileCollector;
+import org.capatect.restatic.core.discoverer.file.FileCollectorImpl;
+import org.capatect.restatic.core.discoverer.file.ParallelFileCollectorImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures collecting the resource bundles of the corpus with the FileCollectorImpl and the ParallelFileCollectorImpl.
+ * The directory tree is in the page cache after the first iteration, so this measures the directory traversal and the
+ * filtering, not the disk.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileCollectorBenchmark {
+    private FileCollector fileCollector;
+    private FileCollector parallelFileCollector;
+
+    @Setup
+    public void createFileCollectors() {
+        fileCollector = FileCollectorImpl.createWithPathAndFilter(CorpusState.FILE_FILTER);
+        parallelFileCollector = ParallelFileCollectorImpl.createWithFilter(CorpusState.FILE_FILTER);
+    }
+
+    @Benchmark
+    public List<File> sequential(final CorpusState corpus) {
+        return fileCollector.collect(corpus.getSourceDirectory());
+    }
+
+    @Benchmark
+    public List<File> parallel(final CorpusState corpus) {
+        return parallelFileCollector.collect(corpus.getSourceDirectory());
+    }
+}
@@ -0,0 +1,195 @@
+package org.capatect.restatic.benchmarks.generator;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.capatect.restatic.core.generator.ResourceClassGeneratorImpl;
+import org.capatect.restatic.core.model.ResModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares formatting a message with the format accessor of a generated key table, which formats a pattern that is
+ * parsed when the key table is generated, with MessageFormat.format, which parses the pattern on every call, and with
+ * a MessageFormat which is shared and therefore used under a lock.
+ * <p/>
+ * The key table is generated and compiled with the system Java compiler in the setup, so the benchmark must run on a
+ * JDK. It is called through the MessageFormatter interface, implemented by a class compiled together with the key
+ * table, so the calls are as direct as in application code.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormatAccessorBenchmark {
+    private static final String FORMATTER_CLASS_NAME = "com.acme.GreetingFormatter";
+    private static final String PATTERN = "Hallo {0}, je hebt {1} nieuwe berichten in {2}.";
+    private static final Locale LOCALE = new Locale("nl");
+
+    /**
+     * Implemented by the class compiled together with the key table.
+     */
+    public interface MessageFormatter {
+        String greeting(Object name, Object count, Object folder);
+    }
+
+    private File workDirectory;
+    private URLClassLoader classLoader;
+    private MessageFormatter keyTable;
+    private MessageFormat sharedFormat;
+    private String pattern;
+    private Object count;
+
+    @Setup
+    public void generateKeyTable() throws Exception {
+        workDirectory = Files.createTempDirectory("restatic-format").toFile();
+        final File sourceDirectory = new File(workDirectory, "resources");
+        if (!sourceDirectory.mkdirs()) {
+            throw new IllegalStateException("Cannot create directory " + sourceDirectory);
+        }
+        final File bundle = write(new File(sourceDirectory, "messages.properties"),
+                "greeting=Hello {0}, you have {1} new messages in {2}.\n");
+        final File translation = write(new File(sourceDirectory, "messages_nl.properties"), "greeting=" + PATTERN + "\n");
+
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(new File(workDirectory, "generated"))
+                .withFullyQualitiedRootClassName("com.acme.R")
+                .withKeyTablesEnabled(true)
+                .withFormatAccessorsEnabled(true)
+                .getConfiguration();
+        final ResModel resModel = ResModel.create(configuration);
+        resModel.addResourceBundle(bundle);
+        resModel.addResourceBundle(translation);
+        new ResourceClassGeneratorImpl(configuration).generate(resModel);
+
+        final File formatterSourceFile = new File(configuration.getOutputDirectory(),
+                FORMATTER_CLASS_NAME.replace('.', '/') + ".java");
+        write(formatterSourceFile, createFormatterSource("com.acme.R_MESSAGES_Strings"));
+        final File classesDirectory = new File(workDirectory, "classes");
+        compile(classesDirectory, new File(formatterSourceFile.getParentFile(), "R_MESSAGES_Strings.java"),
+                formatterSourceFile);
+
+        classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()},
+                FormatAccessorBenchmark.class.getClassLoader());
+        keyTable = (MessageFormatter) classLoader.loadClass(FORMATTER_CLASS_NAME).newInstance();
+        sharedFormat = new MessageFormat(PATTERN, LOCALE);
+        pattern = PATTERN;
+        count = 3;
+    }
+
+    @TearDown
+    public void deleteWorkDirectory() throws IOException {
+        classLoader.close();
+        delete(workDirectory);
+    }
+
+    @Benchmark
+    public String formatAccessor() {
+        return keyTable.greeting("Jamie", count, "Inbox");
+    }
+
+    @Benchmark
+    public String messageFormatStatic() {
+        return MessageFormat.format(pattern, "Jamie", count, "Inbox");
+    }
+
+    @Benchmark
+    public String messageFormatShared() {
+        synchronized (sharedFormat) {
+            return sharedFormat.format(new Object[]{"Jamie", count, "Inbox"});
+        }
+    }
+
+    private static String createFormatterSource(final String keyTableClassName) {
+        final int separator = FORMATTER_CLASS_NAME.lastIndexOf('.');
+        return "package " + FORMATTER_CLASS_NAME.substring(0, separator) + ";\n"
+                + "public final class " + FORMATTER_CLASS_NAME.substring(separator + 1)
+                + " implements " + MessageFormatter.class.getCanonicalName() + " {\n"
+                + "    private final " + keyTableClassName + " strings = " + keyTableClassName
+                + ".forLocale(new java.util.Locale(\"" + LOCALE + "\"));\n"
+                + "    public String greeting(final Object name, final Object count, final Object folder) {\n"
+                + "        return strings.GREETING(name, count, folder);\n"
+                + "    }\n"
+                + "}\n";
+    }
+
+    private static File write(final File file, final String content) throws IOException {
+        if (!file.getParentFile().isDirectory() && !file.getParentFile().mkdirs()) {
+            throw new IllegalStateException("Cannot create directory " + file.getParentFile());
+        }
+        Files.write(file.toPath(), content.getBytes(Charset.forName("ISO-8859-1")));
+        return file;
+    }
+
+    private static void compile(final File classesDirectory, final File... sourceFiles) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The benchmark needs the Java compiler of a JDK");
+        }
+        if (!classesDirectory.isDirectory() && !classesDirectory.mkdirs()) {
+            throw new IllegalStateException("Cannot create directory " + classesDirectory);
+        }
+
+        final String[] arguments = new String[sourceFiles.length + 4];
+        arguments[0] = "-d";
+        arguments[1] = classesDirectory.getPath();
+        arguments[2] = "-cp";
+        arguments[3] = System.getProperty("java.class.path");
+        for (int i = 0; i < sourceFiles.length; i++) {
+            arguments[i + 4] = sourceFiles[i].getPath();
+        }
+        if (compiler.run(null, null, null, arguments) != 0) {
+            throw new IllegalStateException("Compiling the generated key table failed");
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,246 @@
+package org.capatect.restatic.benchmarks.generator;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.benchmarks.corpus.CorpusState;
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.generator.ResourceClassGeneratorImpl;
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResLocale;
+import org.capatect.restatic.core.model.ResModel;
+import org.capatect.restatic.core.parser.ResourceBundleParserImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.ResourceBundle;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares looking up a message in the key table generated for a bundle of the synthetic corpus, by key ID, with
+ * ResourceBundle.getString on the same bundle, by key name. The messages are looked up in a shuffled order of all keys
+ * of the bundle, the accessor benchmarks look up the same key with the generated accessor method and with a constant
+ * key name. The locale benchmarks resolve the requested locale, which is not generated, with the fallback table of the
+ * key table and with ResourceBundle.getBundle, which walks the candidate locales and looks them up in its cache.
+ * <p/>
+ * The key table is generated and compiled with the system Java compiler in the setup, so the benchmark must run on a
+ * JDK. It is called through the MessageLookup interface, implemented by a class compiled together with the key table,
+ * so the calls are as direct as in application code.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyTableLookupBenchmark {
+    private static final String LOOKUP_CLASS_NAME = "com.acme.KeyTableLookup";
+
+    /**
+     * Implemented by the class compiled together with the key table.
+     */
+    public interface MessageLookup {
+        String get(int id);
+
+        String firstKey();
+
+        Object forLocale(Locale locale);
+    }
+
+    @Param({"de"})
+    private String locale;
+
+    private Locale requestedLocale;
+    private URLClassLoader classLoader;
+    private URLClassLoader resourceLoader;
+    private MessageLookup keyTable;
+    private ResourceBundle resourceBundle;
+    private String baseName;
+    private String firstKey;
+    private int[] ids;
+    private String[] keys;
+    private int index;
+
+    @Setup
+    public void generateKeyTable(final CorpusState corpus) throws Exception {
+        final Configuration configuration = corpus.createConfigurationBuilder().withKeyTablesEnabled(true).getConfiguration();
+        final ResModel resModel = new ResourceBundleParserImpl(configuration).parse(corpus.getResourceBundles());
+        new ResourceClassGeneratorImpl(configuration).generate(resModel);
+
+        final ResBundle bundle = findPropertiesBundle(resModel);
+        final List<ResKey> resKeys = new ArrayList<ResKey>(bundle.getAllUniqueKeysForLocales());
+        final String keyTableClassName = resModel.getRootClassName() + "_" + bundle.getBundleClassName() + "_Strings";
+        final File lookupSourceFile = new File(configuration.getOutputDirectory(), LOOKUP_CLASS_NAME.replace('.', '/') + ".java");
+        writeLookupSource(lookupSourceFile, resModel.getRootClassPackage() + "." + keyTableClassName, locale,
+                resKeys.get(0).getName());
+        compile(configuration.getClassOutputDirectory(),
+                new File(lookupSourceFile.getParentFile(), keyTableClassName + ".java"), lookupSourceFile);
+
+        classLoader = new URLClassLoader(new URL[]{configuration.getClassOutputDirectory().toURI().toURL()},
+                KeyTableLookupBenchmark.class.getClassLoader());
+        keyTable = (MessageLookup) classLoader.loadClass(LOOKUP_CLASS_NAME).newInstance();
+
+        resourceLoader = new URLClassLoader(new URL[]{corpus.getSourceDirectory().toURI().toURL()}, null);
+        baseName = getBaseName(corpus.getSourceDirectory(), bundle);
+        resourceBundle = ResourceBundle.getBundle(baseName, new Locale(locale), resourceLoader);
+        requestedLocale = new Locale(locale, "CH");
+
+        final List<Integer> order = new ArrayList<Integer>(resKeys.size());
+        for (int id = 0; id < resKeys.size(); id++) {
+            order.add(id);
+        }
+        Collections.shuffle(order, new Random(42));
+        ids = new int[order.size()];
+        keys = new String[order.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = order.get(i);
+            keys[i] = resKeys.get(ids[i]).getOriginalName();
+        }
+        firstKey = resKeys.get(0).getOriginalName();
+    }
+
+    @TearDown
+    public void closeClassLoaders() throws IOException {
+        classLoader.close();
+        resourceLoader.close();
+    }
+
+    @Benchmark
+    public String keyTableById() {
+        return keyTable.get(ids[next()]);
+    }
+
+    @Benchmark
+    public String resourceBundleByName() {
+        return resourceBundle.getString(keys[next()]);
+    }
+
+    @Benchmark
+    public String keyTableAccessor() {
+        return keyTable.firstKey();
+    }
+
+    @Benchmark
+    public String resourceBundleConstantName() {
+        return resourceBundle.getString(firstKey);
+    }
+
+    @Benchmark
+    public Object keyTableForLocale() {
+        return keyTable.forLocale(requestedLocale);
+    }
+
+    @Benchmark
+    public ResourceBundle resourceBundleGetBundle() {
+        return ResourceBundle.getBundle(baseName, requestedLocale, resourceLoader);
+    }
+
+    private int next() {
+        if (++index == ids.length) {
+            index = 0;
+        }
+        return index;
+    }
+
+    private static ResBundle findPropertiesBundle(final ResModel resModel) {
+        for (final ResBundle bundle : resModel.getBundles()) {
+            if (getDefaultResourceBundle(bundle).getName().endsWith(".properties")) {
+                return bundle;
+            }
+        }
+        throw new IllegalStateException("The corpus has no .properties bundles");
+    }
+
+    private static File getDefaultResourceBundle(final ResBundle bundle) {
+        for (final ResLocale resLocale : bundle.getLocales()) {
+            if (resLocale.isDefaultLocale()) {
+                return resLocale.getResourceBundles().get(0);
+            }
+        }
+        throw new IllegalStateException("Bundle " + bundle.getBundleClassName() + " has no default locale");
+    }
+
+    private static String getBaseName(final File sourceDirectory, final ResBundle bundle) {
+        final String path = sourceDirectory.toURI().relativize(getDefaultResourceBundle(bundle).toURI()).getPath();
+        return path.substring(0, path.lastIndexOf('.')).replace('/', '.');
+    }
+
+    private static void writeLookupSource(final File sourceFile, final String keyTableClassName, final String locale,
+                                          final String firstKeyName) throws IOException {
+        final int separator = LOOKUP_CLASS_NAME.lastIndexOf('.');
+        final String source = "package " + LOOKUP_CLASS_NAME.substring(0, separator) + ";\n"
+                + "public final class " + LOOKUP_CLASS_NAME.substring(separator + 1)
+                + " implements " + MessageLookup.class.getCanonicalName() + " {\n"
+                + "    private final " + keyTableClassName + " strings = " + keyTableClassName
+                + ".forLocale(new java.util.Locale(\"" + locale + "\"));\n"
+                + "    public String get(final int id) { return strings.get(id); }\n"
+                + "    public String firstKey() { return strings." + firstKeyName + "(); }\n"
+                + "    public Object forLocale(final java.util.Locale locale) { return " + keyTableClassName
+                + ".forLocale(locale); }\n"
+                + "}\n";
+        Files.write(sourceFile.toPath(), source.getBytes(Charset.defaultCharset()));
+    }
+
+    private static void compile(final File classesDirectory, final File... sourceFiles) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            throw new IllegalStateException("The benchmark needs the Java compiler of a JDK");
+        }
+        if (!classesDirectory.isDirectory() && !classesDirectory.mkdirs()) {
+            throw new IllegalStateException("Cannot create directory " + classesDirectory);
+        }
+
+        // The source files are written in the platform default charset.
+        final String[] arguments = new String[sourceFiles.length + 6];
+        arguments[0] = "-d";
+        arguments[1] = classesDirectory.getPath();
+        arguments[2] = "-cp";
+        arguments[3] = System.getProperty("java.class.path");
+        arguments[4] = "-encoding";
+        arguments[5] = Charset.defaultCharset().name();
+        for (int i = 0; i < sourceFiles.length; i++) {
+            arguments[i + 6] = sourceFiles[i].getPath();
+        }
+        if (compiler.run(null, null, null, arguments) != 0) {
+            throw new IllegalStateException("Compiling the generated key table failed");
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.capatect.restatic.benchmarks.generator;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.benchmarks.corpus.CorpusState;
+import org.capatect.restatic.core.configuration.GeneratorBackend;
+import org.capatect.restatic.core.configuration.SourceLayout;
+import org.capatect.restatic.core.generator.GenerationStatistics;
+import org.capatect.restatic.core.generator.ResourceClassGenerator;
+import org.capatect.restatic.core.generator.ResourceClassGeneratorImpl;
+import org.capatect.restatic.core.model.ResModel;
+import org.capatect.restatic.core.parser.ResourceBundleParserImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures generating the source files of the ResModel of the synthetic corpus. The model is parsed once per trial.
+ * Only the first invocation writes the source files, later invocations render the same content and only compare it
+ * with the files on disk, the same as an incremental build without changed resource bundles.
+ * <p/>
+ * The generatorBackend parameter compares the StringTemplate templates with the hand-written JavaSourceEmitter and
+ * with writing the class files directly. The source backends still need javac to compile the generated source.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceClassGeneratorBenchmark {
+    @Param({"SINGLE_FILE", "FILE_PER_BUNDLE"})
+    private SourceLayout sourceLayout;
+
+    @Param({"TEMPLATE", "EMITTER", "BYTECODE"})
+    private GeneratorBackend generatorBackend;
+
+    private ResModel resModel;
+    private ResourceClassGenerator generator;
+
+    @Setup
+    public void parseCorpus(final CorpusState corpus) {
+        resModel = new ResourceBundleParserImpl(corpus.createConfigurationBuilder().getConfiguration()).parse(corpus.getResourceBundles());
+        generator = new ResourceClassGeneratorImpl(corpus.createConfigurationBuilder().withSourceLayout(sourceLayout)
+                .withGeneratorBackend(generatorBackend).getConfiguration());
+    }
+
+    @Benchmark
+    public GenerationStatistics generate() {
+        return generator.generate(resModel);
+    }
+}
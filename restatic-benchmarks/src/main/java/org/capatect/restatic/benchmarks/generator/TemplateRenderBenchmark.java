@@ -0,0 +1,95 @@
+package org.capatect.restatic.benchmarks.generator;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.benchmarks.corpus.CorpusState;
+import org.capatect.restatic.core.generator.ResourceClassTemplates;
+import org.capatect.restatic.core.model.ResModel;
+import org.capatect.restatic.core.parser.ResourceBundleParserImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.STGroupFile;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rendering the root class of the ResModel of the synthetic corpus, without writing it:
+ * <ul>
+ * <li>renderWithNewGroup: parses and compiles resourceclass.stg for every render and reads the model by reflection,
+ * the same as the generator did before the templates were cached.</li>
+ * <li>renderWithCachedGroupAndReflection: reuses a compiled group which reads the model by reflection.</li>
+ * <li>renderWithResourceClassTemplates: reuses the compiled group of ResourceClassTemplates, which reads the model
+ * with the ResModelAdaptor.</li>
+ * </ul>
+ * Run it on a model with 100.000 keys with:
+ * <pre>
+ *     java -jar benchmarks.jar TemplateRenderBenchmark -p keysPerBundle=200 -p localeCount=1
+ * </pre>
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateRenderBenchmark {
+    private ResModel resModel;
+    private STGroup reflectiveGroup;
+
+    @Setup
+    public void parseCorpus(final CorpusState corpus) {
+        resModel = new ResourceBundleParserImpl(corpus.createConfigurationBuilder().getConfiguration()).parse(corpus.getResourceBundles());
+        reflectiveGroup = createReflectiveGroup();
+        reflectiveGroup.load();
+    }
+
+    @Benchmark
+    public String renderWithNewGroup() {
+        return render(createReflectiveGroup().getInstanceOf("rootClass"));
+    }
+
+    @Benchmark
+    public String renderWithCachedGroupAndReflection() {
+        return render(reflectiveGroup.getInstanceOf("rootClass"));
+    }
+
+    @Benchmark
+    public String renderWithResourceClassTemplates() {
+        return render(ResourceClassTemplates.getInstanceOf("rootClass"));
+    }
+
+    private String render(final ST template) {
+        template.add("model", resModel);
+        return template.render();
+    }
+
+    private static STGroup createReflectiveGroup() {
+        return new STGroupFile(ResourceClassTemplates.GROUP_FILE_NAME, ResourceClassTemplates.DELIMITER_CHAR,
+                ResourceClassTemplates.DELIMITER_CHAR);
+    }
+}
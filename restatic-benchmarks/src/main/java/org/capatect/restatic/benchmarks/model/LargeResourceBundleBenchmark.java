@@ -0,0 +1,120 @@
+package org.capatect.restatic.benchmarks.model;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.core.model.PropertiesKeyScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the keys of a large UTF-8 resource bundle on disk, such as an export of a translation management
+ * system, with Properties.load and with the PropertiesKeyScanner.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx512m"})
+public class LargeResourceBundleBenchmark {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String[] WORDS = {"the", "value", "of", "translation", "caf\u00e9", "na\u00efve", "\u65e5\u672c",
+            "{0}", "{1,number}", "message", "field", "required", "\u00fcber", "stra\u00dfe"};
+
+    /**
+     * The approximate size of the resource bundle in megabytes.
+     */
+    @Param({"4", "32"})
+    private int sizeInMegabytes;
+
+    private File resourceBundle;
+
+    @Setup
+    public void createResourceBundle() throws IOException {
+        resourceBundle = File.createTempFile("restatic-large", ".properties");
+        final Random random = new Random(42L);
+        final long size = sizeInMegabytes * 1024L * 1024L;
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(resourceBundle), UTF_8));
+        try {
+            long written = 0;
+            for (int k = 0; written < size; k++) {
+                final StringBuilder line = new StringBuilder("section").append(k % 50).append(".field").append(k).append(".label=");
+                for (int w = 0; w < 30; w++) {
+                    line.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                }
+                writer.write(line.append('\n').toString());
+                written += line.length();
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    @TearDown
+    public void deleteResourceBundle() {
+        resourceBundle.delete();
+    }
+
+    @Benchmark
+    public Set<String> propertiesLoad() throws IOException {
+        final InputStream input = new BufferedInputStream(new FileInputStream(resourceBundle));
+        try {
+            final Properties properties = new Properties();
+            properties.load(new InputStreamReader(input, UTF_8));
+            return properties.stringPropertyNames();
+        } finally {
+            input.close();
+        }
+    }
+
+    @Benchmark
+    public Set<String> keyScanner() throws IOException {
+        final InputStream input = new FileInputStream(resourceBundle);
+        try {
+            return PropertiesKeyScanner.scanKeys(input, UTF_8);
+        } finally {
+            input.close();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.capatect.restatic.benchmarks.model;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.core.model.PropertiesKeyScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading the keys of a large resource bundle with the PropertiesKeyScanner and with Properties.load, which
+ * also unescapes and stores every value. The bundle is read from memory so only the parsing is measured.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PropertiesKeyScannerBenchmark {
+    private static final String[] WORDS = {"the", "value", "of", "translation", "caf\\u00e9", "na\\u00efve", "\\t",
+            "\\:", "\\=", "{0}", "{1,number}", "message", "field", "required"};
+
+    /**
+     * The number of keys in the resource bundle, every value has about 30 words.
+     */
+    @Param({"1000", "20000"})
+    private int keyCount;
+
+    private byte[] resourceBundle;
+
+    @Setup
+    public void createResourceBundle() {
+        final Random random = new Random(42L);
+        final StringBuilder properties = new StringBuilder();
+        for (int k = 0; k < keyCount; k++) {
+            if (k % 50 == 0) {
+                properties.append("# Section ").append(k / 50).append('\n');
+            }
+            properties.append("section").append(k % 20).append(".field").append(k).append(".label = ");
+            for (int w = 0; w < 30; w++) {
+                properties.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+                if (w == 15 && k % 3 == 0) {
+                    properties.append("\\\n    ");
+                }
+            }
+            properties.append('\n');
+        }
+        resourceBundle = properties.toString().getBytes(Charset.forName("ISO-8859-1"));
+    }
+
+    @Benchmark
+    public Set<String> keyScanner() throws IOException {
+        return PropertiesKeyScanner.scanKeys(new ByteArrayInputStream(resourceBundle));
+    }
+
+    @Benchmark
+    public Set<Object> propertiesLoad() throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new ByteArrayInputStream(resourceBundle));
+        return properties.keySet();
+    }
+}
@@ -0,0 +1,145 @@
+package org.capatect.restatic.benchmarks.parser;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.capatect.restatic.core.model.ParseCache;
+import org.capatect.restatic.core.model.ResModel;
+import org.capatect.restatic.core.parser.ResourceBundleParserImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a corpus of 10,000 resource bundles with an empty parse cache (cold) and with a parse cache which
+ * was filled by a previous run (warm). A warm run only reads the attributes of every resource bundle.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ParseCacheBenchmark {
+    private static final int PACKAGE_COUNT = 1000;
+    private static final int BUNDLES_PER_PACKAGE = 10;
+    private static final int KEYS_PER_BUNDLE = 20;
+    private static final String[] LOCALES = {"", "_nl", "_en_US", "_de", "_fr"};
+
+    private File corpusDirectory;
+    private File cacheDirectory;
+    private List<File> resourceBundles;
+    private Configuration cachedConfiguration;
+
+    @Setup(Level.Trial)
+    public void createCorpus() throws IOException {
+        corpusDirectory = createTemporaryDirectory("restatic-corpus");
+        cacheDirectory = createTemporaryDirectory("restatic-cache");
+        resourceBundles = new ArrayList<File>(PACKAGE_COUNT * BUNDLES_PER_PACKAGE);
+
+        // Resource bundles modified in the last seconds are not cached, see ParseCache.
+        final long lastModified = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(1);
+        for (int p = 0; p < PACKAGE_COUNT; p++) {
+            final File packageDirectory = new File(corpusDirectory, "com/acme/module" + (p / 100) + "/package" + p);
+            if (!packageDirectory.mkdirs()) {
+                throw new IOException("Unable to create " + packageDirectory);
+            }
+
+            for (int b = 0; b < BUNDLES_PER_PACKAGE; b++) {
+                final String locale = LOCALES[b % LOCALES.length];
+                final File resourceBundle = new File(packageDirectory, "messages" + (b / LOCALES.length) + locale + ".properties");
+                writeResourceBundle(resourceBundle);
+                if (!resourceBundle.setLastModified(lastModified)) {
+                    throw new IOException("Unable to set the last modified time of " + resourceBundle);
+                }
+                resourceBundles.add(resourceBundle);
+            }
+        }
+
+        cachedConfiguration = new ConfigurationBuilder()
+                .addSourceDirectory(corpusDirectory)
+                .toOutputDirectory(new File(corpusDirectory, "generated"))
+                .withParseCacheDirectory(cacheDirectory)
+                .getConfiguration();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteCorpus() {
+        delete(corpusDirectory);
+        delete(cacheDirectory);
+    }
+
+    @Benchmark
+    public ResModel cold() {
+        delete(new File(cacheDirectory, ParseCache.CACHE_FILE_NAME));
+        return new ResourceBundleParserImpl(cachedConfiguration).parse(resourceBundles);
+    }
+
+    @Benchmark
+    public ResModel warm() {
+        return new ResourceBundleParserImpl(cachedConfiguration).parse(resourceBundles);
+    }
+
+    private static void writeResourceBundle(final File resourceBundle) throws IOException {
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(resourceBundle), "ISO-8859-1");
+        try {
+            for (int k = 0; k < KEYS_PER_BUNDLE; k++) {
+                writer.write("section" + (k % 4) + ".label.key" + k + "=The value of key " + k + " in " + resourceBundle.getName() + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static File createTemporaryDirectory(final String prefix) throws IOException {
+        final File directory = File.createTempFile(prefix, "");
+        if (!directory.delete() || !directory.mkdirs()) {
+            throw new IOException("Unable to create " + directory);
+        }
+        return directory;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,68 @@
+package org.capatect.restatic.benchmarks.parser;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.benchmarks.corpus.CorpusState;
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.model.ResModel;
+import org.capatect.restatic.core.parser.ResourceBundleParserImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing all resource bundles of the synthetic corpus into a ResModel, without a parse cache, with one
+ * parser thread and with a parser thread per processor.
+ *
+ * @author Jamie Craane
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResourceBundleParserBenchmark {
+    private Configuration sequentialConfiguration;
+    private Configuration parallelConfiguration;
+
+    @Setup
+    public void createConfigurations(final CorpusState corpus) {
+        sequentialConfiguration = corpus.createConfigurationBuilder().getConfiguration();
+        parallelConfiguration = corpus.createConfigurationBuilder()
+                .withParserThreadCount(Runtime.getRuntime().availableProcessors())
+                .getConfiguration();
+    }
+
+    @Benchmark
+    public ResModel sequential(final CorpusState corpus) {
+        return new ResourceBundleParserImpl(sequentialConfiguration).parse(corpus.getResourceBundles());
+    }
+
+    @Benchmark
+    public ResModel parallel(final CorpusState corpus) {
+        return new ResourceBundleParserImpl(parallelConfiguration).parse(corpus.getResourceBundles());
+    }
+}
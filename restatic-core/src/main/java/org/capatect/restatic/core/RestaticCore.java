@@ -28,6 +28,8 @@ public interface RestaticCore {
      * <li>Parse resource bundles.</li>
      * <li>Generate sourcs from resource bundles.</li>
      * </ul>
+     *
+     * @return The timings and counts of the phases of this run.
      */
-    void run();
+    RunStatistics run();
 }
@@ -16,10 +16,13 @@
 package org.capatect.restatic.core;
 
 import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.discoverer.file.CountingFileFilter;
 import org.capatect.restatic.core.discoverer.file.FileCollector;
 import org.capatect.restatic.core.discoverer.file.FileCollectorImpl;
+import org.capatect.restatic.core.discoverer.file.ParallelFileCollectorImpl;
 import org.capatect.restatic.core.generator.ResourceClassGenerator;
 import org.capatect.restatic.core.generator.ResourceClassGeneratorImpl;
+import org.capatect.restatic.core.jfr.RestaticEvents;
 import org.capatect.restatic.core.model.ResModel;
 import org.capatect.restatic.core.parser.ResourceBundleParser;
 import org.capatect.restatic.core.parser.ResourceBundleParserImpl;
@@ -44,6 +47,10 @@ public final class RestaticCoreImpl implements RestaticCore {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(RestaticCoreImpl.class);
 
+    /**
+     * Wraps the configured file filter to count the files visited by the fileCollector.
+     */
+    private final CountingFileFilter fileFilter;
     private FileCollector fileCollector;
     private ResourceBundleParser resourceBundleParser;
     private ResourceClassGenerator resourceClassGenerator;
@@ -51,29 +58,52 @@ public final class RestaticCoreImpl implements RestaticCore {
     private boolean resourceBundleValidationEnabled;
 
     public RestaticCoreImpl(final Configuration configuration) {
-        fileCollector = FileCollectorImpl.createWithPathAndFilter(configuration.getFileFilter());
+        fileFilter = CountingFileFilter.wrap(configuration.getFileFilter());
+        fileCollector = createFileCollector(configuration, fileFilter);
         resourceBundleParser = new ResourceBundleParserImpl(configuration);
         resourceClassGenerator = new ResourceClassGeneratorImpl(configuration);
         sourceDirectories = configuration.getSourceDirectories();
         resourceBundleValidationEnabled = configuration.isResourceBundleValidationEnabled();
     }
 
-    public void run() {
+    private static FileCollector createFileCollector(final Configuration configuration, final CountingFileFilter fileFilter) {
+        if (configuration.isParallelFileCollectionEnabled()) {
+            return ParallelFileCollectorImpl.createWithFilter(fileFilter);
+        }
+
+        return FileCollectorImpl.createWithPathAndFilter(fileFilter);
+    }
+
+    public RunStatistics run() {
         LOGGER.debug("run()");
 
+        final RunStatistics statistics = new RunStatistics();
+        final long start = System.nanoTime();
+
+        final long visitedBefore = fileFilter.getVisitedFileCount();
         final List<File> resourceBundles = new ArrayList<File>();
         for (final File sourceDirectory : sourceDirectories) {
-            resourceBundles.addAll(fileCollector.collect(sourceDirectory));
+            final Object event = RestaticEvents.beginCollection();
+            final long visitedBeforeSourceDirectory = fileFilter.getVisitedFileCount();
+            final List<File> sourceDirectoryBundles = fileCollector.collect(sourceDirectory);
+            resourceBundles.addAll(sourceDirectoryBundles);
+            RestaticEvents.commitCollection(event, sourceDirectory, fileFilter.getVisitedFileCount() - visitedBeforeSourceDirectory, sourceDirectoryBundles.size());
         }
+        final long collected = System.nanoTime();
+        statistics.recordCollection(collected - start, fileFilter.getVisitedFileCount() - visitedBefore, resourceBundles.size());
 
         final ResModel resModel = resourceBundleParser.parse(resourceBundles);
-
+        // The parser validates the model when validation is enabled, the validation is not counted as parsing.
+        final long validationTimeNanos = resModel.getValidationTimeNanos();
+        statistics.recordParsing(System.nanoTime() - collected - validationTimeNanos, resModel);
         if (resourceBundleValidationEnabled) {
-            if (!resModel.isValid()) {
-                throw new IllegalStateException(String.format("One ore more of the resource bundles are not valid, see the validation errors for details: [%s].", resModel.getValidationResults()));
-            }
+            statistics.recordValidation(validationTimeNanos);
         }
 
-        resourceClassGenerator.generate(resModel);
+        statistics.recordGeneration(resourceClassGenerator.generate(resModel));
+        statistics.recordTotal(System.nanoTime() - start);
+
+        LOGGER.debug("Run statistics: {}", statistics);
+        return statistics;
     }
 }
@@ -0,0 +1,234 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core;
+
+import org.capatect.restatic.core.generator.GenerationStatistics;
+import org.capatect.restatic.core.model.ParseStatistics;
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResModel;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The timings and counts of one run of the RestaticCore, per phase:
+ * <ul>
+ * <li>Collection: the time spent discovering resource bundles and the number of files visited and matched.</li>
+ * <li>Parsing: the time spent parsing and the ParseStatistics of the model.</li>
+ * <li>Model: the number of bundles, locales and generated keys.</li>
+ * <li>Validation: if the model is validated and the time spent validating it.</li>
+ * <li>Generation: the GenerationStatistics of the generated source files.</li>
+ * </ul>
+ * The statistics can be written as a JSON report with toJson().
+ *
+ * @author Jamie Craane
+ */
+public final class RunStatistics {
+    private long totalTimeNanos;
+    private long collectionTimeNanos;
+    private long filesVisited;
+    private int filesMatched;
+    private long parseTimeNanos;
+    private ParseStatistics parseStatistics = new ParseStatistics();
+    private int bundleCount;
+    private int localeCount;
+    private int keyCount;
+    private boolean validationEnabled;
+    private long validationTimeNanos;
+    private GenerationStatistics generationStatistics = new GenerationStatistics(0, 0, 0, 0, 0);
+
+    void recordCollection(final long timeNanos, final long visited, final int matched) {
+        collectionTimeNanos = timeNanos;
+        filesVisited = visited;
+        filesMatched = matched;
+    }
+
+    void recordParsing(final long timeNanos, final ResModel resModel) {
+        parseTimeNanos = timeNanos;
+        parseStatistics = resModel.getParseStatistics();
+        bundleCount = resModel.getBundles().size();
+        for (final ResBundle bundle : resModel.getBundles()) {
+            localeCount += bundle.getLocales().size();
+            keyCount += bundle.getAllUniqueKeysForLocales().size();
+        }
+    }
+
+    void recordValidation(final long timeNanos) {
+        validationEnabled = true;
+        validationTimeNanos = timeNanos;
+    }
+
+    void recordGeneration(final GenerationStatistics statistics) {
+        generationStatistics = statistics;
+    }
+
+    void recordTotal(final long timeNanos) {
+        totalTimeNanos = timeNanos;
+    }
+
+    /**
+     * @return The wall time in nanoseconds of the whole run.
+     */
+    public long getTotalTimeNanos() {
+        return totalTimeNanos;
+    }
+
+    /**
+     * @return The time in nanoseconds spent collecting the resource bundles from the source directories.
+     */
+    public long getCollectionTimeNanos() {
+        return collectionTimeNanos;
+    }
+
+    /**
+     * @return The number of files which are matched against the file filter, files in skipped directories are not
+     *         visited.
+     */
+    public long getFilesVisited() {
+        return filesVisited;
+    }
+
+    /**
+     * @return The number of files which matched the file filter and are parsed as resource bundle.
+     */
+    public int getFilesMatched() {
+        return filesMatched;
+    }
+
+    /**
+     * @return The time in nanoseconds spent building the ResModel from the resource bundles.
+     */
+    public long getParseTimeNanos() {
+        return parseTimeNanos;
+    }
+
+    /**
+     * @return The statistics of the resource bundles which are parsed or taken from the parse cache.
+     */
+    public ParseStatistics getParseStatistics() {
+        return parseStatistics;
+    }
+
+    /**
+     * @return The number of bundles in the ResModel.
+     */
+    public int getBundleCount() {
+        return bundleCount;
+    }
+
+    /**
+     * @return The number of locales of all bundles in the ResModel.
+     */
+    public int getLocaleCount() {
+        return localeCount;
+    }
+
+    /**
+     * @return The number of keys which are generated for all bundles in the ResModel.
+     */
+    public int getKeyCount() {
+        return keyCount;
+    }
+
+    /**
+     * @return true if the ResModel is validated during the run.
+     */
+    public boolean isValidationEnabled() {
+        return validationEnabled;
+    }
+
+    /**
+     * @return The time in nanoseconds spent validating the ResModel, 0 if validation is disabled.
+     */
+    public long getValidationTimeNanos() {
+        return validationTimeNanos;
+    }
+
+    /**
+     * @return The statistics of the generated source files.
+     */
+    public GenerationStatistics getGenerationStatistics() {
+        return generationStatistics;
+    }
+
+    /**
+     * @return The statistics as a JSON object, times are in milliseconds.
+     */
+    public String toJson() {
+        final StringBuilder json = new StringBuilder(1024);
+        json.append("{\n");
+        json.append("  \"totalTimeMillis\": ").append(millis(totalTimeNanos)).append(",\n");
+        json.append("  \"collection\": {\n");
+        json.append("    \"timeMillis\": ").append(millis(collectionTimeNanos)).append(",\n");
+        json.append("    \"filesVisited\": ").append(filesVisited).append(",\n");
+        json.append("    \"filesMatched\": ").append(filesMatched).append("\n");
+        json.append("  },\n");
+        json.append("  \"parsing\": {\n");
+        json.append("    \"timeMillis\": ").append(millis(parseTimeNanos)).append(",\n");
+        json.append("    \"resourceBundlesParsed\": ").append(parseStatistics.getParsedResourceBundleCount()).append(",\n");
+        json.append("    \"resourceBundlesCached\": ").append(parseStatistics.getCachedResourceBundleCount()).append(",\n");
+        json.append("    \"bytesRead\": ").append(parseStatistics.getBytesRead()).append(",\n");
+        json.append("    \"keysRead\": ").append(parseStatistics.getKeyCount()).append("\n");
+        json.append("  },\n");
+        json.append("  \"model\": {\n");
+        json.append("    \"bundles\": ").append(bundleCount).append(",\n");
+        json.append("    \"locales\": ").append(localeCount).append(",\n");
+        json.append("    \"keys\": ").append(keyCount).append("\n");
+        json.append("  },\n");
+        json.append("  \"validation\": {\n");
+        json.append("    \"enabled\": ").append(validationEnabled).append(",\n");
+        json.append("    \"timeMillis\": ").append(millis(validationTimeNanos)).append("\n");
+        json.append("  },\n");
+        json.append("  \"generation\": {\n");
+        json.append("    \"renderTimeMillis\": ").append(millis(generationStatistics.getRenderTimeNanos())).append(",\n");
+        json.append("    \"writeTimeMillis\": ").append(millis(generationStatistics.getWriteTimeNanos())).append(",\n");
+        json.append("    \"sourceFilesWritten\": ").append(generationStatistics.getSourceFilesWritten()).append(",\n");
+        json.append("    \"sourceFilesUnchanged\": ").append(generationStatistics.getSourceFilesUnchanged()).append(",\n");
+        json.append("    \"sourceFilesDeleted\": ").append(generationStatistics.getSourceFilesDeleted()).append(",\n");
+        json.append("    \"shardedBundles\": ").append(generationStatistics.getShardedBundleCount()).append(",\n");
+        json.append("    \"shards\": ").append(generationStatistics.getShardCount()).append(",\n");
+        json.append("    \"largestClassConstantPoolEntries\": ").append(generationStatistics.getLargestClassConstantPoolEntries()).append(",\n");
+        json.append("    \"constantPoolBudget\": ").append(generationStatistics.getConstantPoolBudget()).append("\n");
+        json.append("  }\n");
+        json.append("}\n");
+        return json.toString();
+    }
+
+    /**
+     * @return A one line summary of the statistics for the build log.
+     */
+    public String toSummary() {
+        return String.format(Locale.ROOT,
+                "%d bundles with %d locales and %d keys from %d of %d visited files in %s ms "
+                        + "(collect %s ms, parse %s ms, validate %s ms, render %s ms, write %s ms), "
+                        + "%d source files written, %d unchanged, %d deleted, %d bundles split in %d shards.",
+                bundleCount, localeCount, keyCount, filesMatched, filesVisited, millis(totalTimeNanos),
+                millis(collectionTimeNanos), millis(parseTimeNanos), millis(validationTimeNanos),
+                millis(generationStatistics.getRenderTimeNanos()), millis(generationStatistics.getWriteTimeNanos()),
+                generationStatistics.getSourceFilesWritten(), generationStatistics.getSourceFilesUnchanged(),
+                generationStatistics.getSourceFilesDeleted(), generationStatistics.getShardedBundleCount(),
+                generationStatistics.getShardCount());
+    }
+
+    @Override
+    public String toString() {
+        return toSummary();
+    }
+
+    private static String millis(final long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+}
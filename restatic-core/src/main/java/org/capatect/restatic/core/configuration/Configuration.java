@@ -19,12 +19,14 @@ import org.apache.commons.lang.Validate;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
 import org.capatect.restatic.core.discoverer.file.FileFilter;
+import org.capatect.restatic.core.model.PropertiesKeyScanner;
 import org.capatect.restatic.core.util.CollectionFilter;
 import org.capatect.restatic.core.util.Predicate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
@@ -46,6 +48,38 @@ import java.util.Set;
  * for different locales, validation tests if all keys are present in all resource bundles and if there are
  * no duplicate keys present.</li>
  * <li>rootClassName: the name of the generated root class which is generated. Defaults to R.</li>
+ * <li>parallelFileCollectionEnabled: if true the source directories are scanned for resource bundles by the
+ * ParallelFileCollectorImpl which walks the directory trees on all available cores. Defaults to false.</li>
+ * <li>parseCacheDirectory: the directory in which the keys of parsed resource bundles are cached between runs. Resource
+ * bundles which did not change since the previous run are not parsed again. Defaults to null, which disables the cache.</li>
+ * <li>parseCacheContentHashEnabled: if true the parse cache also stores a hash of the content of every resource bundle,
+ * so resource bundles which were only touched are not parsed again. Defaults to false.</li>
+ * <li>sourceLayout: determines if the keys of all resource bundles are generated in a single source file or if every
+ * resource bundle is generated in its own source file, see SourceLayout. Defaults to SINGLE_FILE.</li>
+ * <li>parserThreadCount: the number of threads used to parse the resource bundles. Defaults to 1, which parses the
+ * resource bundles sequentially.</li>
+ * <li>resourceBundleEncoding: the encoding of .properties resource bundles, ISO-8859-1 or UTF-8. Defaults to
+ * ISO-8859-1, the encoding used by java.util.Properties.</li>
+ * <li>generatorBackend: determines how the source files are generated, with StringTemplate templates or with a
+ * hand-written emitter, or if class files are written directly, see GeneratorBackend. Defaults to TEMPLATE.</li>
+ * <li>classOutputDirectory: the directory where the class files are written with the BYTECODE generator backend.
+ * Required for BYTECODE, otherwise not used.</li>
+ * <li>sourcesJar: the jar to which the source of the classes written by the BYTECODE generator backend is written, so
+ * IDEs can show it. Defaults to null, which writes no sources jar.</li>
+ * <li>classConstantPoolBudget: the number of constant pool entries a generated class may use. The keys of a resource
+ * bundle which do not fit in one class are split over multiple classes. Defaults to 65535, the limit of the class file
+ * format.</li>
+ * <li>messageTablesEnabled: if true a ListResourceBundle with the messages is generated for every locale of every
+ * resource bundle, so ResourceBundle.getBundle loads the messages without reading .properties files at runtime.
+ * Defaults to false.</li>
+ * <li>keyTablesEnabled: if true a class is generated for every resource bundle with a dense int ID for every key and
+ * the messages of every locale in an array, so a message is looked up by array index. Not supported by the BYTECODE
+ * generator backend. Defaults to false.</li>
+ * <li>keyEnumsEnabled: if true an enum is generated for every resource bundle with a constant for every key, which
+ * carries the key, so the keys can be used in switch statements and as keys of an EnumMap. Defaults to false.</li>
+ * <li>formatAccessorsEnabled: if true the key tables get an accessor for every key whose messages are MessageFormat
+ * patterns with arguments, which takes the arguments and formats the message with a pattern which is parsed when the
+ * key table is generated. Requires keyTablesEnabled. Defaults to false.</li>
  * </ul>
  * <p/>
  *
@@ -63,6 +97,21 @@ public final class Configuration {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(Configuration.class);
 
+    /**
+     * The default encoding of .properties resource bundles.
+     */
+    public static final Charset DEFAULT_RESOURCE_BUNDLE_ENCODING = Charset.forName("ISO-8859-1");
+
+    /**
+     * The default and maximum number of constant pool entries of a generated class, the limit of the class file format.
+     */
+    public static final int MAX_CLASS_CONSTANT_POOL_BUDGET = 65535;
+
+    /**
+     * The minimum number of constant pool entries of a generated class, enough for some keys next to the entries every
+     * class needs.
+     */
+    public static final int MIN_CLASS_CONSTANT_POOL_BUDGET = 256;
 
     private final FileFilter fileFilter;
     private final File outputDirectory;
@@ -70,6 +119,20 @@ public final class Configuration {
     private final boolean resourceBundleValidationEnabled;
     private final String fullyQualifiedGeneratedRootClassName;
     private final Set<File> sourceDirectories;
+    private final boolean parallelFileCollectionEnabled;
+    private final File parseCacheDirectory;
+    private final boolean parseCacheContentHashEnabled;
+    private final SourceLayout sourceLayout;
+    private final int parserThreadCount;
+    private final Charset resourceBundleEncoding;
+    private final GeneratorBackend generatorBackend;
+    private final File classOutputDirectory;
+    private final File sourcesJar;
+    private final int classConstantPoolBudget;
+    private final boolean messageTablesEnabled;
+    private final boolean keyTablesEnabled;
+    private final boolean keyEnumsEnabled;
+    private final boolean formatAccessorsEnabled;
 
     /**
      * Creates a new Configuration instance. Instead of using this constructor consider using the ConfigurationBuilder
@@ -86,6 +149,53 @@ public final class Configuration {
     public Configuration(final File anOutputDirectory, final Set<File> aSourceDirectories, final FileFilter aFileFilter,
                          final Set<PackageAlias> aPackageAliases, final boolean anIsResourceBundleValidationEnabled,
                          final String aRootClassName) {
+        this(anOutputDirectory, aSourceDirectories, aFileFilter, aPackageAliases, anIsResourceBundleValidationEnabled,
+                aRootClassName, false, null, false, SourceLayout.SINGLE_FILE, 1, DEFAULT_RESOURCE_BUNDLE_ENCODING,
+                GeneratorBackend.TEMPLATE, null, null, MAX_CLASS_CONSTANT_POOL_BUDGET, false, false, false, false);
+    }
+
+    /**
+     * Creates a new Configuration instance. Instead of using this constructor consider using the ConfigurationBuilder
+     * class.
+     *
+     * @param anOutputDirectory  the output directory where the restatic sources are generated.
+     * @param aSourceDirectories set with source directories.
+     * @param aFileFilter        the file filter.
+     * @param aPackageAliases    the set with package aliases.
+     * @param anIsResourceBundleValidationEnabled
+     *                           boolean flag to indicate if resource bundles should be validated.
+     * @param aRootClassName     the name of the restatic root class.
+     * @param anIsParallelFileCollectionEnabled
+     *                           boolean flag to indicate if the source directories should be scanned in parallel.
+     * @param aParseCacheDirectory the directory of the parse cache, null to disable the parse cache.
+     * @param anIsParseCacheContentHashEnabled
+     *                           boolean flag to indicate if the parse cache should detect changes by content hash.
+     * @param aSourceLayout      the layout of the generated source files.
+     * @param aParserThreadCount the number of threads used to parse the resource bundles.
+     * @param aResourceBundleEncoding the encoding of .properties resource bundles, ISO-8859-1 or UTF-8.
+     * @param aGeneratorBackend  the backend which generates the source files.
+     * @param aClassOutputDirectory the directory where the BYTECODE backend writes the class files, null for the other
+     *                           backends.
+     * @param aSourcesJar        the sources jar which the BYTECODE backend writes, null to write no sources jar.
+     * @param aClassConstantPoolBudget the number of constant pool entries a generated class may use.
+     * @param anIsMessageTablesEnabled
+     *                           boolean flag to indicate if a message table is generated for every locale.
+     * @param anIsKeyTablesEnabled
+     *                           boolean flag to indicate if a key table is generated for every resource bundle.
+     * @param anIsKeyEnumsEnabled
+     *                           boolean flag to indicate if a key enum is generated for every resource bundle.
+     * @param anIsFormatAccessorsEnabled
+     *                           boolean flag to indicate if the key tables get format accessors.
+     */
+    public Configuration(final File anOutputDirectory, final Set<File> aSourceDirectories, final FileFilter aFileFilter,
+                         final Set<PackageAlias> aPackageAliases, final boolean anIsResourceBundleValidationEnabled,
+                         final String aRootClassName, final boolean anIsParallelFileCollectionEnabled,
+                         final File aParseCacheDirectory, final boolean anIsParseCacheContentHashEnabled,
+                         final SourceLayout aSourceLayout, final int aParserThreadCount,
+                         final Charset aResourceBundleEncoding, final GeneratorBackend aGeneratorBackend,
+                         final File aClassOutputDirectory, final File aSourcesJar, final int aClassConstantPoolBudget,
+                         final boolean anIsMessageTablesEnabled, final boolean anIsKeyTablesEnabled,
+                         final boolean anIsKeyEnumsEnabled, final boolean anIsFormatAccessorsEnabled) {
 
         // Validate parameters.
         Validate.notNull(anOutputDirectory, "Parameter anOutputDirectory is not allowed to be null");
@@ -98,6 +208,20 @@ public final class Configuration {
         Validate.notNull(aFileFilter, "Parameter aFileFilter is not allowed to be null");
         Validate.notNull(aPackageAliases, "Parameter aPackageAliases is not allowed to be null");
         Validate.notEmpty(aRootClassName, "Parameter aRootClassName is not allowed to be empty");
+        Validate.notNull(aSourceLayout, "Parameter aSourceLayout is not allowed to be null");
+        Validate.isTrue(aParserThreadCount > 0, "Parameter aParserThreadCount must be at least 1");
+        Validate.notNull(aResourceBundleEncoding, "Parameter aResourceBundleEncoding is not allowed to be null");
+        Validate.isTrue(PropertiesKeyScanner.isSupported(aResourceBundleEncoding), "Parameter aResourceBundleEncoding must be ISO-8859-1 or UTF-8");
+        Validate.notNull(aGeneratorBackend, "Parameter aGeneratorBackend is not allowed to be null");
+        Validate.isTrue(aGeneratorBackend != GeneratorBackend.BYTECODE || aClassOutputDirectory != null,
+                "Parameter aClassOutputDirectory is required for the BYTECODE generator backend");
+        Validate.isTrue(aClassConstantPoolBudget >= MIN_CLASS_CONSTANT_POOL_BUDGET
+                && aClassConstantPoolBudget <= MAX_CLASS_CONSTANT_POOL_BUDGET,
+                "Parameter aClassConstantPoolBudget must be between " + MIN_CLASS_CONSTANT_POOL_BUDGET + " and "
+                        + MAX_CLASS_CONSTANT_POOL_BUDGET);
+        Validate.isTrue(!anIsKeyTablesEnabled || aGeneratorBackend != GeneratorBackend.BYTECODE,
+                "Key tables are not supported by the BYTECODE generator backend");
+        Validate.isTrue(!anIsFormatAccessorsEnabled || anIsKeyTablesEnabled, "Format accessors require key tables");
 
         outputDirectory = anOutputDirectory;
         sourceDirectories = aSourceDirectories;
@@ -105,6 +229,20 @@ public final class Configuration {
         packageAliases = aPackageAliases;
         resourceBundleValidationEnabled = anIsResourceBundleValidationEnabled;
         fullyQualifiedGeneratedRootClassName = aRootClassName;
+        parallelFileCollectionEnabled = anIsParallelFileCollectionEnabled;
+        parseCacheDirectory = aParseCacheDirectory;
+        parseCacheContentHashEnabled = anIsParseCacheContentHashEnabled;
+        sourceLayout = aSourceLayout;
+        parserThreadCount = aParserThreadCount;
+        resourceBundleEncoding = aResourceBundleEncoding;
+        generatorBackend = aGeneratorBackend;
+        classOutputDirectory = aClassOutputDirectory;
+        sourcesJar = aSourcesJar;
+        classConstantPoolBudget = aClassConstantPoolBudget;
+        messageTablesEnabled = anIsMessageTablesEnabled;
+        keyTablesEnabled = anIsKeyTablesEnabled;
+        keyEnumsEnabled = anIsKeyEnumsEnabled;
+        formatAccessorsEnabled = anIsFormatAccessorsEnabled;
     }
 
     public FileFilter getFileFilter() {
@@ -122,6 +260,105 @@ public final class Configuration {
         return resourceBundleValidationEnabled;
     }
 
+    /**
+     * @return true if the source directories should be scanned in parallel, false otherwise.
+     */
+    public boolean isParallelFileCollectionEnabled() {
+        return parallelFileCollectionEnabled;
+    }
+
+    /**
+     * @return the directory of the parse cache or null if the parse cache is disabled.
+     */
+    public File getParseCacheDirectory() {
+        return parseCacheDirectory;
+    }
+
+    /**
+     * @return true if the parse cache should detect changes by content hash, false otherwise.
+     */
+    public boolean isParseCacheContentHashEnabled() {
+        return parseCacheContentHashEnabled;
+    }
+
+    /**
+     * @return the layout of the generated source files.
+     */
+    public SourceLayout getSourceLayout() {
+        return sourceLayout;
+    }
+
+    /**
+     * @return the number of threads used to parse the resource bundles.
+     */
+    public int getParserThreadCount() {
+        return parserThreadCount;
+    }
+
+    /**
+     * @return the encoding of .properties resource bundles.
+     */
+    public Charset getResourceBundleEncoding() {
+        return resourceBundleEncoding;
+    }
+
+    /**
+     * @return the backend which generates the source files.
+     */
+    public GeneratorBackend getGeneratorBackend() {
+        return generatorBackend;
+    }
+
+    /**
+     * @return the directory where the BYTECODE generator backend writes the class files, may be null for the other
+     *         generator backends.
+     */
+    public File getClassOutputDirectory() {
+        return classOutputDirectory;
+    }
+
+    /**
+     * @return the sources jar which the BYTECODE generator backend writes, or null if no sources jar is written.
+     */
+    public File getSourcesJar() {
+        return sourcesJar;
+    }
+
+    /**
+     * @return the number of constant pool entries a generated class may use.
+     */
+    public int getClassConstantPoolBudget() {
+        return classConstantPoolBudget;
+    }
+
+    /**
+     * @return true if a message table is generated for every locale of every resource bundle, false otherwise.
+     */
+    public boolean isMessageTablesEnabled() {
+        return messageTablesEnabled;
+    }
+
+    /**
+     * @return true if a key table is generated for every resource bundle, false otherwise.
+     */
+    public boolean isKeyTablesEnabled() {
+        return keyTablesEnabled;
+    }
+
+    /**
+     * @return true if a key enum is generated for every resource bundle, false otherwise.
+     */
+    public boolean isKeyEnumsEnabled() {
+        return keyEnumsEnabled;
+    }
+
+    /**
+     * @return true if the key tables get format accessors, false otherwise.
+     */
+    public boolean isFormatAccessorsEnabled() {
+        return formatAccessorsEnabled;
+    }
+
     public String getFullyQualifiedGeneratedRootClassName() {
         return fullyQualifiedGeneratedRootClassName;
     }
@@ -144,6 +381,20 @@ public final class Configuration {
                 .append("resourceBundleValidationEnabled", resourceBundleValidationEnabled)
                 .append("rootClassName", fullyQualifiedGeneratedRootClassName)
                 .append("sourceDirectories", sourceDirectories)
+                .append("parallelFileCollectionEnabled", parallelFileCollectionEnabled)
+                .append("parseCacheDirectory", parseCacheDirectory)
+                .append("parseCacheContentHashEnabled", parseCacheContentHashEnabled)
+                .append("sourceLayout", sourceLayout)
+                .append("parserThreadCount", parserThreadCount)
+                .append("resourceBundleEncoding", resourceBundleEncoding)
+                .append("generatorBackend", generatorBackend)
+                .append("classOutputDirectory", classOutputDirectory)
+                .append("sourcesJar", sourcesJar)
+                .append("classConstantPoolBudget", classConstantPoolBudget)
+                .append("messageTablesEnabled", messageTablesEnabled)
+                .append("keyTablesEnabled", keyTablesEnabled)
+                .append("keyEnumsEnabled", keyEnumsEnabled)
+                .append("formatAccessorsEnabled", formatAccessorsEnabled)
                 .toString();
     }
 
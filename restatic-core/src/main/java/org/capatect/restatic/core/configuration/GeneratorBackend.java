@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core.configuration;
+
+/**
+ * Determines how the ResourceClassGenerator writes the generated source files.
+ *
+ * @author Jamie Craane
+ */
+public enum GeneratorBackend {
+    /**
+     * The source files are rendered with the StringTemplate templates in resourceclass.stg.
+     */
+    TEMPLATE,
+
+    /**
+     * The source files are written by a hand-written Java source emitter, without StringTemplate. The source files are
+     * byte for byte the same as those of TEMPLATE.
+     */
+    EMITTER,
+
+    /**
+     * Class files are written directly to the classOutputDirectory, so the generated classes do not have to be
+     * compiled. The root class and one nested class per resource bundle are written, the same classes as javac compiles
+     * from the source file of SINGLE_FILE in any SourceLayout. The source of the root class can be written to a sources
+     * jar for IDEs, no source files are written to the outputDirectory.
+     */
+    BYTECODE
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core.configuration;
+
+/**
+ * Determines how the generated sources are laid out in source files.
+ *
+ * @author Jamie Craane
+ */
+public enum SourceLayout {
+    /**
+     * The root class contains a nested class with the keys for every resource bundle.
+     */
+    SINGLE_FILE,
+
+    /**
+     * Every resource bundle is generated in its own source file as a top level interface with the keys, named after the
+     * root class and the resource bundle, for example R_ORG_CAPATECT_RESOURCES. The root class is a thin index with a
+     * nested interface per resource bundle which extends the top level interface, so the keys are referenced the same
+     * way as with SINGLE_FILE, for example R.ORG_CAPATECT_RESOURCES.KEY. Only the source files of changed resource
+     * bundles change, so they can be compiled independently.
+     */
+    FILE_PER_BUNDLE
+}
@@ -18,10 +18,14 @@ package org.capatect.restatic.core.configuration.builder;
 import org.apache.commons.lang.Validate;
 import org.capatect.restatic.core.configuration.Configuration;
 import org.capatect.restatic.core.configuration.PackageAlias;
+import org.capatect.restatic.core.configuration.GeneratorBackend;
+import org.capatect.restatic.core.configuration.SourceLayout;
 import org.capatect.restatic.core.discoverer.file.AntStylePatternFileNameFilter;
 import org.capatect.restatic.core.discoverer.file.FileFilter;
+import org.capatect.restatic.core.model.PropertiesKeyScanner;
 
 import java.io.File;
+import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -55,6 +59,34 @@ public class ConfigurationBuilder {
 
     private final Set<File> sourceDirectories;
 
+    private boolean parallelFileCollectionEnabled;
+
+    private File parseCacheDirectory;
+
+    private boolean parseCacheContentHashEnabled;
+
+    private SourceLayout sourceLayout;
+
+    private int parserThreadCount;
+
+    private Charset resourceBundleEncoding;
+
+    private GeneratorBackend generatorBackend;
+
+    private File classOutputDirectory;
+
+    private File sourcesJar;
+
+    private int classConstantPoolBudget;
+
+    private boolean messageTablesEnabled;
+
+    private boolean keyTablesEnabled;
+
+    private boolean keyEnumsEnabled;
+
+    private boolean formatAccessorsEnabled;
+
     /**
      * Creates a new ConfigurationBuilder instance.
      */
@@ -65,6 +97,18 @@ public class ConfigurationBuilder {
         resourceBundleValidationEnabled = false;
         fullyQualifiedGeneratedRootClassName = DEFAULT_ROOT_CLASS_NAME;
         sourceDirectories = new HashSet<File>();
+        parallelFileCollectionEnabled = false;
+        parseCacheDirectory = null;
+        parseCacheContentHashEnabled = false;
+        sourceLayout = SourceLayout.SINGLE_FILE;
+        parserThreadCount = 1;
+        resourceBundleEncoding = Configuration.DEFAULT_RESOURCE_BUNDLE_ENCODING;
+        generatorBackend = GeneratorBackend.TEMPLATE;
+        classConstantPoolBudget = Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET;
+        messageTablesEnabled = false;
+        keyTablesEnabled = false;
+        keyEnumsEnabled = false;
+        formatAccessorsEnabled = false;
     }
 
     public ConfigurationBuilder addSourceDirectory(final File aSourceDirectory) {
@@ -104,7 +148,11 @@ public class ConfigurationBuilder {
      */
     public Configuration getConfiguration() {
         return new Configuration(outputDirectory, sourceDirectories, fileFilter,
-                createPackageAliases(packageAliasBuilders), resourceBundleValidationEnabled, fullyQualifiedGeneratedRootClassName);
+                createPackageAliases(packageAliasBuilders), resourceBundleValidationEnabled, fullyQualifiedGeneratedRootClassName,
+                parallelFileCollectionEnabled, parseCacheDirectory, parseCacheContentHashEnabled,
+                sourceLayout, parserThreadCount, resourceBundleEncoding,
+                generatorBackend, classOutputDirectory, sourcesJar, classConstantPoolBudget,
+                messageTablesEnabled, keyTablesEnabled, keyEnumsEnabled, formatAccessorsEnabled);
     }
 
     public ConfigurationBuilder toOutputDirectory(final File anOutputDirectory) {
@@ -121,6 +169,110 @@ public class ConfigurationBuilder {
         return this;
     }
 
+    public ConfigurationBuilder withParallelFileCollectionEnabled(final boolean isParallelFileCollectionEnabled) {
+        parallelFileCollectionEnabled = isParallelFileCollectionEnabled;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withParseCacheDirectory(final File aParseCacheDirectory) {
+        Validate.notNull(aParseCacheDirectory, "Parameter aParseCacheDirectory is not allowed to be null");
+
+        parseCacheDirectory = aParseCacheDirectory;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withParseCacheContentHashEnabled(final boolean isParseCacheContentHashEnabled) {
+        parseCacheContentHashEnabled = isParseCacheContentHashEnabled;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withSourceLayout(final SourceLayout aSourceLayout) {
+        Validate.notNull(aSourceLayout, "Parameter aSourceLayout is not allowed to be null");
+
+        sourceLayout = aSourceLayout;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withParserThreadCount(final int aParserThreadCount) {
+        Validate.isTrue(aParserThreadCount > 0, "Parameter aParserThreadCount must be at least 1");
+
+        parserThreadCount = aParserThreadCount;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withResourceBundleEncoding(final Charset aResourceBundleEncoding) {
+        Validate.notNull(aResourceBundleEncoding, "Parameter aResourceBundleEncoding is not allowed to be null");
+        Validate.isTrue(PropertiesKeyScanner.isSupported(aResourceBundleEncoding), "Parameter aResourceBundleEncoding must be ISO-8859-1 or UTF-8");
+
+        resourceBundleEncoding = aResourceBundleEncoding;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withGeneratorBackend(final GeneratorBackend aGeneratorBackend) {
+        Validate.notNull(aGeneratorBackend, "Parameter aGeneratorBackend is not allowed to be null");
+
+        generatorBackend = aGeneratorBackend;
+
+        return this;
+    }
+
+    public ConfigurationBuilder toClassOutputDirectory(final File aClassOutputDirectory) {
+        Validate.notNull(aClassOutputDirectory, "Parameter aClassOutputDirectory is not allowed to be null");
+
+        classOutputDirectory = aClassOutputDirectory;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withSourcesJar(final File aSourcesJar) {
+        Validate.notNull(aSourcesJar, "Parameter aSourcesJar is not allowed to be null");
+
+        sourcesJar = aSourcesJar;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withClassConstantPoolBudget(final int aClassConstantPoolBudget) {
+        Validate.isTrue(aClassConstantPoolBudget >= Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET
+                && aClassConstantPoolBudget <= Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET,
+                "Parameter aClassConstantPoolBudget must be between " + Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET
+                        + " and " + Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET);
+
+        classConstantPoolBudget = aClassConstantPoolBudget;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withMessageTablesEnabled(final boolean isMessageTablesEnabled) {
+        messageTablesEnabled = isMessageTablesEnabled;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withKeyTablesEnabled(final boolean isKeyTablesEnabled) {
+        keyTablesEnabled = isKeyTablesEnabled;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withKeyEnumsEnabled(final boolean isKeyEnumsEnabled) {
+        keyEnumsEnabled = isKeyEnumsEnabled;
+
+        return this;
+    }
+
+    public ConfigurationBuilder withFormatAccessorsEnabled(final boolean isFormatAccessorsEnabled) {
+        formatAccessorsEnabled = isFormatAccessorsEnabled;
+
+        return this;
+    }
+
     public ConfigurationBuilder withFullyQualitiedRootClassName(final String aRootClassName) {
         Validate.notEmpty(aRootClassName, "Parameter aRootClassName is not allowed to be empty");
 
@@ -0,0 +1,416 @@
+package org.capatect.restatic.core.discoverer.file;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.springframework.core.util.AntPathMatcher;
+import org.springframework.core.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A set of Ant-style patterns compiled into one automaton over path segments.
+ * <p/>
+ * All patterns are tokenized once when the automaton is created. Literal segments are stored in a hash trie, segments
+ * containing '*' or '?' become glob edges and '**' becomes a node which may be entered without consuming a segment and
+ * which loops on every segment. A path is matched in a single pass over its characters without creating substrings.
+ * <p/>
+ * The automaton gives the same answers as AntPathMatcher.match and AntPathMatcher.matchStart. Patterns and paths
+ * ending with a separator, which AntPathMatcher treats specially, are delegated to AntPathMatcher itself.
+ * <p/>
+ * This class is immutable and threadsafe.
+ *
+ * @author Jamie Craane
+ */
+final class AntPatternAutomaton {
+    private static final String PATH_SEPARATOR = AntPathMatcher.DEFAULT_PATH_SEPARATOR;
+    private static final char PATH_SEPARATOR_CHAR = '/';
+    private static final String DOUBLE_WILDCARD = "**";
+
+    private final Node relativeRoot = new Node();
+    private final Node absoluteRoot = new Node();
+
+    /**
+     * All patterns, used when a path ending with a separator must be matched by AntPathMatcher.
+     */
+    private final List<String> patterns;
+
+    /**
+     * Patterns ending with a separator, these are not compiled but matched by AntPathMatcher.
+     */
+    private final List<String> trailingSeparatorPatterns = new ArrayList<String>();
+
+    private AntPatternAutomaton(final List<String> patterns) {
+        this.patterns = new ArrayList<String>(patterns);
+        for (final String pattern : patterns) {
+            if (pattern.endsWith(PATH_SEPARATOR)) {
+                trailingSeparatorPatterns.add(pattern);
+            } else {
+                add(pattern);
+            }
+        }
+
+        relativeRoot.freeze();
+        absoluteRoot.freeze();
+    }
+
+    /**
+     * Compiles the given patterns into an automaton.
+     *
+     * @param patterns The Ant-style patterns to compile.
+     * @return The compiled automaton.
+     */
+    static AntPatternAutomaton compile(final List<String> patterns) {
+        return new AntPatternAutomaton(patterns);
+    }
+
+    private void add(final String pattern) {
+        Node node = pattern.startsWith(PATH_SEPARATOR) ? absoluteRoot : relativeRoot;
+        for (final String segment : StringUtils.tokenizeToStringArray(pattern, PATH_SEPARATOR)) {
+            if (DOUBLE_WILDCARD.equals(segment)) {
+                if (!node.loop) {
+                    node = node.doubleWildcard();
+                }
+            } else if (isWildcardSegment(segment)) {
+                node = node.wildcard(segment);
+            } else {
+                node = node.literal(segment);
+            }
+        }
+
+        node.accepting = true;
+    }
+
+    private static boolean isWildcardSegment(final String segment) {
+        return segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1;
+    }
+
+    /**
+     * @param path The path to match.
+     * @return true if at least one pattern matches the given path.
+     */
+    boolean matches(final String path) {
+        if (path.endsWith(PATH_SEPARATOR)) {
+            return matchWithAntPathMatcher(patterns, path, false);
+        }
+
+        return matches(rootFor(path), path, 0, false) || matchWithAntPathMatcher(trailingSeparatorPatterns, path, false);
+    }
+
+    /**
+     * @param path The path to match.
+     * @return true if at least one pattern matches the start of the given path, see AntPathMatcher.matchStart.
+     */
+    boolean matchesStart(final String path) {
+        if (path.endsWith(PATH_SEPARATOR)) {
+            return matchWithAntPathMatcher(patterns, path, true);
+        }
+
+        final Node root = rootFor(path);
+        return (!root.isEmpty() && matches(root, path, 0, true))
+                || matchWithAntPathMatcher(trailingSeparatorPatterns, path, true);
+    }
+
+    private Node rootFor(final String path) {
+        return path.startsWith(PATH_SEPARATOR) ? absoluteRoot : relativeRoot;
+    }
+
+    /**
+     * Matches the remainder of the path, starting at offset, against the given node.
+     *
+     * @param prefix true if only the start of the path needs to match the patterns.
+     */
+    private boolean matches(final Node node, final String path, final int offset, final boolean prefix) {
+        if (prefix && (node.loop || node.doubleWildcard != null)) {
+            return true;
+        }
+
+        int segmentStart = offset;
+        int segmentEnd;
+        int next;
+        while (true) {
+            if (segmentStart >= path.length()) {
+                return prefix || node.accepting || (node.doubleWildcard != null && node.doubleWildcard.accepting);
+            }
+
+            next = path.indexOf(PATH_SEPARATOR_CHAR, segmentStart);
+            if (next == -1) {
+                next = path.length();
+            }
+
+            segmentEnd = next;
+            while (segmentStart < segmentEnd && path.charAt(segmentStart) <= ' ') {
+                segmentStart++;
+            }
+            while (segmentEnd > segmentStart && path.charAt(segmentEnd - 1) <= ' ') {
+                segmentEnd--;
+            }
+
+            if (segmentStart < segmentEnd) {
+                break;
+            }
+            segmentStart = next + 1;
+        }
+
+        final int remainder = next + 1;
+
+        if (node.literalKeys != null) {
+            final Node child = node.literalChild(path, segmentStart, segmentEnd);
+            if (child != null && matches(child, path, remainder, prefix)) {
+                return true;
+            }
+        }
+
+        for (int i = 0; i < node.wildcardSegments.length; i++) {
+            if (node.wildcardSegments[i].matches(path, segmentStart, segmentEnd)
+                    && matches(node.wildcardChildren[i], path, remainder, prefix)) {
+                return true;
+            }
+        }
+
+        if (node.loop && matches(node, path, remainder, prefix)) {
+            return true;
+        }
+
+        return node.doubleWildcard != null && matches(node.doubleWildcard, path, offset, prefix);
+    }
+
+    private static boolean matchWithAntPathMatcher(final List<String> patterns, final String path, final boolean prefix) {
+        if (patterns.isEmpty()) {
+            return false;
+        }
+
+        final AntPathMatcher antPathMatcher = new AntPathMatcher();
+        for (final String pattern : patterns) {
+            if (prefix ? antPathMatcher.matchStart(pattern, path) : antPathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * State of the automaton. A node is mutable while the patterns are added and frozen afterwards.
+     */
+    private static final class Node {
+        private static final WildcardSegment[] NO_WILDCARD_SEGMENTS = new WildcardSegment[0];
+        private static final Node[] NO_NODES = new Node[0];
+
+        private Map<String, Node> literals = new HashMap<String, Node>();
+        private Map<String, Node> wildcards = new HashMap<String, Node>();
+
+        /**
+         * Open addressing hash table of the literal children, looked up by a region of the path.
+         */
+        private String[] literalKeys;
+        private Node[] literalChildren;
+        private int literalMask;
+
+        private WildcardSegment[] wildcardSegments = NO_WILDCARD_SEGMENTS;
+        private Node[] wildcardChildren = NO_NODES;
+
+        /**
+         * The node reached through a '**' segment, entered without consuming a segment.
+         */
+        private Node doubleWildcard;
+
+        /**
+         * True if this node is reached through '**' and consumes any number of segments.
+         */
+        private boolean loop;
+
+        private boolean accepting;
+
+        Node literal(final String segment) {
+            Node child = literals.get(segment);
+            if (child == null) {
+                child = new Node();
+                literals.put(segment, child);
+            }
+            return child;
+        }
+
+        Node wildcard(final String segment) {
+            Node child = wildcards.get(segment);
+            if (child == null) {
+                child = new Node();
+                wildcards.put(segment, child);
+            }
+            return child;
+        }
+
+        Node doubleWildcard() {
+            if (doubleWildcard == null) {
+                doubleWildcard = new Node();
+                doubleWildcard.loop = true;
+            }
+            return doubleWildcard;
+        }
+
+        boolean isEmpty() {
+            return !accepting && literalKeys == null && wildcardSegments.length == 0 && doubleWildcard == null;
+        }
+
+        void freeze() {
+            if (!literals.isEmpty()) {
+                int capacity = 2;
+                while (capacity < literals.size() * 2) {
+                    capacity <<= 1;
+                }
+
+                literalKeys = new String[capacity];
+                literalChildren = new Node[capacity];
+                literalMask = capacity - 1;
+                for (final Map.Entry<String, Node> literal : literals.entrySet()) {
+                    int index = literal.getKey().hashCode() & literalMask;
+                    while (literalKeys[index] != null) {
+                        index = (index + 1) & literalMask;
+                    }
+                    literalKeys[index] = literal.getKey();
+                    literalChildren[index] = literal.getValue();
+                }
+            }
+
+            if (!wildcards.isEmpty()) {
+                wildcardSegments = new WildcardSegment[wildcards.size()];
+                wildcardChildren = new Node[wildcards.size()];
+                int i = 0;
+                for (final Map.Entry<String, Node> wildcard : wildcards.entrySet()) {
+                    wildcardSegments[i] = WildcardSegment.compile(wildcard.getKey());
+                    wildcardChildren[i] = wildcard.getValue();
+                    i++;
+                }
+            }
+
+            for (final Node child : literals.values()) {
+                child.freeze();
+            }
+            for (final Node child : wildcards.values()) {
+                child.freeze();
+            }
+            if (doubleWildcard != null) {
+                doubleWildcard.freeze();
+            }
+
+            literals = null;
+            wildcards = null;
+        }
+
+        /**
+         * Looks up the literal child for the segment between start and end, computing the hash like String.hashCode.
+         */
+        Node literalChild(final String path, final int start, final int end) {
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+
+            final int length = end - start;
+            int index = hash & literalMask;
+            String key;
+            while ((key = literalKeys[index]) != null) {
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return literalChildren[index];
+                }
+                index = (index + 1) & literalMask;
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * A single path segment containing wildcards, for example *.properties or resources_??.xml.
+     */
+    private abstract static class WildcardSegment {
+        static WildcardSegment compile(final String segment) {
+            if (segment.indexOf('{') != -1) {
+                return new UriTemplateSegment(segment);
+            }
+            return new GlobSegment(segment);
+        }
+
+        abstract boolean matches(String path, int start, int end);
+    }
+
+    /**
+     * Matches '*' (zero or more characters) and '?' (exactly one character) by backtracking over the last '*'.
+     */
+    private static final class GlobSegment extends WildcardSegment {
+        private final String glob;
+
+        private GlobSegment(final String glob) {
+            this.glob = glob;
+        }
+
+        @Override
+        boolean matches(final String path, final int start, final int end) {
+            int globIndex = 0;
+            int pathIndex = start;
+            int starGlobIndex = -1;
+            int starPathIndex = -1;
+
+            while (pathIndex < end) {
+                final char c = path.charAt(pathIndex);
+                if (globIndex < glob.length() && glob.charAt(globIndex) == '*') {
+                    starGlobIndex = globIndex++;
+                    starPathIndex = pathIndex;
+                } else if (globIndex < glob.length() && (glob.charAt(globIndex) == '?' ? !isLineTerminator(c) : glob.charAt(globIndex) == c)) {
+                    globIndex++;
+                    pathIndex++;
+                } else if (starGlobIndex != -1 && !isLineTerminator(path.charAt(starPathIndex))) {
+                    globIndex = starGlobIndex + 1;
+                    pathIndex = ++starPathIndex;
+                } else {
+                    return false;
+                }
+            }
+
+            while (globIndex < glob.length() && glob.charAt(globIndex) == '*') {
+                globIndex++;
+            }
+
+            return globIndex == glob.length();
+        }
+
+        /**
+         * AntPathMatcher translates wildcards to the regular expression '.', which does not match line terminators.
+         */
+        private static boolean isLineTerminator(final char c) {
+            return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+    }
+
+    /**
+     * Segment with URI template variables such as {name}, matched by AntPathMatcher. These are not expected in file
+     * patterns and therefore not optimized.
+     */
+    private static final class UriTemplateSegment extends WildcardSegment {
+        private final String segment;
+
+        private UriTemplateSegment(final String segment) {
+            this.segment = segment;
+        }
+
+        @Override
+        boolean matches(final String path, final int start, final int end) {
+            return new AntPathMatcher().match(segment, path.substring(start, end));
+        }
+    }
+}
@@ -18,7 +18,6 @@ package org.capatect.restatic.core.discoverer.file;
 import org.apache.commons.lang.Validate;
 import org.apache.commons.lang.builder.ToStringBuilder;
 import org.apache.commons.lang.builder.ToStringStyle;
-import org.springframework.core.util.AntPathMatcher;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -29,16 +28,26 @@ import java.util.List;
  * Filter which matches filenames and directories by using Ant style patterns.
  * This Filter supports one or more filters.
  * <p/>
- * This code uses Spring's AntPathMatcher class which is copied into this project to prevent a jar dependency on
+ * Directories are matched with the start of the patterns: a directory is only visited if at least one pattern may
+ * match a file below it.
+ * <p/>
+ * The patterns are compiled once into an AntPatternAutomaton which matches a path in a single pass. The results are
+ * the same as those of Spring's AntPathMatcher class, which is copied into this project to prevent a jar dependency on
  * the Spring project.
  *
  * @author Jamie Craane
  */
-public class AntStylePatternFileNameFilter implements FileFilter {
+public class AntStylePatternFileNameFilter implements FileFilter, DirectoryFilter {
     private final List<String> patterns = new ArrayList<String>();
 
+    /**
+     * The patterns compiled once into a single automaton which is used for all matching.
+     */
+    private final AntPatternAutomaton automaton;
+
     private AntStylePatternFileNameFilter(final String... patterns) {
         this.patterns.addAll(Arrays.asList(patterns));
+        this.automaton = AntPatternAutomaton.compile(this.patterns);
     }
 
     /**
@@ -69,14 +78,17 @@ public class AntStylePatternFileNameFilter implements FileFilter {
      * @return true if the given filename at least matches one pattern.
      */
     public boolean matches(final String fileName) {
-        final AntPathMatcher antPathMatcher = new AntPathMatcher();
-        for (final String pattern : patterns) {
-            if (antPathMatcher.match(pattern, fileName)) {
-                return true;
-            }
-        }
+        return automaton.matches(fileName);
+    }
 
-        return false;
+    /**
+     * Tests if at least one of the patterns may match a file below the given directory.
+     *
+     * @param directoryName The directory, relative to the root path, to test for.
+     * @return false if none of the patterns can match a file below the given directory.
+     */
+    public boolean mayContainMatches(final String directoryName) {
+        return automaton.matchesStart(directoryName);
     }
 
     @Override
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core.discoverer.file;
+
+import org.apache.commons.lang.Validate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FileFilter which counts the files it is asked to match, so the number of files visited by a FileCollector can be
+ * compared to the number of files it collected. Matching and directory pruning are delegated to the wrapped filter.
+ * <p/>
+ * This class is threadsafe if the wrapped filter is, it can be used by the ParallelFileCollectorImpl.
+ *
+ * @author Jamie Craane
+ */
+public final class CountingFileFilter implements FileFilter, DirectoryFilter {
+    private final FileFilter delegate;
+    private final AtomicLong visitedFileCount = new AtomicLong();
+
+    private CountingFileFilter(final FileFilter delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Creates a CountingFileFilter which wraps the given filter.
+     *
+     * @param delegate The filter to match the files and directories with.
+     * @return A new CountingFileFilter.
+     */
+    public static CountingFileFilter wrap(final FileFilter delegate) {
+        Validate.notNull(delegate, "The delegate may not be null.");
+
+        return new CountingFileFilter(delegate);
+    }
+
+    public boolean matches(final String name) {
+        visitedFileCount.incrementAndGet();
+        return delegate.matches(name);
+    }
+
+    /**
+     * Delegates to the wrapped filter if it is a DirectoryFilter. Otherwise all directories may contain matches.
+     */
+    public boolean mayContainMatches(final String directoryName) {
+        return !(delegate instanceof DirectoryFilter) || ((DirectoryFilter) delegate).mayContainMatches(directoryName);
+    }
+
+    /**
+     * @return The number of files this filter was asked to match since it was created.
+     */
+    public long getVisitedFileCount() {
+        return visitedFileCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+}
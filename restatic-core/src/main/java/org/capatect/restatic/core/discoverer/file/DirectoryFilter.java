@@ -0,0 +1,33 @@
+package org.capatect.restatic.core.discoverer.file;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Optional companion of the FileFilter interface. A FileFilter which also implements this interface tells the
+ * FileCollector which directories can be skipped entirely because none of the files below them can ever match.
+ *
+ * @author Jamie Craane
+ */
+public interface DirectoryFilter {
+
+    /**
+     * Tests if files in the given directory, or in any of its subdirectories, may pass the filter.
+     *
+     * @param directoryName the path of the directory relative to the root path, for example org/capatect.
+     * @return false if no file below the directory can pass the filter and the directory can be skipped, true otherwise.
+     */
+    boolean mayContainMatches(String directoryName);
+}
@@ -25,6 +25,9 @@ import java.util.List;
 /**
  * Resursively scans a given directory (rootPath) for files which matches the given filter.
  * <p/>
+ * If the filter also implements DirectoryFilter, directories for which the filter reports that they cannot contain
+ * any matches are not visited.
+ * <p/>
  * An instance of this class can be created by using the static factory method createWithPathAndFilter.
  * <p/>
  * This class is NOT threadsafe.
@@ -37,8 +40,6 @@ public final class FileCollectorImpl implements FileCollector {
      */
     private final FileFilter filter;
 
-    private final List<File> matchedFiles = new ArrayList<File>();
-
     /**
      * Creates a new instance of the FileCollectorImpl with the given rootPath and filter.
      *
@@ -65,8 +66,10 @@ public final class FileCollectorImpl implements FileCollector {
      * @return An unmodifiable List of files which matches the FileFilter for all directories under rootPath.
      */
     public List<File> collect(final File rootPath) {
+        // Every call collects into its own list, so the files of previously collected directories are not returned again.
+        final List<File> matchedFiles = new ArrayList<File>();
         for (final File file : rootPath.listFiles()) {
-            recursiveFileSearch(rootPath, file);
+            recursiveFileSearch(rootPath, file, matchedFiles);
         }
 
         return Collections.unmodifiableList(matchedFiles);
@@ -80,11 +83,14 @@ public final class FileCollectorImpl implements FileCollector {
      *
      * @param rootPath path to the classFile (usually top level package as com in com.google.common)
      * @param file     File where to start the recursiveFileSearch
+     * @param matchedFiles The list to add the files which match the filter to.
      */
-    private void recursiveFileSearch(final File rootPath, final File file) {
+    private void recursiveFileSearch(final File rootPath, final File file, final List<File> matchedFiles) {
         if (file.isDirectory()) {
-            for (final File f : file.listFiles()) {
-                recursiveFileSearch(rootPath, f);
+            if (mayContainMatches(rootPath, file)) {
+                for (final File f : file.listFiles()) {
+                    recursiveFileSearch(rootPath, f, matchedFiles);
+                }
             }
         } else {
             String path = stripRootPathFromFilePath(rootPath, file);
@@ -94,6 +100,11 @@ public final class FileCollectorImpl implements FileCollector {
         }
     }
 
+    private boolean mayContainMatches(final File rootPath, final File directory) {
+        return !(filter instanceof DirectoryFilter)
+                || ((DirectoryFilter) filter).mayContainMatches(stripRootPathFromFilePath(rootPath, directory));
+    }
+
     private String stripRootPathFromFilePath(final File rootPath, final File file) {
         String filePath = file.getPath();
         return filePath.substring(rootPath.getPath().length() + 1, filePath.length());
@@ -0,0 +1,180 @@
+package org.capatect.restatic.core.discoverer.file;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.apache.commons.lang.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Scans a given directory (rootPath) for files which match the given filter by walking the directory tree in parallel.
+ * <p/>
+ * Every directory is listed with a DirectoryStream and the attributes of each entry are read exactly once. Each
+ * subdirectory is handed to a ForkJoinPool as a separate task so large trees are collected on all available cores.
+ * The relative paths passed to the FileFilter are the same as the ones passed by FileCollectorImpl, so this class
+ * can be used as a drop-in replacement. Like FileCollectorImpl, directories which a DirectoryFilter rejects are skipped.
+ * <p/>
+ * An instance of this class can be created by using the static factory method createWithFilter.
+ * <p/>
+ * This class is threadsafe.
+ *
+ * @author Jamie Craane
+ */
+public final class ParallelFileCollectorImpl implements FileCollector {
+    /**
+     * File filter for callbacks.
+     */
+    private final FileFilter filter;
+
+    /**
+     * The number of threads used to walk the directory tree.
+     */
+    private final int parallelism;
+
+    /**
+     * Creates a new instance of the ParallelFileCollectorImpl which uses as many threads as there are available processors.
+     *
+     * @param filter An implementation of the FileFilter interface which filters the files from the given rootPath.
+     * @return A new ParallelFileCollectorImpl.
+     */
+    public static FileCollector createWithFilter(final FileFilter filter) {
+        return new ParallelFileCollectorImpl(filter, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new instance of the ParallelFileCollectorImpl which uses the given number of threads.
+     *
+     * @param filter      An implementation of the FileFilter interface which filters the files from the given rootPath.
+     * @param parallelism The number of threads to use, must be at least 1.
+     * @return A new ParallelFileCollectorImpl.
+     */
+    public static FileCollector createWithFilterAndParallelism(final FileFilter filter, final int parallelism) {
+        return new ParallelFileCollectorImpl(filter, parallelism);
+    }
+
+    private ParallelFileCollectorImpl(final FileFilter fileFilter, final int parallelism) {
+        Validate.notNull(fileFilter, "The fileFilter may not be null.");
+        Validate.isTrue(parallelism > 0, "The parallelism must be at least 1.");
+
+        this.filter = fileFilter;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Collects all files recursively from the given rootPath which match the file filter.
+     *
+     * @param rootPath path to the classFile (usually top level package as com in com.google.common)
+     * @return An unmodifiable List of files which matches the FileFilter for all directories under rootPath.
+     */
+    public List<File> collect(final File rootPath) {
+        Validate.notNull(rootPath, "The rootPath may not be null.");
+
+        final Set<Object> visitedDirectories = Collections.newSetFromMap(new ConcurrentHashMap<Object, Boolean>());
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            return Collections.unmodifiableList(pool.invoke(new DirectoryTask(rootPath.toPath(), "", visitedDirectories)));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Lists one directory, matches its files against the filter and forks a new task for every subdirectory.
+     */
+    private final class DirectoryTask extends RecursiveTask<List<File>> {
+        private final Path directory;
+        private final String relativePath;
+        private final Set<Object> visitedDirectories;
+
+        /**
+         * @param directory          The directory to list.
+         * @param relativePath       The path of the directory relative to the rootPath, an empty String for the rootPath itself.
+         * @param visitedDirectories The keys of all directories visited so far, used to break symbolic link cycles.
+         */
+        private DirectoryTask(final Path directory, final String relativePath, final Set<Object> visitedDirectories) {
+            this.directory = directory;
+            this.relativePath = relativePath;
+            this.visitedDirectories = visitedDirectories;
+        }
+
+        @Override
+        protected List<File> compute() {
+            final List<File> matchedFiles = new ArrayList<File>();
+            final List<DirectoryTask> subdirectoryTasks = new ArrayList<DirectoryTask>();
+
+            DirectoryStream<Path> entries = null;
+            try {
+                entries = Files.newDirectoryStream(directory);
+                for (final Path entry : entries) {
+                    final BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    final String entryPath = relativePath.length() == 0
+                            ? entry.getFileName().toString()
+                            : relativePath + File.separator + entry.getFileName();
+
+                    if (attributes.isDirectory()) {
+                        if (mayContainMatches(entryPath) && isFirstVisit(entry, attributes)) {
+                            subdirectoryTasks.add(new DirectoryTask(entry, entryPath, visitedDirectories));
+                        }
+                    } else if (filter.matches(entryPath)) {
+                        matchedFiles.add(entry.toFile());
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException(String.format("Unable to read directory %s.", directory), e);
+            } finally {
+                closeDirectoryStream(entries);
+            }
+
+            invokeAll(subdirectoryTasks);
+            for (final DirectoryTask subdirectoryTask : subdirectoryTasks) {
+                matchedFiles.addAll(subdirectoryTask.join());
+            }
+
+            return matchedFiles;
+        }
+
+        private boolean mayContainMatches(final String directoryPath) {
+            return !(filter instanceof DirectoryFilter) || ((DirectoryFilter) filter).mayContainMatches(directoryPath);
+        }
+
+        private boolean isFirstVisit(final Path entry, final BasicFileAttributes attributes) {
+            final Object fileKey = attributes.fileKey();
+            return visitedDirectories.add(fileKey != null ? fileKey : entry.toAbsolutePath().normalize());
+        }
+
+        private void closeDirectoryStream(final DirectoryStream<Path> entries) {
+            if (entries != null) {
+                try {
+                    entries.close();
+                } catch (IOException e) {
+                    // Ignore
+                }
+            }
+        }
+    }
+}
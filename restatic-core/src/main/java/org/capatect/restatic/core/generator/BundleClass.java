@@ -0,0 +1,85 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The class which is generated for a ResBundle. The keys of a resource bundle which do not fit in the constant pool of
+ * one class, see ClassFileBudget, are split over shards: interfaces which each declare a part of the keys and which the
+ * bundle class implements. The keys are referred to through the bundle class, for example R.B.KEY, whether the bundle
+ * is sharded or not.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class BundleClass {
+    private final String bundleClassName;
+    private final String originalPathAndName;
+    private final List<ResKey> keys;
+    private final List<BundleShard> shards;
+    private final int constantPoolEntries;
+
+    BundleClass(final ResBundle bundle, final List<ResKey> keys, final List<BundleShard> shards, final int constantPoolEntries) {
+        this.bundleClassName = bundle.getBundleClassName();
+        this.originalPathAndName = bundle.getOriginalPathAndName();
+        this.keys = Collections.unmodifiableList(keys);
+        this.shards = Collections.unmodifiableList(shards);
+        this.constantPoolEntries = constantPoolEntries;
+    }
+
+    public String getBundleClassName() {
+        return bundleClassName;
+    }
+
+    public String getOriginalPathAndName() {
+        return originalPathAndName;
+    }
+
+    /**
+     * @return The keys declared by the bundle class itself, sorted by name: all keys of the resource bundle, or none
+     *         if the bundle is sharded.
+     */
+    public List<ResKey> getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return The shards which declare the keys of a sharded bundle, empty if the bundle is not sharded.
+     */
+    public List<BundleShard> getShards() {
+        return shards;
+    }
+
+    public boolean isSharded() {
+        return !shards.isEmpty();
+    }
+
+    /**
+     * @return The estimated number of constant pool entries of the bundle class itself.
+     */
+    public int getConstantPoolEntries() {
+        return constantPoolEntries;
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResKey;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An interface which declares a part of the keys of a sharded BundleClass. The name of a shard is the name of its
+ * bundle class followed by _SHARD_ and the number of the shard, starting at 1, for example
+ * ORG_CAPATECT_RESOURCES_SHARD_1. The keys are distributed over the shards in the order of their names, every shard
+ * but the last one is filled up to the ClassFileBudget.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class BundleShard {
+    private final String name;
+    private final List<ResKey> keys;
+    private final int constantPoolEntries;
+
+    BundleShard(final String name, final List<ResKey> keys, final int constantPoolEntries) {
+        this.name = name;
+        this.keys = Collections.unmodifiableList(keys);
+        this.constantPoolEntries = constantPoolEntries;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return The keys declared by this shard, sorted by name.
+     */
+    public List<ResKey> getKeys() {
+        return keys;
+    }
+
+    /**
+     * @return The estimated number of constant pool entries of this shard.
+     */
+    public int getConstantPoolEntries() {
+        return constantPoolEntries;
+    }
+}
@@ -0,0 +1,347 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits the keys of the resource bundles of a ResModel over the generated classes so no class exceeds the limits of
+ * the class file format, which javac would only report when it compiles the generated source.
+ * <p/>
+ * A class file has at most 65535 constant pool entries, the configured budget can be lower. Every key takes up to three
+ * entries: the name of its field, the value and the string constant which refers to the value. A bundle with more keys
+ * than fit in its budget is split in BundleShards. The root class takes entries for every nested class, a model with
+ * more bundles than fit in the root class cannot be split and fails. A single string constant has at most 65535 bytes
+ * in modified UTF-8, a longer key cannot be split either and fails.
+ * <p/>
+ * A MessageTable cannot be split, a locale with more messages than fit in one class fails. Every message takes up to
+ * four entries, the key and the value and their string constants.
+ * <p/>
+ * A KeyTable cannot be split either. Its class takes entries for every key ID, locale and entry of its fallback table,
+ * the messages of every locale are in their own nested class, in which a message takes up to two entries, the value
+ * and its string constant. With format accessors the class also takes entries for every format accessor and every
+ * locale, and the nested class of a locale for every literal segment of its MessagePatterns.
+ * <p/>
+ * A KeyEnum cannot be split either, its constants are created in one static initializer. Next to the constant pool,
+ * the code which creates them must fit in the 65535 bytes of a method.
+ * <p/>
+ * The estimates are conservative, they do not depend on the generator backend, so every backend generates the same
+ * classes.
+ * <p/>
+ * This class is threadsafe.
+ *
+ * @author Jamie Craane
+ */
+final class ClassFileBudget {
+    /**
+     * The separator between the name of a bundle class and the number of a shard.
+     */
+    static final String SHARD_SEPARATOR = "_SHARD_";
+
+    /**
+     * The constant pool entries every generated class needs next to its members: its own name, its super class, the
+     * constructor and the attributes, with room for what javac adds, such as a LineNumberTable.
+     */
+    static final int CLASS_CONSTANTS = 64;
+
+    static final int CONSTANTS_PER_KEY = 3;
+
+    /**
+     * The constant pool entries a class needs for every nested class or implemented shard it refers to: the class, its
+     * binary name and its simple name, and the interface a nested class of the root index extends.
+     */
+    static final int CONSTANTS_PER_NESTED_CLASS = 5;
+
+    static final int CONSTANTS_PER_MESSAGE = 4;
+
+    /**
+     * The constant pool entries a key table needs for every key: the name of its ID constant, the value of the ID and
+     * the name of its accessor.
+     */
+    static final int CONSTANTS_PER_KEY_ID = 3;
+
+    static final int CONSTANTS_PER_KEY_TABLE_MESSAGE = 2;
+
+    /**
+     * The constant pool entries a key table needs for every entry of its fallback table: the locale and its string
+     * constant.
+     */
+    static final int CONSTANTS_PER_LOCALE_FALLBACK = 2;
+
+    /**
+     * The constant pool entries a key table needs for every format accessor: its descriptor and the class of a typed
+     * parameter.
+     */
+    static final int CONSTANTS_PER_FORMAT_ACCESSOR = 2;
+
+    /**
+     * The constant pool entries a key table with format accessors needs for every locale: the language, country and
+     * variant of its java.util.Locale and their string constants, and the reference to the method which creates the
+     * templates of the locale.
+     */
+    static final int CONSTANTS_PER_FORMAT_LOCALE = 7;
+
+    /**
+     * The constant pool entries the nested class of a locale needs for every literal segment of a pattern, or for a
+     * pattern which is not split: the string and its string constant.
+     */
+    static final int CONSTANTS_PER_PATTERN_STRING = 2;
+
+    /**
+     * The constant pool entries a key enum needs for every key: the name of its constant, the field reference and its
+     * name and type, and the key and its string constant.
+     */
+    static final int CONSTANTS_PER_ENUM_CONSTANT = 5;
+
+    /**
+     * The bytes of code the static initializer of a key enum needs for every key: creating the constant and storing it
+     * in its field, which takes 19 bytes, and storing it in the array returned by values(), which takes 8 bytes.
+     */
+    static final int CODE_BYTES_PER_ENUM_CONSTANT = 27;
+
+    /**
+     * The bytes of code of the static initializer of a key enum next to its constants: creating the array of the
+     * constants, storing it and returning.
+     */
+    static final int ENUM_INITIALIZER_CODE_BYTES = 10;
+
+    /**
+     * The constant pool entries a message table needs for every method which fills a part of its contents: its name,
+     * the name and type and the method reference.
+     */
+    static final int CONSTANTS_PER_METHOD = 3;
+
+    private static final int MAX_STRING_CONSTANT_LENGTH = 65535;
+    private static final int MAX_CODE_LENGTH = 65535;
+
+    private final int constantPoolBudget;
+
+    /**
+     * @param constantPoolBudget The number of constant pool entries a generated class may use.
+     */
+    ClassFileBudget(final int constantPoolBudget) {
+        this.constantPoolBudget = constantPoolBudget;
+    }
+
+    /**
+     * @return The number of keys which fit in one class.
+     */
+    int getKeysPerClass() {
+        return (constantPoolBudget - CLASS_CONSTANTS) / CONSTANTS_PER_KEY;
+    }
+
+    /**
+     * Determines the generated class of every resource bundle of the model.
+     *
+     * @return The bundle classes in the order of the bundles of the model.
+     * @throws GeneratorException if a key is too long for a class file or the root class exceeds the budget.
+     */
+    List<BundleClass> split(final ResModel model) {
+        final List<BundleClass> bundleClasses = new ArrayList<BundleClass>(model.getBundles().size());
+        final Set<String> classNames = new HashSet<String>();
+        for (final ResBundle bundle : model.getBundles()) {
+            classNames.add(bundle.getBundleClassName());
+        }
+
+        final int keysPerClass = getKeysPerClass();
+        for (final ResBundle bundle : model.getBundles()) {
+            final List<ResKey> keys = new ArrayList<ResKey>(bundle.getAllUniqueKeysForLocales());
+            checkStringConstants(bundle, keys);
+
+            if (keys.size() <= keysPerClass) {
+                bundleClasses.add(new BundleClass(bundle, keys, Collections.<BundleShard>emptyList(), estimate(keys.size(), 0)));
+                continue;
+            }
+
+            final List<BundleShard> shards = new ArrayList<BundleShard>();
+            for (int from = 0; from < keys.size(); from += keysPerClass) {
+                final List<ResKey> shardKeys = keys.subList(from, Math.min(from + keysPerClass, keys.size()));
+                final String shardName = bundle.getBundleClassName() + SHARD_SEPARATOR + (shards.size() + 1);
+                if (!classNames.add(shardName)) {
+                    throw new GeneratorException(String.format(
+                            "Shard %s of resource bundle %s has the same name as another generated class.",
+                            shardName, bundle.getOriginalPathAndName()));
+                }
+                shards.add(new BundleShard(shardName, new ArrayList<ResKey>(shardKeys), estimate(shardKeys.size(), 0)));
+            }
+
+            final int constantPoolEntries = estimate(0, shards.size());
+            if (constantPoolEntries > constantPoolBudget) {
+                throw new GeneratorException(String.format(
+                        "Resource bundle %s has %d keys, more than can be split over the shards of one class.",
+                        bundle.getOriginalPathAndName(), keys.size()));
+            }
+            bundleClasses.add(new BundleClass(bundle, Collections.<ResKey>emptyList(), shards, constantPoolEntries));
+        }
+
+        final int rootConstantPoolEntries = estimateRootClass(bundleClasses);
+        if (rootConstantPoolEntries > constantPoolBudget) {
+            throw new GeneratorException(String.format(
+                    "The root class %s with %d resource bundles exceeds the budget of %d constant pool entries.",
+                    model.getRootClassName(), bundleClasses.size(), constantPoolBudget));
+        }
+        return bundleClasses;
+    }
+
+    /**
+     * @return The estimated number of constant pool entries of the root class, which refers to all bundle classes
+     *         and shards as nested classes.
+     */
+    int estimateRootClass(final List<BundleClass> bundleClasses) {
+        int nestedClasses = bundleClasses.size();
+        for (final BundleClass bundleClass : bundleClasses) {
+            nestedClasses += bundleClass.getShards().size();
+        }
+        return estimate(0, nestedClasses);
+    }
+
+    /**
+     * @return The estimated number of constant pool entries of the class of the message table.
+     * @throws GeneratorException if a message is too long for a class file or the table exceeds the budget.
+     */
+    int checkMessageTable(final MessageTable table) {
+        checkStringConstants(table);
+
+        final int constantPoolEntries = CLASS_CONSTANTS + CONSTANTS_PER_MESSAGE * table.getSize()
+                + CONSTANTS_PER_METHOD * table.getChunks().size();
+        if (constantPoolEntries > constantPoolBudget) {
+            throw new GeneratorException(String.format(
+                    "The %s locale of resource bundle %s has %d messages, more than fit in the %d constant pool entries of a message table.",
+                    table.getLocaleName(), table.getOriginalPathAndName(), table.getSize(), constantPoolBudget));
+        }
+        return constantPoolEntries;
+    }
+
+    /**
+     * @return The estimated number of constant pool entries of the largest class of the key table: the class itself or
+     *         the nested class of one of its locales.
+     * @throws GeneratorException if a message is too long for a class file or a class exceeds the budget.
+     */
+    int checkKeyTable(final KeyTable table) {
+        int largestConstantPoolEntries = CLASS_CONSTANTS + CONSTANTS_PER_KEY_ID * table.getKeyCount()
+                + CONSTANTS_PER_NESTED_CLASS * table.getLocales().size()
+                + CONSTANTS_PER_LOCALE_FALLBACK * table.getFallbacks().size();
+        if (!table.getFormatAccessors().isEmpty()) {
+            largestConstantPoolEntries += CONSTANTS_PER_FORMAT_ACCESSOR * table.getFormatAccessors().size()
+                    + CONSTANTS_PER_FORMAT_LOCALE * table.getLocales().size();
+        }
+        if (largestConstantPoolEntries > constantPoolBudget) {
+            throw new GeneratorException(String.format(
+                    "Resource bundle %s has %d keys and %d locales, more than fit in the %d constant pool entries of a key table.",
+                    table.getOriginalPathAndName(), table.getKeyCount(), table.getLocales().size(), constantPoolBudget));
+        }
+
+        for (final MessageTable locale : table.getLocales()) {
+            checkStringConstants(locale);
+            final int constantPoolEntries = CLASS_CONSTANTS + CONSTANTS_PER_KEY_TABLE_MESSAGE * locale.getSize()
+                    + CONSTANTS_PER_METHOD * locale.getChunks().size()
+                    + CONSTANTS_PER_PATTERN_STRING * countPatternStrings(locale)
+                    + CONSTANTS_PER_METHOD * locale.getPatternChunks().size();
+            if (constantPoolEntries > constantPoolBudget) {
+                throw new GeneratorException(String.format(
+                        "The %s locale of resource bundle %s has %d messages, more than fit in the %d constant pool entries of a key table.",
+                        locale.getLocaleName(), table.getOriginalPathAndName(), locale.getSize(), constantPoolBudget));
+            }
+            largestConstantPoolEntries = Math.max(largestConstantPoolEntries, constantPoolEntries);
+        }
+        return largestConstantPoolEntries;
+    }
+
+    /**
+     * @return The number of literal segments of the patterns of the locale, a pattern which is not split counts as one.
+     */
+    private static int countPatternStrings(final MessageTable locale) {
+        int strings = 0;
+        for (final MessagePattern pattern : locale.getPatterns()) {
+            strings += pattern.isSplit() ? pattern.getLiterals().size() : 1;
+        }
+        return strings;
+    }
+
+    /**
+     * @return The estimated number of constant pool entries of the key enum.
+     * @throws GeneratorException if the enum exceeds the budget or its static initializer exceeds the code of a method.
+     */
+    int checkKeyEnum(final KeyEnum keyEnum) {
+        final int keyCount = keyEnum.getKeys().size();
+        final int constantPoolEntries = CLASS_CONSTANTS + CONSTANTS_PER_ENUM_CONSTANT * keyCount;
+        final int initializerCodeBytes = ENUM_INITIALIZER_CODE_BYTES + CODE_BYTES_PER_ENUM_CONSTANT * keyCount;
+        if (constantPoolEntries > constantPoolBudget || initializerCodeBytes > MAX_CODE_LENGTH) {
+            throw new GeneratorException(String.format(
+                    "Resource bundle %s has %d keys, more than fit in the %d constant pool entries and the static initializer of a key enum.",
+                    keyEnum.getOriginalPathAndName(), keyCount, constantPoolBudget));
+        }
+        return constantPoolEntries;
+    }
+
+    private static int estimate(final int keyCount, final int nestedClassCount) {
+        return CLASS_CONSTANTS + CONSTANTS_PER_KEY * keyCount + CONSTANTS_PER_NESTED_CLASS * nestedClassCount;
+    }
+
+    private static void checkStringConstants(final MessageTable table) {
+        for (final Message message : table.getMessages()) {
+            if (exceedsStringConstantLength(message.getKey()) || exceedsStringConstantLength(message.getValue())) {
+                throw new GeneratorException(String.format(
+                        "Message %s of the %s locale of resource bundle %s exceeds the %d bytes of a class file constant.",
+                        message.getKey().substring(0, Math.min(32, message.getKey().length())), table.getLocaleName(),
+                        table.getOriginalPathAndName(), MAX_STRING_CONSTANT_LENGTH));
+            }
+        }
+    }
+
+    private static void checkStringConstants(final ResBundle bundle, final List<ResKey> keys) {
+        for (final ResKey key : keys) {
+            if (exceedsStringConstantLength(key.getOriginalName())) {
+                throw new GeneratorException(String.format(
+                        "Key %s... of resource bundle %s exceeds the %d bytes of a class file constant.",
+                        key.getOriginalName().substring(0, 32), bundle.getOriginalPathAndName(), MAX_STRING_CONSTANT_LENGTH));
+            }
+        }
+    }
+
+    /**
+     * @return true if the value takes more bytes in the modified UTF-8 of class files than a string constant may have.
+     */
+    private static boolean exceedsStringConstantLength(final String value) {
+        if (value.length() * 3 <= MAX_STRING_CONSTANT_LENGTH) {
+            // Every character takes at most three bytes.
+            return false;
+        }
+        int length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c >= 0x0001 && c <= 0x007F) {
+                length++;
+            } else if (c <= 0x07FF) {
+                length += 2;
+            } else {
+                length += 3;
+            }
+        }
+        return length > MAX_STRING_CONSTANT_LENGTH;
+    }
+}
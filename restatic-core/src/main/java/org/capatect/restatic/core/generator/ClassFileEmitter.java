@@ -0,0 +1,668 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResModel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UTFDataFormatException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the class files of the root class and of its nested resource bundle classes directly, the same classes as
+ * javac compiles from the source of JavaSourceEmitter.renderRootClass:
+ * <pre>
+ * public final class R {
+ *     public static final class B {
+ *         public static final String KEY = "key";
+ *     }
+ *     public static final class SHARDED implements SHARDED_SHARD_1, SHARDED_SHARD_2 {
+ *     }
+ *     public interface SHARDED_SHARD_1 {
+ *         public static final String KEY = "key";
+ *     }
+ *     ...
+ * }
+ * </pre>
+ * The keys are constant fields with a ConstantValue attribute, so javac inlines them in the classes which use them,
+ * the same as with compiled source. Every class has the public default constructor of the source, shards are
+ * interfaces without constructor. Every class has the SourceFile and InnerClasses attributes, so the classes can be
+ * compiled against, reflected over and navigated in an IDE.
+ * <p/>
+ * The class of a MessageTable is a ListResourceBundle with the same methods as the source of
+ * JavaSourceEmitter.renderMessageTable, which fill the contents array with the messages.
+ * <p/>
+ * The class of a KeyEnum is an enum like javac compiles from the source of JavaSourceEmitter.renderKeyEnum, with the
+ * Signature attribute of its super class Enum, so it can be used as type argument of an EnumMap.
+ * <p/>
+ * The class files have the version of Java 7. Their code never branches, so no stack map frames are needed.
+ * <p/>
+ * This class is threadsafe.
+ *
+ * @author Jamie Craane
+ */
+final class ClassFileEmitter {
+    static final String CLASS_FILE_EXTENSION = ".class";
+
+    /**
+     * The separator between the name of the root class and the name of a nested class in a binary class name.
+     */
+    static final String NESTED_CLASS_SEPARATOR = "$";
+
+    private static final int MAGIC = 0xCAFEBABE;
+    private static final int MAJOR_VERSION = 51;
+    private static final int MAX_CONSTANT_POOL_COUNT = 0xFFFF;
+
+    private static final int ACC_PUBLIC = 0x0001;
+    private static final int ACC_PRIVATE = 0x0002;
+    private static final int ACC_PROTECTED = 0x0004;
+    private static final int ACC_STATIC = 0x0008;
+    private static final int ACC_FINAL = 0x0010;
+    private static final int ACC_SUPER = 0x0020;
+    private static final int ACC_INTERFACE = 0x0200;
+    private static final int ACC_ABSTRACT = 0x0400;
+    private static final int ACC_SYNTHETIC = 0x1000;
+    private static final int ACC_ENUM = 0x4000;
+
+    private static final int CLASS_ACCESS_FLAGS = ACC_PUBLIC | ACC_FINAL | ACC_SUPER;
+    private static final int INTERFACE_ACCESS_FLAGS = ACC_PUBLIC | ACC_INTERFACE | ACC_ABSTRACT;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private static final int MAX_CODE_LENGTH = 0xFFFF;
+
+    private static final int ICONST_0 = 0x03;
+    private static final int ICONST_1 = 0x04;
+    private static final int ICONST_2 = 0x05;
+    private static final int BIPUSH = 0x10;
+    private static final int SIPUSH = 0x11;
+    private static final int LDC = 0x12;
+    private static final int LDC_W = 0x13;
+    private static final int ALOAD_0 = 0x2a;
+    private static final int ILOAD_2 = 0x1c;
+    private static final int ALOAD_1 = 0x2b;
+    private static final int ALOAD_3 = 0x2d;
+    private static final int ASTORE_1 = 0x4c;
+    private static final int AASTORE = 0x53;
+    private static final int DUP = 0x59;
+    private static final int ARETURN = 0xb0;
+    private static final int RETURN = 0xb1;
+    private static final int GETSTATIC = 0xb2;
+    private static final int PUTSTATIC = 0xb3;
+    private static final int GETFIELD = 0xb4;
+    private static final int PUTFIELD = 0xb5;
+    private static final int INVOKEVIRTUAL = 0xb6;
+    private static final int INVOKESPECIAL = 0xb7;
+    private static final int INVOKESTATIC = 0xb8;
+    private static final int NEW = 0xbb;
+    private static final int ANEWARRAY = 0xbd;
+    private static final int CHECKCAST = 0xc0;
+
+    private static final String OBJECT_CLASS = "java/lang/Object";
+    private static final String OBJECT_ARRAY_CLASS = "[Ljava/lang/Object;";
+    private static final String LIST_RESOURCE_BUNDLE_CLASS = "java/util/ListResourceBundle";
+    private static final String ENUM_CLASS = "java/lang/Enum";
+    private static final String STRING_DESCRIPTOR = "Ljava/lang/String;";
+    private static final String GET_CONTENTS_DESCRIPTOR = "()[[Ljava/lang/Object;";
+    private static final String CONTENTS_DESCRIPTOR = "([[Ljava/lang/Object;)V";
+    private static final String SOURCE_FILE_EXTENSION = ".java";
+
+    /**
+     * Writes the class file of the root class, which only declares the nested resource bundle classes and shards.
+     *
+     * @return The number of bytes written.
+     * @throws GeneratorException if the class file exceeds a limit of the class file format.
+     */
+    int writeRootClass(final ResModel model, final List<BundleClass> bundles, final OutputStream output) throws IOException {
+        final String rootClass = getInternalName(model);
+        final ClassFileBuilder builder = new ClassFileBuilder(rootClass, CLASS_ACCESS_FLAGS, getSourceFileName(model));
+        for (final BundleClass bundle : bundles) {
+            builder.addNestedClass(rootClass, bundle.getBundleClassName(), CLASS_ACCESS_FLAGS | ACC_STATIC);
+            for (final BundleShard shard : bundle.getShards()) {
+                builder.addNestedClass(rootClass, shard.getName(), INTERFACE_ACCESS_FLAGS | ACC_STATIC);
+            }
+        }
+        return builder.writeTo(output);
+    }
+
+    /**
+     * Writes the class file of the nested class of the resource bundle, which declares a constant for every key or
+     * implements the shards of a sharded bundle.
+     *
+     * @return The number of bytes written.
+     * @throws GeneratorException if the class file exceeds a limit of the class file format.
+     */
+    int writeBundleClass(final ResModel model, final BundleClass bundle, final OutputStream output) throws IOException {
+        final String rootClass = getInternalName(model);
+        final ClassFileBuilder builder = new ClassFileBuilder(rootClass + NESTED_CLASS_SEPARATOR + bundle.getBundleClassName(),
+                CLASS_ACCESS_FLAGS, getSourceFileName(model));
+        builder.addNestedClass(rootClass, bundle.getBundleClassName(), CLASS_ACCESS_FLAGS | ACC_STATIC);
+        for (final BundleShard shard : bundle.getShards()) {
+            builder.addInterface(rootClass + NESTED_CLASS_SEPARATOR + shard.getName());
+            builder.addNestedClass(rootClass, shard.getName(), INTERFACE_ACCESS_FLAGS | ACC_STATIC);
+        }
+        for (final ResKey key : bundle.getKeys()) {
+            builder.addConstant(key.getName(), key.getOriginalName());
+        }
+        return builder.writeTo(output);
+    }
+
+    /**
+     * Writes the class file of the nested interface of a shard, which declares a constant for every key of the shard.
+     *
+     * @return The number of bytes written.
+     * @throws GeneratorException if the class file exceeds a limit of the class file format.
+     */
+    int writeShardClass(final ResModel model, final BundleShard shard, final OutputStream output) throws IOException {
+        final String rootClass = getInternalName(model);
+        final ClassFileBuilder builder = new ClassFileBuilder(rootClass + NESTED_CLASS_SEPARATOR + shard.getName(),
+                INTERFACE_ACCESS_FLAGS, getSourceFileName(model));
+        builder.addNestedClass(rootClass, shard.getName(), INTERFACE_ACCESS_FLAGS | ACC_STATIC);
+        for (final ResKey key : shard.getKeys()) {
+            builder.addConstant(key.getName(), key.getOriginalName());
+        }
+        return builder.writeTo(output);
+    }
+
+    /**
+     * Writes the class file of the ListResourceBundle of a message table. getContents creates the contents array and
+     * calls a static method for every chunk of the messages, which stores the key and value of every message.
+     *
+     * @return The number of bytes written.
+     * @throws GeneratorException if the class file exceeds a limit of the class file format.
+     */
+    int writeMessageTableClass(final ResModel model, final MessageTable table, final OutputStream output)
+            throws IOException {
+        final String className = getInternalName(model, table.getClassName());
+        final ClassFileBuilder builder = new ClassFileBuilder(className, CLASS_ACCESS_FLAGS,
+                table.getClassName() + SOURCE_FILE_EXTENSION);
+        builder.setSuperClass(LIST_RESOURCE_BUNDLE_CLASS);
+
+        final ByteArrayOutputStream getContentsBytes = new ByteArrayOutputStream();
+        final DataOutputStream getContents = new DataOutputStream(getContentsBytes);
+        pushInt(getContents, table.getSize());
+        getContents.writeByte(ANEWARRAY);
+        getContents.writeShort(builder.classConstant(OBJECT_ARRAY_CLASS));
+        getContents.writeByte(ASTORE_1);
+        for (int i = 0; i < table.getChunks().size(); i++) {
+            getContents.writeByte(ALOAD_1);
+            getContents.writeByte(INVOKESTATIC);
+            getContents.writeShort(builder.methodConstant(className, "contents" + i, CONTENTS_DESCRIPTOR));
+        }
+        getContents.writeByte(ALOAD_1);
+        getContents.writeByte(ARETURN);
+        builder.addMethod(ACC_PROTECTED, "getContents", GET_CONTENTS_DESCRIPTOR, 1, 2, getContentsBytes.toByteArray());
+
+        final int objectClass = builder.classConstant(OBJECT_CLASS);
+        for (int i = 0; i < table.getChunks().size(); i++) {
+            final ByteArrayOutputStream contentsBytes = new ByteArrayOutputStream();
+            final DataOutputStream contents = new DataOutputStream(contentsBytes);
+            for (final Message message : table.getChunks().get(i)) {
+                // contents[index] = new Object[]{key, value};
+                contents.writeByte(ALOAD_0);
+                pushInt(contents, message.getIndex());
+                contents.writeByte(ICONST_2);
+                contents.writeByte(ANEWARRAY);
+                contents.writeShort(objectClass);
+                contents.writeByte(DUP);
+                contents.writeByte(ICONST_0);
+                loadConstant(contents, builder.stringConstant(message.getKey()));
+                contents.writeByte(AASTORE);
+                contents.writeByte(DUP);
+                contents.writeByte(ICONST_1);
+                loadConstant(contents, builder.stringConstant(message.getValue()));
+                contents.writeByte(AASTORE);
+                contents.writeByte(AASTORE);
+            }
+            contents.writeByte(RETURN);
+            builder.addMethod(ACC_PRIVATE | ACC_STATIC, "contents" + i, CONTENTS_DESCRIPTOR, 6, 1,
+                    contentsBytes.toByteArray());
+        }
+        return builder.writeTo(output);
+    }
+
+    /**
+     * Writes the class file of the enum of a key enum. The static initializer creates a constant for every key and the
+     * array which values() clones, like javac does for an enum.
+     *
+     * @return The number of bytes written.
+     * @throws GeneratorException if the class file exceeds a limit of the class file format.
+     */
+    int writeKeyEnumClass(final ResModel model, final KeyEnum keyEnum, final OutputStream output) throws IOException {
+        final String className = getInternalName(model, keyEnum.getClassName());
+        final String descriptor = "L" + className + ";";
+        final String arrayDescriptor = "[" + descriptor;
+        final ClassFileBuilder builder = new ClassFileBuilder(className, CLASS_ACCESS_FLAGS | ACC_ENUM,
+                keyEnum.getClassName() + SOURCE_FILE_EXTENSION);
+        builder.setSuperClass(ENUM_CLASS);
+        builder.setSignature("L" + ENUM_CLASS + "<" + descriptor + ">;");
+
+        final List<ResKey> keys = keyEnum.getKeys();
+        final int[] constantFields = new int[keys.size()];
+        for (int i = 0; i < constantFields.length; i++) {
+            builder.addField(ACC_PUBLIC | ACC_STATIC | ACC_FINAL | ACC_ENUM, keys.get(i).getName(), descriptor);
+            constantFields[i] = builder.fieldConstant(className, keys.get(i).getName(), descriptor);
+        }
+        builder.addField(ACC_PRIVATE | ACC_FINAL, "key", STRING_DESCRIPTOR);
+        builder.addField(ACC_PRIVATE | ACC_STATIC | ACC_FINAL | ACC_SYNTHETIC, "$VALUES", arrayDescriptor);
+        final int valuesField = builder.fieldConstant(className, "$VALUES", arrayDescriptor);
+        final int keyField = builder.fieldConstant(className, "key", STRING_DESCRIPTOR);
+        final int classIndex = builder.classConstant(className);
+        final int constructor = builder.methodConstant(className, "<init>", "(Ljava/lang/String;ILjava/lang/String;)V");
+
+        // private R_B_Keys(String name, int ordinal, String key), the name and ordinal are passed to Enum.
+        final ByteArrayOutputStream constructorBytes = new ByteArrayOutputStream();
+        final DataOutputStream constructorCode = new DataOutputStream(constructorBytes);
+        constructorCode.writeByte(ALOAD_0);
+        constructorCode.writeByte(ALOAD_1);
+        constructorCode.writeByte(ILOAD_2);
+        constructorCode.writeByte(INVOKESPECIAL);
+        constructorCode.writeShort(builder.methodConstant(ENUM_CLASS, "<init>", "(Ljava/lang/String;I)V"));
+        constructorCode.writeByte(ALOAD_0);
+        constructorCode.writeByte(ALOAD_3);
+        constructorCode.writeByte(PUTFIELD);
+        constructorCode.writeShort(keyField);
+        constructorCode.writeByte(RETURN);
+        builder.addMethod(ACC_PRIVATE, "<init>", "(Ljava/lang/String;ILjava/lang/String;)V", 3, 4,
+                constructorBytes.toByteArray());
+
+        final ByteArrayOutputStream valuesBytes = new ByteArrayOutputStream();
+        final DataOutputStream values = new DataOutputStream(valuesBytes);
+        values.writeByte(GETSTATIC);
+        values.writeShort(valuesField);
+        values.writeByte(INVOKEVIRTUAL);
+        values.writeShort(builder.methodConstant(arrayDescriptor, "clone", "()Ljava/lang/Object;"));
+        values.writeByte(CHECKCAST);
+        values.writeShort(builder.classConstant(arrayDescriptor));
+        values.writeByte(ARETURN);
+        builder.addMethod(ACC_PUBLIC | ACC_STATIC, "values", "()" + arrayDescriptor, 1, 0, valuesBytes.toByteArray());
+
+        final ByteArrayOutputStream valueOfBytes = new ByteArrayOutputStream();
+        final DataOutputStream valueOf = new DataOutputStream(valueOfBytes);
+        loadConstant(valueOf, classIndex);
+        valueOf.writeByte(ALOAD_0);
+        valueOf.writeByte(INVOKESTATIC);
+        valueOf.writeShort(builder.methodConstant(ENUM_CLASS, "valueOf",
+                "(Ljava/lang/Class;Ljava/lang/String;)Ljava/lang/Enum;"));
+        valueOf.writeByte(CHECKCAST);
+        valueOf.writeShort(classIndex);
+        valueOf.writeByte(ARETURN);
+        builder.addMethod(ACC_PUBLIC | ACC_STATIC, "valueOf", "(Ljava/lang/String;)" + descriptor, 2, 1,
+                valueOfBytes.toByteArray());
+
+        final byte[] keyCode = {(byte) ALOAD_0, (byte) GETFIELD, (byte) (keyField >> 8), (byte) keyField, (byte) ARETURN};
+        builder.addMethod(ACC_PUBLIC, "key", "()" + STRING_DESCRIPTOR, 1, 1, keyCode);
+
+        final ByteArrayOutputStream initializerBytes = new ByteArrayOutputStream();
+        final DataOutputStream initializer = new DataOutputStream(initializerBytes);
+        for (int i = 0; i < constantFields.length; i++) {
+            // NAME = new R_B_Keys("NAME", ordinal, "key");
+            initializer.writeByte(NEW);
+            initializer.writeShort(classIndex);
+            initializer.writeByte(DUP);
+            loadConstant(initializer, builder.stringConstant(keys.get(i).getName()));
+            pushInt(initializer, i);
+            loadConstant(initializer, builder.stringConstant(keys.get(i).getOriginalName()));
+            initializer.writeByte(INVOKESPECIAL);
+            initializer.writeShort(constructor);
+            initializer.writeByte(PUTSTATIC);
+            initializer.writeShort(constantFields[i]);
+        }
+        pushInt(initializer, constantFields.length);
+        initializer.writeByte(ANEWARRAY);
+        initializer.writeShort(classIndex);
+        for (int i = 0; i < constantFields.length; i++) {
+            initializer.writeByte(DUP);
+            pushInt(initializer, i);
+            initializer.writeByte(GETSTATIC);
+            initializer.writeShort(constantFields[i]);
+            initializer.writeByte(AASTORE);
+        }
+        initializer.writeByte(PUTSTATIC);
+        initializer.writeShort(valuesField);
+        initializer.writeByte(RETURN);
+        builder.addMethod(ACC_STATIC, "<clinit>", "()V", 5, 0, initializerBytes.toByteArray());
+        return builder.writeTo(output);
+    }
+
+    /**
+     * Pushes a non-negative int which fits in a short. The ClassFileBudget keeps the size of a message table below
+     * that.
+     */
+    private static void pushInt(final DataOutputStream code, final int value) throws IOException {
+        if (value <= 5) {
+            code.writeByte(ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            code.writeByte(BIPUSH);
+            code.writeByte(value);
+        } else if (value <= Short.MAX_VALUE) {
+            code.writeByte(SIPUSH);
+            code.writeShort(value);
+        } else {
+            throw new GeneratorException(String.format("The value %d does not fit in a short.", value));
+        }
+    }
+
+    private static void loadConstant(final DataOutputStream code, final int index) throws IOException {
+        if (index <= 0xFF) {
+            code.writeByte(LDC);
+            code.writeByte(index);
+        } else {
+            code.writeByte(LDC_W);
+            code.writeShort(index);
+        }
+    }
+
+    /**
+     * @return The internal name of the root class, for example org/capatect/R.
+     */
+    private static String getInternalName(final ResModel model) {
+        return getInternalName(model, model.getRootClassName());
+    }
+
+    /**
+     * @return The internal name of a top level class in the package of the root class.
+     */
+    private static String getInternalName(final ResModel model, final String simpleName) {
+        if (model.isNotDefaultPackage()) {
+            return model.getRootClassPackage().replace('.', '/') + "/" + simpleName;
+        }
+        return simpleName;
+    }
+
+    private static String getSourceFileName(final ResModel model) {
+        return model.getRootClassName() + SOURCE_FILE_EXTENSION;
+    }
+
+    /**
+     * Collects the constant pool, the fields, the methods and the nested classes of one class file. The constant pool
+     * must be complete before the class file can be written, so everything which refers to it is collected first.
+     */
+    private static final class ClassFileBuilder {
+        private final String className;
+        private final String sourceFileName;
+        private final int accessFlags;
+        private String superClass = OBJECT_CLASS;
+        private String signature;
+        private boolean hasConstructor;
+
+        private final ByteArrayOutputStream constantPoolBytes = new ByteArrayOutputStream();
+        private final DataOutputStream constantPool = new DataOutputStream(constantPoolBytes);
+        private final Map<String, Integer> utf8Constants = new HashMap<String, Integer>();
+        private final Map<String, Integer> classConstants = new HashMap<String, Integer>();
+        private final Map<String, Integer> stringConstants = new HashMap<String, Integer>();
+        private int constantPoolCount = 1;
+
+        private final ByteArrayOutputStream fieldBytes = new ByteArrayOutputStream();
+        private final DataOutputStream fields = new DataOutputStream(fieldBytes);
+        private int fieldCount;
+
+        private final ByteArrayOutputStream methodBytes = new ByteArrayOutputStream();
+        private final DataOutputStream methods = new DataOutputStream(methodBytes);
+        private int methodCount;
+
+        private final ByteArrayOutputStream nestedClassBytes = new ByteArrayOutputStream();
+        private final DataOutputStream nestedClasses = new DataOutputStream(nestedClassBytes);
+        private int nestedClassCount;
+
+        private final List<String> interfaces = new ArrayList<String>();
+
+        private ClassFileBuilder(final String className, final int accessFlags, final String sourceFileName) {
+            this.className = className;
+            this.accessFlags = accessFlags;
+            this.sourceFileName = sourceFileName;
+        }
+
+        private void setSuperClass(final String internalName) {
+            superClass = internalName;
+        }
+
+        /**
+         * Sets the generic signature of the class, without it the class has no Signature attribute.
+         */
+        private void setSignature(final String classSignature) {
+            signature = classSignature;
+        }
+
+        /**
+         * Adds an entry to the InnerClasses attribute, which is needed for this class and every nested class it refers to.
+         */
+        private void addNestedClass(final String outerClass, final String simpleName, final int nestedAccessFlags) throws IOException {
+            nestedClasses.writeShort(classConstant(outerClass + NESTED_CLASS_SEPARATOR + simpleName));
+            nestedClasses.writeShort(classConstant(outerClass));
+            nestedClasses.writeShort(utf8Constant(simpleName));
+            nestedClasses.writeShort(nestedAccessFlags);
+            nestedClassCount++;
+        }
+
+        private void addInterface(final String internalName) {
+            interfaces.add(internalName);
+        }
+
+        private void addConstant(final String name, final String value) throws IOException {
+            fields.writeShort(ACC_PUBLIC | ACC_STATIC | ACC_FINAL);
+            fields.writeShort(utf8Constant(name));
+            fields.writeShort(utf8Constant(STRING_DESCRIPTOR));
+            fields.writeShort(1);
+            fields.writeShort(utf8Constant("ConstantValue"));
+            fields.writeInt(2);
+            fields.writeShort(stringConstant(value));
+            fieldCount++;
+        }
+
+        private void addField(final int fieldAccessFlags, final String name, final String descriptor) throws IOException {
+            fields.writeShort(fieldAccessFlags);
+            fields.writeShort(utf8Constant(name));
+            fields.writeShort(utf8Constant(descriptor));
+            fields.writeShort(0);
+            fieldCount++;
+        }
+
+        /**
+         * Adds a method with the given code, which must not branch, so it needs no stack map frames. A class to which
+         * a constructor is added does not get the default constructor.
+         */
+        private void addMethod(final int methodAccessFlags, final String name, final String descriptor, final int maxStack,
+                               final int maxLocals, final byte[] code) throws IOException {
+            if (code.length > MAX_CODE_LENGTH) {
+                throw new GeneratorException(String.format(
+                        "Method %s of class %s exceeds the %d bytes of code of a method.", name, className,
+                        MAX_CODE_LENGTH));
+            }
+            writeMethod(methods, methodAccessFlags, utf8Constant(name), utf8Constant(descriptor), utf8Constant("Code"),
+                    maxStack, maxLocals, code);
+            methodCount++;
+            hasConstructor |= "<init>".equals(name);
+        }
+
+        private int writeTo(final OutputStream output) throws IOException {
+            final int thisClass = classConstant(className);
+            final int superClassIndex = classConstant(superClass);
+            final int[] interfaceIndexes = new int[interfaces.size()];
+            for (int i = 0; i < interfaceIndexes.length; i++) {
+                interfaceIndexes[i] = classConstant(interfaces.get(i));
+            }
+            // The default constructor, which calls super(). Interfaces have no constructor.
+            final boolean hasDefaultConstructor = (accessFlags & ACC_INTERFACE) == 0 && !hasConstructor;
+            final ByteArrayOutputStream constructorBytes = new ByteArrayOutputStream();
+            if (hasDefaultConstructor) {
+                final int superConstructor = methodConstant(superClass, "<init>", "()V");
+                final byte[] code = {(byte) ALOAD_0, (byte) INVOKESPECIAL, (byte) (superConstructor >> 8),
+                        (byte) superConstructor, (byte) RETURN};
+                writeMethod(new DataOutputStream(constructorBytes), ACC_PUBLIC, utf8Constant("<init>"), utf8Constant("()V"),
+                        utf8Constant("Code"), 1, 1, code);
+            }
+            final int sourceFileAttribute = utf8Constant("SourceFile");
+            final int sourceFile = utf8Constant(sourceFileName);
+            final int innerClassesAttribute = utf8Constant("InnerClasses");
+            final int signatureAttribute = signature == null ? 0 : utf8Constant("Signature");
+            final int signatureIndex = signature == null ? 0 : utf8Constant(signature);
+
+            final ByteArrayOutputStream classFileBytes = new ByteArrayOutputStream(
+                    constantPoolBytes.size() + fieldBytes.size() + methodBytes.size() + nestedClassBytes.size() + 128);
+            final DataOutputStream classFile = new DataOutputStream(classFileBytes);
+            classFile.writeInt(MAGIC);
+            classFile.writeShort(0);
+            classFile.writeShort(MAJOR_VERSION);
+            classFile.writeShort(constantPoolCount);
+            constantPoolBytes.writeTo(classFile);
+            // The static modifier of a nested class is only in the InnerClasses attribute.
+            classFile.writeShort(accessFlags);
+            classFile.writeShort(thisClass);
+            classFile.writeShort(superClassIndex);
+            classFile.writeShort(interfaceIndexes.length);
+            for (final int interfaceIndex : interfaceIndexes) {
+                classFile.writeShort(interfaceIndex);
+            }
+
+            classFile.writeShort(fieldCount);
+            fieldBytes.writeTo(classFile);
+
+            classFile.writeShort((hasDefaultConstructor ? 1 : 0) + methodCount);
+            constructorBytes.writeTo(classFile);
+            methodBytes.writeTo(classFile);
+
+            classFile.writeShort(signature == null ? 2 : 3);
+            classFile.writeShort(sourceFileAttribute);
+            classFile.writeInt(2);
+            classFile.writeShort(sourceFile);
+            classFile.writeShort(innerClassesAttribute);
+            classFile.writeInt(2 + nestedClassBytes.size());
+            classFile.writeShort(nestedClassCount);
+            nestedClassBytes.writeTo(classFile);
+            if (signature != null) {
+                classFile.writeShort(signatureAttribute);
+                classFile.writeInt(2);
+                classFile.writeShort(signatureIndex);
+            }
+
+            classFile.flush();
+            classFileBytes.writeTo(output);
+            return classFileBytes.size();
+        }
+
+        /**
+         * Writes a method_info with a Code attribute, without exception handlers and without attributes of the code.
+         */
+        private static void writeMethod(final DataOutputStream out, final int methodAccessFlags, final int name,
+                                        final int descriptor, final int codeAttribute, final int maxStack,
+                                        final int maxLocals, final byte[] code) throws IOException {
+            out.writeShort(methodAccessFlags);
+            out.writeShort(name);
+            out.writeShort(descriptor);
+            out.writeShort(1);
+            out.writeShort(codeAttribute);
+            out.writeInt(12 + code.length);
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            out.writeShort(0);
+            out.writeShort(0);
+        }
+
+        private int utf8Constant(final String value) throws IOException {
+            final Integer index = utf8Constants.get(value);
+            if (index != null) {
+                return index;
+            }
+            final int newIndex = nextConstantIndex();
+            constantPool.writeByte(CONSTANT_UTF8);
+            try {
+                constantPool.writeUTF(value);
+            } catch (UTFDataFormatException e) {
+                throw new GeneratorException(String.format(
+                        "The string constant %s... of class %s exceeds the 65535 bytes of a class file constant.",
+                        value.substring(0, 32), className), e);
+            }
+            utf8Constants.put(value, newIndex);
+            return newIndex;
+        }
+
+        private int classConstant(final String internalName) throws IOException {
+            final Integer index = classConstants.get(internalName);
+            if (index != null) {
+                return index;
+            }
+            final int nameIndex = utf8Constant(internalName);
+            final int newIndex = nextConstantIndex();
+            constantPool.writeByte(CONSTANT_CLASS);
+            constantPool.writeShort(nameIndex);
+            classConstants.put(internalName, newIndex);
+            return newIndex;
+        }
+
+        private int stringConstant(final String value) throws IOException {
+            final Integer index = stringConstants.get(value);
+            if (index != null) {
+                return index;
+            }
+            final int valueIndex = utf8Constant(value);
+            final int newIndex = nextConstantIndex();
+            constantPool.writeByte(CONSTANT_STRING);
+            constantPool.writeShort(valueIndex);
+            stringConstants.put(value, newIndex);
+            return newIndex;
+        }
+
+        private int methodConstant(final String owner, final String name, final String descriptor) throws IOException {
+            return memberConstant(CONSTANT_METHODREF, owner, name, descriptor);
+        }
+
+        private int fieldConstant(final String owner, final String name, final String descriptor) throws IOException {
+            return memberConstant(CONSTANT_FIELDREF, owner, name, descriptor);
+        }
+
+        private int memberConstant(final int tag, final String owner, final String name, final String descriptor)
+                throws IOException {
+            final int ownerIndex = classConstant(owner);
+            final int nameIndex = utf8Constant(name);
+            final int descriptorIndex = utf8Constant(descriptor);
+            final int nameAndTypeIndex = nextConstantIndex();
+            constantPool.writeByte(CONSTANT_NAME_AND_TYPE);
+            constantPool.writeShort(nameIndex);
+            constantPool.writeShort(descriptorIndex);
+            final int newIndex = nextConstantIndex();
+            constantPool.writeByte(tag);
+            constantPool.writeShort(ownerIndex);
+            constantPool.writeShort(nameAndTypeIndex);
+            return newIndex;
+        }
+
+        private int nextConstantIndex() {
+            if (constantPoolCount == MAX_CONSTANT_POOL_COUNT) {
+                throw new GeneratorException(String.format(
+                        "Class %s exceeds the %d constants of a class file.", className, MAX_CONSTANT_POOL_COUNT - 1));
+            }
+            return constantPoolCount++;
+        }
+    }
+}
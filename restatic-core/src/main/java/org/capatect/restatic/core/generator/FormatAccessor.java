@@ -0,0 +1,62 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+
+package org.capatect.restatic.core.generator;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An accessor of a KeyTable which formats the message of a key with its arguments, for a key whose message is a
+ * MessagePattern with arguments in at least one locale. It is an overload of the accessor of the key which takes a
+ * parameter for every argument.
+ * <p/>
+ * A parameter is a Number if the argument has a number or choice format in the patterns, a java.util.Date if it has a
+ * date or time format, otherwise an Object, like the arguments of MessageFormat.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class FormatAccessor {
+    /**
+     * The maximum number of arguments of a format accessor, the parameters of a method in a class file take at most
+     * 255 slots, one of which is taken by this.
+     */
+    static final int MAX_ARGUMENT_COUNT = 254;
+
+    private final KeyId key;
+    private final List<String> parameterTypes;
+
+    FormatAccessor(final KeyId key, final List<String> parameterTypes) {
+        this.key = key;
+        this.parameterTypes = Collections.unmodifiableList(parameterTypes);
+    }
+
+    public KeyId getKey() {
+        return key;
+    }
+
+    /**
+     * @return The type of the parameter of every argument, by argument index, for example java.util.Date.
+     */
+    public List<String> getParameterTypes() {
+        return parameterTypes;
+    }
+}
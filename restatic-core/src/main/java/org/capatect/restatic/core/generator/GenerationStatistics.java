@@ -0,0 +1,146 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.apache.commons.lang.builder.ToStringBuilder;
+import org.apache.commons.lang.builder.ToStringStyle;
+
+/**
+ * What a ResourceClassGenerator did to generate the source files of a ResModel: the number of source files which are
+ * written, left untouched because their content did not change or deleted because they are stale, and the time spent
+ * rendering the source files and writing them. It also reports the class file budget: the resource bundles which are
+ * split over shards because they exceed it and the estimated constant pool entries of the largest generated class,
+ * see ClassFileBudget.
+ * <p/>
+ * With the BYTECODE generator backend the class files and the sources jar are counted as source files.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class GenerationStatistics {
+    private final int sourceFilesWritten;
+    private final int sourceFilesUnchanged;
+    private final int sourceFilesDeleted;
+    private final long renderTimeNanos;
+    private final long writeTimeNanos;
+    private final int shardedBundleCount;
+    private final int shardCount;
+    private final int largestClassConstantPoolEntries;
+    private final int constantPoolBudget;
+
+    public GenerationStatistics(final int sourceFilesWritten, final int sourceFilesUnchanged, final int sourceFilesDeleted,
+                                final long renderTimeNanos, final long writeTimeNanos) {
+        this(sourceFilesWritten, sourceFilesUnchanged, sourceFilesDeleted, renderTimeNanos, writeTimeNanos, 0, 0, 0, 0);
+    }
+
+    public GenerationStatistics(final int sourceFilesWritten, final int sourceFilesUnchanged, final int sourceFilesDeleted,
+                                final long renderTimeNanos, final long writeTimeNanos, final int shardedBundleCount,
+                                final int shardCount, final int largestClassConstantPoolEntries, final int constantPoolBudget) {
+        this.sourceFilesWritten = sourceFilesWritten;
+        this.sourceFilesUnchanged = sourceFilesUnchanged;
+        this.sourceFilesDeleted = sourceFilesDeleted;
+        this.renderTimeNanos = renderTimeNanos;
+        this.writeTimeNanos = writeTimeNanos;
+        this.shardedBundleCount = shardedBundleCount;
+        this.shardCount = shardCount;
+        this.largestClassConstantPoolEntries = largestClassConstantPoolEntries;
+        this.constantPoolBudget = constantPoolBudget;
+    }
+
+    /**
+     * @return The number of source files which are written because they did not exist or their content changed.
+     */
+    public int getSourceFilesWritten() {
+        return sourceFilesWritten;
+    }
+
+    /**
+     * @return The number of source files which are not written because their content did not change.
+     */
+    public int getSourceFilesUnchanged() {
+        return sourceFilesUnchanged;
+    }
+
+    /**
+     * @return The number of stale source files which are deleted.
+     */
+    public int getSourceFilesDeleted() {
+        return sourceFilesDeleted;
+    }
+
+    /**
+     * @return The time in nanoseconds spent rendering the source files, including streaming the rendered source to the
+     *         source files and comparing it with their existing content.
+     */
+    public long getRenderTimeNanos() {
+        return renderTimeNanos;
+    }
+
+    /**
+     * @return The time in nanoseconds spent completing the changed source files after they are rendered and deleting the
+     *         stale source files.
+     */
+    public long getWriteTimeNanos() {
+        return writeTimeNanos;
+    }
+
+    /**
+     * @return The number of resource bundles whose keys are split over shards because they exceed the budget.
+     */
+    public int getShardedBundleCount() {
+        return shardedBundleCount;
+    }
+
+    /**
+     * @return The number of shards of all sharded resource bundles.
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @return The estimated number of constant pool entries of the largest generated class, the root class included.
+     */
+    public int getLargestClassConstantPoolEntries() {
+        return largestClassConstantPoolEntries;
+    }
+
+    /**
+     * @return The number of constant pool entries a generated class may use, 0 if unknown.
+     */
+    public int getConstantPoolBudget() {
+        return constantPoolBudget;
+    }
+
+    @Override
+    public String toString() {
+        return new ToStringBuilder(this, ToStringStyle.SHORT_PREFIX_STYLE)
+                .append("sourceFilesWritten", sourceFilesWritten)
+                .append("sourceFilesUnchanged", sourceFilesUnchanged)
+                .append("sourceFilesDeleted", sourceFilesDeleted)
+                .append("renderTimeNanos", renderTimeNanos)
+                .append("writeTimeNanos", writeTimeNanos)
+                .append("shardedBundleCount", shardedBundleCount)
+                .append("shardCount", shardCount)
+                .append("largestClassConstantPoolEntries", largestClassConstantPoolEntries)
+                .append("constantPoolBudget", constantPoolBudget)
+                .toString();
+    }
+}
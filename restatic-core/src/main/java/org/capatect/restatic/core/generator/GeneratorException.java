@@ -22,6 +22,10 @@ package org.capatect.restatic.core.generator;
  * @author Jamie Craane
  */
 public class GeneratorException extends RuntimeException {
+    public GeneratorException(final String s) {
+        super(s);
+    }
+
     public GeneratorException(final String s, final Throwable throwable) {
         super(s, throwable);
     }
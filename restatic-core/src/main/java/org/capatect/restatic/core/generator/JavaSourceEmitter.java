@@ -0,0 +1,600 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResModel;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * SourceRenderer which writes the Java source directly, without StringTemplate and without reflection. The written
+ * source is byte for byte the same as that of the templates in resourceclass.stg, including the indentation and the
+ * line separator, so both backends can be compared with each other. A change to the templates must be made here too.
+ * <p/>
+ * This class is threadsafe.
+ *
+ * @author Jamie Craane
+ */
+final class JavaSourceEmitter implements SourceRenderer {
+    private static final String BUNDLE_INDENT = "        ";
+    private static final String ROOT_CLASS_KEY_INDENT = "                ";
+    private static final String BUNDLE_FILE_KEY_INDENT = "        ";
+    private static final String MEMBER_INDENT = "    ";
+    private static final String STATEMENT_INDENT = "        ";
+    private static final String NESTED_STATEMENT_INDENT = "            ";
+
+    /**
+     * The lines of the nested class of a key table with format accessors which formats a pre-parsed pattern, without
+     * the indentation of a member.
+     */
+    private static final String[] FORMAT_TEMPLATE_CLASS = {
+            "/**",
+            " * A message pattern which is parsed when this class is generated: the literal segments with an argument slot between",
+            " * every two segments. A pattern with a format, like {0,number,#.##}, is formatted with a java.text.MessageFormat",
+            " * instead, which is parsed once per thread because a MessageFormat is not threadsafe. The templates of a table belong",
+            " * to the messages of one locale.",
+            " */",
+            "private static final class Template {",
+            "    private final String[] literals;",
+            "    private final int[] arguments;",
+            "    private final String pattern;",
+            "    private final ThreadLocal<java.text.MessageFormat> messageFormat;",
+            "",
+            "    Template(final String[] literals, final int... arguments) {",
+            "        this.literals = literals;",
+            "        this.arguments = arguments;",
+            "        this.pattern = null;",
+            "        this.messageFormat = null;",
+            "    }",
+            "",
+            "    Template(final String pattern) {",
+            "        this.literals = null;",
+            "        this.arguments = null;",
+            "        this.pattern = pattern;",
+            "        this.messageFormat = new ThreadLocal<java.text.MessageFormat>();",
+            "    }",
+            "",
+            "    String format(final java.util.Locale locale, final ThreadLocal<java.text.NumberFormat> numberFormat,",
+            "            final Object[] values) {",
+            "        if (pattern != null) {",
+            "            java.text.MessageFormat format = messageFormat.get();",
+            "            if (format == null) {",
+            "                format = new java.text.MessageFormat(pattern, locale);",
+            "                messageFormat.set(format);",
+            "            }",
+            "            return format.format(values);",
+            "        }",
+            "        final StringBuilder result = new StringBuilder(literals[0]);",
+            "        for (int slot = 0; slot < arguments.length; slot++) {",
+            "            append(result, values[arguments[slot]], locale, numberFormat);",
+            "            result.append(literals[slot + 1]);",
+            "        }",
+            "        return result.toString();",
+            "    }",
+            "",
+            "    /**",
+            "     * Appends the value the way MessageFormat formats an argument without a format. The number format of the locale",
+            "     * is created once per thread, a NumberFormat is not threadsafe and expensive to create.",
+            "     */",
+            "    private static void append(final StringBuilder result, final Object value, final java.util.Locale locale,",
+            "            final ThreadLocal<java.text.NumberFormat> numberFormat) {",
+            "        if (value instanceof Number) {",
+            "            java.text.NumberFormat format = numberFormat.get();",
+            "            if (format == null) {",
+            "                format = java.text.NumberFormat.getInstance(locale);",
+            "                numberFormat.set(format);",
+            "            }",
+            "            result.append(format.format(value));",
+            "        } else if (value instanceof java.util.Date) {",
+            "            result.append(java.text.DateFormat.getDateTimeInstance(java.text.DateFormat.SHORT,",
+            "                    java.text.DateFormat.SHORT, locale).format(value));",
+            "        } else {",
+            "            result.append(value);",
+            "        }",
+            "    }",
+            "}"
+    };
+
+    public int renderRootClass(final ResModel model, final List<BundleClass> bundles, final Writer writer) throws IOException {
+        final SourceWriter out = new SourceWriter(writer);
+        writePackage(model, out);
+        out.line("/**");
+        out.line("* This class is generated by Restatic, version TODO.");
+        out.line("*");
+        out.line("* Do not modify by hand.");
+        out.line("*/");
+        out.write("public final class ").write(model.getRootClassName()).line(" {");
+        for (final BundleClass bundle : bundles) {
+            out.write(BUNDLE_INDENT).line("/**");
+            out.write(BUNDLE_INDENT).write(" * Class generated form ").write(bundle.getOriginalPathAndName()).line(".");
+            out.write(BUNDLE_INDENT).line(" */");
+            out.write(BUNDLE_INDENT).write("public static final class ").write(bundle.getBundleClassName());
+            writeShardNames(" implements ", "", bundle, out);
+            out.line(" {");
+            writeKeys(bundle.getKeys(), ROOT_CLASS_KEY_INDENT, out);
+            out.write(BUNDLE_INDENT).line("}");
+            for (final BundleShard shard : bundle.getShards()) {
+                out.write(BUNDLE_INDENT).line("/**");
+                out.write(BUNDLE_INDENT).write(" * Keys of ").write(bundle.getOriginalPathAndName())
+                        .write(" which do not fit in one class, refer to them through ").write(bundle.getBundleClassName()).line(".");
+                out.write(BUNDLE_INDENT).line(" */");
+                out.write(BUNDLE_INDENT).write("public interface ").write(shard.getName()).line(" {");
+                writeKeys(shard.getKeys(), ROOT_CLASS_KEY_INDENT, out);
+                out.write(BUNDLE_INDENT).line("}");
+            }
+        }
+        writeClose(!bundles.isEmpty(), out);
+        return out.characterCount;
+    }
+
+    public int renderRootIndex(final ResModel model, final List<BundleClass> bundles, final Writer writer) throws IOException {
+        final SourceWriter out = new SourceWriter(writer);
+        writePackage(model, out);
+        out.line("/**");
+        out.line("* This class is generated by Restatic, version TODO.");
+        out.line("* The keys of every resource bundle are generated in a separate source file.");
+        out.line("*");
+        out.line("* Do not modify by hand.");
+        out.line("*/");
+        out.write("public final class ").write(model.getRootClassName()).line(" {");
+        for (final BundleClass bundle : bundles) {
+            out.write(BUNDLE_INDENT).line("/**");
+            out.write(BUNDLE_INDENT).write(" * Keys generated from ").write(bundle.getOriginalPathAndName()).line(".");
+            out.write(BUNDLE_INDENT).line(" */");
+            out.write(BUNDLE_INDENT).write("public interface ").write(bundle.getBundleClassName())
+                    .write(" extends ").write(model.getRootClassName()).write("_").write(bundle.getBundleClassName()).line(" {");
+            out.write(BUNDLE_INDENT).line("}");
+        }
+        writeClose(!bundles.isEmpty(), out);
+        return out.characterCount;
+    }
+
+    public int renderBundleFile(final ResModel model, final BundleClass bundle, final Writer writer) throws IOException {
+        final SourceWriter out = new SourceWriter(writer);
+        writePackage(model, out);
+        out.line("/**");
+        out.write("* Interface generated from ").write(bundle.getOriginalPathAndName()).line(" by Restatic, version TODO.");
+        out.write("* Refer to the keys through ").write(model.getRootClassName()).write(".").write(bundle.getBundleClassName()).line(".");
+        out.line("*");
+        out.line("* Do not modify by hand.");
+        out.line("*/");
+        out.write("public interface ").write(model.getRootClassName()).write("_").write(bundle.getBundleClassName());
+        writeShardNames(" extends ", model.getRootClassName() + "_", bundle, out);
+        out.line(" {");
+        for (final ResKey key : bundle.getKeys()) {
+            writeKey(key, BUNDLE_FILE_KEY_INDENT, out);
+        }
+        writeClose(!bundle.getKeys().isEmpty(), out);
+        return out.characterCount;
+    }
+
+    public int renderShardFile(final ResModel model, final BundleClass bundle, final BundleShard shard, final Writer writer)
+            throws IOException {
+        final SourceWriter out = new SourceWriter(writer);
+        writePackage(model, out);
+        out.line("/**");
+        out.write("* Keys of ").write(bundle.getOriginalPathAndName())
+                .line(" which do not fit in one interface, generated by Restatic, version TODO.");
+        out.write("* Refer to the keys through ").write(model.getRootClassName()).write(".").write(bundle.getBundleClassName()).line(".");
+        out.line("*");
+        out.line("* Do not modify by hand.");
+        out.line("*/");
+        out.write("public interface ").write(model.getRootClassName()).write("_").write(shard.getName()).line(" {");
+        for (final ResKey key : shard.getKeys()) {
+            writeKey(key, BUNDLE_FILE_KEY_INDENT, out);
+        }
+        writeClose(!shard.getKeys().isEmpty(), out);
+        return out.characterCount;
+    }
+
+    public int renderMessageTable(final ResModel model, final MessageTable table, final Writer writer) throws IOException {
+        final SourceWriter out = new SourceWriter(writer);
+        writePackage(model, out);
+        out.line("/**");
+        out.write("* Messages of ").write(table.getOriginalPathAndName()).write(" for the ").write(table.getLocaleName())
+                .line(" locale, generated by Restatic, version TODO.");
+        out.write("* Load them with ResourceBundle.getBundle(\"").write(table.getBaseName()).line("\", locale).");
+        out.line("*");
+        out.line("* Do not modify by hand.");
+        out.line("*/");
+        out.write("public final class ").write(table.getClassName()).line(" extends java.util.ListResourceBundle {");
+        out.write(MEMBER_INDENT).line("protected Object[][] getContents() {");
+        out.write(STATEMENT_INDENT).write("final Object[][] contents = new Object[").write(String.valueOf(table.getSize())).line("][];");
+        for (int i = 0; i < table.getChunks().size(); i++) {
+            out.write(STATEMENT_INDENT).write("contents").write(String.valueOf(i)).line("(contents);");
+        }
+        out.write(STATEMENT_INDENT).line("return contents;");
+        out.write(MEMBER_INDENT).line("}");
+        for (int i = 0; i < table.getChunks().size(); i++) {
+            out.line("");
+            out.write(MEMBER_INDENT).write("private static void contents").write(String.valueOf(i)).line("(final Object[][] contents) {");
+            for (final Message message : table.getChunks().get(i)) {
+                out.write(STATEMENT_INDENT).write("contents[").write(String.valueOf(message.getIndex())).write("] = new Object[]{\"")
+                        .write(JavaStringRenderer.escapeAscii(message.getKey())).write("\", \"")
+                        .write(JavaStringRenderer.escapeAscii(message.getValue())).line("\"};");
+            }
+            out.write(MEMBER_INDENT).line("}");
+        }
+        out.write("}");
+        return out.characterCount;
+    }
+
+    public int renderKeyTable(final ResModel model, final KeyTable table, final Writer writer) throws IOException {
+        final String className = table.getClassName();
+        final SourceWriter out = new SourceWriter(writer);
+        writePackage(model, out);
+        out.line("/**");
+        out.write("* Messages of ").write(table.getOriginalPathAndName()).line(" by key ID, generated by Restatic, version TODO.");
+        out.write("* Get the messages of a locale with ").write(className).line(".forLocale(locale).");
+        out.line("*");
+        out.line("* Do not modify by hand.");
+        out.line("*/");
+        out.write("public final class ").write(className).line(" {");
+        for (final KeyId key : table.getKeys()) {
+            out.write(MEMBER_INDENT).write("public static final int ").write(key.getName()).write(" = ")
+                    .write(String.valueOf(key.getOrdinal())).line(";");
+        }
+        out.line("");
+        out.write(MEMBER_INDENT).line("/**");
+        out.write(MEMBER_INDENT).line(" * The generated locales in sort order, so the default locale is first.");
+        out.write(MEMBER_INDENT).line(" */");
+        out.write(MEMBER_INDENT).write("private static final String[] locales = {");
+        for (int i = 0; i < table.getLocales().size(); i++) {
+            out.write(i > 0 ? ", \"" : "\"").write(table.getLocales().get(i).getLocale()).write("\"");
+        }
+        out.line("};");
+        out.write(MEMBER_INDENT).write("private static final ").write(className).write("[] instances = new ").write(className)
+                .write("[").write(String.valueOf(table.getLocales().size())).line("];");
+        final boolean formatAccessors = !table.getFormatAccessors().isEmpty();
+        if (formatAccessors) {
+            out.line("");
+            out.write(MEMBER_INDENT).line("/**");
+            out.write(MEMBER_INDENT).line(" * The generated locales as java.util.Locale, with which the format accessors format the messages.");
+            out.write(MEMBER_INDENT).line(" */");
+            out.write(MEMBER_INDENT).write("private static final java.util.Locale[] formatLocales = {");
+            for (int i = 0; i < table.getLocales().size(); i++) {
+                final MessageTable locale = table.getLocales().get(i);
+                out.write(i > 0 ? ", " : "").write("new java.util.Locale(\"").write(locale.getLanguage()).write("\", \"")
+                        .write(locale.getCountry()).write("\", \"").write(locale.getVariant()).write("\")");
+            }
+            out.line("};");
+        }
+        out.line("");
+        out.write(MEMBER_INDENT).line("private final String locale;");
+        out.write(MEMBER_INDENT).line("private final String[] messages;");
+        if (formatAccessors) {
+            out.write(MEMBER_INDENT).line("private final java.util.Locale formatLocale;");
+            out.write(MEMBER_INDENT).line("private final Template[] templates;");
+            out.write(MEMBER_INDENT)
+                    .line("private final ThreadLocal<java.text.NumberFormat> numberFormat = new ThreadLocal<java.text.NumberFormat>();");
+        }
+        out.line("");
+        if (formatAccessors) {
+            out.write(MEMBER_INDENT).write("private ").write(className)
+                    .line("(final String locale, final String[] messages, final java.util.Locale formatLocale,");
+            out.write(NESTED_STATEMENT_INDENT).line("final Template[] templates) {");
+        } else {
+            out.write(MEMBER_INDENT).write("private ").write(className).line("(final String locale, final String[] messages) {");
+        }
+        out.write(STATEMENT_INDENT).line("this.locale = locale;");
+        out.write(STATEMENT_INDENT).line("this.messages = messages;");
+        if (formatAccessors) {
+            out.write(STATEMENT_INDENT).line("this.formatLocale = formatLocale;");
+            out.write(STATEMENT_INDENT).line("this.templates = templates;");
+        }
+        out.write(MEMBER_INDENT).line("}");
+        out.line("");
+        out.write(MEMBER_INDENT).line("/**");
+        out.write(MEMBER_INDENT).line(" * @return The messages of the most specific generated locale which matches the locale, for example of nl_NL, nl");
+        out.write(MEMBER_INDENT).line(" *         or the default locale for nl_NL.");
+        out.write(MEMBER_INDENT).line(" */");
+        out.write(MEMBER_INDENT).write("public static ").write(className).line(" forLocale(final java.util.Locale locale) {");
+        out.write(STATEMENT_INDENT).line("return forIndex(resolve(locale.toString()));");
+        out.write(MEMBER_INDENT).line("}");
+        out.line("");
+        out.write(MEMBER_INDENT).line("/**");
+        out.write(MEMBER_INDENT).line(" * The fallback table, the index of the generated locale for every generated locale and every locale in their");
+        out.write(MEMBER_INDENT).line(" * fallback chains. Other locales continue with the next locale in their fallback chain.");
+        out.write(MEMBER_INDENT).line(" */");
+        out.write(MEMBER_INDENT).line("private static int resolve(final String name) {");
+        out.write(STATEMENT_INDENT).line("switch (name) {");
+        for (final LocaleFallback fallback : table.getFallbacks()) {
+            out.write(NESTED_STATEMENT_INDENT).write("case \"").write(fallback.getLocale()).line("\":");
+            out.write(NESTED_STATEMENT_INDENT).write(MEMBER_INDENT).write("return ").write(String.valueOf(fallback.getIndex()))
+                    .line(";");
+        }
+        out.write(NESTED_STATEMENT_INDENT).line("default:");
+        out.write(NESTED_STATEMENT_INDENT).write(MEMBER_INDENT)
+                .line("return resolve(name.substring(0, Math.max(name.lastIndexOf('_'), 0)));");
+        out.write(STATEMENT_INDENT).line("}");
+        out.write(MEMBER_INDENT).line("}");
+        out.line("");
+        out.write(MEMBER_INDENT).write("private static ").write(className).line(" forIndex(final int index) {");
+        out.write(STATEMENT_INDENT).line("// Concurrent calls may create the same messages twice, which is harmless as they are immutable.");
+        out.write(STATEMENT_INDENT).write(className).line(" strings = instances[index];");
+        out.write(STATEMENT_INDENT).line("if (strings == null) {");
+        out.write(NESTED_STATEMENT_INDENT).write("strings = new ").write(className)
+                .line(formatAccessors ? "(locales[index], messages(index), formatLocales[index], templates(index));"
+                        : "(locales[index], messages(index));");
+        out.write(NESTED_STATEMENT_INDENT).line("instances[index] = strings;");
+        out.write(STATEMENT_INDENT).line("}");
+        out.write(STATEMENT_INDENT).line("return strings;");
+        out.write(MEMBER_INDENT).line("}");
+        out.line("");
+        writeLocaleSwitch(table, "String[] messages", out);
+        out.line("");
+        if (formatAccessors) {
+            writeLocaleSwitch(table, "Template[] templates", out);
+            out.line("");
+        }
+        out.write(MEMBER_INDENT).line("/**");
+        out.write(MEMBER_INDENT).line(" * @return The locale of the messages, empty for the default locale.");
+        out.write(MEMBER_INDENT).line(" */");
+        out.write(MEMBER_INDENT).line("public String locale() {");
+        out.write(STATEMENT_INDENT).line("return locale;");
+        out.write(MEMBER_INDENT).line("}");
+        out.line("");
+        out.write(MEMBER_INDENT).line("/**");
+        out.write(MEMBER_INDENT).line(" * @return The message with the key ID, of the first locale in the fallback chain of this locale which translates");
+        out.write(MEMBER_INDENT).line(" *         the key, or null if the key has no message at all.");
+        out.write(MEMBER_INDENT).line(" */");
+        out.write(MEMBER_INDENT).line("public String get(final int id) {");
+        out.write(STATEMENT_INDENT).line("return messages[id];");
+        out.write(MEMBER_INDENT).line("}");
+        if (formatAccessors) {
+            out.line("");
+            out.write(MEMBER_INDENT).line("/**");
+            out.write(MEMBER_INDENT).line(" * @return The message with the key ID formatted with the arguments, like");
+            out.write(MEMBER_INDENT).line(" *         new java.text.MessageFormat(get(id), locale).format(arguments) with the locale of the messages, but with");
+            out.write(MEMBER_INDENT).line(" *         a pattern which is parsed when this class is generated. Null if the key has no message at all.");
+            out.write(MEMBER_INDENT).line(" */");
+            out.write(MEMBER_INDENT).line("private String format(final int id, final Object... arguments) {");
+            out.write(STATEMENT_INDENT).line("final Template template = templates[id];");
+            out.write(STATEMENT_INDENT).line("return template == null ? null : template.format(formatLocale, numberFormat, arguments);");
+            out.write(MEMBER_INDENT).line("}");
+        }
+        for (final KeyId key : table.getKeys()) {
+            out.line("");
+            out.write(MEMBER_INDENT).write("public String ").write(key.getName()).line("() {");
+            out.write(STATEMENT_INDENT).write("return get(").write(key.getName()).line(");");
+            out.write(MEMBER_INDENT).line("}");
+        }
+        for (final FormatAccessor accessor : table.getFormatAccessors()) {
+            final List<String> parameterTypes = accessor.getParameterTypes();
+            out.line("");
+            out.write(MEMBER_INDENT).write("public String ").write(accessor.getKey().getName()).write("(");
+            for (int i = 0; i < parameterTypes.size(); i++) {
+                out.write(i > 0 ? ", final " : "final ").write(parameterTypes.get(i)).write(" arg").write(String.valueOf(i));
+            }
+            out.line(") {");
+            out.write(STATEMENT_INDENT).write("return format(").write(accessor.getKey().getName());
+            for (int i = 0; i < parameterTypes.size(); i++) {
+                out.write(", arg").write(String.valueOf(i));
+            }
+            out.line(");");
+            out.write(MEMBER_INDENT).line("}");
+        }
+        for (final MessageTable locale : table.getLocales()) {
+            out.line("");
+            out.write(MEMBER_INDENT).write("private static final class ").write(locale.getClassName()).line(" {");
+            out.write(STATEMENT_INDENT).line("static String[] messages() {");
+            out.write(NESTED_STATEMENT_INDENT).write("final String[] messages = new String[")
+                    .write(String.valueOf(table.getKeyCount())).line("];");
+            for (int i = 0; i < locale.getChunks().size(); i++) {
+                out.write(NESTED_STATEMENT_INDENT).write("messages").write(String.valueOf(i)).line("(messages);");
+            }
+            out.write(NESTED_STATEMENT_INDENT).line("return messages;");
+            out.write(STATEMENT_INDENT).line("}");
+            if (formatAccessors) {
+                out.line("");
+                out.write(STATEMENT_INDENT).line("static Template[] templates() {");
+                out.write(NESTED_STATEMENT_INDENT).write("final Template[] templates = new Template[")
+                        .write(String.valueOf(table.getKeyCount())).line("];");
+                for (int i = 0; i < locale.getPatternChunks().size(); i++) {
+                    out.write(NESTED_STATEMENT_INDENT).write("templates").write(String.valueOf(i)).line("(templates);");
+                }
+                out.write(NESTED_STATEMENT_INDENT).line("return templates;");
+                out.write(STATEMENT_INDENT).line("}");
+            }
+            for (int i = 0; i < locale.getChunks().size(); i++) {
+                out.line("");
+                out.write(STATEMENT_INDENT).write("private static void messages").write(String.valueOf(i))
+                        .line("(final String[] messages) {");
+                for (final Message message : locale.getChunks().get(i)) {
+                    out.write(NESTED_STATEMENT_INDENT).write("messages[").write(String.valueOf(message.getIndex())).write("] = \"")
+                            .write(JavaStringRenderer.escapeAscii(message.getValue())).line("\";");
+                }
+                out.write(STATEMENT_INDENT).line("}");
+            }
+            for (int i = 0; i < locale.getPatternChunks().size(); i++) {
+                out.line("");
+                out.write(STATEMENT_INDENT).write("private static void templates").write(String.valueOf(i))
+                        .line("(final Template[] templates) {");
+                for (final MessagePattern pattern : locale.getPatternChunks().get(i)) {
+                    writePattern(pattern, out);
+                }
+                out.write(STATEMENT_INDENT).line("}");
+            }
+            out.write(MEMBER_INDENT).line("}");
+        }
+        if (formatAccessors) {
+            out.line("");
+            for (final String line : FORMAT_TEMPLATE_CLASS) {
+                out.write(line.length() > 0 ? MEMBER_INDENT : "").line(line);
+            }
+        }
+        out.write("}");
+        return out.characterCount;
+    }
+
+    /**
+     * Writes the method of a key table which returns the messages or templates of the locale with an index.
+     *
+     * @param declaration The return type and name of the method of the nested class of a locale, for example
+     *                    String[] messages.
+     */
+    private static void writeLocaleSwitch(final KeyTable table, final String declaration, final SourceWriter out)
+            throws IOException {
+        final String methodName = declaration.substring(declaration.indexOf(' ') + 1);
+        out.write(MEMBER_INDENT).write("private static ").write(declaration).line("(final int index) {");
+        out.write(STATEMENT_INDENT).line("switch (index) {");
+        for (int i = 0; i < table.getLocales().size(); i++) {
+            out.write(NESTED_STATEMENT_INDENT).write("case ").write(String.valueOf(i)).line(":");
+            out.write(NESTED_STATEMENT_INDENT).write(MEMBER_INDENT).write("return ").write(table.getLocales().get(i).getClassName())
+                    .write(".").write(methodName).line("();");
+        }
+        out.write(NESTED_STATEMENT_INDENT).line("default:");
+        out.write(NESTED_STATEMENT_INDENT).write(MEMBER_INDENT).line("throw new IllegalArgumentException(String.valueOf(index));");
+        out.write(STATEMENT_INDENT).line("}");
+        out.write(MEMBER_INDENT).line("}");
+    }
+
+    private static void writePattern(final MessagePattern pattern, final SourceWriter out) throws IOException {
+        out.write(NESTED_STATEMENT_INDENT).write("templates[").write(String.valueOf(pattern.getIndex())).write("] = new Template(");
+        if (pattern.isSplit()) {
+            out.write("new String[]{");
+            for (int i = 0; i < pattern.getLiterals().size(); i++) {
+                out.write(i > 0 ? ", \"" : "\"").write(JavaStringRenderer.escapeAscii(pattern.getLiterals().get(i))).write("\"");
+            }
+            out.write("}");
+            for (final Integer argument : pattern.getArguments()) {
+                out.write(", ").write(String.valueOf(argument));
+            }
+        } else {
+            out.write("\"").write(JavaStringRenderer.escapeAscii(pattern.getPattern())).write("\"");
+        }
+        out.line(");");
+    }
+
+    public int renderKeyEnum(final ResModel model, final KeyEnum keyEnum, final Writer writer) throws IOException {
+        final SourceWriter out = new SourceWriter(writer);
+        writePackage(model, out);
+        out.line("/**");
+        out.write("* Keys of ").write(keyEnum.getOriginalPathAndName()).line(", generated by Restatic, version TODO.");
+        out.line("* The ordinal of a key is the same as its key ID in the key table of the resource bundle.");
+        out.line("*");
+        out.line("* Do not modify by hand.");
+        out.line("*/");
+        out.write("public enum ").write(keyEnum.getClassName()).line(" {");
+        out.write(MEMBER_INDENT);
+        for (int i = 0; i < keyEnum.getKeys().size(); i++) {
+            final ResKey key = keyEnum.getKeys().get(i);
+            if (i > 0) {
+                out.line(",").write(MEMBER_INDENT);
+            }
+            out.write(key.getName()).write("(\"").write(JavaStringRenderer.escape(key.getOriginalName())).write("\")");
+        }
+        out.line(";");
+        out.line("");
+        out.write(MEMBER_INDENT).line("private final String key;");
+        out.line("");
+        out.write(MEMBER_INDENT).write("private ").write(keyEnum.getClassName()).line("(final String key) {");
+        out.write(STATEMENT_INDENT).line("this.key = key;");
+        out.write(MEMBER_INDENT).line("}");
+        out.line("");
+        out.write(MEMBER_INDENT).line("/**");
+        out.write(MEMBER_INDENT).line(" * @return The key in the resource bundle.");
+        out.write(MEMBER_INDENT).line(" */");
+        out.write(MEMBER_INDENT).line("public String key() {");
+        out.write(STATEMENT_INDENT).line("return key;");
+        out.write(MEMBER_INDENT).line("}");
+        out.write("}");
+        return out.characterCount;
+    }
+
+    /**
+     * Writes the names of the shards of a sharded bundle, separated by commas, after the keyword.
+     */
+    private static void writeShardNames(final String keyword, final String prefix, final BundleClass bundle,
+                                        final SourceWriter out) throws IOException {
+        if (bundle.isSharded()) {
+            out.write(keyword);
+            for (int i = 0; i < bundle.getShards().size(); i++) {
+                if (i > 0) {
+                    out.write(", ");
+                }
+                out.write(prefix).write(bundle.getShards().get(i).getName());
+            }
+        }
+    }
+
+    private static void writePackage(final ResModel model, final SourceWriter out) throws IOException {
+        if (model.isNotDefaultPackage()) {
+            out.write("package ").write(model.getRootClassPackage()).line(";");
+            out.line("");
+        }
+    }
+
+    /**
+     * Writes the keys of a nested class, followed by an empty line if there are keys.
+     */
+    private static void writeKeys(final List<ResKey> keys, final String indent, final SourceWriter out) throws IOException {
+        for (final ResKey key : keys) {
+            writeKey(key, indent, out);
+        }
+        if (!keys.isEmpty()) {
+            out.line("");
+        }
+    }
+
+    private static void writeKey(final ResKey key, final String indent, final SourceWriter out) throws IOException {
+        out.write(indent).write("public static final String ").write(key.getName())
+                .write(" = \"").write(JavaStringRenderer.escape(key.getOriginalName())).line("\";");
+    }
+
+    /**
+     * Writes the closing brace of the top level type, preceded by an empty line if the type has members. The source
+     * file does not end with a line separator.
+     */
+    private static void writeClose(final boolean hasMembers, final SourceWriter out) throws IOException {
+        if (hasMembers) {
+            out.line("");
+        }
+        out.write("}");
+    }
+
+    /**
+     * Writes to the Writer of the source file and counts the characters written.
+     */
+    private static final class SourceWriter {
+        private final Writer writer;
+        private final String lineSeparator;
+        private int characterCount;
+
+        private SourceWriter(final Writer writer) {
+            this.writer = writer;
+            // The same line separator as StringTemplate's AutoIndentWriter.
+            this.lineSeparator = System.getProperty("line.separator");
+        }
+
+        private SourceWriter write(final String text) throws IOException {
+            writer.write(text);
+            characterCount += text.length();
+            return this;
+        }
+
+        private SourceWriter line(final String text) throws IOException {
+            write(text);
+            return write(lineSeparator);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.stringtemplate.v4.AttributeRenderer;
+
+import java.util.Locale;
+
+/**
+ * AttributeRenderer for strings which escapes them for a Java string literal when the format java is given, for
+ * example <code>$key.originalName; format="java"$</code>. The format javaAscii also escapes all characters which are
+ * not ASCII, for the values of message tables, which are often not in the encoding of the generated source file.
+ * Without a format strings are rendered as they are.
+ * <p/>
+ * The same escaping is used by the JavaSourceEmitter, so both generator backends write the same string literals.
+ * <p/>
+ * This class is threadsafe.
+ *
+ * @author Jamie Craane
+ */
+final class JavaStringRenderer implements AttributeRenderer {
+    static final String JAVA_FORMAT = "java";
+    static final String JAVA_ASCII_FORMAT = "javaAscii";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    public String toString(final Object o, final String formatString, final Locale locale) {
+        final String value = (String) o;
+        if (JAVA_FORMAT.equals(formatString)) {
+            return escape(value);
+        } else if (JAVA_ASCII_FORMAT.equals(formatString)) {
+            return escapeAscii(value);
+        }
+        return value;
+    }
+
+    /**
+     * Escapes the value so it can be written between the double quotes of a Java string literal. Backslashes, double
+     * quotes and control characters are escaped, all other characters are written as they are.
+     *
+     * @param value The value to escape.
+     * @return The escaped value, or the value itself if there is nothing to escape.
+     */
+    static String escape(final String value) {
+        return escape(value, false);
+    }
+
+    /**
+     * Escapes the value like escape, and writes every character which is not ASCII as a unicode escape.
+     *
+     * @param value The value to escape.
+     * @return The escaped value, or the value itself if there is nothing to escape.
+     */
+    static String escapeAscii(final String value) {
+        return escape(value, true);
+    }
+
+    private static String escape(final String value, final boolean ascii) {
+        int i = 0;
+        while (i < value.length() && !needsEscape(value.charAt(i), ascii)) {
+            i++;
+        }
+        if (i == value.length()) {
+            return value;
+        }
+
+        final StringBuilder escaped = new StringBuilder(value.length() + 8);
+        escaped.append(value, 0, i);
+        for (; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '"':
+                    escaped.append("\\\"");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                case '\b':
+                    escaped.append("\\b");
+                    break;
+                case '\f':
+                    escaped.append("\\f");
+                    break;
+                default:
+                    if (c < ' ') {
+                        escaped.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0xf]);
+                    } else if (ascii && c > '~') {
+                        escaped.append("\\u").append(HEX_DIGITS[c >> 12]).append(HEX_DIGITS[(c >> 8) & 0xf])
+                                .append(HEX_DIGITS[(c >> 4) & 0xf]).append(HEX_DIGITS[c & 0xf]);
+                    } else {
+                        escaped.append(c);
+                    }
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static boolean needsEscape(final char c, final boolean ascii) {
+        return c < ' ' || c == '"' || c == '\\' || (ascii && c > '~');
+    }
+}
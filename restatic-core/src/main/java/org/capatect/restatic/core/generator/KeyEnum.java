@@ -0,0 +1,73 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResKey;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An enum which is generated for a resource bundle with a constant for every unique key, which carries the original
+ * key. Application code can switch over the keys, with compile time checks, and keep per key data in an EnumMap or in
+ * an array indexed by ordinal, without hashing the key names.
+ * <p/>
+ * The constants are in the order of the keys sorted by name, so the ordinal of a constant is the same as the ID of the
+ * key in the KeyTable of the resource bundle. The enum is named like the key table, with _Keys instead of _Strings,
+ * for example org.capatec.R_ORG_CAPATECT_RESOURCES_Keys.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class KeyEnum {
+    /**
+     * The suffix of the class name of a key enum.
+     */
+    static final String CLASS_NAME_SUFFIX = "_Keys";
+
+    private final String className;
+    private final String originalPathAndName;
+    private final List<ResKey> keys;
+
+    KeyEnum(final String className, final String originalPathAndName, final List<ResKey> keys) {
+        this.className = className;
+        this.originalPathAndName = originalPathAndName;
+        this.keys = Collections.unmodifiableList(keys);
+    }
+
+    /**
+     * @return The simple name of the generated enum.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    public String getOriginalPathAndName() {
+        return originalPathAndName;
+    }
+
+    /**
+     * @return The keys in the order of the enum constants.
+     */
+    public List<ResKey> getKeys() {
+        return keys;
+    }
+}
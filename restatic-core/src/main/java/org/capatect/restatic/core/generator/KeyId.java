@@ -0,0 +1,48 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+
+package org.capatect.restatic.core.generator;
+
+/**
+ * The ID of a key in a KeyTable: the position of the key in the keys of the resource bundle sorted by name.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class KeyId {
+    private final int ordinal;
+    private final String name;
+
+    KeyId(final int ordinal, final String name) {
+        this.ordinal = ordinal;
+        this.name = name;
+    }
+
+    public int getOrdinal() {
+        return ordinal;
+    }
+
+    /**
+     * @return The key converted to a Java constant identifier, the name of the ID constant and of the accessor.
+     */
+    public String getName() {
+        return name;
+    }
+}
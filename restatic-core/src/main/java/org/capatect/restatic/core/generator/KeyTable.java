@@ -0,0 +1,119 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+
+package org.capatect.restatic.core.generator;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A class which is generated for a resource bundle to look messages up by key ID, which is an index in an array of
+ * the messages of a locale instead of a String lookup in a PropertyResourceBundle.
+ * <p/>
+ * Every unique key of the resource bundle gets a dense ID, its position in the keys sorted by name, so the IDs only
+ * change when keys are added or removed. The class has an int constant with the ID and an accessor for every key.
+ * The messages of every locale are in a nested class, which the JVM only loads when the messages of its locale are
+ * used. They are described by a MessageTable whose message indexes are the key IDs.
+ * <p/>
+ * The fallbacks are resolved when the key table is generated: the messages of a locale include the messages of the
+ * locales in its fallback chain which it does not translate, nl_NL falls back to nl and then to the default locale.
+ * The fallback table maps every generated locale, and every locale in their fallback chains, to the generated locale
+ * whose messages are used, so at runtime a locale is resolved with one lookup and a message with one array access.
+ * <p/>
+ * With format accessors the messages of the keys which take arguments are parsed as MessagePatterns as well, and the
+ * class gets a FormatAccessor for every such key, which formats the pre-parsed pattern of the locale without parsing
+ * it and without the synchronization of a shared MessageFormat.
+ * <p/>
+ * The class is named like the message tables, with _Strings instead of _Messages, for example
+ * org.capatec.R_ORG_CAPATECT_RESOURCES_Strings.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class KeyTable {
+    /**
+     * The suffix of the class name of a key table.
+     */
+    static final String CLASS_NAME_SUFFIX = "_Strings";
+
+    private final String className;
+    private final String originalPathAndName;
+    private final List<KeyId> keys;
+    private final List<MessageTable> locales;
+    private final List<LocaleFallback> fallbacks;
+    private final List<FormatAccessor> formatAccessors;
+
+    KeyTable(final String className, final String originalPathAndName, final List<KeyId> keys,
+             final List<MessageTable> locales, final List<LocaleFallback> fallbacks,
+             final List<FormatAccessor> formatAccessors) {
+        this.className = className;
+        this.originalPathAndName = originalPathAndName;
+        this.keys = Collections.unmodifiableList(keys);
+        this.locales = Collections.unmodifiableList(locales);
+        this.fallbacks = Collections.unmodifiableList(fallbacks);
+        this.formatAccessors = Collections.unmodifiableList(formatAccessors);
+    }
+
+    /**
+     * @return The simple name of the generated class.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    public String getOriginalPathAndName() {
+        return originalPathAndName;
+    }
+
+    /**
+     * @return The keys sorted by ID.
+     */
+    public List<KeyId> getKeys() {
+        return keys;
+    }
+
+    public int getKeyCount() {
+        return keys.size();
+    }
+
+    /**
+     * @return The messages of every locale sorted by locale, the default locale first, merged with the messages of
+     *         the locales in their fallback chains. The default locale is present even when the resource bundle has no
+     *         default locale, without messages.
+     */
+    public List<MessageTable> getLocales() {
+        return locales;
+    }
+
+    /**
+     * @return The fallback table sorted by locale.
+     */
+    public List<LocaleFallback> getFallbacks() {
+        return fallbacks;
+    }
+
+    /**
+     * @return The format accessors sorted by key ID, empty if format accessors are not enabled or no message takes
+     *         arguments.
+     */
+    public List<FormatAccessor> getFormatAccessors() {
+        return formatAccessors;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+
+package org.capatect.restatic.core.generator;
+
+/**
+ * An entry of the fallback table of a KeyTable: a locale and the generated locale of the key table whose messages are
+ * used for it, which is the locale itself or the first generated locale in its fallback chain, for example nl for
+ * nl_NL when only nl is generated.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class LocaleFallback {
+    private final String locale;
+    private final int index;
+
+    LocaleFallback(final String locale, final int index) {
+        this.locale = locale;
+        this.index = index;
+    }
+
+    /**
+     * @return The locale, for example nl_NL, or an empty String for the default locale.
+     */
+    public String getLocale() {
+        return locale;
+    }
+
+    /**
+     * @return The index of the generated locale in the locales of the key table.
+     */
+    public int getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+/**
+ * A key and its value in a MessageTable, with the position of the entry in the contents of the table.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class Message {
+    private final int index;
+    private final String key;
+    private final String value;
+
+    Message(final int index, final String key, final String value) {
+        this.index = index;
+        this.key = key;
+        this.value = value;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return The key as it is in the resource bundle, not converted to a Java constant identifier.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public String getValue() {
+        return value;
+    }
+}
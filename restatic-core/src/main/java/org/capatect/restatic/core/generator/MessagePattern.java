@@ -0,0 +1,222 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+
+package org.capatect.restatic.core.generator;
+
+import java.text.ChoiceFormat;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A message of a KeyTable parsed as a java.text.MessageFormat pattern when the key table is generated, so the format
+ * accessors of the key table do not parse the pattern at runtime.
+ * <p/>
+ * A pattern whose arguments have no format, like "Hello {0}", is split in its literal segments, with the quotes
+ * already resolved, and an argument slot between every two segments. A pattern with a format, like {0,number,#.##},
+ * is not split, the generated key table formats it with a MessageFormat. The arguments of the patterns nested in
+ * a choice format, which MessageFormat formats with the same arguments, count as arguments of the pattern too.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class MessagePattern {
+    private static final char QUOTE = '\'';
+    private static final char ARGUMENT_START = '{';
+    private static final char ARGUMENT_END = '}';
+    private static final char FORMAT_SEPARATOR = ',';
+    private static final String CHOICE_TYPE = "choice";
+
+    private final int index;
+    private final String pattern;
+    private final List<String> literals;
+    private final List<Integer> arguments;
+    private final List<String> formatTypes;
+    private final int argumentCount;
+    private final boolean split;
+
+    private MessagePattern(final int index, final String pattern, final List<String> literals,
+                           final List<Integer> arguments, final List<String> formatTypes, final int argumentCount) {
+        this.index = index;
+        this.pattern = pattern;
+        this.literals = Collections.unmodifiableList(literals);
+        this.arguments = Collections.unmodifiableList(arguments);
+        this.formatTypes = Collections.unmodifiableList(formatTypes);
+        this.argumentCount = argumentCount;
+        this.split = Collections.frequency(formatTypes, "") == formatTypes.size();
+    }
+
+    /**
+     * Parses the message the same way as MessageFormat does.
+     *
+     * @param index   The key ID of the message.
+     * @param pattern The message.
+     * @return The parsed pattern.
+     * @throws IllegalArgumentException if the message is not a valid MessageFormat pattern.
+     */
+    static MessagePattern parse(final int index, final String pattern) {
+        // MessageFormat validates the pattern, so the parser below only needs to handle valid patterns.
+        new MessageFormat(pattern, Locale.ROOT);
+
+        final List<String> literals = new ArrayList<String>();
+        final List<Integer> arguments = new ArrayList<Integer>();
+        final List<String> formatTypes = new ArrayList<String>();
+        final StringBuilder literal = new StringBuilder();
+        int argumentCount = 0;
+        boolean quoted = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == QUOTE) {
+                if (i + 1 < pattern.length() && pattern.charAt(i + 1) == QUOTE) {
+                    literal.append(QUOTE);
+                    i++;
+                } else {
+                    quoted = !quoted;
+                }
+            } else if (c == ARGUMENT_START && !quoted) {
+                final int end = findArgumentEnd(pattern, i + 1);
+                final String argument = pattern.substring(i + 1, end);
+                final int separator = argument.indexOf(FORMAT_SEPARATOR);
+                literals.add(literal.toString());
+                literal.setLength(0);
+                if (separator < 0) {
+                    arguments.add(Integer.parseInt(argument));
+                    formatTypes.add("");
+                } else {
+                    final String format = argument.substring(separator + 1);
+                    arguments.add(Integer.parseInt(argument.substring(0, separator)));
+                    final String formatType = getFormatType(format);
+                    formatTypes.add(formatType);
+                    if (CHOICE_TYPE.equals(formatType)) {
+                        argumentCount = Math.max(argumentCount, getNestedArgumentCount(format));
+                    }
+                }
+                argumentCount = Math.max(argumentCount, arguments.get(arguments.size() - 1) + 1);
+                i = end;
+            } else {
+                literal.append(c);
+            }
+        }
+        literals.add(literal.toString());
+        return new MessagePattern(index, pattern, literals, arguments, formatTypes, argumentCount);
+    }
+
+    /**
+     * @return The number of arguments of the patterns nested in the choices of a choice format, 0 if there are none.
+     */
+    private static int getNestedArgumentCount(final String format) {
+        final int separator = format.indexOf(FORMAT_SEPARATOR);
+        if (separator < 0) {
+            return 0;
+        }
+        int argumentCount = 0;
+        for (final Object choice : new ChoiceFormat(format.substring(separator + 1)).getFormats()) {
+            if (choice.toString().indexOf(ARGUMENT_START) >= 0) {
+                argumentCount = Math.max(argumentCount, parse(0, choice.toString()).getArgumentCount());
+            }
+        }
+        return argumentCount;
+    }
+
+    /**
+     * @return The index of the brace which ends the argument, the braces of a nested pattern of a choice format and
+     *         quoted braces do not end it.
+     */
+    private static int findArgumentEnd(final String pattern, final int start) {
+        int depth = 0;
+        boolean quoted = false;
+        for (int i = start; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (quoted) {
+                quoted = c != QUOTE;
+            } else if (c == QUOTE) {
+                quoted = true;
+            } else if (c == ARGUMENT_START) {
+                depth++;
+            } else if (c == ARGUMENT_END) {
+                if (depth == 0) {
+                    return i;
+                }
+                depth--;
+            }
+        }
+        throw new IllegalArgumentException("Unmatched braces in the pattern.");
+    }
+
+    /**
+     * @return The format type of the argument in lower case, for example number for {0,number,#.##}.
+     */
+    private static String getFormatType(final String format) {
+        final int separator = format.indexOf(FORMAT_SEPARATOR);
+        return (separator < 0 ? format : format.substring(0, separator)).trim().toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * @return The key ID of the message.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    /**
+     * @return The message as it is in the resource bundle.
+     */
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * @return true if no argument has a format, so the pattern is split in its literal segments and argument slots.
+     */
+    public boolean isSplit() {
+        return split;
+    }
+
+    /**
+     * @return The literal segments, one more than there are argument slots.
+     */
+    public List<String> getLiterals() {
+        return literals;
+    }
+
+    /**
+     * @return The argument index of every argument slot, in the order of the slots.
+     */
+    public List<Integer> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * @return The format type of every argument slot, number, date, time or choice, or empty if the slot has no format.
+     */
+    public List<String> getFormatTypes() {
+        return formatTypes;
+    }
+
+    /**
+     * @return The number of arguments the pattern takes, one more than the highest argument index, also of the
+     *         patterns nested in a choice format, or 0 if the pattern has no arguments.
+     */
+    public int getArgumentCount() {
+        return argumentCount;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A ListResourceBundle which is generated with the messages of one locale of a resource bundle, so
+ * ResourceBundle.getBundle loads the messages from a class instead of parsing the .properties file.
+ * <p/>
+ * The base name of the message tables of a resource bundle is the root class name, an underscore, the bundle class
+ * name and _Messages, in the package of the root class, for example org.capatec.R_ORG_CAPATECT_RESOURCES_Messages. The
+ * class of a locale is the base name followed by an underscore and the locale, for example
+ * R_ORG_CAPATECT_RESOURCES_Messages_nl_NL, which is the name ResourceBundle.getBundle looks for. Messages is not in
+ * upper case, so the name does not collide with the names of the other generated classes.
+ * <p/>
+ * The contents are filled by methods of at most MESSAGES_PER_METHOD messages each, which keeps every method below the
+ * 64 KB code limit of a class file.
+ * <p/>
+ * The messages of a locale of a KeyTable are described by a MessageTable too, then the index of a message is its key
+ * ID and keys without translation in the locale are left out. With format accessors it also has the MessagePatterns
+ * of the messages of the keys with a format accessor, which are created by methods of at most
+ * PATTERN_SLOTS_PER_METHOD literal segments and argument slots each.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class MessageTable {
+    /**
+     * The suffix of the base name of the message tables of a resource bundle.
+     */
+    static final String BASE_NAME_SUFFIX = "_Messages";
+
+    static final int MESSAGES_PER_METHOD = 1000;
+
+    /**
+     * The literal segments and argument slots of the patterns created by one method, a pattern which is not split
+     * counts as one. Creating a pattern takes at most 23 bytes of code and 8 for every literal segment and argument
+     * slot, so at most 31 bytes per slot, which keeps the method below 64 KB.
+     */
+    static final int PATTERN_SLOTS_PER_METHOD = 2000;
+
+    private static final String LOCALE_SEPARATOR = "_";
+
+    private final String className;
+    private final String baseName;
+    private final String originalPathAndName;
+    private final String locale;
+    private final List<Message> messages;
+    private final List<List<Message>> chunks;
+    private final List<MessagePattern> patterns;
+    private final List<List<MessagePattern>> patternChunks;
+
+    MessageTable(final String className, final String baseName, final String originalPathAndName, final String locale,
+                 final List<Message> messages) {
+        this(className, baseName, originalPathAndName, locale, messages, Collections.<MessagePattern>emptyList());
+    }
+
+    MessageTable(final String className, final String baseName, final String originalPathAndName, final String locale,
+                 final List<Message> messages, final List<MessagePattern> patterns) {
+        this.className = className;
+        this.baseName = baseName;
+        this.originalPathAndName = originalPathAndName;
+        this.locale = locale;
+        this.messages = Collections.unmodifiableList(messages);
+
+        final List<List<Message>> chunks = new ArrayList<List<Message>>();
+        for (int from = 0; from < messages.size(); from += MESSAGES_PER_METHOD) {
+            chunks.add(this.messages.subList(from, Math.min(from + MESSAGES_PER_METHOD, messages.size())));
+        }
+        this.chunks = Collections.unmodifiableList(chunks);
+
+        this.patterns = Collections.unmodifiableList(patterns);
+        final List<List<MessagePattern>> patternChunks = new ArrayList<List<MessagePattern>>();
+        int from = 0;
+        int slots = 0;
+        for (int i = 0; i < patterns.size(); i++) {
+            final int patternSlots = getSlotCount(patterns.get(i));
+            if (slots + patternSlots > PATTERN_SLOTS_PER_METHOD && i > from) {
+                patternChunks.add(this.patterns.subList(from, i));
+                from = i;
+                slots = 0;
+            }
+            slots += patternSlots;
+        }
+        if (from < patterns.size()) {
+            patternChunks.add(this.patterns.subList(from, patterns.size()));
+        }
+        this.patternChunks = Collections.unmodifiableList(patternChunks);
+    }
+
+    private static int getSlotCount(final MessagePattern pattern) {
+        return pattern.isSplit() ? pattern.getLiterals().size() + pattern.getArguments().size() : 1;
+    }
+
+    /**
+     * @return The simple name of the generated class.
+     */
+    public String getClassName() {
+        return className;
+    }
+
+    /**
+     * @return The fully qualified base name to pass to ResourceBundle.getBundle.
+     */
+    public String getBaseName() {
+        return baseName;
+    }
+
+    public String getOriginalPathAndName() {
+        return originalPathAndName;
+    }
+
+    /**
+     * @return The locale, for example nl_NL, or an empty String for the default locale.
+     */
+    public String getLocale() {
+        return locale;
+    }
+
+    /**
+     * @return The locale, or default for the default locale, for the documentation of the generated class.
+     */
+    public String getLocaleName() {
+        return locale.length() == 0 ? "default" : locale;
+    }
+
+    /**
+     * @return The language of the locale, nl for nl_NL, or an empty String for the default locale.
+     */
+    public String getLanguage() {
+        return getLocalePart(0);
+    }
+
+    /**
+     * @return The country of the locale, NL for nl_NL, or an empty String if the locale has no country.
+     */
+    public String getCountry() {
+        return getLocalePart(1);
+    }
+
+    /**
+     * @return The variant of the locale, which may contain underscores, or an empty String if it has no variant.
+     */
+    public String getVariant() {
+        return getLocalePart(2);
+    }
+
+    private String getLocalePart(final int part) {
+        final String[] parts = locale.split(LOCALE_SEPARATOR, 3);
+        return part < parts.length ? parts[part] : "";
+    }
+
+    /**
+     * @return The messages sorted by key, or by key ID for a locale of a KeyTable.
+     */
+    public List<Message> getMessages() {
+        return messages;
+    }
+
+    public int getSize() {
+        return messages.size();
+    }
+
+    /**
+     * @return The messages split in consecutive parts of at most MESSAGES_PER_METHOD messages, one per generated method.
+     */
+    public List<List<Message>> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * @return The patterns of the messages of the keys with a format accessor, sorted by key ID, for a locale of a
+     *         KeyTable with format accessors, otherwise empty.
+     */
+    public List<MessagePattern> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * @return The patterns split in consecutive parts of at most PATTERN_SLOTS_PER_METHOD literal segments and
+     *         argument slots, one per generated method. A pattern with more slots is a part by itself.
+     */
+    public List<List<MessagePattern>> getPatternChunks() {
+        return patternChunks;
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResLocale;
+import org.capatect.restatic.core.model.ResModel;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Reads the messages of every locale of a ResBundle into a MessageTable, or into the KeyTable of the ResBundle. The
+ * ResModel only holds the keys, the values are read from the resource bundle files of the locales with
+ * java.util.Properties, so the tables contain exactly what ResourceBundle.getBundle would load from the files.
+ * <p/>
+ * This class is threadsafe.
+ *
+ * @author Jamie Craane
+ */
+final class MessageTableReader {
+    private static final String XML_EXTENSION = ".xml";
+    private static final String LOCALE_SEPARATOR = "_";
+    private static final String KEY_TABLE_LOCALE_CLASS_NAME = "Messages";
+    private static final String OBJECT_TYPE = "Object";
+    private static final String NUMBER_TYPE = "Number";
+    private static final String DATE_TYPE = "java.util.Date";
+
+    private final Charset encoding;
+    private final boolean formatAccessorsEnabled;
+
+    /**
+     * @param encoding The encoding of .properties resource bundles.
+     */
+    MessageTableReader(final Charset encoding) {
+        this(encoding, false);
+    }
+
+    /**
+     * @param encoding               The encoding of .properties resource bundles.
+     * @param formatAccessorsEnabled true to parse the messages of key tables and create their format accessors.
+     */
+    MessageTableReader(final Charset encoding, final boolean formatAccessorsEnabled) {
+        this.encoding = encoding;
+        this.formatAccessorsEnabled = formatAccessorsEnabled;
+    }
+
+    /**
+     * @return The message tables of the locales of the bundle, in the order of the locales.
+     * @throws GeneratorException if a resource bundle cannot be read or a locale is not valid in a class name.
+     */
+    List<MessageTable> read(final ResModel model, final ResBundle bundle) {
+        final String simpleBaseName = model.getRootClassName() + LOCALE_SEPARATOR + bundle.getBundleClassName()
+                + MessageTable.BASE_NAME_SUFFIX;
+        final String baseName = model.isNotDefaultPackage() ? model.getRootClassPackage() + "." + simpleBaseName : simpleBaseName;
+
+        final List<MessageTable> tables = new ArrayList<MessageTable>();
+        for (final ResLocale locale : bundle.getLocales()) {
+            final String className;
+            if (locale.isDefaultLocale()) {
+                className = simpleBaseName;
+            } else {
+                checkLocale(bundle, locale.getLocale());
+                className = simpleBaseName + LOCALE_SEPARATOR + locale.getLocale();
+            }
+            tables.add(new MessageTable(className, baseName, bundle.getOriginalPathAndName(), locale.getLocale(),
+                    readMessages(locale)));
+        }
+        return tables;
+    }
+
+    /**
+     * @return The key table of the bundle. The messages of a locale are in a nested class named Messages, followed by
+     *         an underscore and the locale for the other locales than the default locale, and are merged with the
+     *         messages of the locales in its fallback chain. With format accessors enabled a key whose message takes
+     *         arguments in at least one locale gets a FormatAccessor, and its messages are parsed in every locale.
+     * @throws GeneratorException if a resource bundle cannot be read, a locale is not valid in a class name or a
+     *                            message of a key with a format accessor is not a valid MessageFormat pattern.
+     */
+    KeyTable readKeyTable(final ResModel model, final ResBundle bundle) {
+        final String className = model.getRootClassName() + LOCALE_SEPARATOR + bundle.getBundleClassName()
+                + KeyTable.CLASS_NAME_SUFFIX;
+        final List<ResKey> resKeys = new ArrayList<ResKey>(bundle.getAllUniqueKeysForLocales());
+        final List<KeyId> keys = new ArrayList<KeyId>(resKeys.size());
+        for (final ResKey resKey : resKeys) {
+            keys.add(new KeyId(keys.size(), resKey.getName()));
+        }
+
+        // The locales are sorted, so the locales in the fallback chain of a locale are merged before it.
+        final List<MessageTable> locales = new ArrayList<MessageTable>();
+        final Map<String, Integer> indexes = new HashMap<String, Integer>();
+        indexes.put(ResLocale.DEFAULT_LOCALE, 0);
+        locales.add(new MessageTable(KEY_TABLE_LOCALE_CLASS_NAME, className, bundle.getOriginalPathAndName(),
+                ResLocale.DEFAULT_LOCALE, Collections.<Message>emptyList()));
+        for (final ResLocale locale : bundle.getLocales()) {
+            final List<Message> messages = readMessagesByKeyId(locale, resKeys);
+            if (locale.isDefaultLocale()) {
+                locales.set(0, new MessageTable(KEY_TABLE_LOCALE_CLASS_NAME, className, bundle.getOriginalPathAndName(),
+                        locale.getLocale(), messages));
+            } else {
+                checkLocale(bundle, locale.getLocale());
+                final MessageTable fallback = locales.get(findGeneratedLocale(indexes, getParent(locale.getLocale())));
+                indexes.put(locale.getLocale(), locales.size());
+                locales.add(new MessageTable(KEY_TABLE_LOCALE_CLASS_NAME + LOCALE_SEPARATOR + locale.getLocale(), className,
+                        bundle.getOriginalPathAndName(), locale.getLocale(), merge(messages, fallback.getMessages())));
+            }
+        }
+        if (!formatAccessorsEnabled) {
+            return new KeyTable(className, bundle.getOriginalPathAndName(), keys, locales, createFallbackTable(indexes),
+                    Collections.<FormatAccessor>emptyList());
+        }
+
+        final List<FormatAccessor> formatAccessors = createFormatAccessors(bundle, keys, locales);
+        final List<MessageTable> parsedLocales = new ArrayList<MessageTable>(locales.size());
+        for (final MessageTable locale : locales) {
+            parsedLocales.add(new MessageTable(locale.getClassName(), locale.getBaseName(), locale.getOriginalPathAndName(),
+                    locale.getLocale(), locale.getMessages(), parsePatterns(bundle, locale, formatAccessors)));
+        }
+        return new KeyTable(className, bundle.getOriginalPathAndName(), keys, parsedLocales, createFallbackTable(indexes),
+                formatAccessors);
+    }
+
+    /**
+     * @return The format accessors of the keys whose message is a MessageFormat pattern with arguments in at least
+     *         one locale, sorted by key ID.
+     * @throws GeneratorException if a key takes more arguments than fit in a method.
+     */
+    private static List<FormatAccessor> createFormatAccessors(final ResBundle bundle, final List<KeyId> keys,
+                                                              final List<MessageTable> locales) {
+        final List<List<String>> parameterTypes = new ArrayList<List<String>>(keys.size());
+        for (int id = 0; id < keys.size(); id++) {
+            parameterTypes.add(null);
+        }
+        for (final MessageTable locale : locales) {
+            for (final Message message : locale.getMessages()) {
+                final MessagePattern pattern;
+                try {
+                    pattern = MessagePattern.parse(message.getIndex(), message.getValue());
+                } catch (IllegalArgumentException e) {
+                    // Not a pattern, unless the message of the key takes arguments in another locale.
+                    continue;
+                }
+                if (pattern.getArgumentCount() > FormatAccessor.MAX_ARGUMENT_COUNT) {
+                    throw new GeneratorException(String.format(
+                            "Message %s of resource bundle %s takes %d arguments, more than the %d of a format accessor.",
+                            message.getKey(), bundle.getOriginalPathAndName(), pattern.getArgumentCount(),
+                            FormatAccessor.MAX_ARGUMENT_COUNT));
+                }
+                if (pattern.getArgumentCount() > 0) {
+                    parameterTypes.set(message.getIndex(), mergeParameterTypes(parameterTypes.get(message.getIndex()), pattern));
+                }
+            }
+        }
+
+        final List<FormatAccessor> formatAccessors = new ArrayList<FormatAccessor>();
+        for (int id = 0; id < keys.size(); id++) {
+            if (parameterTypes.get(id) != null) {
+                final List<String> types = parameterTypes.get(id);
+                for (int argument = 0; argument < types.size(); argument++) {
+                    if (types.get(argument) == null) {
+                        types.set(argument, OBJECT_TYPE);
+                    }
+                }
+                formatAccessors.add(new FormatAccessor(keys.get(id), types));
+            }
+        }
+        return formatAccessors;
+    }
+
+    /**
+     * @return The parameter types with the types of the arguments of the pattern: a Number for a number or choice
+     *         format, a java.util.Date for a date or time format, an Object for an argument with different formats in
+     *         different patterns. Null for an argument which has no format in any pattern so far.
+     */
+    private static List<String> mergeParameterTypes(final List<String> parameterTypes, final MessagePattern pattern) {
+        final List<String> merged = parameterTypes == null ? new ArrayList<String>() : parameterTypes;
+        while (merged.size() < pattern.getArgumentCount()) {
+            merged.add(null);
+        }
+        for (int slot = 0; slot < pattern.getArguments().size(); slot++) {
+            final String type = getParameterType(pattern.getFormatTypes().get(slot));
+            final int argument = pattern.getArguments().get(slot);
+            if (type != null && merged.get(argument) == null) {
+                merged.set(argument, type);
+            } else if (type != null && !type.equals(merged.get(argument))) {
+                merged.set(argument, OBJECT_TYPE);
+            }
+        }
+        return merged;
+    }
+
+    private static String getParameterType(final String formatType) {
+        if ("number".equals(formatType) || "choice".equals(formatType)) {
+            return NUMBER_TYPE;
+        } else if ("date".equals(formatType) || "time".equals(formatType)) {
+            return DATE_TYPE;
+        }
+        return null;
+    }
+
+    /**
+     * @return The patterns of the messages of the locale which have a format accessor, sorted by key ID.
+     * @throws GeneratorException if one of these messages is not a valid MessageFormat pattern.
+     */
+    private static List<MessagePattern> parsePatterns(final ResBundle bundle, final MessageTable locale,
+                                                      final List<FormatAccessor> formatAccessors) {
+        final List<MessagePattern> patterns = new ArrayList<MessagePattern>();
+        int next = 0;
+        for (final Message message : locale.getMessages()) {
+            while (next < formatAccessors.size() && formatAccessors.get(next).getKey().getOrdinal() < message.getIndex()) {
+                next++;
+            }
+            if (next < formatAccessors.size() && formatAccessors.get(next).getKey().getOrdinal() == message.getIndex()) {
+                try {
+                    patterns.add(MessagePattern.parse(message.getIndex(), message.getValue()));
+                } catch (IllegalArgumentException e) {
+                    throw new GeneratorException(String.format(
+                            "Message %s of the %s locale of resource bundle %s takes arguments in another locale, but is not a valid MessageFormat pattern: %s",
+                            message.getKey(), locale.getLocaleName(), bundle.getOriginalPathAndName(), e.getMessage()), e);
+                }
+            }
+        }
+        return patterns;
+    }
+
+    /**
+     * @return The fallback table of the generated locales: every generated locale and every locale in their fallback
+     *         chains, with the index of the generated locale whose messages are used for it, sorted by locale.
+     */
+    private static List<LocaleFallback> createFallbackTable(final Map<String, Integer> indexes) {
+        final SortedSet<String> locales = new TreeSet<String>();
+        for (final String generatedLocale : indexes.keySet()) {
+            // The locales in the fallback chain, until one which is already added.
+            String locale = generatedLocale;
+            while (locales.add(locale) && locale.length() > 0) {
+                locale = getParent(locale);
+            }
+        }
+
+        final List<LocaleFallback> fallbacks = new ArrayList<LocaleFallback>(locales.size());
+        for (final String locale : locales) {
+            fallbacks.add(new LocaleFallback(locale, findGeneratedLocale(indexes, locale)));
+        }
+        return fallbacks;
+    }
+
+    /**
+     * @return The index of the locale, or of the first generated locale in its fallback chain. The default locale is
+     *         always generated.
+     */
+    private static int findGeneratedLocale(final Map<String, Integer> indexes, final String locale) {
+        String name = locale;
+        while (!indexes.containsKey(name)) {
+            name = getParent(name);
+        }
+        return indexes.get(name);
+    }
+
+    /**
+     * @return The next locale in the fallback chain of the locale, like ResourceBundle: nl for nl_NL and the default
+     *         locale for nl.
+     */
+    private static String getParent(final String locale) {
+        return locale.substring(0, Math.max(locale.lastIndexOf(LOCALE_SEPARATOR), 0));
+    }
+
+    /**
+     * @return The messages, sorted by key ID, with the fallback messages of the key IDs which the messages do not have.
+     */
+    private static List<Message> merge(final List<Message> messages, final List<Message> fallbackMessages) {
+        final List<Message> merged = new ArrayList<Message>(Math.max(messages.size(), fallbackMessages.size()));
+        int next = 0;
+        for (final Message fallbackMessage : fallbackMessages) {
+            while (next < messages.size() && messages.get(next).getIndex() < fallbackMessage.getIndex()) {
+                merged.add(messages.get(next++));
+            }
+            if (next < messages.size() && messages.get(next).getIndex() == fallbackMessage.getIndex()) {
+                merged.add(messages.get(next++));
+            } else {
+                merged.add(fallbackMessage);
+            }
+        }
+        merged.addAll(messages.subList(next, messages.size()));
+        return merged;
+    }
+
+    private List<Message> readMessages(final ResLocale locale) {
+        final Properties properties = load(locale);
+        final List<String> keys = new ArrayList<String>(properties.stringPropertyNames());
+        Collections.sort(keys);
+        final List<Message> messages = new ArrayList<Message>(keys.size());
+        for (final String key : keys) {
+            messages.add(new Message(messages.size(), key, properties.getProperty(key)));
+        }
+        return messages;
+    }
+
+    /**
+     * @return The messages of the locale with the key ID as index, sorted by key ID. Keys which are converted to the
+     *         same Java constant identifier have one ID, they get the value of the key with the original name of the
+     *         ResKey, or else of the first key in sort order.
+     */
+    private List<Message> readMessagesByKeyId(final ResLocale locale, final List<ResKey> resKeys) {
+        final Properties properties = load(locale);
+        final List<String> propertyKeys = new ArrayList<String>(properties.stringPropertyNames());
+        Collections.sort(propertyKeys);
+        final Map<String, String> keysByName = new HashMap<String, String>();
+        for (final String propertyKey : propertyKeys) {
+            // An empty key has no Java constant identifier, so it has no ID either.
+            if (propertyKey.length() > 0) {
+                final String name = ResKey.createAndConvertConstantIdentifier(propertyKey).getName();
+                if (!keysByName.containsKey(name)) {
+                    keysByName.put(name, propertyKey);
+                }
+            }
+        }
+
+        final List<Message> messages = new ArrayList<Message>();
+        for (int id = 0; id < resKeys.size(); id++) {
+            final ResKey resKey = resKeys.get(id);
+            final String key = properties.containsKey(resKey.getOriginalName())
+                    ? resKey.getOriginalName() : keysByName.get(resKey.getName());
+            if (key != null) {
+                messages.add(new Message(id, key, properties.getProperty(key)));
+            }
+        }
+        return messages;
+    }
+
+    private Properties load(final ResLocale locale) {
+        final Properties properties = new Properties();
+        for (final File resourceBundle : locale.getResourceBundles()) {
+            load(resourceBundle, properties);
+        }
+        return properties;
+    }
+
+    private void load(final File resourceBundle, final Properties properties) {
+        try {
+            final InputStream input = new FileInputStream(resourceBundle);
+            try {
+                if (resourceBundle.getName().endsWith(XML_EXTENSION)) {
+                    properties.loadFromXML(input);
+                } else {
+                    properties.load(new BufferedReader(new InputStreamReader(input, encoding)));
+                }
+            } finally {
+                input.close();
+            }
+        } catch (IOException e) {
+            throw new GeneratorException(String.format("Unable to read the messages of %s.", resourceBundle.getAbsolutePath()), e);
+        }
+    }
+
+    private static void checkLocale(final ResBundle bundle, final String locale) {
+        for (int i = 0; i < locale.length(); i++) {
+            if (!Character.isJavaIdentifierPart(locale.charAt(i))) {
+                throw new GeneratorException(String.format(
+                        "Locale %s of resource bundle %s cannot be part of the class name of a message table.",
+                        locale, bundle.getOriginalPathAndName()));
+            }
+        }
+    }
+}
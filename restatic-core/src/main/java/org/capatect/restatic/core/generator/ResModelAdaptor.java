@@ -0,0 +1,202 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResModel;
+import org.stringtemplate.v4.Interpreter;
+import org.stringtemplate.v4.ModelAdaptor;
+import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.misc.ObjectModelAdaptor;
+import org.stringtemplate.v4.misc.STNoSuchPropertyException;
+
+/**
+ * ModelAdaptor which reads the properties of ResModel, ResBundle, ResKey, BundleClass, BundleShard, MessageTable,
+ * Message, KeyTable, KeyId, LocaleFallback, FormatAccessor, MessagePattern and KeyEnum which are used in resourceclass.stg by calling their getters
+ * directly. StringTemplate's default ObjectModelAdaptor looks the getters up and invokes them by reflection for every
+ * property which is rendered.
+ * <p/>
+ * Properties which are not known to this adaptor, for example because a template is changed, are read by an
+ * ObjectModelAdaptor.
+ * <p/>
+ * This class is threadsafe.
+ *
+ * @author Jamie Craane
+ */
+final class ResModelAdaptor implements ModelAdaptor {
+    /**
+     * The fallback for unknown properties. Its cache of getters is not threadsafe, it is only used while holding its lock.
+     */
+    private final ObjectModelAdaptor fallback = new ObjectModelAdaptor();
+
+    public Object getProperty(final Interpreter interpreter, final ST self, final Object o, final Object property,
+                              final String propertyName) throws STNoSuchPropertyException {
+        if (o instanceof ResKey) {
+            final ResKey key = (ResKey) o;
+            if ("name".equals(propertyName)) {
+                return key.getName();
+            } else if ("originalName".equals(propertyName)) {
+                return key.getOriginalName();
+            }
+        } else if (o instanceof ResBundle) {
+            final ResBundle bundle = (ResBundle) o;
+            if ("allUniqueKeysForLocales".equals(propertyName)) {
+                return bundle.getAllUniqueKeysForLocales();
+            } else if ("bundleClassName".equals(propertyName)) {
+                return bundle.getBundleClassName();
+            } else if ("originalPathAndName".equals(propertyName)) {
+                return bundle.getOriginalPathAndName();
+            }
+        } else if (o instanceof BundleClass) {
+            final BundleClass bundleClass = (BundleClass) o;
+            if ("keys".equals(propertyName)) {
+                return bundleClass.getKeys();
+            } else if ("bundleClassName".equals(propertyName)) {
+                return bundleClass.getBundleClassName();
+            } else if ("originalPathAndName".equals(propertyName)) {
+                return bundleClass.getOriginalPathAndName();
+            } else if ("sharded".equals(propertyName)) {
+                return bundleClass.isSharded();
+            } else if ("shards".equals(propertyName)) {
+                return bundleClass.getShards();
+            }
+        } else if (o instanceof BundleShard) {
+            final BundleShard shard = (BundleShard) o;
+            if ("name".equals(propertyName)) {
+                return shard.getName();
+            } else if ("keys".equals(propertyName)) {
+                return shard.getKeys();
+            }
+        } else if (o instanceof Message) {
+            final Message message = (Message) o;
+            if ("index".equals(propertyName)) {
+                return message.getIndex();
+            } else if ("key".equals(propertyName)) {
+                return message.getKey();
+            } else if ("value".equals(propertyName)) {
+                return message.getValue();
+            }
+        } else if (o instanceof MessageTable) {
+            final MessageTable table = (MessageTable) o;
+            if ("className".equals(propertyName)) {
+                return table.getClassName();
+            } else if ("baseName".equals(propertyName)) {
+                return table.getBaseName();
+            } else if ("originalPathAndName".equals(propertyName)) {
+                return table.getOriginalPathAndName();
+            } else if ("locale".equals(propertyName)) {
+                return table.getLocale();
+            } else if ("localeName".equals(propertyName)) {
+                return table.getLocaleName();
+            } else if ("size".equals(propertyName)) {
+                return table.getSize();
+            } else if ("chunks".equals(propertyName)) {
+                return table.getChunks();
+            } else if ("language".equals(propertyName)) {
+                return table.getLanguage();
+            } else if ("country".equals(propertyName)) {
+                return table.getCountry();
+            } else if ("variant".equals(propertyName)) {
+                return table.getVariant();
+            } else if ("patterns".equals(propertyName)) {
+                return table.getPatterns();
+            } else if ("patternChunks".equals(propertyName)) {
+                return table.getPatternChunks();
+            }
+        } else if (o instanceof KeyId) {
+            final KeyId key = (KeyId) o;
+            if ("name".equals(propertyName)) {
+                return key.getName();
+            } else if ("ordinal".equals(propertyName)) {
+                return key.getOrdinal();
+            }
+        } else if (o instanceof KeyTable) {
+            final KeyTable table = (KeyTable) o;
+            if ("className".equals(propertyName)) {
+                return table.getClassName();
+            } else if ("originalPathAndName".equals(propertyName)) {
+                return table.getOriginalPathAndName();
+            } else if ("keys".equals(propertyName)) {
+                return table.getKeys();
+            } else if ("keyCount".equals(propertyName)) {
+                return table.getKeyCount();
+            } else if ("locales".equals(propertyName)) {
+                return table.getLocales();
+            } else if ("fallbacks".equals(propertyName)) {
+                return table.getFallbacks();
+            } else if ("formatAccessors".equals(propertyName)) {
+                return table.getFormatAccessors();
+            }
+        } else if (o instanceof LocaleFallback) {
+            final LocaleFallback fallback = (LocaleFallback) o;
+            if ("locale".equals(propertyName)) {
+                return fallback.getLocale();
+            } else if ("index".equals(propertyName)) {
+                return fallback.getIndex();
+            }
+        } else if (o instanceof FormatAccessor) {
+            final FormatAccessor accessor = (FormatAccessor) o;
+            if ("key".equals(propertyName)) {
+                return accessor.getKey();
+            } else if ("parameterTypes".equals(propertyName)) {
+                return accessor.getParameterTypes();
+            }
+        } else if (o instanceof MessagePattern) {
+            final MessagePattern pattern = (MessagePattern) o;
+            if ("index".equals(propertyName)) {
+                return pattern.getIndex();
+            } else if ("pattern".equals(propertyName)) {
+                return pattern.getPattern();
+            } else if ("split".equals(propertyName)) {
+                return pattern.isSplit();
+            } else if ("literals".equals(propertyName)) {
+                return pattern.getLiterals();
+            } else if ("arguments".equals(propertyName)) {
+                return pattern.getArguments();
+            } else if ("formatTypes".equals(propertyName)) {
+                return pattern.getFormatTypes();
+            }
+        } else if (o instanceof KeyEnum) {
+            final KeyEnum keyEnum = (KeyEnum) o;
+            if ("className".equals(propertyName)) {
+                return keyEnum.getClassName();
+            } else if ("originalPathAndName".equals(propertyName)) {
+                return keyEnum.getOriginalPathAndName();
+            } else if ("keys".equals(propertyName)) {
+                return keyEnum.getKeys();
+            }
+        } else if (o instanceof ResModel) {
+            final ResModel model = (ResModel) o;
+            if ("bundles".equals(propertyName)) {
+                return model.getBundles();
+            } else if ("rootClassName".equals(propertyName)) {
+                return model.getRootClassName();
+            } else if ("rootClassPackage".equals(propertyName)) {
+                return model.getRootClassPackage();
+            } else if ("notDefaultPackage".equals(propertyName)) {
+                return model.isNotDefaultPackage();
+            }
+        }
+
+        synchronized (fallback) {
+            return fallback.getProperty(interpreter, self, o, property, propertyName);
+        }
+    }
+}
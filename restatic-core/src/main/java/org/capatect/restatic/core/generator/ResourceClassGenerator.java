@@ -12,7 +12,8 @@ public interface ResourceClassGenerator {
      * Generates Java source files from the given ResModel to the given destination.
      *
      * @param resModel The ResModel to generate source files from.
+     * @return The statistics of the generated source files.
      */
-    void generate(ResModel resModel);
+    GenerationStatistics generate(ResModel resModel);
 
 }
@@ -19,52 +19,517 @@
 package org.capatect.restatic.core.generator;
 
 import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.GeneratorBackend;
+import org.capatect.restatic.core.configuration.SourceLayout;
+import org.capatect.restatic.core.jfr.RestaticEvents;
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
 import org.capatect.restatic.core.model.ResModel;
-import org.stringtemplate.v4.ST;
-import org.stringtemplate.v4.STGroup;
-import org.stringtemplate.v4.STGroupFile;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FilenameFilter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.GregorianCalendar;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
 /**
  * Implementation of ResourceClassGenerator which generates code based on the ResModel.
+ * <p/>
+ * Depending on the configured SourceLayout the keys of all resource bundles are generated in the root class or every
+ * resource bundle is generated in its own source file next to a root class which only indexes the resource bundles.
+ * Source files of resource bundles which are no longer part of the model are removed.
+ * <p/>
+ * The content of the source files is written by the SourceRenderer of the configured GeneratorBackend: the templates
+ * of resourceclass.stg, which are compiled once per JVM, see ResourceClassTemplates, or the JavaSourceEmitter. Both
+ * write the same source. The content is written straight into the generated source files, which are only written
+ * when their content changed, see SourceFileWriter.
+ * <p/>
+ * Resource bundles with more keys than fit in one class file are split over shards, see ClassFileBudget. In the
+ * FILE_PER_BUNDLE layout every shard is generated in its own source file, R_B_SHARD_1.java for the first shard of
+ * bundle B of root class R.
+ * <p/>
+ * With the BYTECODE backend the class files of the root class and its nested resource bundle classes are written to
+ * the class output directory by the ClassFileEmitter instead, and optionally the source of the root class, the message
+ * tables and the key enums to a sources jar. Generated source files of a previous run in the output directory are removed, they would declare the same
+ * classes.
+ * <p/>
+ * When message tables are enabled a ListResourceBundle is generated for every locale of every resource bundle, see
+ * MessageTable, as source file next to the root class or as class file with the BYTECODE backend. When key tables are
+ * enabled a class which looks the messages up by key ID is generated for every resource bundle as source file, see
+ * KeyTable, with format accessors for the keys whose messages take arguments when they are enabled too, see
+ * FormatAccessor. When key enums are enabled an enum with the keys is generated for every resource bundle, see KeyEnum, as
+ * source file or as class file with the BYTECODE backend.
  *
  * @author Jamie Craane
  */
 public class ResourceClassGeneratorImpl implements ResourceClassGenerator {
-    private static final char DELIMITER_CHAR = '$';
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResourceClassGeneratorImpl.class);
+
+    private static final String SOURCE_FILE_EXTENSION = ".java";
+    private static final String BUNDLE_FILE_SEPARATOR = "_";
+
+    /**
+     * Text which is present in all generated source files, used to recognize stale generated source files.
+     */
+    private static final String GENERATED_MARKER = "by Restatic";
+
+    private static final String ROOT_CLASS = "rootClass";
+    private static final String ROOT_INDEX = "rootIndex";
+    private static final String RESOURCE_BUNDLE_FILE = "resourceBundleFile";
+    private static final String RESOURCE_BUNDLE_SHARD_FILE = "resourceBundleShardFile";
+    private static final String BUNDLE_CLASS = "bundleClass";
+    private static final String SHARD_CLASS = "shardClass";
+    private static final String MESSAGE_TABLE = "messageTable";
+    private static final String KEY_TABLE = "keyTable";
+    private static final String KEY_ENUM = "keyEnum";
+
+    /**
+     * The time of the entries in the sources jar. A fixed time keeps the sources jar the same when the source is the
+     * same, so it is not rewritten.
+     */
+    private static final long SOURCES_JAR_ENTRY_TIME = new GregorianCalendar(1980, 1, 1).getTimeInMillis();
 
     private final Configuration configuration;
+    private final SourceFileWriter sourceFileWriter;
+    private final SourceRenderer renderer;
+    private final ClassFileEmitter classFileEmitter = new ClassFileEmitter();
+    private final ClassFileBudget classFileBudget;
 
     public ResourceClassGeneratorImpl(final Configuration configuration) {
         this.configuration = configuration;
+        this.renderer = createRenderer(configuration.getGeneratorBackend());
+        this.classFileBudget = new ClassFileBudget(configuration.getClassConstantPoolBudget());
+        // The platform default charset, like the FileWriter which was used before.
+        this.sourceFileWriter = new SourceFileWriter(Charset.defaultCharset());
+    }
+
+    public GenerationStatistics generate(final ResModel resModel) {
+        final List<BundleClass> bundles = classFileBudget.split(resModel);
+        final GenerationCounter counter = new GenerationCounter(bundles, classFileBudget.estimateRootClass(bundles),
+                configuration.getClassConstantPoolBudget());
+        final List<MessageTable> messageTables = readMessageTables(resModel, counter);
+        if (configuration.getGeneratorBackend() == GeneratorBackend.BYTECODE) {
+            return generateClassFiles(resModel, bundles, messageTables, counter);
+        }
+
+        final File destination = new File(configuration.getOutputDirectory(), replacePackageWithPathSeperator(resModel));
+        createDestinationDirectory(destination);
+
+        final Set<File> bundleSourceFiles = new HashSet<File>();
+        final File rootSourceFile = new File(destination, resModel.getRootClassName() + SOURCE_FILE_EXTENSION);
+        if (configuration.getSourceLayout() == SourceLayout.FILE_PER_BUNDLE) {
+            for (final BundleClass bundle : bundles) {
+                final File bundleSourceFile = new File(destination, getBundleSourceFileName(resModel, bundle.getBundleClassName()));
+                writeSourceFile(bundleSourceFile, RESOURCE_BUNDLE_FILE, resModel, bundles, bundle, null, counter);
+                bundleSourceFiles.add(bundleSourceFile);
+
+                for (final BundleShard shard : bundle.getShards()) {
+                    final File shardSourceFile = new File(destination, getBundleSourceFileName(resModel, shard.getName()));
+                    writeSourceFile(shardSourceFile, RESOURCE_BUNDLE_SHARD_FILE, resModel, bundles, bundle, shard, counter);
+                    bundleSourceFiles.add(shardSourceFile);
+                }
+            }
+
+            writeSourceFile(rootSourceFile, ROOT_INDEX, resModel, bundles, null, null, counter);
+        } else {
+            writeSourceFile(rootSourceFile, ROOT_CLASS, resModel, bundles, null, null, counter);
+        }
+
+        for (final MessageTable table : messageTables) {
+            final File messageTableSourceFile = new File(destination, table.getClassName() + SOURCE_FILE_EXTENSION);
+            writeTableSourceFile(messageTableSourceFile, MESSAGE_TABLE, resModel, table, counter);
+            bundleSourceFiles.add(messageTableSourceFile);
+        }
+        for (final KeyTable table : readKeyTables(resModel, counter)) {
+            final File keyTableSourceFile = new File(destination, table.getClassName() + SOURCE_FILE_EXTENSION);
+            writeTableSourceFile(keyTableSourceFile, KEY_TABLE, resModel, table, counter);
+            bundleSourceFiles.add(keyTableSourceFile);
+        }
+        for (final KeyEnum keyEnum : readKeyEnums(resModel, counter)) {
+            final File keyEnumSourceFile = new File(destination, keyEnum.getClassName() + SOURCE_FILE_EXTENSION);
+            writeTableSourceFile(keyEnumSourceFile, KEY_ENUM, resModel, keyEnum, counter);
+            bundleSourceFiles.add(keyEnumSourceFile);
+        }
+
+        deleteStaleFiles(destination, new GeneratedFileFilter(resModel.getRootClassName() + BUNDLE_FILE_SEPARATOR, SOURCE_FILE_EXTENSION),
+                bundleSourceFiles, true, counter);
+
+        return counter.toStatistics();
     }
 
-    public void generate(final ResModel resModel) {
-        STGroup stringTemplateGroup = new STGroupFile("resourceclass.stg", DELIMITER_CHAR, DELIMITER_CHAR);
-        ST stringTemplate = stringTemplateGroup.getInstanceOf("rootClass");
-        stringTemplate.add("model", resModel);
+    private GenerationStatistics generateClassFiles(final ResModel resModel, final List<BundleClass> bundles,
+                                                    final List<MessageTable> messageTables,
+                                                    final GenerationCounter counter) {
+        final File destination = new File(configuration.getClassOutputDirectory(), replacePackageWithPathSeperator(resModel));
+        createDestinationDirectory(destination);
+
+        final Set<File> bundleClassFiles = new HashSet<File>();
+        final String bundleClassPrefix = resModel.getRootClassName() + ClassFileEmitter.NESTED_CLASS_SEPARATOR;
+        for (final BundleClass bundle : bundles) {
+            final File bundleClassFile = new File(destination, bundleClassPrefix + bundle.getBundleClassName() + ClassFileEmitter.CLASS_FILE_EXTENSION);
+            writeClassFile(bundleClassFile, BUNDLE_CLASS, resModel, bundles, bundle, null, counter);
+            bundleClassFiles.add(bundleClassFile);
+
+            for (final BundleShard shard : bundle.getShards()) {
+                final File shardClassFile = new File(destination, bundleClassPrefix + shard.getName() + ClassFileEmitter.CLASS_FILE_EXTENSION);
+                writeClassFile(shardClassFile, SHARD_CLASS, resModel, bundles, bundle, shard, counter);
+                bundleClassFiles.add(shardClassFile);
+            }
+        }
+        writeClassFile(new File(destination, resModel.getRootClassName() + ClassFileEmitter.CLASS_FILE_EXTENSION), ROOT_CLASS,
+                resModel, bundles, null, null, counter);
+
+        final Set<File> messageTableClassFiles = new HashSet<File>();
+        for (final MessageTable table : messageTables) {
+            final File messageTableClassFile = new File(destination, table.getClassName() + ClassFileEmitter.CLASS_FILE_EXTENSION);
+            writeTableClassFile(messageTableClassFile, MESSAGE_TABLE, resModel, table, counter);
+            messageTableClassFiles.add(messageTableClassFile);
+        }
+        final List<KeyEnum> keyEnums = readKeyEnums(resModel, counter);
+        final Set<File> keyEnumClassFiles = new HashSet<File>();
+        for (final KeyEnum keyEnum : keyEnums) {
+            final File keyEnumClassFile = new File(destination, keyEnum.getClassName() + ClassFileEmitter.CLASS_FILE_EXTENSION);
+            writeTableClassFile(keyEnumClassFile, KEY_ENUM, resModel, keyEnum, counter);
+            keyEnumClassFiles.add(keyEnumClassFile);
+        }
+
+        // A nested class of the root class can only have been generated, the class files do not contain the marker.
+        deleteStaleFiles(destination, new GeneratedFileFilter(bundleClassPrefix, ClassFileEmitter.CLASS_FILE_EXTENSION),
+                bundleClassFiles, false, counter);
+        deleteStaleFiles(destination, new GeneratedFileFilter(resModel.getRootClassName() + BUNDLE_FILE_SEPARATOR,
+                MessageTable.BASE_NAME_SUFFIX, ClassFileEmitter.CLASS_FILE_EXTENSION), messageTableClassFiles, false, counter);
+        deleteStaleFiles(destination, new GeneratedFileFilter(resModel.getRootClassName() + BUNDLE_FILE_SEPARATOR,
+                KeyEnum.CLASS_NAME_SUFFIX, ClassFileEmitter.CLASS_FILE_EXTENSION), keyEnumClassFiles, false, counter);
+        deleteStaleFiles(new File(configuration.getOutputDirectory(), replacePackageWithPathSeperator(resModel)),
+                new SourceFileFilter(resModel.getRootClassName()), Collections.<File>emptySet(), true, counter);
+
+        if (configuration.getSourcesJar() != null) {
+            writeSourcesJar(configuration.getSourcesJar(), resModel, bundles, messageTables, keyEnums, counter);
+        }
 
-        final String renderedTemplate = stringTemplate.render();
-        writeTemplateToSourceFile(configuration.getOutputDirectory(), renderedTemplate, resModel);
+        return counter.toStatistics();
     }
 
-    private void writeTemplateToSourceFile(final File destination, final String renderedTemplate, final ResModel resModel) {
-        BufferedWriter writer = null;
+    /**
+     * Reads the message tables of all bundles when message tables are enabled and checks that they fit in a class file.
+     *
+     * @return The message tables, empty when message tables are disabled.
+     */
+    private List<MessageTable> readMessageTables(final ResModel resModel, final GenerationCounter counter) {
+        final List<MessageTable> messageTables = new ArrayList<MessageTable>();
+        if (!configuration.isMessageTablesEnabled()) {
+            return messageTables;
+        }
+
+        final MessageTableReader reader = new MessageTableReader(configuration.getResourceBundleEncoding());
+        for (final ResBundle bundle : resModel.getBundles()) {
+            for (final MessageTable table : reader.read(resModel, bundle)) {
+                counter.largestClassConstantPoolEntries = Math.max(counter.largestClassConstantPoolEntries,
+                        classFileBudget.checkMessageTable(table));
+                messageTables.add(table);
+            }
+        }
+        return messageTables;
+    }
+
+    /**
+     * Reads the key tables of all bundles when key tables are enabled and checks that they fit in class files.
+     *
+     * @return The key tables, empty when key tables are disabled.
+     */
+    private List<KeyTable> readKeyTables(final ResModel resModel, final GenerationCounter counter) {
+        final List<KeyTable> keyTables = new ArrayList<KeyTable>();
+        if (!configuration.isKeyTablesEnabled()) {
+            return keyTables;
+        }
+
+        final MessageTableReader reader = new MessageTableReader(configuration.getResourceBundleEncoding(),
+                configuration.isFormatAccessorsEnabled());
+        for (final ResBundle bundle : resModel.getBundles()) {
+            final KeyTable table = reader.readKeyTable(resModel, bundle);
+            counter.largestClassConstantPoolEntries = Math.max(counter.largestClassConstantPoolEntries,
+                    classFileBudget.checkKeyTable(table));
+            keyTables.add(table);
+        }
+        return keyTables;
+    }
+
+    /**
+     * Creates the key enums of all bundles when key enums are enabled and checks that they fit in a class file.
+     *
+     * @return The key enums, empty when key enums are disabled.
+     */
+    private List<KeyEnum> readKeyEnums(final ResModel resModel, final GenerationCounter counter) {
+        final List<KeyEnum> keyEnums = new ArrayList<KeyEnum>();
+        if (!configuration.isKeyEnumsEnabled()) {
+            return keyEnums;
+        }
+
+        for (final ResBundle bundle : resModel.getBundles()) {
+            final KeyEnum keyEnum = new KeyEnum(resModel.getRootClassName() + BUNDLE_FILE_SEPARATOR + bundle.getBundleClassName()
+                    + KeyEnum.CLASS_NAME_SUFFIX, bundle.getOriginalPathAndName(),
+                    new ArrayList<ResKey>(bundle.getAllUniqueKeysForLocales()));
+            counter.largestClassConstantPoolEntries = Math.max(counter.largestClassConstantPoolEntries,
+                    classFileBudget.checkKeyEnum(keyEnum));
+            keyEnums.add(keyEnum);
+        }
+        return keyEnums;
+    }
+
+    private String getBundleSourceFileName(final ResModel resModel, final String className) {
+        return resModel.getRootClassName() + BUNDLE_FILE_SEPARATOR + className + SOURCE_FILE_EXTENSION;
+    }
+
+    private static SourceRenderer createRenderer(final GeneratorBackend backend) {
+        if (backend == GeneratorBackend.EMITTER) {
+            return new JavaSourceEmitter();
+        }
+        return new TemplateSourceRenderer();
+    }
+
+    /**
+     * Renders the source straight into the source file, the rendered source is never held in memory as a whole.
+     *
+     * @param templateName The name of the template in resourceclass.stg of the source file.
+     * @param bundle       The bundle class of a resourceBundleFile or resourceBundleShardFile, otherwise null.
+     * @param shard        The shard of a resourceBundleShardFile, otherwise null.
+     */
+    private void writeSourceFile(final File sourceFile, final String templateName, final ResModel resModel,
+                                 final List<BundleClass> bundles, final BundleClass bundle, final BundleShard shard,
+                                 final GenerationCounter counter) {
         try {
+            final SourceFileWriter.Output output = sourceFileWriter.open(sourceFile);
+            try {
+                render(templateName, resModel, bundles, bundle, shard, output.getWriter(), counter);
+                commit(sourceFile, output, counter);
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new GeneratorException("Unable to generate source file, see stacktrace for details.", e);
+        }
+    }
 
-            File destinationIncludingPackageDir = new File(destination, replacePackageWithPathSeperator(resModel));
-            createDestinationDirectory(destinationIncludingPackageDir);
-            final File outputSourceFile = new File(destinationIncludingPackageDir, resModel.getRootClassName() + ".java");
-            writer = new BufferedWriter(new FileWriter(outputSourceFile));
-            writer.write(renderedTemplate);
+    private void render(final String templateName, final ResModel resModel, final List<BundleClass> bundles,
+                        final BundleClass bundle, final BundleShard shard, final Writer writer,
+                        final GenerationCounter counter) throws IOException {
+        final Object event = RestaticEvents.beginRender();
+        final long start = System.nanoTime();
+        final int characterCount;
+        if (ROOT_CLASS.equals(templateName)) {
+            characterCount = renderer.renderRootClass(resModel, bundles, writer);
+        } else if (ROOT_INDEX.equals(templateName)) {
+            characterCount = renderer.renderRootIndex(resModel, bundles, writer);
+        } else if (RESOURCE_BUNDLE_SHARD_FILE.equals(templateName)) {
+            characterCount = renderer.renderShardFile(resModel, bundle, shard, writer);
+        } else {
+            characterCount = renderer.renderBundleFile(resModel, bundle, writer);
+        }
+        counter.renderTimeNanos += System.nanoTime() - start;
+        RestaticEvents.commitRender(event, templateName, characterCount);
+    }
+
+    /**
+     * @param templateName messageTable for a MessageTable, keyTable for a KeyTable, keyEnum for a KeyEnum.
+     */
+    private void writeTableSourceFile(final File sourceFile, final String templateName, final ResModel resModel,
+                                      final Object table, final GenerationCounter counter) {
+        try {
+            final SourceFileWriter.Output output = sourceFileWriter.open(sourceFile);
+            try {
+                final Object event = RestaticEvents.beginRender();
+                final long start = System.nanoTime();
+                final int characterCount;
+                if (KEY_TABLE.equals(templateName)) {
+                    characterCount = renderer.renderKeyTable(resModel, (KeyTable) table, output.getWriter());
+                } else if (KEY_ENUM.equals(templateName)) {
+                    characterCount = renderer.renderKeyEnum(resModel, (KeyEnum) table, output.getWriter());
+                } else {
+                    characterCount = renderer.renderMessageTable(resModel, (MessageTable) table, output.getWriter());
+                }
+                counter.renderTimeNanos += System.nanoTime() - start;
+                RestaticEvents.commitRender(event, templateName, characterCount);
+
+                commit(sourceFile, output, counter);
+            } finally {
+                output.close();
+            }
         } catch (IOException e) {
             throw new GeneratorException("Unable to generate source file, see stacktrace for details.", e);
-        } finally {
-            closeWriter(writer);
+        }
+    }
+
+    /**
+     * @param templateName messageTable for a MessageTable, keyEnum for a KeyEnum.
+     */
+    private void writeTableClassFile(final File classFile, final String templateName, final ResModel resModel,
+                                     final Object table, final GenerationCounter counter) {
+        try {
+            final SourceFileWriter.Output output = sourceFileWriter.open(classFile);
+            try {
+                final Object event = RestaticEvents.beginRender();
+                final long start = System.nanoTime();
+                final int byteCount;
+                if (KEY_ENUM.equals(templateName)) {
+                    byteCount = classFileEmitter.writeKeyEnumClass(resModel, (KeyEnum) table, output.getOutputStream());
+                } else {
+                    byteCount = classFileEmitter.writeMessageTableClass(resModel, (MessageTable) table, output.getOutputStream());
+                }
+                counter.renderTimeNanos += System.nanoTime() - start;
+                RestaticEvents.commitRender(event, templateName, byteCount);
+
+                commit(classFile, output, counter);
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new GeneratorException("Unable to generate class file, see stacktrace for details.", e);
+        }
+    }
+
+    private void writeClassFile(final File classFile, final String className, final ResModel resModel,
+                                final List<BundleClass> bundles, final BundleClass bundle, final BundleShard shard,
+                                final GenerationCounter counter) {
+        try {
+            final SourceFileWriter.Output output = sourceFileWriter.open(classFile);
+            try {
+                final Object event = RestaticEvents.beginRender();
+                final long start = System.nanoTime();
+                final int byteCount;
+                if (bundle == null) {
+                    byteCount = classFileEmitter.writeRootClass(resModel, bundles, output.getOutputStream());
+                } else if (shard != null) {
+                    byteCount = classFileEmitter.writeShardClass(resModel, shard, output.getOutputStream());
+                } else {
+                    byteCount = classFileEmitter.writeBundleClass(resModel, bundle, output.getOutputStream());
+                }
+                counter.renderTimeNanos += System.nanoTime() - start;
+                RestaticEvents.commitRender(event, className, byteCount);
+
+                commit(classFile, output, counter);
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new GeneratorException("Unable to generate class file, see stacktrace for details.", e);
+        }
+    }
+
+    /**
+     * Writes the source of the root class, the message tables and the key enums, as written by the JavaSourceEmitter,
+     * to the sources jar. The source matches the class files of the ClassFileEmitter.
+     */
+    private void writeSourcesJar(final File sourcesJar, final ResModel resModel, final List<BundleClass> bundles,
+                                 final List<MessageTable> messageTables, final List<KeyEnum> keyEnums,
+                                 final GenerationCounter counter) {
+        createDestinationDirectory(sourcesJar.getAbsoluteFile().getParentFile());
+        final String packagePath = replacePackageWithPathSeperator(resModel) + (resModel.isNotDefaultPackage() ? "/" : "");
+        try {
+            final SourceFileWriter.Output output = sourceFileWriter.open(sourcesJar);
+            try {
+                final Object event = RestaticEvents.beginRender();
+                final long start = System.nanoTime();
+                final JarOutputStream jar = new JarOutputStream(output.getOutputStream());
+                final Writer writer = new BufferedWriter(new OutputStreamWriter(jar, Charset.defaultCharset()));
+                final JavaSourceEmitter emitter = new JavaSourceEmitter();
+
+                putSourcesJarEntry(jar, packagePath + resModel.getRootClassName());
+                int characterCount = emitter.renderRootClass(resModel, bundles, writer);
+                closeSourcesJarEntry(jar, writer);
+                for (final MessageTable table : messageTables) {
+                    putSourcesJarEntry(jar, packagePath + table.getClassName());
+                    characterCount += emitter.renderMessageTable(resModel, table, writer);
+                    closeSourcesJarEntry(jar, writer);
+                }
+                for (final KeyEnum keyEnum : keyEnums) {
+                    putSourcesJarEntry(jar, packagePath + keyEnum.getClassName());
+                    characterCount += emitter.renderKeyEnum(resModel, keyEnum, writer);
+                    closeSourcesJarEntry(jar, writer);
+                }
+                // Not closed, closing the jar would close the Output before it is committed.
+                jar.finish();
+                counter.renderTimeNanos += System.nanoTime() - start;
+                RestaticEvents.commitRender(event, ROOT_CLASS, characterCount);
+
+                commit(sourcesJar, output, counter);
+            } finally {
+                output.close();
+            }
+        } catch (IOException e) {
+            throw new GeneratorException("Unable to write sources jar, see stacktrace for details.", e);
+        }
+    }
+
+    private static void putSourcesJarEntry(final JarOutputStream jar, final String className) throws IOException {
+        final JarEntry entry = new JarEntry(className + SOURCE_FILE_EXTENSION);
+        entry.setTime(SOURCES_JAR_ENTRY_TIME);
+        jar.putNextEntry(entry);
+    }
+
+    private static void closeSourcesJarEntry(final JarOutputStream jar, final Writer writer) throws IOException {
+        writer.flush();
+        jar.closeEntry();
+    }
+
+    private void commit(final File sourceFile, final SourceFileWriter.Output output, final GenerationCounter counter) throws IOException {
+        final Object event = RestaticEvents.beginWrite();
+        final long start = System.nanoTime();
+        final boolean written = output.commit();
+        counter.writeTimeNanos += System.nanoTime() - start;
+        if (written) {
+            counter.sourceFilesWritten++;
+        } else {
+            counter.sourceFilesUnchanged++;
+        }
+        RestaticEvents.commitWrite(event, sourceFile, written);
+    }
+
+    /**
+     * Deletes the generated files of resource bundles which are no longer part of the model, or all of them if the
+     * source layout changed to SINGLE_FILE or the generator backend changed.
+     *
+     * @param filter        Selects the files which may be stale.
+     * @param currentFiles  The files which are generated by this run.
+     * @param onlyGenerated true to only delete the files which contain the marker of generated source files.
+     */
+    private void deleteStaleFiles(final File destination, final FilenameFilter filter, final Set<File> currentFiles,
+                                  final boolean onlyGenerated, final GenerationCounter counter) {
+        final long start = System.nanoTime();
+        final File[] candidates = destination.listFiles(filter);
+
+        if (candidates != null) {
+            for (final File candidate : candidates) {
+                if (!currentFiles.contains(candidate) && (!onlyGenerated || isGenerated(candidate))) {
+                    LOGGER.debug("Deleting stale file {}.", candidate);
+                    if (!candidate.delete()) {
+                        throw new GeneratorException(String.format("Unable to delete stale file %s.", candidate.getAbsolutePath()));
+                    }
+                    counter.sourceFilesDeleted++;
+                }
+            }
+        }
+
+        counter.writeTimeNanos += System.nanoTime() - start;
+    }
+
+    private boolean isGenerated(final File sourceFile) {
+        try {
+            return new String(Files.readAllBytes(sourceFile.toPath()), Charset.defaultCharset()).contains(GENERATED_MARKER);
+        } catch (IOException e) {
+            throw new GeneratorException(String.format("Unable to read source file %s.", sourceFile.getAbsolutePath()), e);
         }
     }
 
@@ -81,13 +546,83 @@ public class ResourceClassGeneratorImpl implements ResourceClassGenerator {
         }
     }
 
-    private void closeWriter(final BufferedWriter writer) {
-        if (writer != null) {
-            try {
-                writer.close();
-            } catch (IOException e) {
-                // Ignore
+    /**
+     * Accepts the files whose name starts with the prefix, contains the infix after the prefix and ends with the
+     * extension.
+     */
+    private static final class GeneratedFileFilter implements FilenameFilter {
+        private final String prefix;
+        private final String infix;
+        private final String extension;
+
+        private GeneratedFileFilter(final String prefix, final String extension) {
+            this(prefix, "", extension);
+        }
+
+        private GeneratedFileFilter(final String prefix, final String infix, final String extension) {
+            this.prefix = prefix;
+            this.infix = infix;
+            this.extension = extension;
+        }
+
+        public boolean accept(final File dir, final String name) {
+            return name.startsWith(prefix) && name.indexOf(infix, prefix.length()) >= 0 && name.endsWith(extension);
+        }
+    }
+
+    /**
+     * Accepts the source file of the root class and the source files of its bundles, but not the source files of
+     * other root classes whose name starts with the same name.
+     */
+    private static final class SourceFileFilter implements FilenameFilter {
+        private final String rootSourceFileName;
+        private final GeneratedFileFilter bundleSourceFileFilter;
+
+        private SourceFileFilter(final String rootClassName) {
+            this.rootSourceFileName = rootClassName + SOURCE_FILE_EXTENSION;
+            this.bundleSourceFileFilter = new GeneratedFileFilter(rootClassName + BUNDLE_FILE_SEPARATOR, SOURCE_FILE_EXTENSION);
+        }
+
+        public boolean accept(final File dir, final String name) {
+            return name.equals(rootSourceFileName) || bundleSourceFileFilter.accept(dir, name);
+        }
+    }
+
+    /**
+     * Counts the source files and the time spent during one generate call, and the class file budget of the generated
+     * classes.
+     */
+    private static final class GenerationCounter {
+        private int sourceFilesWritten;
+        private int sourceFilesUnchanged;
+        private int sourceFilesDeleted;
+        private long renderTimeNanos;
+        private long writeTimeNanos;
+
+        private int shardedBundleCount;
+        private int shardCount;
+        private int largestClassConstantPoolEntries;
+        private final int constantPoolBudget;
+
+        private GenerationCounter(final List<BundleClass> bundles, final int rootClassConstantPoolEntries,
+                                  final int constantPoolBudget) {
+            this.constantPoolBudget = constantPoolBudget;
+            largestClassConstantPoolEntries = rootClassConstantPoolEntries;
+            for (final BundleClass bundle : bundles) {
+                largestClassConstantPoolEntries = Math.max(largestClassConstantPoolEntries, bundle.getConstantPoolEntries());
+                if (bundle.isSharded()) {
+                    shardedBundleCount++;
+                    shardCount += bundle.getShards().size();
+                }
+                for (final BundleShard shard : bundle.getShards()) {
+                    largestClassConstantPoolEntries = Math.max(largestClassConstantPoolEntries, shard.getConstantPoolEntries());
+                }
             }
         }
+
+        private GenerationStatistics toStatistics() {
+            return new GenerationStatistics(sourceFilesWritten, sourceFilesUnchanged, sourceFilesDeleted, renderTimeNanos,
+                    writeTimeNanos, shardedBundleCount, shardCount, largestClassConstantPoolEntries, constantPoolBudget);
+        }
     }
 }
@@ -0,0 +1,92 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResModel;
+import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.STGroupFile;
+
+/**
+ * The compiled templates of resourceclass.stg, shared by all generator runs in the same JVM. A Maven or Gradle daemon
+ * runs the generator many times, the template group file is only parsed and compiled the first time.
+ * <p/>
+ * The properties of ResModel, ResBundle, ResKey, BundleClass, BundleShard, MessageTable, Message, KeyTable, KeyId,
+ * LocaleFallback, FormatAccessor, MessagePattern and KeyEnum are read by a ResModelAdaptor instead of by reflection.
+ * Strings rendered with the format java or javaAscii are escaped for a Java string literal by a JavaStringRenderer.
+ * <p/>
+ * This class is threadsafe: the group is completely loaded before it is published and StringTemplate only reads it
+ * while rendering. Every call to getInstanceOf returns a new template instance.
+ *
+ * @author Jamie Craane
+ */
+public final class ResourceClassTemplates {
+    /**
+     * The name of the template group file on the classpath.
+     */
+    public static final String GROUP_FILE_NAME = "resourceclass.stg";
+
+    /**
+     * The start and stop delimiter of the expressions in the templates.
+     */
+    public static final char DELIMITER_CHAR = '$';
+
+    private static final STGroup GROUP = createGroup();
+
+    private ResourceClassTemplates() {
+    }
+
+    private static STGroup createGroup() {
+        final STGroup group = new STGroupFile(GROUP_FILE_NAME, DELIMITER_CHAR, DELIMITER_CHAR);
+        final ResModelAdaptor adaptor = new ResModelAdaptor();
+        group.registerModelAdaptor(ResModel.class, adaptor);
+        group.registerModelAdaptor(ResBundle.class, adaptor);
+        group.registerModelAdaptor(ResKey.class, adaptor);
+        group.registerModelAdaptor(BundleClass.class, adaptor);
+        group.registerModelAdaptor(BundleShard.class, adaptor);
+        group.registerModelAdaptor(MessageTable.class, adaptor);
+        group.registerModelAdaptor(Message.class, adaptor);
+        group.registerModelAdaptor(KeyTable.class, adaptor);
+        group.registerModelAdaptor(KeyId.class, adaptor);
+        group.registerModelAdaptor(LocaleFallback.class, adaptor);
+        group.registerModelAdaptor(FormatAccessor.class, adaptor);
+        group.registerModelAdaptor(MessagePattern.class, adaptor);
+        group.registerModelAdaptor(KeyEnum.class, adaptor);
+        group.registerRenderer(String.class, new JavaStringRenderer());
+        group.load();
+        return group;
+    }
+
+    /**
+     * Creates a new instance of the template with the given name.
+     *
+     * @param templateName The name of the template in resourceclass.stg, for example rootClass.
+     * @return A new instance of the template to which the attributes can be added.
+     * @throws GeneratorException if the template does not exist.
+     */
+    public static ST getInstanceOf(final String templateName) {
+        final ST template = GROUP.getInstanceOf(templateName);
+        if (template == null) {
+            throw new GeneratorException(String.format("Template %s is not defined in %s.", templateName, GROUP_FILE_NAME));
+        }
+        return template;
+    }
+}
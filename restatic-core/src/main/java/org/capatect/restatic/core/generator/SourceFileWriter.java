@@ -0,0 +1,296 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Writes generated source files, leaving a source file untouched when its content did not change.
+ * <p/>
+ * Rewriting an unchanged source file updates its last modified time, which makes incremental compilers recompile the
+ * file and every class which depends on it. The content is streamed to the source file through an Output, so it is
+ * never held in memory as a whole. While the content matches the existing file, the existing file is only read and
+ * compared. At the first difference the matching part of the existing file is copied to a temporary file in the same
+ * directory, the rest of the content is written to it, and it then atomically replaces the existing file, so a reader
+ * never sees a partially written source file.
+ * <p/>
+ * This class is threadsafe, an Output is not.
+ *
+ * @author Jamie Craane
+ */
+final class SourceFileWriter {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SourceFileWriter.class);
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Charset charset;
+
+    /**
+     * @param charset The charset to encode the source files with.
+     */
+    SourceFileWriter(final Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Writes the content to the source file if the source file does not exist or has a different content.
+     *
+     * @param sourceFile The source file to write.
+     * @param content    The content of the source file.
+     * @return true if the source file is written, false if the source file already had the given content.
+     * @throws IOException if the existing file could not be read or the new content could not be written.
+     */
+    boolean write(final File sourceFile, final String content) throws IOException {
+        final Output output = open(sourceFile);
+        try {
+            output.getWriter().write(content);
+            return output.commit();
+        } finally {
+            output.close();
+        }
+    }
+
+    /**
+     * Opens an Output to stream the content of the source file to. The content is written to the Writer of the
+     * Output, or for binary files such as class files to its OutputStream, after which commit writes the source file if
+     * its content changed. The Output must always be closed.
+     *
+     * @param sourceFile The source file to write.
+     * @return The Output to write the content of the source file to.
+     * @throws IOException if the existing file could not be opened.
+     */
+    Output open(final File sourceFile) throws IOException {
+        return new Output(sourceFile, charset);
+    }
+
+    /**
+     * The content of one source file which is being written.
+     */
+    static final class Output implements Closeable {
+        private final File sourceFile;
+        private final ChangeDetectingOutputStream stream;
+        private final Writer writer;
+
+        private Output(final File sourceFile, final Charset charset) throws IOException {
+            this.sourceFile = sourceFile;
+            this.stream = new ChangeDetectingOutputStream(sourceFile);
+            this.writer = new BufferedWriter(new OutputStreamWriter(stream, charset), BUFFER_SIZE);
+        }
+
+        /**
+         * @return The Writer to write the content of the source file to.
+         */
+        Writer getWriter() {
+            return writer;
+        }
+
+        /**
+         * @return The OutputStream to write binary content to. Only one of the Writer and the OutputStream is used.
+         */
+        OutputStream getOutputStream() {
+            return stream;
+        }
+
+        /**
+         * Completes the source file after all content is written.
+         *
+         * @return true if the source file is written, false if the source file already had the written content.
+         * @throws IOException if the existing file could not be read or the new content could not be written.
+         */
+        boolean commit() throws IOException {
+            writer.flush();
+            final boolean written = stream.commit();
+            if (written) {
+                LOGGER.debug("Source file {} is written.", sourceFile);
+            } else {
+                LOGGER.debug("Source file {} is unchanged.", sourceFile);
+            }
+            return written;
+        }
+
+        /**
+         * Releases the files of this Output. The temporary file is deleted if the Output is not committed.
+         */
+        public void close() {
+            stream.close();
+        }
+    }
+
+    /**
+     * OutputStream which compares the written bytes with the existing source file and only starts writing a temporary
+     * file at the first byte which differs.
+     */
+    private static final class ChangeDetectingOutputStream extends OutputStream {
+        private final File sourceFile;
+        private final byte[] compareBuffer = new byte[BUFFER_SIZE];
+        private InputStream existing;
+        private long matchedLength;
+        private File temporaryFile;
+        private OutputStream temporary;
+
+        private ChangeDetectingOutputStream(final File sourceFile) throws IOException {
+            this.sourceFile = sourceFile;
+            if (sourceFile.isFile()) {
+                existing = new BufferedInputStream(new FileInputStream(sourceFile), BUFFER_SIZE);
+            }
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+            int remaining = length;
+            int position = offset;
+            while (temporary == null && remaining > 0) {
+                final int chunk = Math.min(remaining, compareBuffer.length);
+                if (!matchesExisting(bytes, position, chunk)) {
+                    diverge();
+                    break;
+                }
+                matchedLength += chunk;
+                position += chunk;
+                remaining -= chunk;
+            }
+            if (remaining > 0) {
+                temporary.write(bytes, position, remaining);
+            }
+        }
+
+        private boolean matchesExisting(final byte[] bytes, final int offset, final int length) throws IOException {
+            if (existing == null || !readFully(existing, compareBuffer, length)) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (compareBuffer[i] != bytes[offset + i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Starts the temporary file with the part of the existing file which matched the written bytes.
+         */
+        private void diverge() throws IOException {
+            closeExisting();
+            temporaryFile = File.createTempFile(sourceFile.getName(), ".tmp", sourceFile.getAbsoluteFile().getParentFile());
+            temporary = new BufferedOutputStream(new FileOutputStream(temporaryFile), BUFFER_SIZE);
+            if (matchedLength > 0) {
+                final InputStream input = new FileInputStream(sourceFile);
+                try {
+                    long remaining = matchedLength;
+                    while (remaining > 0) {
+                        final int read = input.read(compareBuffer, 0, (int) Math.min(remaining, compareBuffer.length));
+                        if (read == -1) {
+                            throw new IOException(String.format("Source file %s changed while it was compared.", sourceFile));
+                        }
+                        temporary.write(compareBuffer, 0, read);
+                        remaining -= read;
+                    }
+                } finally {
+                    SourceFileWriter.close(input);
+                }
+            }
+        }
+
+        private boolean commit() throws IOException {
+            if (temporary == null) {
+                // All bytes matched, the source file is unchanged if it has no more bytes.
+                if (existing != null && existing.read() == -1) {
+                    closeExisting();
+                    return false;
+                }
+                diverge();
+            }
+
+            temporary.close();
+            temporary = null;
+            move(temporaryFile, sourceFile);
+            return true;
+        }
+
+        @Override
+        public void close() {
+            closeExisting();
+            if (temporary != null) {
+                SourceFileWriter.close(temporary);
+                temporary = null;
+            }
+            if (temporaryFile != null && temporaryFile.exists() && !temporaryFile.delete()) {
+                temporaryFile.deleteOnExit();
+            }
+        }
+
+        private void closeExisting() {
+            if (existing != null) {
+                SourceFileWriter.close(existing);
+                existing = null;
+            }
+        }
+    }
+
+    private static boolean readFully(final InputStream input, final byte[] buffer, final int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            final int read = input.read(buffer, offset, length - offset);
+            if (read == -1) {
+                return false;
+            }
+            offset += read;
+        }
+        return true;
+    }
+
+    private static void move(final File source, final File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static void close(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Ignore
+        }
+    }
+}
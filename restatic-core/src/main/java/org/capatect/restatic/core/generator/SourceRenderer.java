@@ -0,0 +1,84 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResModel;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the content of a generated source file. The ResourceClassGeneratorImpl decides which source files are
+ * generated, a SourceRenderer only writes their content, see GeneratorBackend.
+ * <p/>
+ * Implementations must be threadsafe.
+ *
+ * @author Jamie Craane
+ */
+interface SourceRenderer {
+    /**
+     * Writes the root class which contains the keys of all resource bundles.
+     *
+     * @return The number of characters written.
+     */
+    int renderRootClass(ResModel model, List<BundleClass> bundles, Writer writer) throws IOException;
+
+    /**
+     * Writes the root class which only indexes the resource bundles, the keys are written by renderBundleFile.
+     *
+     * @return The number of characters written.
+     */
+    int renderRootIndex(ResModel model, List<BundleClass> bundles, Writer writer) throws IOException;
+
+    /**
+     * Writes the source file with the keys of one resource bundle, or which extends the shards of a sharded bundle.
+     *
+     * @return The number of characters written.
+     */
+    int renderBundleFile(ResModel model, BundleClass bundle, Writer writer) throws IOException;
+
+    /**
+     * Writes the source file with the keys of one shard of a sharded resource bundle.
+     *
+     * @return The number of characters written.
+     */
+    int renderShardFile(ResModel model, BundleClass bundle, BundleShard shard, Writer writer) throws IOException;
+
+    /**
+     * Writes the source file of the ListResourceBundle with the messages of one locale of a resource bundle.
+     *
+     * @return The number of characters written.
+     */
+    int renderMessageTable(ResModel model, MessageTable table, Writer writer) throws IOException;
+
+    /**
+     * Writes the source file of the KeyTable of one resource bundle.
+     *
+     * @return The number of characters written.
+     */
+    int renderKeyTable(ResModel model, KeyTable table, Writer writer) throws IOException;
+
+    /**
+     * Writes the source file of the KeyEnum of one resource bundle.
+     *
+     * @return The number of characters written.
+     */
+    int renderKeyEnum(ResModel model, KeyEnum keyEnum, Writer writer) throws IOException;
+}
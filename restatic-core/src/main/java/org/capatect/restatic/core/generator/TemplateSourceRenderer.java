@@ -0,0 +1,86 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.model.ResModel;
+import org.stringtemplate.v4.AutoIndentWriter;
+import org.stringtemplate.v4.ST;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * SourceRenderer which renders the templates of resourceclass.stg, see ResourceClassTemplates. The returned character
+ * counts are those of StringTemplate, which does not count the line separators.
+ *
+ * @author Jamie Craane
+ */
+final class TemplateSourceRenderer implements SourceRenderer {
+    public int renderRootClass(final ResModel model, final List<BundleClass> bundles, final Writer writer) throws IOException {
+        final ST template = ResourceClassTemplates.getInstanceOf("rootClass");
+        template.add("model", model);
+        template.add("bundles", bundles);
+        return template.write(new AutoIndentWriter(writer));
+    }
+
+    public int renderRootIndex(final ResModel model, final List<BundleClass> bundles, final Writer writer) throws IOException {
+        final ST template = ResourceClassTemplates.getInstanceOf("rootIndex");
+        template.add("model", model);
+        template.add("bundles", bundles);
+        return template.write(new AutoIndentWriter(writer));
+    }
+
+    public int renderBundleFile(final ResModel model, final BundleClass bundle, final Writer writer) throws IOException {
+        final ST template = ResourceClassTemplates.getInstanceOf("resourceBundleFile");
+        template.add("model", model);
+        template.add("bundle", bundle);
+        return template.write(new AutoIndentWriter(writer));
+    }
+
+    public int renderShardFile(final ResModel model, final BundleClass bundle, final BundleShard shard, final Writer writer)
+            throws IOException {
+        final ST template = ResourceClassTemplates.getInstanceOf("resourceBundleShardFile");
+        template.add("model", model);
+        template.add("bundle", bundle);
+        template.add("shard", shard);
+        return template.write(new AutoIndentWriter(writer));
+    }
+
+    public int renderMessageTable(final ResModel model, final MessageTable table, final Writer writer) throws IOException {
+        final ST template = ResourceClassTemplates.getInstanceOf("messageTable");
+        template.add("model", model);
+        template.add("table", table);
+        return template.write(new AutoIndentWriter(writer));
+    }
+
+    public int renderKeyTable(final ResModel model, final KeyTable table, final Writer writer) throws IOException {
+        final ST template = ResourceClassTemplates.getInstanceOf("keyTable");
+        template.add("model", model);
+        template.add("table", table);
+        return template.write(new AutoIndentWriter(writer));
+    }
+
+    public int renderKeyEnum(final ResModel model, final KeyEnum keyEnum, final Writer writer) throws IOException {
+        final ST template = ResourceClassTemplates.getInstanceOf("keyEnum");
+        template.add("model", model);
+        template.add("keyEnum", keyEnum);
+        return template.write(new AutoIndentWriter(writer));
+    }
+}
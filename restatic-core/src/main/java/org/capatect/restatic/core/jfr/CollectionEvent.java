@@ -0,0 +1,44 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of the collection phase: collects the resource bundles of one source directory.
+ *
+ * @author Jamie Craane
+ */
+@Name("org.capatect.restatic.Collection")
+@Label("Restatic Collection")
+@Category("Restatic")
+@Description("Collects the resource bundles of one source directory.")
+@StackTrace(false)
+final class CollectionEvent extends Event {
+    @Label("Source Directory")
+    String sourceDirectory;
+
+    @Label("Files Visited")
+    long filesVisited;
+
+    @Label("Files Matched")
+    int filesMatched;
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core.jfr;
+
+import jdk.jfr.Event;
+
+import java.io.File;
+
+/**
+ * Creates and commits the Flight Recorder events for RestaticEvents. This class references the jdk.jfr API and is
+ * only loaded if the JVM has a Flight Recorder.
+ * <p/>
+ * An event is only begun if it is enabled, otherwise null is returned. When no recording is running the JIT compiler
+ * removes the allocation of the event, so a disabled event costs no more than the isEnabled check.
+ *
+ * @author Jamie Craane
+ */
+final class FlightRecorderEvents {
+    private FlightRecorderEvents() {
+    }
+
+    static Object beginCollection() {
+        return begin(new CollectionEvent());
+    }
+
+    static void commitCollection(final Object handle, final File sourceDirectory, final long filesVisited, final int filesMatched) {
+        final CollectionEvent event = (CollectionEvent) handle;
+        event.sourceDirectory = sourceDirectory.getPath();
+        event.filesVisited = filesVisited;
+        event.filesMatched = filesMatched;
+        event.commit();
+    }
+
+    static Object beginParse() {
+        return begin(new ParseEvent());
+    }
+
+    static void commitParse(final Object handle, final File resourceBundle, final long bytesRead, final int keyCount, final boolean cached) {
+        final ParseEvent event = (ParseEvent) handle;
+        event.resourceBundle = resourceBundle.getPath();
+        event.bytesRead = bytesRead;
+        event.keyCount = keyCount;
+        event.cached = cached;
+        event.commit();
+    }
+
+    static Object beginValidation() {
+        return begin(new ValidationEvent());
+    }
+
+    static void commitValidation(final Object handle, final int bundleCount, final int invalidBundleCount) {
+        final ValidationEvent event = (ValidationEvent) handle;
+        event.bundleCount = bundleCount;
+        event.invalidBundleCount = invalidBundleCount;
+        event.commit();
+    }
+
+    static Object beginRender() {
+        return begin(new RenderEvent());
+    }
+
+    static void commitRender(final Object handle, final String template, final int characterCount) {
+        final RenderEvent event = (RenderEvent) handle;
+        event.template = template;
+        event.characterCount = characterCount;
+        event.commit();
+    }
+
+    static Object beginWrite() {
+        return begin(new WriteEvent());
+    }
+
+    static void commitWrite(final Object handle, final File sourceFile, final boolean written) {
+        final WriteEvent event = (WriteEvent) handle;
+        event.sourceFile = sourceFile.getPath();
+        event.written = written;
+        event.commit();
+    }
+
+    private static Event begin(final Event event) {
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of the parse phase: reads the keys of one resource bundle, from the file or from the parse cache.
+ *
+ * @author Jamie Craane
+ */
+@Name("org.capatect.restatic.Parse")
+@Label("Restatic Parse")
+@Category("Restatic")
+@Description("Reads the keys of one resource bundle, from the file or from the parse cache.")
+@StackTrace(false)
+final class ParseEvent extends Event {
+    @Label("Resource Bundle")
+    String resourceBundle;
+
+    @Label("Bytes Read")
+    @DataAmount
+    long bytesRead;
+
+    @Label("Keys")
+    int keyCount;
+
+    @Label("Cached")
+    @Description("The keys are taken from the parse cache and the resource bundle is not read.")
+    boolean cached;
+}
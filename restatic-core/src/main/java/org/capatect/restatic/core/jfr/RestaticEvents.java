@@ -0,0 +1,106 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core.jfr;
+
+import java.io.File;
+
+/**
+ * Emits the Java Flight Recorder events of the phases of a Restatic run, so a recording of a build shows where the
+ * time of Restatic goes next to the GC and I/O events of the JVM. The events are in the Restatic category:
+ * <ul>
+ * <li>org.capatect.restatic.Collection: collecting the resource bundles of one source directory.</li>
+ * <li>org.capatect.restatic.Parse: reading the keys of one resource bundle.</li>
+ * <li>org.capatect.restatic.Validation: validating the ResModel.</li>
+ * <li>org.capatect.restatic.Render: rendering one generated source file.</li>
+ * <li>org.capatect.restatic.Write: writing one generated source file.</li>
+ * </ul>
+ * Every begin method returns a handle which must be passed to the matching commit method. The handle is null if the
+ * event is not recorded, because the JVM has no Flight Recorder (Java 7 and Java 8 before update 262) or because the
+ * event is not enabled in the running recording, and then the commit method returns immediately. The event classes
+ * are only loaded if the JVM has a Flight Recorder.
+ *
+ * @author Jamie Craane
+ */
+public final class RestaticEvents {
+    private static final boolean FLIGHT_RECORDER_AVAILABLE = isFlightRecorderAvailable();
+
+    private RestaticEvents() {
+    }
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, RestaticEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    public static Object beginCollection() {
+        return FLIGHT_RECORDER_AVAILABLE ? FlightRecorderEvents.beginCollection() : null;
+    }
+
+    public static void commitCollection(final Object event, final File sourceDirectory, final long filesVisited, final int filesMatched) {
+        if (event != null) {
+            FlightRecorderEvents.commitCollection(event, sourceDirectory, filesVisited, filesMatched);
+        }
+    }
+
+    public static Object beginParse() {
+        return FLIGHT_RECORDER_AVAILABLE ? FlightRecorderEvents.beginParse() : null;
+    }
+
+    /**
+     * @param bytesRead The number of bytes read from the resource bundle, 0 if the keys are taken from the parse cache.
+     */
+    public static void commitParse(final Object event, final File resourceBundle, final long bytesRead, final int keyCount, final boolean cached) {
+        if (event != null) {
+            FlightRecorderEvents.commitParse(event, resourceBundle, bytesRead, keyCount, cached);
+        }
+    }
+
+    public static Object beginValidation() {
+        return FLIGHT_RECORDER_AVAILABLE ? FlightRecorderEvents.beginValidation() : null;
+    }
+
+    public static void commitValidation(final Object event, final int bundleCount, final int invalidBundleCount) {
+        if (event != null) {
+            FlightRecorderEvents.commitValidation(event, bundleCount, invalidBundleCount);
+        }
+    }
+
+    public static Object beginRender() {
+        return FLIGHT_RECORDER_AVAILABLE ? FlightRecorderEvents.beginRender() : null;
+    }
+
+    public static void commitRender(final Object event, final String template, final int characterCount) {
+        if (event != null) {
+            FlightRecorderEvents.commitRender(event, template, characterCount);
+        }
+    }
+
+    public static Object beginWrite() {
+        return FLIGHT_RECORDER_AVAILABLE ? FlightRecorderEvents.beginWrite() : null;
+    }
+
+    public static void commitWrite(final Object event, final File sourceFile, final boolean written) {
+        if (event != null) {
+            FlightRecorderEvents.commitWrite(event, sourceFile, written);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight Recorder event of the write phase: writes one generated source file, unless its content did not change.
+ *
+ * @author Jamie Craane
+ */
+@Name("org.capatect.restatic.Write")
+@Label("Restatic Write")
+@Category("Restatic")
+@Description("Writes one generated source file, unless its content did not change.")
+@StackTrace(false)
+final class WriteEvent extends Event {
+    @Label("Source File")
+    String sourceFile;
+
+    @Label("Written")
+    @Description("False if the content of the source file did not change and the file is not written.")
+    boolean written;
+}
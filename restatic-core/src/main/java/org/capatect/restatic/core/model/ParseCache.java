@@ -0,0 +1,429 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.model;
+
+import org.apache.commons.lang.Validate;
+import org.capatect.restatic.core.configuration.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * On-disk cache of the keys extracted from resource bundles, used to skip parsing resource bundles and converting their
+ * keys to Java constant identifiers when the resource bundles did not change since the previous run.
+ * <p/>
+ * Every entry is keyed by the absolute path of the resource bundle and holds the size and last modified time of the
+ * file when it was parsed. A resource bundle whose size and last modified time are unchanged is not read at all. When
+ * content hashing is enabled the SHA-1 hash of the file is stored as well, so a resource bundle which was only touched
+ * (for example by a fresh checkout) is read to compute the hash but not parsed.
+ * <p/>
+ * The cache file is written atomically, where the file system supports an atomic rename, and protected by a checksum.
+ * A missing, corrupt or incompatible cache file is ignored and all resource bundles are parsed. Only the entries used
+ * in a run are written, so entries for removed resource bundles do not accumulate.
+ * <p/>
+ * This class is threadsafe.
+ *
+ * @author Jamie Craane
+ */
+public class ParseCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ParseCache.class);
+
+    /**
+     * The name of the cache file in the cache directory.
+     */
+    public static final String CACHE_FILE_NAME = "restatic-parse-cache.bin";
+
+    private static final int MAGIC = 0x52535043;
+
+    /**
+     * Increment when the file format, the way keys are extracted from resource bundles or the way keys are converted to
+     * Java constant identifiers changes.
+     */
+    private static final int VERSION = 2;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final String HASH_ALGORITHM = "SHA-1";
+    private static final String NO_HASH = "";
+    private static final int BUFFER_SIZE = 8192;
+    private static final int CHECKSUM_LENGTH = 8;
+
+    /**
+     * Resource bundles modified less than this number of milliseconds ago are not cached, because a change within the
+     * same timestamp granularity of the file system would go unnoticed in the next run.
+     */
+    private static final long MODIFICATION_TIME_GRANULARITY = 2000L;
+
+    private static final ParseCache DISABLED = new ParseCache(null, false, "") {
+        @Override
+        List<ResKey> getKeys(final File resourceBundle) {
+            return null;
+        }
+
+        @Override
+        void putKeys(final File resourceBundle, final Collection<ResKey> keys) {
+            // Nothing is cached.
+        }
+
+        @Override
+        public void save() {
+            // Nothing is cached.
+        }
+    };
+
+    private final File cacheFile;
+    private final boolean contentHashEnabled;
+    private final String encoding;
+
+    /**
+     * The entries read from the cache file.
+     */
+    private final Map<String, Entry> previousEntries = new ConcurrentHashMap<String, Entry>();
+
+    /**
+     * The entries used in this run, these are written when the cache is saved.
+     */
+    private final Map<String, Entry> currentEntries = new ConcurrentHashMap<String, Entry>();
+
+    private ParseCache(final File cacheFile, final boolean contentHashEnabled, final String encoding) {
+        this.cacheFile = cacheFile;
+        this.contentHashEnabled = contentHashEnabled;
+        this.encoding = encoding;
+    }
+
+    /**
+     * @return A ParseCache which never returns keys, used when caching is disabled.
+     */
+    public static ParseCache disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Loads the cache from the given file. If the file does not exist or cannot be read, an empty cache is returned.
+     *
+     * @param cacheFile          The file to read the cache from and to save the cache to.
+     * @param contentHashEnabled true if the content hash of resource bundles is used to detect changes.
+     * @return The loaded cache.
+     */
+    public static ParseCache load(final File cacheFile, final boolean contentHashEnabled) {
+        return load(cacheFile, contentHashEnabled, Configuration.DEFAULT_RESOURCE_BUNDLE_ENCODING);
+    }
+
+    /**
+     * Loads the cache from the given file. If the file does not exist, cannot be read or contains keys read from
+     * resource bundles with another encoding, an empty cache is returned.
+     *
+     * @param cacheFile          The file to read the cache from and to save the cache to.
+     * @param contentHashEnabled true if the content hash of resource bundles is used to detect changes.
+     * @param encoding           The encoding of the .properties resource bundles.
+     * @return The loaded cache.
+     */
+    public static ParseCache load(final File cacheFile, final boolean contentHashEnabled, final Charset encoding) {
+        Validate.notNull(cacheFile, "The cacheFile may not be null.");
+        Validate.notNull(encoding, "The encoding may not be null.");
+
+        final ParseCache parseCache = new ParseCache(cacheFile, contentHashEnabled, encoding.name());
+        if (cacheFile.isFile()) {
+            try {
+                parseCache.read();
+                LOGGER.debug("Loaded {} entries from parse cache {}.", parseCache.previousEntries.size(), cacheFile);
+            } catch (IOException e) {
+                parseCache.previousEntries.clear();
+                LOGGER.warn("Unable to read parse cache {}, all resource bundles are parsed: {}", cacheFile, e.getMessage());
+            }
+        }
+
+        return parseCache;
+    }
+
+    /**
+     * Returns the cached keys of the given resource bundle if the resource bundle did not change since they were cached.
+     *
+     * @param resourceBundle The resource bundle to return the keys for.
+     * @return The keys of the resource bundle or null if the resource bundle is not cached or has changed.
+     */
+    List<ResKey> getKeys(final File resourceBundle) {
+        final String path = resourceBundle.getAbsolutePath();
+        final Entry entry = previousEntries.get(path);
+        if (entry == null) {
+            return null;
+        }
+
+        final long size = resourceBundle.length();
+        final long lastModified = resourceBundle.lastModified();
+        if (entry.size != size) {
+            return null;
+        }
+
+        if (entry.lastModified == lastModified) {
+            currentEntries.put(path, entry);
+            return entry.keys;
+        }
+
+        if (contentHashEnabled && !NO_HASH.equals(entry.hash) && entry.hash.equals(hash(resourceBundle))) {
+            currentEntries.put(path, isModifiedRecently(resourceBundle) ? entry : new Entry(size, lastModified, entry.hash, entry.keys));
+            return entry.keys;
+        }
+
+        return null;
+    }
+
+    /**
+     * Caches the keys of the given resource bundle.
+     *
+     * @param resourceBundle The parsed resource bundle.
+     * @param keys           The keys of the resource bundle.
+     */
+    void putKeys(final File resourceBundle, final Collection<ResKey> keys) {
+        if (isModifiedRecently(resourceBundle)) {
+            LOGGER.debug("Not caching {}, it was modified too recently.", resourceBundle);
+            return;
+        }
+
+        final String hash = contentHashEnabled ? hash(resourceBundle) : NO_HASH;
+        currentEntries.put(resourceBundle.getAbsolutePath(), new Entry(resourceBundle.length(), resourceBundle.lastModified(),
+                hash, Collections.unmodifiableList(new ArrayList<ResKey>(keys))));
+    }
+
+    /**
+     * Writes the entries used in this run to the cache file, unless they are the same as the entries read from the cache
+     * file. A failure to write the cache is logged and otherwise ignored.
+     */
+    public void save() {
+        if (isUnchanged()) {
+            LOGGER.debug("Parse cache {} is up to date.", cacheFile);
+            return;
+        }
+
+        File temporaryFile = null;
+        try {
+            createCacheDirectory();
+            temporaryFile = File.createTempFile(CACHE_FILE_NAME, ".tmp", cacheFile.getParentFile());
+            write(temporaryFile);
+            move(temporaryFile, cacheFile);
+            LOGGER.debug("Saved {} entries to parse cache {}.", currentEntries.size(), cacheFile);
+        } catch (IOException e) {
+            LOGGER.warn("Unable to save parse cache {}: {}", cacheFile, e.getMessage());
+            if (temporaryFile != null && temporaryFile.exists() && !temporaryFile.delete()) {
+                temporaryFile.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Replaces the target with the source, atomically if the file system supports it.
+     */
+    private static void move(final File source, final File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return true if exactly the entries read from the cache file were used in this run.
+     */
+    private boolean isUnchanged() {
+        if (!cacheFile.isFile() || currentEntries.size() != previousEntries.size()) {
+            return false;
+        }
+
+        for (final Map.Entry<String, Entry> cacheEntry : currentEntries.entrySet()) {
+            if (previousEntries.get(cacheEntry.getKey()) != cacheEntry.getValue()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isModifiedRecently(final File resourceBundle) {
+        return resourceBundle.lastModified() > System.currentTimeMillis() - MODIFICATION_TIME_GRANULARITY;
+    }
+
+    private void createCacheDirectory() throws IOException {
+        final File directory = cacheFile.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException(String.format("Directory %s could not be created.", directory.getAbsolutePath()));
+        }
+    }
+
+    private void read() throws IOException {
+        final byte[] bytes = Files.readAllBytes(cacheFile.toPath());
+        final int contentLength = bytes.length - CHECKSUM_LENGTH;
+        if (contentLength < 0 || ByteBuffer.wrap(bytes, contentLength, CHECKSUM_LENGTH).getLong() != checksum(bytes, contentLength)) {
+            throw new IOException("checksum mismatch");
+        }
+
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes, 0, contentLength));
+        if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+            throw new IOException("not a parse cache or an incompatible version");
+        }
+        if (!encoding.equals(readString(input))) {
+            throw new IOException("the resource bundles were parsed with another encoding");
+        }
+
+        final int entryCount = input.readInt();
+        for (int i = 0; i < entryCount; i++) {
+            final String path = readString(input);
+            final long size = input.readLong();
+            final long lastModified = input.readLong();
+            final String hash = readString(input);
+            final int keyCount = input.readInt();
+            final List<ResKey> keys = new ArrayList<ResKey>(Math.min(keyCount, input.available()));
+            for (int j = 0; j < keyCount; j++) {
+                final String name = readString(input);
+                keys.add(ResKey.create(name, readString(input)));
+            }
+            previousEntries.put(path, new Entry(size, lastModified, hash, Collections.unmodifiableList(keys)));
+        }
+    }
+
+    private void write(final File file) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        writeString(output, encoding);
+        output.writeInt(currentEntries.size());
+        for (final Map.Entry<String, Entry> cacheEntry : currentEntries.entrySet()) {
+            final Entry entry = cacheEntry.getValue();
+            writeString(output, cacheEntry.getKey());
+            output.writeLong(entry.size);
+            output.writeLong(entry.lastModified);
+            writeString(output, entry.hash);
+            output.writeInt(entry.keys.size());
+            for (final ResKey key : entry.keys) {
+                writeString(output, key.getName());
+                writeString(output, key.getOriginalName());
+            }
+        }
+        output.writeLong(checksum(bytes.toByteArray(), bytes.size()));
+
+        final OutputStream fileOutput = new FileOutputStream(file);
+        try {
+            bytes.writeTo(fileOutput);
+        } finally {
+            close(fileOutput);
+        }
+    }
+
+    private static long checksum(final byte[] bytes, final int length) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes, 0, length);
+        return crc.getValue();
+    }
+
+    private static String readString(final DataInputStream input) throws IOException {
+        final int length = input.readInt();
+        if (length < 0 || length > input.available()) {
+            throw new IOException("invalid string length");
+        }
+
+        final byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeString(final DataOutputStream output, final String value) throws IOException {
+        final byte[] bytes = value.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String hash(final File resourceBundle) {
+        InputStream input = null;
+        try {
+            final MessageDigest digest = MessageDigest.getInstance(HASH_ALGORITHM);
+            input = new FileInputStream(resourceBundle);
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(String.format("The %s algorithm is not available.", HASH_ALGORITHM), e);
+        } catch (IOException e) {
+            // The file is parsed, and the parse error reported, by the caller.
+            return NO_HASH;
+        } finally {
+            close(input);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (final byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void close(final Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException e) {
+                // Ignore
+            }
+        }
+    }
+
+    /**
+     * The fingerprint and the keys of a single resource bundle.
+     */
+    private static final class Entry {
+        private final long size;
+        private final long lastModified;
+        private final String hash;
+        private final List<ResKey> keys;
+
+        private Entry(final long size, final long lastModified, final String hash, final List<ResKey> keys) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.hash = hash;
+            this.keys = keys;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the work done while resource bundles are added to a ResModel: the resource bundles which are parsed and the
+ * bytes read from them, the resource bundles whose keys are taken from the parse cache, and the keys read.
+ * <p/>
+ * This class is threadsafe, resource bundles are added to a ResModel from multiple threads.
+ *
+ * @author Jamie Craane
+ */
+public final class ParseStatistics {
+    private final AtomicLong parsedResourceBundleCount = new AtomicLong();
+    private final AtomicLong cachedResourceBundleCount = new AtomicLong();
+    private final AtomicLong bytesRead = new AtomicLong();
+    private final AtomicLong keyCount = new AtomicLong();
+
+    void recordParsed(final long resourceBundleSize, final int keys) {
+        parsedResourceBundleCount.incrementAndGet();
+        bytesRead.addAndGet(resourceBundleSize);
+        keyCount.addAndGet(keys);
+    }
+
+    void recordCached(final int keys) {
+        cachedResourceBundleCount.incrementAndGet();
+        keyCount.addAndGet(keys);
+    }
+
+    /**
+     * @return The number of resource bundles which are parsed.
+     */
+    public long getParsedResourceBundleCount() {
+        return parsedResourceBundleCount.get();
+    }
+
+    /**
+     * @return The number of resource bundles whose keys are taken from the parse cache.
+     */
+    public long getCachedResourceBundleCount() {
+        return cachedResourceBundleCount.get();
+    }
+
+    /**
+     * @return The total size of the parsed resource bundles.
+     */
+    public long getBytesRead() {
+        return bytesRead.get();
+    }
+
+    /**
+     * @return The number of keys read from the parsed resource bundles and the parse cache, before keys which are
+     *         converted to the same Java constant identifier are merged.
+     */
+    public long getKeyCount() {
+        return keyCount.get();
+    }
+}
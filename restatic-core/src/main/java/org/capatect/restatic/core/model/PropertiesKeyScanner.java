@@ -0,0 +1,363 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.model;
+
+import org.apache.commons.lang.Validate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Reads the keys of a resource bundle in the .properties format without loading the values.
+ * <p/>
+ * The grammar is the same as the grammar of {@link java.util.Properties#load(InputStream)}: lines starting with # or !
+ * are comments, a line ending with an odd number of backslashes continues on the next line, and a key ends at the first
+ * unescaped =, : or whitespace character. Escape sequences, including \\uXXXX, are only decoded in keys. The bytes of
+ * a value are skipped, only looking for the end of the logical line.
+ * <p/>
+ * The input is either ISO-8859-1 or UTF-8 encoded. All characters with a meaning in the grammar are ASCII and the bytes
+ * of a multi-byte UTF-8 sequence are never ASCII, so the input is scanned as bytes and only the keys are decoded. The
+ * input is read from a stream in blocks of 8 KB.
+ * <p/>
+ * This class is NOT threadsafe, an instance is used for scanning one input.
+ *
+ * @author Jamie Craane
+ */
+public final class PropertiesKeyScanner {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int END_OF_INPUT = -1;
+    private static final int END_OF_LINE = -2;
+    private static final int REPLACEMENT_CHARACTER = 0xFFFD;
+
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final InputStream input;
+    private final boolean utf8;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+
+    private final StringBuilder key = new StringBuilder();
+    // True if the last backslash returned by read() escapes the next character.
+    private boolean precedingBackslash;
+    // The number of characters of the current logical line returned by read().
+    private int lineLength;
+
+    private PropertiesKeyScanner(final InputStream input, final Charset charset) {
+        Validate.notNull(charset, "The charset may not be null.");
+        Validate.isTrue(isSupported(charset), "Only ISO-8859-1 and UTF-8 encoded resource bundles are supported.");
+
+        this.input = input;
+        this.utf8 = UTF_8.equals(charset);
+    }
+
+    /**
+     * @param charset The charset to check.
+     * @return true if resource bundles in the given charset can be scanned.
+     */
+    public static boolean isSupported(final Charset charset) {
+        return ISO_8859_1.equals(charset) || UTF_8.equals(charset);
+    }
+
+    /**
+     * Reads all keys from the given ISO-8859-1 encoded input. The input is not closed.
+     *
+     * @param input The resource bundle in the .properties format.
+     * @return The keys in the order of their first occurrence.
+     * @throws IOException              If the input could not be read.
+     * @throws IllegalArgumentException If a key contains a malformed \\uXXXX escape sequence.
+     */
+    public static Set<String> scanKeys(final InputStream input) throws IOException {
+        return scanKeys(input, ISO_8859_1);
+    }
+
+    /**
+     * Reads all keys from the given input. The input is not closed.
+     *
+     * @param input   The resource bundle in the .properties format.
+     * @param charset The charset of the input, ISO-8859-1 or UTF-8.
+     * @return The keys in the order of their first occurrence.
+     * @throws IOException              If the input could not be read.
+     * @throws IllegalArgumentException If a key contains a malformed \\uXXXX escape sequence.
+     */
+    public static Set<String> scanKeys(final InputStream input, final Charset charset) throws IOException {
+        Validate.notNull(input, "The input may not be null.");
+
+        return new PropertiesKeyScanner(input, charset).scan();
+    }
+
+    private Set<String> scan() throws IOException {
+        final Set<String> keys = new LinkedHashSet<String>();
+        int c;
+        while ((c = skipBlankLines()) != END_OF_INPUT) {
+            if (c == '#' || c == '!') {
+                skipComment();
+            } else if (readKey()) {
+                keys.add(key.toString());
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Skips whitespace and empty lines at the beginning of a natural line.
+     *
+     * @return The first other byte, which is not consumed, or END_OF_INPUT.
+     */
+    private int skipBlankLines() throws IOException {
+        while (position < limit || fill()) {
+            final int c = buffer[position] & 0xFF;
+            if (c != ' ' && c != '\t' && c != '\f' && c != '\r' && c != '\n') {
+                return c;
+            }
+            position++;
+        }
+        return END_OF_INPUT;
+    }
+
+    private void skipComment() throws IOException {
+        while (position < limit || fill()) {
+            final int c = buffer[position++];
+            if (c == '\r' || c == '\n') {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Reads the key of the logical line into key and skips the value.
+     *
+     * @return false if the logical line turned out to be empty, in which case it has no key.
+     */
+    private boolean readKey() throws IOException {
+        key.setLength(0);
+        precedingBackslash = false;
+        lineLength = 0;
+
+        while (true) {
+            int c = read();
+            if (c == END_OF_LINE) {
+                return lineLength > 0;
+            }
+            if (c == '=' || c == ':' || c == ' ' || c == '\t' || c == '\f') {
+                skipValue();
+                return true;
+            }
+            final boolean escaped = c == '\\';
+            if (escaped) {
+                c = read();
+                if (c == END_OF_LINE) {
+                    // A trailing backslash at the end of the input is dropped.
+                    return true;
+                }
+            }
+            if (c >= 0x80 && utf8) {
+                c = decodeUtf8(c);
+            } else if (escaped) {
+                c = unescape(c);
+            }
+            key.appendCodePoint(c);
+        }
+    }
+
+    private int unescape(final int c) throws IOException {
+        switch (c) {
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    final int digit = Character.digit(read(), 16);
+                    if (digit == -1) {
+                        throw new IllegalArgumentException("Malformed \\uxxxx encoding.");
+                    }
+                    value = (value << 4) + digit;
+                }
+                return value;
+            case 't':
+                return '\t';
+            case 'r':
+                return '\r';
+            case 'n':
+                return '\n';
+            case 'f':
+                return '\f';
+            default:
+                return c;
+        }
+    }
+
+    /**
+     * Decodes the remaining bytes of a multi-byte UTF-8 sequence. A malformed sequence is replaced by U+FFFD, the same as
+     * the UTF-8 decoder of the JDK does: the bytes up to the first byte which cannot continue the sequence are replaced,
+     * that byte starts a new character.
+     */
+    private int decodeUtf8(final int leadingByte) throws IOException {
+        final int length;
+        int codePoint;
+        int minimum = 0x80;
+        int maximum = 0xBF;
+        if (leadingByte >= 0xC2 && leadingByte <= 0xDF) {
+            length = 1;
+            codePoint = leadingByte & 0x1F;
+        } else if (leadingByte >= 0xE0 && leadingByte <= 0xEF) {
+            length = 2;
+            codePoint = leadingByte & 0x0F;
+            // Overlong encoding.
+            minimum = leadingByte == 0xE0 ? 0xA0 : minimum;
+        } else if (leadingByte >= 0xF0 && leadingByte <= 0xF4) {
+            length = 3;
+            codePoint = leadingByte & 0x07;
+            // Overlong encoding or above U+10FFFF.
+            minimum = leadingByte == 0xF0 ? 0x90 : minimum;
+            maximum = leadingByte == 0xF4 ? 0x8F : maximum;
+        } else {
+            return REPLACEMENT_CHARACTER;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (position == limit && !fill()) {
+                return REPLACEMENT_CHARACTER;
+            }
+            final int continuation = buffer[position] & 0xFF;
+            if (continuation < minimum || continuation > maximum) {
+                return REPLACEMENT_CHARACTER;
+            }
+            codePoint = (codePoint << 6) | (continuation & 0x3F);
+            position++;
+            minimum = 0x80;
+            maximum = 0xBF;
+        }
+
+        final boolean surrogate = codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE;
+        return surrogate ? REPLACEMENT_CHARACTER : codePoint;
+    }
+
+    /**
+     * Returns the next character of the logical line, joining continuation lines.
+     *
+     * @return The next character or END_OF_LINE at the end of the logical line or the input.
+     */
+    private int read() throws IOException {
+        while (position < limit || fill()) {
+            final int c = buffer[position++] & 0xFF;
+            if (c == '\r' || c == '\n') {
+                return END_OF_LINE;
+            }
+            if (c == '\\') {
+                if (precedingBackslash) {
+                    precedingBackslash = false;
+                } else if (isLineTerminatorNext()) {
+                    skipLineContinuation();
+                    if (lineLength == 0 && isCommentNext()) {
+                        // A continuation of an empty logical line may start a comment line.
+                        skipComment();
+                        return END_OF_LINE;
+                    }
+                    continue;
+                } else {
+                    precedingBackslash = true;
+                }
+            } else {
+                precedingBackslash = false;
+            }
+            lineLength++;
+            return c;
+        }
+        return END_OF_LINE;
+    }
+
+    /**
+     * Skips the value of the logical line. The bytes are not decoded, only the backslashes are counted to recognize
+     * continuation lines.
+     */
+    private void skipValue() throws IOException {
+        boolean escaped = false;
+        buffered:
+        while (position < limit || fill()) {
+            // Scan the buffered bytes with local variables, this loop runs for nearly every byte of the input.
+            final byte[] bytes = buffer;
+            final int end = limit;
+            for (int i = position; i < end; i++) {
+                final byte c = bytes[i];
+                if (c == '\\') {
+                    escaped = !escaped;
+                } else if (c == '\r' || c == '\n') {
+                    position = i;
+                    if (!escaped) {
+                        position++;
+                        return;
+                    }
+                    skipLineContinuation();
+                    escaped = false;
+                    continue buffered;
+                } else {
+                    escaped = false;
+                }
+            }
+            position = end;
+        }
+    }
+
+    private boolean isLineTerminatorNext() throws IOException {
+        if (position < limit || fill()) {
+            final byte c = buffer[position];
+            return c == '\r' || c == '\n';
+        }
+        return false;
+    }
+
+    private boolean isCommentNext() throws IOException {
+        if (position < limit || fill()) {
+            final byte c = buffer[position];
+            return c == '#' || c == '!';
+        }
+        return false;
+    }
+
+    /**
+     * Skips the line terminator at the current position and the leading whitespace of the continuation line.
+     */
+    private void skipLineContinuation() throws IOException {
+        if (buffer[position++] == '\r' && (position < limit || fill()) && buffer[position] == '\n') {
+            position++;
+        }
+        while (position < limit || fill()) {
+            final byte c = buffer[position];
+            if (c != ' ' && c != '\t' && c != '\f') {
+                return;
+            }
+            position++;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        final int read = input.read(buffer, 0, buffer.length);
+        if (read <= 0) {
+            position = 0;
+            limit = 0;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+}
@@ -27,6 +27,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Represents a resource bundle which contains a Set of locales.
@@ -43,6 +44,10 @@ import java.util.*;
  * resourceBundleValidationEnabled property of the Configuration object triggers validation. A ResBundle is considered valid
  * if the resource bundles all contain the same key/value pairs. Please note that this is actual valid from the Java language
  * so validation is disabled by default.
+ * <p/>
+ * ResBundles are created by, and registered in, a ResModel. Resource bundles can be added to a ResBundle from multiple
+ * threads. The locales and keys of a ResBundle are returned in a sorted order, so the generated sources do not depend
+ * on the order in which the resource bundles are added.
  *
  * @author Jamie Craane
  */
@@ -54,18 +59,32 @@ public final class ResBundle {
     private static final String RESOURCE_BUNDLE_NAME_SEPARATOR = "_";
     private static final String LOCALE_SEPARATOR = "_";
 
-    /**
-     * Internal map which holds bundles by javaIdentifier. This is needed to determine if a bundle for a given identifier
-     * exists. If so, the locale of the resource bundle is added to the existing bundle. Else a new bundle is created
-     * and added to this map.
-     */
-    private static Map<String, ResBundle> bundles = new HashMap<String, ResBundle>();
     private static final String EXTENSION_SEPERATOR = ".";
     private static final String DEFAULT_PACKAGE = "";
 
+    private static final Comparator<ResLocale> LOCALE_ORDER = new Comparator<ResLocale>() {
+        public int compare(final ResLocale first, final ResLocale second) {
+            return first.getLocale().compareTo(second.getLocale());
+        }
+    };
+
+    private static final Comparator<ResKey> KEY_ORDER = new Comparator<ResKey>() {
+        public int compare(final ResKey first, final ResKey second) {
+            return first.getName().compareTo(second.getName());
+        }
+    };
+
+    /**
+     * Guarded by this.
+     */
     private final Map<ResLocale, ResLocale> locales = new HashMap<ResLocale, ResLocale>();
     private final String bundleClassName;
-    private final String originalPathAndName;
+
+    /**
+     * The smallest path of the resource bundles added to this bundle, so it does not depend on the order in which
+     * resource bundles are added. Guarded by this.
+     */
+    private String originalPathAndName;
 
     private ResBundle(final String name, final String originalPathAndResourceBundleName) {
         this.bundleClassName = name;
@@ -85,44 +104,66 @@ public final class ResBundle {
      * @return The locales for this bundle.
      */
     public Set<ResLocale> getLocales() {
-        return Collections.unmodifiableSet(new HashSet<ResLocale>(locales.values()));
+        return Collections.unmodifiableSet(new LinkedHashSet<ResLocale>(getSortedLocales()));
+    }
+
+    private synchronized List<ResLocale> getSortedLocales() {
+        final List<ResLocale> sortedLocales = new ArrayList<ResLocale>(locales.values());
+        Collections.sort(sortedLocales, LOCALE_ORDER);
+        return sortedLocales;
     }
 
     /**
-     * @param resourceBundle The package where the resource bundle resides, for example org.capatect.resources. An empty String if
-     *                       the resource bundle resides at the root package.
+     * Adds the given resource bundle to the ResBundle for it in the given registry. If the registry does not contain a
+     * ResBundle for the resource bundle yet, a new ResBundle is created and registered.
+     *
+     * @param resourceBundle The resource bundle file to add.
      * @param configuration  The configuration to use when adding resource bundles. The parts from the confiuration that are needed
-     *                       are: sourceDirectories and the package aliases.
-     * @return
+     *                       are: sourceDirectories, the package aliases and the resource bundle
+     *                       encoding.
+     * @param bundles        The registry of the ResBundles of a ResModel, by bundle class name.
+     * @param parseCache     The cache with the keys of previously parsed resource bundles.
+     * @param statistics     The statistics to record the parsed or cached resource bundle in.
+     * @return The existing or new ResBundle the resource bundle is added to.
      */
-    public static ResBundle createOrReturn(final File resourceBundle, final Configuration configuration) {
+    static ResBundle createOrReturn(final File resourceBundle, final Configuration configuration,
+                                    final ConcurrentMap<String, ResBundle> bundles, final ParseCache parseCache,
+                                    final ParseStatistics statistics) {
         Validate.notNull(resourceBundle, "The resourceBundle may not be null.");
         Validate.notNull(configuration, "The configuration may not be null.");
+        Validate.notNull(bundles, "The bundles may not be null.");
+        Validate.notNull(parseCache, "The parseCache may not be null.");
 
         String packageOnFileSystem = extractResourceBundlePackage(resourceBundle.getPath(), configuration.getSourceDirectories());
         String packageName = packageOnFileSystem.replaceAll(PATH_SEPARATOR, PACKAGE_SEPERATOR);
         String aliasPackage = configuration.getAliasFor(packageName);
         String javaClassIdentifier = ResourceBundleToJavaClassIdentifierConverter.convert(aliasPackage, resourceBundle.getName());
 
-        ResBundle resBundle = getExistingOrCreateNew(javaClassIdentifier,
-                getOriginalPathAndResourceBundleName(resourceBundle, packageOnFileSystem));
+        final String originalPathAndResourceBundleName = getOriginalPathAndResourceBundleName(resourceBundle, packageOnFileSystem);
+        ResBundle resBundle = getExistingOrCreateNew(bundles, javaClassIdentifier, originalPathAndResourceBundleName);
 
-        addNewLocaleOrMergeKeysToExistingLocale(resourceBundle, resBundle);
+        // Parse outside of the lock of the bundle, so resource bundles of the same bundle are parsed concurrently.
+        final ResLocale resLocale = ResLocale.createFromResourceBundle(resourceBundle, parseCache,
+                configuration.getResourceBundleEncoding(), statistics);
+        resBundle.addNewLocaleOrMergeKeysToExistingLocale(resLocale, originalPathAndResourceBundleName);
 
         return resBundle;
     }
 
-    private static void addNewLocaleOrMergeKeysToExistingLocale(final File resourceBundle, final ResBundle resBundle) {
-        final ResLocale resLocale = ResLocale.createFromResourceBundle(resourceBundle);
-        ResLocale localeFromBundle = resBundle.locales.get(resLocale);
+    private synchronized void addNewLocaleOrMergeKeysToExistingLocale(final ResLocale resLocale, final String resourceBundlePathAndName) {
+        ResLocale localeFromBundle = locales.get(resLocale);
 
         if (localeFromBundle == null) {
-            LOGGER.info("The locale [{}] does not exists yet for bundle [{}], adding locale to bundle.", resLocale.getLocale(), resBundle.bundleClassName);
-            resBundle.locales.put(resLocale, resLocale);
+            LOGGER.info("The locale [{}] does not exists yet for bundle [{}], adding locale to bundle.", resLocale.getLocale(), bundleClassName);
+            locales.put(resLocale, resLocale);
         } else {
-            LOGGER.info("The locale [{}] for resource byndle [{}] already exists, merging keys.", localeFromBundle.getLocale(), resBundle.bundleClassName);
+            LOGGER.info("The locale [{}] for resource byndle [{}] already exists, merging keys.", localeFromBundle.getLocale(), bundleClassName);
             localeFromBundle.mergeKeys(resLocale);
         }
+
+        if (resourceBundlePathAndName.compareTo(originalPathAndName) < 0) {
+            originalPathAndName = resourceBundlePathAndName;
+        }
     }
 
     private static String getOriginalPathAndResourceBundleName(final File resourceBundle, final String packageOnFileSystem) {
@@ -131,11 +172,15 @@ public final class ResBundle {
                 resourceBundle.getName();
     }
 
-    private static ResBundle getExistingOrCreateNew(final String javaClassIdentifier, final String packageOnFileSystem) {
+    private static ResBundle getExistingOrCreateNew(final ConcurrentMap<String, ResBundle> bundles,
+                                                    final String javaClassIdentifier, final String packageOnFileSystem) {
         ResBundle resBundle = bundles.get(javaClassIdentifier);
         if (resBundle == null) {
-            resBundle = new ResBundle(javaClassIdentifier, packageOnFileSystem);
-            bundles.put(javaClassIdentifier, resBundle);
+            final ResBundle newResBundle = new ResBundle(javaClassIdentifier, packageOnFileSystem);
+            resBundle = bundles.putIfAbsent(javaClassIdentifier, newResBundle);
+            if (resBundle == null) {
+                resBundle = newResBundle;
+            }
         }
         return resBundle;
     }
@@ -188,7 +233,7 @@ public final class ResBundle {
     public ValidationResult getValidationResult() {
         ValidationResult validationResult = new ValidationResult();
         ResLocale previousLocale = null;
-        for (final ResLocale locale : locales.values()) {
+        for (final ResLocale locale : getSortedLocales()) {
             if (previousLocale != null) {
                 if (previousLocale.getKeys().size() != locale.getKeys().size()) {
                     validationResult.addValidationError(String.format("The resource bundle [%s] does not contain the same number of keys for the locales [%s] and [%s].", this.bundleClassName, locale.getLocale(), previousLocale.getLocale()));
@@ -201,25 +246,27 @@ public final class ResBundle {
         return validationResult;
     }
 
-    public String getOriginalPathAndName() {
+    public synchronized String getOriginalPathAndName() {
         return originalPathAndName;
     }
 
     /**
      * Returns the total set of unique keys for this resource bundle and all locales in this resource bundle.
      *
-     * @return All unique keys of all locales of this resource bundle.
+     * @return All unique keys of all locales of this resource bundle, sorted by name.
      */
     public Set<ResKey> getAllUniqueKeysForLocales() {
         final Set<ResKey> keys = new HashSet<ResKey>();
 
-        for (final ResLocale locale : locales.values()) {
+        for (final ResLocale locale : getSortedLocales()) {
             for (final ResKey resKey : locale.getKeys()) {
                 keys.add(resKey);
             }
         }
 
-        return keys;
+        final List<ResKey> sortedKeys = new ArrayList<ResKey>(keys);
+        Collections.sort(sortedKeys, KEY_ORDER);
+        return new LinkedHashSet<ResKey>(sortedKeys);
     }
 
     /**
@@ -47,6 +47,17 @@ public final class ResKey {
         return new ResKey(KeyToJavaConstantIdentifierConverter.convert(key), key);
     }
 
+    /**
+     * Creates an instance of this class with a key which was already converted to a Java constant identifier.
+     *
+     * @param name         The key converted to a Java constant identifier.
+     * @param originalName The original key.
+     * @return an instance of this class with the given name and original name.
+     */
+    static ResKey create(final String name, final String originalName) {
+        return new ResKey(name, originalName);
+    }
+
     /**
      * @return The name of the key converted to a Java constant identifier ready to be used in sourcecode generation.
      */
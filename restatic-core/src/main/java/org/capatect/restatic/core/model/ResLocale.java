@@ -20,13 +20,18 @@ package org.capatect.restatic.core.model;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.Validate;
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.jfr.RestaticEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Properties;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -46,6 +51,7 @@ public final class ResLocale {
     private final String locale;
 
     private final Set<ResKey> keys = new HashSet<ResKey>();
+    private final List<File> resourceBundles = new ArrayList<File>();
     private boolean defaultLocale;
 
     private ResLocale(final String locale) {
@@ -61,41 +67,103 @@ public final class ResLocale {
      * @return
      */
     public static ResLocale createFromResourceBundle(final File resourceBundle) {
+        return createFromResourceBundle(resourceBundle, ParseCache.disabled());
+    }
+
+    /**
+     * Creates a new instance of ResLocale. Populate the keys of the created ResLocale with the keys
+     * form the passed-in resource bundle, or from the parse cache if the resource bundle did not change since it was cached.
+     *
+     * @param resourceBundle The resource bundle to create the locale from.
+     * @param parseCache     The cache with the keys of previously parsed resource bundles.
+     * @return The ResLocale with the keys of the resource bundle.
+     */
+    public static ResLocale createFromResourceBundle(final File resourceBundle, final ParseCache parseCache) {
+        return createFromResourceBundle(resourceBundle, parseCache, Configuration.DEFAULT_RESOURCE_BUNDLE_ENCODING);
+    }
+
+    /**
+     * Creates a new instance of ResLocale. Populate the keys of the created ResLocale with the keys
+     * form the passed-in resource bundle, or from the parse cache if the resource bundle did not change since it was cached.
+     *
+     * @param resourceBundle         The resource bundle to create the locale from.
+     * @param parseCache             The cache with the keys of previously parsed resource bundles.
+     * @param encoding               The encoding of .properties resource bundles.
+     * @return The ResLocale with the keys of the resource bundle.
+     */
+    static ResLocale createFromResourceBundle(final File resourceBundle, final ParseCache parseCache,
+                                              final Charset encoding) {
+        return createFromResourceBundle(resourceBundle, parseCache, encoding, new ParseStatistics());
+    }
+
+    /**
+     * Creates a new instance of ResLocale. Populate the keys of the created ResLocale with the keys
+     * form the passed-in resource bundle, or from the parse cache if the resource bundle did not change since it was cached.
+     *
+     * @param resourceBundle         The resource bundle to create the locale from.
+     * @param parseCache             The cache with the keys of previously parsed resource bundles.
+     * @param encoding               The encoding of .properties resource bundles.
+     * @param statistics             The statistics to record the parsed or cached resource bundle in.
+     * @return The ResLocale with the keys of the resource bundle.
+     */
+    static ResLocale createFromResourceBundle(final File resourceBundle, final ParseCache parseCache,
+                                              final Charset encoding, final ParseStatistics statistics) {
         Validate.notNull(resourceBundle, "The resourceBundle may not be null.");
+        Validate.notNull(parseCache, "The parseCache may not be null.");
+        Validate.notNull(encoding, "The encoding may not be null.");
+        Validate.notNull(statistics, "The statistics may not be null.");
 
         String localeInformation = extractLocale(resourceBundle.getName());
         ResLocale resLocale = new ResLocale(localeInformation);
 
-        extractKeysFromResourceBundleAndAddToLocale(resourceBundle, resLocale);
+        final Object event = RestaticEvents.beginParse();
+        List<ResKey> keys = parseCache.getKeys(resourceBundle);
+        if (keys == null) {
+            keys = extractKeysFromResourceBundle(resourceBundle, encoding);
+            parseCache.putKeys(resourceBundle, keys);
+            final long bytesRead = resourceBundle.length();
+            statistics.recordParsed(bytesRead, keys.size());
+            RestaticEvents.commitParse(event, resourceBundle, bytesRead, keys.size(), false);
+        } else {
+            LOGGER.debug("Using cached keys for {}.", resourceBundle);
+            statistics.recordCached(keys.size());
+            RestaticEvents.commitParse(event, resourceBundle, 0, keys.size(), true);
+        }
+
+        resLocale.keys.addAll(keys);
+        resLocale.resourceBundles.add(resourceBundle);
 
         return resLocale;
     }
 
-    private static void extractKeysFromResourceBundleAndAddToLocale(final File resourceBundle, final ResLocale resLocale) {
-        Properties properties = loadProperties(resourceBundle);
-        Set<Object> keySet = properties.keySet();
-        for (final Object key : keySet) {
-            resLocale.keys.add(ResKey.createAndConvertConstantIdentifier((String) key));
+    private static List<ResKey> extractKeysFromResourceBundle(final File resourceBundle, final Charset encoding) {
+        Collection<String> names = loadKeys(resourceBundle, encoding);
+        List<ResKey> keys = new ArrayList<ResKey>(names.size());
+        for (final String name : names) {
+            keys.add(ResKey.createAndConvertConstantIdentifier(name));
         }
+        return keys;
     }
 
-    private static Properties loadProperties(final File resourceBundle) {
-        BufferedInputStream bis = null;
+    /**
+     * Loads the keys of the given resource bundle. The keys are read with the PropertiesKeyScanner or the
+     * XmlPropertiesKeyScanner, which do not load the values.
+     */
+    private static Collection<String> loadKeys(final File resourceBundle, final Charset encoding) {
+        InputStream input = null;
         try {
-            bis = new BufferedInputStream(new FileInputStream(resourceBundle));
-            Properties properties = new Properties();
+            input = new FileInputStream(resourceBundle);
             if (isXmlResourceBundle(resourceBundle)) {
-                properties.loadFromXML(bis);
-            } else {
-                properties.load(bis);
+                return XmlPropertiesKeyScanner.scanKeys(input);
             }
-            return properties;
+            // The scanner buffers the input itself.
+            return PropertiesKeyScanner.scanKeys(input, encoding);
         } catch (FileNotFoundException e) {
             throw new ParseException(String.format("Parsing of %s failed.", resourceBundle.getAbsolutePath()), e, resourceBundle.getAbsolutePath());
         } catch (IOException e) {
             throw new ParseException(String.format("Parsing of %s failed.", resourceBundle.getAbsolutePath()), e, resourceBundle.getAbsolutePath());
         } finally {
-            closeInputStream(bis);
+            closeInputStream(input);
         }
     }
 
@@ -103,10 +171,10 @@ public final class ResLocale {
         return resourceBundle.getName().endsWith(XML_EXTENSION);
     }
 
-    private static void closeInputStream(final BufferedInputStream bis) {
-        if (bis != null) {
+    private static void closeInputStream(final InputStream input) {
+        if (input != null) {
             try {
-                bis.close();
+                input.close();
             } catch (IOException e) {
                 // Ignored
             }
@@ -143,6 +211,15 @@ public final class ResLocale {
         return Collections.unmodifiableSet(keys);
     }
 
+    /**
+     * @return The resource bundle files of this locale, more than one if resource bundles are merged, sorted by path.
+     */
+    public List<File> getResourceBundles() {
+        final List<File> sortedResourceBundles = new ArrayList<File>(resourceBundles);
+        Collections.sort(sortedResourceBundles);
+        return sortedResourceBundles;
+    }
+
     /**
      * Merges the keys of the given locale with this locale if and only if the locales are the same.
      *
@@ -164,6 +241,7 @@ public final class ResLocale {
 
             this.keys.add(resKey);
         }
+        this.resourceBundles.addAll(resLocaleToMerge.resourceBundles);
     }
 
     private boolean differentLocales(final ResLocale resLocaleToMerge) {
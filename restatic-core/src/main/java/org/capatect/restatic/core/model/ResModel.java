@@ -17,15 +17,23 @@ package org.capatect.restatic.core.model;
 
 import org.apache.commons.lang.Validate;
 import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.jfr.RestaticEvents;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * ResModel abstraction for Restatic. This model is created by the ResourceBundleParser and handed over
  * to the ResourceClassGenerator which generates source files from the ResModel.
+ * <p/>
+ * Every ResModel has its own registry of ResBundles, so multiple models can be created concurrently. Resource bundles
+ * can be added from multiple threads. The bundles are returned sorted by class name, so the generated sources do not
+ * depend on the order in which the resource bundles are added.
  *
  * @author Jamie Craane
  */
@@ -35,13 +43,18 @@ public final class ResModel {
     private String rootClassName;
     private String rootClassPackage;
     private final Configuration configuration;
-    private final Set<ResBundle> bundles = new HashSet<ResBundle>();
+    private final ParseCache parseCache;
+    private final ConcurrentMap<String, ResBundle> bundles = new ConcurrentHashMap<String, ResBundle>();
+    private final ParseStatistics parseStatistics = new ParseStatistics();
+    private final AtomicLong validationTimeNanos = new AtomicLong();
     private boolean defaultPackage = true;
 
-    private ResModel(final Configuration configuration) {
+    private ResModel(final Configuration configuration, final ParseCache parseCache) {
         Validate.notNull(configuration, "configuration may not be null.");
+        Validate.notNull(parseCache, "parseCache may not be null.");
 
         this.configuration = configuration;
+        this.parseCache = parseCache;
         this.rootClassName = extractClassName(configuration.getFullyQualifiedGeneratedRootClassName());
         this.rootClassPackage = extractPackage(configuration.getFullyQualifiedGeneratedRootClassName());
     }
@@ -69,20 +82,35 @@ public final class ResModel {
      * @param configuration The Configuration object which holds the configuration used in resource bundle parsing.
      */
     public static ResModel create(final Configuration configuration) {
+        return create(configuration, ParseCache.disabled());
+    }
+
+    /**
+     * Creates a new instance of a ResModel which takes the keys of unchanged resource bundles from the given cache.
+     *
+     * @param configuration The Configuration object which holds the configuration used in resource bundle parsing.
+     * @param parseCache    The cache with the keys of previously parsed resource bundles.
+     */
+    public static ResModel create(final Configuration configuration, final ParseCache parseCache) {
         LOGGER.trace("Create new ResModel with configuration [{}].", configuration);
-        return new ResModel(configuration);
+        return new ResModel(configuration, parseCache);
     }
 
     /**
      * @return List of ValidationResult, one for each resource bundle that has errors.
      */
     public List<ValidationResult> getValidationResults() {
+        final Object event = RestaticEvents.beginValidation();
+        final long start = System.nanoTime();
+        final Set<ResBundle> resBundles = getBundles();
         List<ValidationResult> result = new ArrayList<ValidationResult>();
-        for (final ResBundle bundle : bundles) {
+        for (final ResBundle bundle : resBundles) {
             if (bundle.getValidationResult().hasErrors()) {
                 result.add(bundle.getValidationResult());
             }
         }
+        validationTimeNanos.addAndGet(System.nanoTime() - start);
+        RestaticEvents.commitValidation(event, resBundles.size(), result.size());
 
         return Collections.unmodifiableList(result);
     }
@@ -95,20 +123,33 @@ public final class ResModel {
     }
 
     /**
-     * Addes a resource bundle to the resource model.
+     * Addes a resource bundle to the resource model. This method may be called from multiple threads.
      *
      * @param resourceBundle The resource bundle to add to the resource model.
      */
     public void addResourceBundle(final File resourceBundle) {
-        ResBundle resBundle = ResBundle.createOrReturn(resourceBundle, configuration);
-        bundles.add(resBundle);
+        ResBundle.createOrReturn(resourceBundle, configuration, bundles, parseCache, parseStatistics);
+    }
+
+    /**
+     * @return The time in nanoseconds spent computing the validation results of this model.
+     */
+    public long getValidationTimeNanos() {
+        return validationTimeNanos.get();
+    }
+
+    /**
+     * @return The statistics of the resource bundles added to this model.
+     */
+    public ParseStatistics getParseStatistics() {
+        return parseStatistics;
     }
 
     /**
-     * @return List of ResBundles belonging to this model.
+     * @return List of ResBundles belonging to this model, sorted by bundle class name.
      */
     public Set<ResBundle> getBundles() {
-        return Collections.unmodifiableSet(bundles);
+        return Collections.unmodifiableSet(new LinkedHashSet<ResBundle>(new TreeMap<String, ResBundle>(bundles).values()));
     }
 
     public String getRootClassName() {
@@ -0,0 +1,148 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.model;
+
+import org.apache.commons.lang.Validate;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.InvalidPropertiesFormatException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Reads the keys of a resource bundle in the XML format of {@link java.util.Properties#loadFromXML(InputStream)}
+ * without loading the values.
+ * <p/>
+ * Properties.loadFromXML builds a DOM of the whole document and validates it against the properties DTD. This class
+ * reads the document with a StAX XMLStreamReader and only reads the key attribute of the entry elements, the text of
+ * the entries is skipped. The DTD is neither loaded nor validated against; the structure required by the DTD, a
+ * properties root element whose entry elements have a key attribute, is checked while reading.
+ * <p/>
+ * This class is threadsafe.
+ *
+ * @author Jamie Craane
+ */
+public final class XmlPropertiesKeyScanner {
+    private static final String ROOT_ELEMENT = "properties";
+    private static final String ENTRY_ELEMENT = "entry";
+    private static final String KEY_ATTRIBUTE = "key";
+
+    /**
+     * The factory is configured once. Creating readers is synchronized because the StAX specification does not
+     * guarantee that a factory is threadsafe.
+     */
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private XmlPropertiesKeyScanner() {
+        // Prevent instantiation.
+    }
+
+    private static XMLInputFactory createFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_VALIDATING, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, Boolean.FALSE);
+        return factory;
+    }
+
+    /**
+     * Reads all keys from the given input. The input is not closed.
+     *
+     * @param input The resource bundle in the XML properties format.
+     * @return The keys in the order of their first occurrence.
+     * @throws InvalidPropertiesFormatException
+     *                     If the input is not well-formed XML or not in the XML properties format.
+     * @throws IOException If the input could not be read.
+     */
+    public static Set<String> scanKeys(final InputStream input) throws IOException {
+        Validate.notNull(input, "The input may not be null.");
+
+        try {
+            final XMLStreamReader reader;
+            synchronized (FACTORY) {
+                reader = FACTORY.createXMLStreamReader(input);
+            }
+            try {
+                return scan(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            throw invalidFormat(e.getMessage(), e);
+        }
+    }
+
+    private static Set<String> scan(final XMLStreamReader reader) throws XMLStreamException, InvalidPropertiesFormatException {
+        final Set<String> keys = new LinkedHashSet<String>();
+        int depth = 0;
+        while (reader.hasNext()) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                if (depth == 1 && !ROOT_ELEMENT.equals(reader.getLocalName())) {
+                    throw invalidFormat(String.format("The root element is %s instead of %s.", reader.getLocalName(), ROOT_ELEMENT), null);
+                }
+                if (depth == 2 && ENTRY_ELEMENT.equals(reader.getLocalName())) {
+                    keys.add(readKey(reader));
+                    // The value of the entry is not needed.
+                    skipElement(reader);
+                    depth--;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+        return keys;
+    }
+
+    private static String readKey(final XMLStreamReader reader) throws InvalidPropertiesFormatException {
+        final String key = reader.getAttributeValue(null, KEY_ATTRIBUTE);
+        if (key == null) {
+            throw invalidFormat(String.format("The entry element at line %d has no key attribute.", reader.getLocation().getLineNumber()), null);
+        }
+        return key;
+    }
+
+    private static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    private static InvalidPropertiesFormatException invalidFormat(final String message, final Throwable cause) {
+        final InvalidPropertiesFormatException exception = new InvalidPropertiesFormatException(message);
+        if (cause != null) {
+            exception.initCause(cause);
+        }
+        return exception;
+    }
+}
@@ -18,20 +18,36 @@
 
 package org.capatect.restatic.core.parser;
 
+import org.apache.commons.lang.Validate;
 import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.model.ParseCache;
 import org.capatect.restatic.core.model.ResModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Class responssible for reading the resourcebundles and transforming it into a ResModel which
  * is later used by the generator for the generation of classes from the resource bundles.
  * <p/>
  * This class optionally validate the resource bundles for correctness when the Configuration.isResourceBundleValidationEnabled
- * returns true.
+ * returns true. The model is not validated again by the caller, the time spent validating is available from
+ * ResModel.getValidationTimeNanos.
+ * <p/>
+ * If a parse cache directory is configured, the keys of resource bundles which did not change since the previous run
+ * are taken from the ParseCache in that directory instead of parsing the resource bundles.
+ * <p/>
+ * The resource bundles are parsed in parallel on the executor passed to the constructor, or, when no executor is
+ * passed and the configured parser thread count is larger than 1, on an executor with that number of threads which is
+ * created for every parse. The resulting ResModel is the same regardless of the order in which the resource bundles
+ * are parsed.
  *
  * @author Jamie Craane
  */
@@ -40,6 +56,11 @@ public final class ResourceBundleParserImpl implements ResourceBundleParser {
 
     private final Configuration configuration;
 
+    /**
+     * The executor to parse the resource bundles on, null to use the configured parser thread count.
+     */
+    private final ExecutorService executor;
+
     /**
      * Creates a instance of the ResourceBundleParserImpl.
      *
@@ -47,17 +68,46 @@ public final class ResourceBundleParserImpl implements ResourceBundleParser {
      */
     public ResourceBundleParserImpl(final Configuration configuration) {
         this.configuration = configuration;
+        this.executor = null;
+    }
+
+    /**
+     * Creates a instance of the ResourceBundleParserImpl which parses the resource bundles on the given executor. The
+     * executor is not shut down by the parser.
+     *
+     * @param configuration The configuration object which the parser uses to control its behavior.
+     * @param executor      The executor to parse the resource bundles on.
+     */
+    public ResourceBundleParserImpl(final Configuration configuration, final ExecutorService executor) {
+        Validate.notNull(executor, "The executor may not be null.");
+
+        this.configuration = configuration;
+        this.executor = executor;
     }
 
     public ResModel parse(final List<File> resourceBundles) {
         LOGGER.trace("Start parsing the resource bundles");
 
-        final ResModel resModel = ResModel.create(configuration);
+        final ParseCache parseCache = loadParseCache();
+        final ResModel resModel = ResModel.create(configuration, parseCache);
 
-        for (final File resourceBundle : resourceBundles) {
-            resModel.addResourceBundle(resourceBundle);
+        if (executor != null) {
+            addResourceBundles(resModel, resourceBundles, executor);
+        } else if (configuration.getParserThreadCount() > 1 && resourceBundles.size() > 1) {
+            final ExecutorService parserExecutor = Executors.newFixedThreadPool(configuration.getParserThreadCount());
+            try {
+                addResourceBundles(resModel, resourceBundles, parserExecutor);
+            } finally {
+                parserExecutor.shutdownNow();
+            }
+        } else {
+            for (final File resourceBundle : resourceBundles) {
+                resModel.addResourceBundle(resourceBundle);
+            }
         }
 
+        parseCache.save();
+
         if (configuration.isResourceBundleValidationEnabled()) {
             if (!resModel.isValid()) {
                 throw new IllegalStateException(String.format("One ore more resource bundles are not valid, see the validation errors for details [%s]", resModel.getValidationResults()));
@@ -66,4 +116,47 @@ public final class ResourceBundleParserImpl implements ResourceBundleParser {
 
         return resModel;
     }
+
+    private void addResourceBundles(final ResModel resModel, final List<File> resourceBundles, final ExecutorService parserExecutor) {
+        final List<Future<?>> futures = new ArrayList<Future<?>>(resourceBundles.size());
+        try {
+            for (final File resourceBundle : resourceBundles) {
+                futures.add(parserExecutor.submit(new Runnable() {
+                    public void run() {
+                        resModel.addResourceBundle(resourceBundle);
+                    }
+                }));
+            }
+
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parsing the resource bundles.", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Unable to parse the resource bundles.", cause);
+        } finally {
+            for (final Future<?> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private ParseCache loadParseCache() {
+        final File parseCacheDirectory = configuration.getParseCacheDirectory();
+        if (parseCacheDirectory == null) {
+            return ParseCache.disabled();
+        }
+
+        return ParseCache.load(new File(parseCacheDirectory, ParseCache.CACHE_FILE_NAME), configuration.isParseCacheContentHashEnabled(),
+                configuration.getResourceBundleEncoding());
+    }
 }
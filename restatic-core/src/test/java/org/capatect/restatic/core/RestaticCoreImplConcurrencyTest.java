@@ -0,0 +1,174 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core;
+
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs many RestaticCoreImpl instances at the same time, the same as a build daemon or a parallel reactor build does,
+ * and verifies that every run only generates the keys of its own resource bundles.
+ *
+ * @author Jamie Craane
+ */
+public class RestaticCoreImplConcurrencyTest {
+    private static final int THREAD_COUNT = 8;
+    private static final int RUN_COUNT = 64;
+    private static final Pattern RUN_KEY = Pattern.compile("\"run(\\d+)\\.");
+
+    private File workDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("restatic-concurrency").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(workDirectory);
+    }
+
+    @Test
+    public void concurrentRunsAreIsolated() throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(THREAD_COUNT);
+        try {
+            final List<Future<File>> runs = new ArrayList<Future<File>>();
+            for (int run = 0; run < RUN_COUNT; run++) {
+                final Configuration configuration = createRun(run);
+                runs.add(executor.submit(new Callable<File>() {
+                    public File call() throws InterruptedException {
+                        start.await();
+                        new RestaticCoreImpl(configuration).run();
+                        return configuration.getOutputDirectory();
+                    }
+                }));
+            }
+            start.countDown();
+
+            for (int run = 0; run < RUN_COUNT; run++) {
+                final File rootClass = new File(get(runs.get(run)), "org/capatect/R.java");
+                assertEquals(rootClass.getPath(), String.valueOf(run), runNumbersIn(rootClass));
+            }
+        } finally {
+            executor.shutdownNow();
+            assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        }
+    }
+
+    /**
+     * Creates two source directories which contain the same resource bundles, with keys which are unique for the run.
+     * A bundle registry which is shared between runs would merge the keys of other runs into the generated class, or
+     * fail because a locale already contains a key.
+     */
+    private Configuration createRun(final int run) throws IOException {
+        final File runDirectory = new File(workDirectory, "run" + run);
+        final File mainResources = new File(runDirectory, "main");
+        final File extraResources = new File(runDirectory, "extra");
+        final String[] keys = {"run" + run + ".title", "run" + run + ".description"};
+
+        write(new File(mainResources, "com/acme/messages.properties"), keys);
+        write(new File(mainResources, "com/acme/messages_nl.properties"), keys);
+        write(new File(extraResources, "com/acme/labels.properties"), keys);
+
+        return new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatect.R")
+                .addSourceDirectory(mainResources)
+                .addSourceDirectory(extraResources)
+                .toOutputDirectory(new File(runDirectory, "generated"))
+                .withResourceBundleValidationEnabled(true)
+                .getConfiguration();
+    }
+
+    private static String runNumbersIn(final File rootClass) throws IOException {
+        final Matcher matcher = RUN_KEY.matcher(new String(Files.readAllBytes(rootClass.toPath()), Charset.defaultCharset()));
+        final TreeSet<String> runNumbers = new TreeSet<String>();
+        int keyCount = 0;
+        while (matcher.find()) {
+            runNumbers.add(matcher.group(1));
+            keyCount++;
+        }
+        assertEquals(4, keyCount);
+
+        final StringBuilder result = new StringBuilder();
+        for (final String runNumber : runNumbers) {
+            result.append(result.length() == 0 ? "" : ",").append(runNumber);
+        }
+        return result.toString();
+    }
+
+    private static File get(final Future<File> run) throws Exception {
+        try {
+            return run.get(1, TimeUnit.MINUTES);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static void write(final File resourceBundle, final String[] keys) throws IOException {
+        assertTrue(resourceBundle.getParentFile().isDirectory() || resourceBundle.getParentFile().mkdirs());
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(resourceBundle), "ISO-8859-1");
+        try {
+            for (final String key : keys) {
+                writer.write(key + "=" + resourceBundle.getName() + "\n");
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
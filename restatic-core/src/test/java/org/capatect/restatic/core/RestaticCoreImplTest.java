@@ -21,6 +21,7 @@ package org.capatect.restatic.core;
 import org.capatect.restatic.core.configuration.Configuration;
 import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
 import org.capatect.restatic.core.discoverer.file.FileCollector;
+import org.capatect.restatic.core.generator.GenerationStatistics;
 import org.capatect.restatic.core.generator.ResourceClassGenerator;
 import org.capatect.restatic.core.model.ResModel;
 import org.capatect.restatic.core.parser.ResourceBundleParser;
@@ -68,7 +69,7 @@ public class RestaticCoreImplTest {
         expect(parser.parse(collectedFiles)).andReturn(resModel);
 
         ResourceClassGenerator generator = createMock(ResourceClassGenerator.class);
-        generator.generate(resModel);
+        expect(generator.generate(resModel)).andReturn(new GenerationStatistics(1, 0, 0, 0, 0));
 
         replay(fileCollector, parser, generator);
 
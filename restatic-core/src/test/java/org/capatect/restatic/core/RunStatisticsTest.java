@@ -0,0 +1,132 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core;
+
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.capatect.restatic.core.corpus.CorpusGenerator;
+import org.capatect.restatic.core.corpus.GeneratedCorpus;
+import org.capatect.restatic.core.discoverer.file.AntStylePatternFileNameFilter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class RunStatisticsTest {
+    private static final int PACKAGE_COUNT = 4;
+
+    private File workDirectory;
+    private GeneratedCorpus corpus;
+    private Configuration configuration;
+
+    @Before
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("restatic-statistics").toFile();
+        corpus = new CorpusGenerator()
+                .withPackageCount(PACKAGE_COUNT)
+                .withMissingTranslationRatio(0)
+                .generate(new File(workDirectory, "resources"));
+
+        configuration = new ConfigurationBuilder()
+                .addSourceDirectory(corpus.getDirectory())
+                .addFileFilter(AntStylePatternFileNameFilter.create("**/*.properties", "**/*.xml"))
+                .toOutputDirectory(new File(workDirectory, "generated"))
+                .withResourceBundleValidationEnabled(true)
+                .getConfiguration();
+    }
+
+    @After
+    public void tearDown() {
+        delete(workDirectory);
+    }
+
+    @Test
+    public void countsEveryPhase() {
+        final RunStatistics statistics = new RestaticCoreImpl(configuration).run();
+
+        final int resourceBundleCount = corpus.getResourceBundles().size();
+        // Every package of the corpus also contains a package.html which is visited but not matched.
+        assertEquals(resourceBundleCount + PACKAGE_COUNT, statistics.getFilesVisited());
+        assertEquals(resourceBundleCount, statistics.getFilesMatched());
+        assertEquals(resourceBundleCount, statistics.getParseStatistics().getParsedResourceBundleCount());
+        assertEquals(0, statistics.getParseStatistics().getCachedResourceBundleCount());
+        assertEquals(sizeOf(corpus), statistics.getParseStatistics().getBytesRead());
+
+        assertEquals(corpus.getBundleCount(), statistics.getBundleCount());
+        assertEquals(resourceBundleCount, statistics.getLocaleCount());
+        assertEquals(corpus.getBundleCount() * corpus.getKeysPerBundle(), statistics.getKeyCount());
+        assertTrue(statistics.getParseStatistics().getKeyCount() >= statistics.getKeyCount());
+
+        assertTrue(statistics.isValidationEnabled());
+        // The model is validated once, by the parser, and that time is not counted as parsing.
+        assertTrue(statistics.getValidationTimeNanos() > 0);
+        assertEquals(1, statistics.getGenerationStatistics().getSourceFilesWritten());
+        assertTrue(statistics.getTotalTimeNanos() >= statistics.getCollectionTimeNanos() + statistics.getParseTimeNanos()
+                + statistics.getValidationTimeNanos());
+    }
+
+    @Test
+    public void unchangedSourceFilesAreNotWrittenAgain() {
+        new RestaticCoreImpl(configuration).run();
+        final RunStatistics statistics = new RestaticCoreImpl(configuration).run();
+
+        assertEquals(0, statistics.getGenerationStatistics().getSourceFilesWritten());
+        assertEquals(1, statistics.getGenerationStatistics().getSourceFilesUnchanged());
+    }
+
+    @Test
+    public void toJson() {
+        final RunStatistics statistics = new RestaticCoreImpl(configuration).run();
+        final String json = statistics.toJson();
+
+        assertTrue(json, json.startsWith("{"));
+        assertTrue(json, json.trim().endsWith("}"));
+        assertTrue(json, json.contains("\"filesMatched\": " + corpus.getResourceBundles().size() + "\n"));
+        assertTrue(json, json.contains("\"bundles\": " + corpus.getBundleCount() + ",\n"));
+        assertTrue(json, json.contains("\"enabled\": true,\n"));
+        assertTrue(json, json.contains("\"sourceFilesWritten\": 1,\n"));
+        assertTrue(json, json.matches("(?s).*\"totalTimeMillis\": \\d+\\.\\d{3},.*"));
+        assertFalse(json, json.contains(",\n  }"));
+    }
+
+    private static long sizeOf(final GeneratedCorpus corpus) {
+        long size = 0;
+        for (final File resourceBundle : corpus.getResourceBundles()) {
+            size += resourceBundle.length();
+        }
+        return size;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -17,10 +17,13 @@ package org.capatect.restatic.core.configuration.builder;
 
 import org.capatect.restatic.core.FileTestUtils;
 import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.GeneratorBackend;
+import org.capatect.restatic.core.configuration.SourceLayout;
 import org.capatect.restatic.core.discoverer.file.AntStylePatternFileNameFilter;
 import org.junit.Test;
 
 import java.io.File;
+import java.nio.charset.Charset;
 
 import static org.junit.Assert.*;
 
@@ -167,6 +170,258 @@ public class ConfigurationBuilderTest {
 //        assertFalse(configuration.isResourceBundleValidationEnabled());
     }
 
+    @Test
+    public void defaultParallelFileCollectionIsFalse() {
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .getConfiguration();
+
+        assertFalse(configuration.isParallelFileCollectionEnabled());
+    }
+
+    @Test
+    public void enableParallelFileCollection() {
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withParallelFileCollectionEnabled(true)
+                .getConfiguration();
+
+        assertTrue(configuration.isParallelFileCollectionEnabled());
+    }
+
+    @Test
+    public void defaultParseCacheIsDisabled() {
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .getConfiguration();
+
+        assertNull(configuration.getParseCacheDirectory());
+        assertFalse(configuration.isParseCacheContentHashEnabled());
+    }
+
+    @Test
+    public void enableParseCache() {
+        final File parseCacheDirectory = FileTestUtils.getRootPath("target/restatic-cache");
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withParseCacheDirectory(parseCacheDirectory)
+                .withParseCacheContentHashEnabled(true)
+                .getConfiguration();
+
+        assertEquals(parseCacheDirectory, configuration.getParseCacheDirectory());
+        assertTrue(configuration.isParseCacheContentHashEnabled());
+    }
+
+    @Test
+    public void defaultSourceLayoutIsSingleFile() {
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .getConfiguration();
+
+        assertEquals(SourceLayout.SINGLE_FILE, configuration.getSourceLayout());
+    }
+
+    @Test
+    public void sourceFilePerBundle() {
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withSourceLayout(SourceLayout.FILE_PER_BUNDLE)
+                .getConfiguration();
+
+        assertEquals(SourceLayout.FILE_PER_BUNDLE, configuration.getSourceLayout());
+    }
+
+    @Test
+    public void defaultGeneratorBackendIsTemplate() {
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .getConfiguration();
+
+        assertEquals(GeneratorBackend.TEMPLATE, configuration.getGeneratorBackend());
+    }
+
+    @Test
+    public void emitterGeneratorBackend() {
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withGeneratorBackend(GeneratorBackend.EMITTER)
+                .getConfiguration();
+
+        assertEquals(GeneratorBackend.EMITTER, configuration.getGeneratorBackend());
+    }
+
+    @Test
+    public void bytecodeGeneratorBackend() {
+        final File classOutputDirectory = new File(outputDirectory, "classes");
+        final File sourcesJar = new File(outputDirectory, "restatic-sources.jar");
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withGeneratorBackend(GeneratorBackend.BYTECODE)
+                .toClassOutputDirectory(classOutputDirectory)
+                .withSourcesJar(sourcesJar)
+                .getConfiguration();
+
+        assertEquals(GeneratorBackend.BYTECODE, configuration.getGeneratorBackend());
+        assertEquals(classOutputDirectory, configuration.getClassOutputDirectory());
+        assertEquals(sourcesJar, configuration.getSourcesJar());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void bytecodeGeneratorBackendRequiresClassOutputDirectory() {
+        new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withGeneratorBackend(GeneratorBackend.BYTECODE)
+                .getConfiguration();
+    }
+
+    @Test
+    public void classConstantPoolBudget() {
+        final Configuration defaultConfiguration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .getConfiguration();
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withClassConstantPoolBudget(32000)
+                .getConfiguration();
+
+        assertEquals(Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET, defaultConfiguration.getClassConstantPoolBudget());
+        assertEquals(32000, configuration.getClassConstantPoolBudget());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void classConstantPoolBudgetAboveClassFileLimit() {
+        new ConfigurationBuilder().withClassConstantPoolBudget(Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET + 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void classConstantPoolBudgetTooSmall() {
+        new ConfigurationBuilder().withClassConstantPoolBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET - 1);
+    }
+
+    @Test
+    public void messageTablesEnabled() {
+        final Configuration defaultConfiguration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .getConfiguration();
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withMessageTablesEnabled(true)
+                .getConfiguration();
+
+        assertFalse(defaultConfiguration.isMessageTablesEnabled());
+        assertTrue(configuration.isMessageTablesEnabled());
+    }
+
+    @Test
+    public void keyTablesEnabled() {
+        final Configuration defaultConfiguration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .getConfiguration();
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withKeyTablesEnabled(true)
+                .getConfiguration();
+
+        assertFalse(defaultConfiguration.isKeyTablesEnabled());
+        assertTrue(configuration.isKeyTablesEnabled());
+    }
+
+    @Test
+    public void keyEnumsEnabled() {
+        final Configuration defaultConfiguration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .getConfiguration();
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withKeyEnumsEnabled(true)
+                .getConfiguration();
+
+        assertFalse(defaultConfiguration.isKeyEnumsEnabled());
+        assertTrue(configuration.isKeyEnumsEnabled());
+    }
+
+    @Test
+    public void formatAccessorsEnabled() {
+        final Configuration defaultConfiguration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withKeyTablesEnabled(true)
+                .getConfiguration();
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withKeyTablesEnabled(true)
+                .withFormatAccessorsEnabled(true)
+                .getConfiguration();
+
+        assertFalse(defaultConfiguration.isFormatAccessorsEnabled());
+        assertTrue(configuration.isFormatAccessorsEnabled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void formatAccessorsRequireKeyTables() {
+        new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withFormatAccessorsEnabled(true)
+                .getConfiguration();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void keyTablesAreNotSupportedByBytecodeGeneratorBackend() {
+        new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withGeneratorBackend(GeneratorBackend.BYTECODE)
+                .toClassOutputDirectory(outputDirectory)
+                .withKeyTablesEnabled(true)
+                .getConfiguration();
+    }
+
+    @Test
+    public void defaultResourceBundleEncoding() {
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .getConfiguration();
+
+        assertEquals(Charset.forName("ISO-8859-1"), configuration.getResourceBundleEncoding());
+    }
+
+    @Test
+    public void resourceBundleEncoding() {
+        final Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withResourceBundleEncoding(Charset.forName("UTF-8"))
+                .getConfiguration();
+
+        assertEquals(Charset.forName("UTF-8"), configuration.getResourceBundleEncoding());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedResourceBundleEncoding() {
+        new ConfigurationBuilder().withResourceBundleEncoding(Charset.forName("UTF-16"));
+    }
+
     @Test
     public void testDefaultRootClassName() {
         final Configuration configuration = new ConfigurationBuilder()
@@ -0,0 +1,492 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.corpus;
+
+import org.apache.commons.lang.Validate;
+import org.capatect.restatic.core.Util;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Writes a reproducible corpus of resource bundles for scale tests and benchmarks. The same settings and seed always
+ * write the same files with the same content.
+ * <p/>
+ * The corpus is a package tree in which every package contains the configured number of bundles, each with a resource
+ * bundle file for every locale. A bundle is either in the .properties format or in the XML format of
+ * Properties.loadFromXML. The generated content contains what is found in real resource bundles:
+ * <ul>
+ * <li>Keys in different shapes: dotted, camel case, snake case, numbered, with escaped separators and with non-ASCII
+ * letters.</li>
+ * <li>Values with escape sequences, unicode escapes, MessageFormat placeholders, continuation lines and characters
+ * outside ISO-8859-1.</li>
+ * <li>Comments, blank lines and both \n and \r\n line separators.</li>
+ * <li>Keys which are converted to the same Java constant identifier as another key of the bundle, such as order.total
+ * and order-total, see {@link #withCollidingKeyRatio(double)}.</li>
+ * <li>Locales which miss translations, see {@link #withMissingTranslationRatio(double)}.</li>
+ * </ul>
+ * Every package also contains a file which is not a resource bundle.
+ *
+ * @author Jamie Craane
+ */
+public final class CorpusGenerator {
+    /**
+     * The default locale and the 29 other locales, in the order in which they are used.
+     */
+    private static final String[] LOCALES = {"", "nl", "de", "fr", "en_US", "en_GB", "es", "it", "pt_BR", "pt", "sv",
+            "da", "fi", "nb", "pl", "cs", "hu", "ro", "el", "tr", "ru", "uk", "ja", "ko", "zh_CN", "zh_TW", "ar", "he",
+            "th", "vi"};
+
+    private static final String[] MODULES = {"web", "core", "billing", "catalog", "checkout", "crm", "reporting", "admin"};
+
+    private static final String[] BUNDLE_NAMES = {"messages", "labels", "errors", "validation", "navigation", "emails",
+            "help", "reports"};
+
+    private static final String[] SEGMENTS = {"account", "address", "billing", "button", "cancel", "card", "checkout",
+            "confirm", "customer", "dialog", "email", "error", "field", "help", "invoice", "login", "menu", "message",
+            "number", "order", "password", "payment", "product", "profile", "report", "search", "settings", "shipping",
+            "status", "summary", "total", "user", "wizard"};
+
+    private static final String[] LEAVES = {"label", "title", "tooltip", "description", "placeholder", "required",
+            "invalid", "hint", "text", "header"};
+
+    private static final String[] NON_ASCII_SEGMENTS = {"caf\u00e9", "stra\u00dfe", "\u00fcbersicht", "r\u00e9sum\u00e9",
+            "se\u00f1al"};
+
+    private static final String[] WORDS = {"the", "your", "order", "has", "been", "saved", "please", "enter", "a",
+            "valid", "email", "address", "payment", "failed", "try", "again", "later", "total", "amount", "of", "items",
+            "in", "cart", "is", "not", "available", "click", "here", "to", "continue"};
+
+    private static final String[] NON_LATIN_WORDS = {"\u00e9t\u00e9", "gr\u00f6\u00dfe", "\u65e5\u672c\u8a9e",
+            "\u0441\u043f\u0430\u0441\u0438\u0431\u043e", "\u03b5\u03c5\u03c7\u03b1\u03c1\u03b9\u03c3\u03c4\u03ce",
+            "\u0634\u0643\u0631\u0627", "\ud55c\uad6d\uc5b4", "\u20ac", "\u00a3", "\u2026"};
+
+    private static final String[] PLACEHOLDERS = {"{0}", "{1}", "{0,number,integer}", "{1,date,short}",
+            "{0,choice,0#none|1#one|1<many}", "''{0}''"};
+
+    private static final String[] SEPARATORS = {"=", " = ", ": ", " "};
+
+    private static final int PACKAGES_PER_MODULE = 25;
+    private static final int KEYS_PER_SECTION = 12;
+    private static final int MAXIMUM_MISSING_KEYS = 3;
+
+    private long seed;
+    private int packageCount;
+    private int bundlesPerPackage;
+    private int localeCount;
+    private int keysPerBundle;
+    private double xmlBundleRatio;
+    private double collidingKeyRatio;
+    private double missingTranslationRatio;
+
+    /**
+     * Creates a CorpusGenerator for a small corpus of 10 packages with 5 bundles of 50 keys in 4 locales.
+     */
+    public CorpusGenerator() {
+        seed = 42L;
+        packageCount = 10;
+        bundlesPerPackage = 5;
+        localeCount = 4;
+        keysPerBundle = 50;
+        xmlBundleRatio = 0.1;
+        collidingKeyRatio = 0.02;
+        missingTranslationRatio = 0.05;
+    }
+
+    public CorpusGenerator withSeed(final long aSeed) {
+        seed = aSeed;
+        return this;
+    }
+
+    public CorpusGenerator withPackageCount(final int aPackageCount) {
+        Validate.isTrue(aPackageCount > 0, "Parameter aPackageCount must be positive");
+        packageCount = aPackageCount;
+        return this;
+    }
+
+    public CorpusGenerator withBundlesPerPackage(final int aBundlesPerPackage) {
+        Validate.isTrue(aBundlesPerPackage > 0, "Parameter aBundlesPerPackage must be positive");
+        bundlesPerPackage = aBundlesPerPackage;
+        return this;
+    }
+
+    /**
+     * @param aLocaleCount The number of locales of every bundle, including the default locale, at most 30.
+     */
+    public CorpusGenerator withLocaleCount(final int aLocaleCount) {
+        Validate.isTrue(aLocaleCount > 0 && aLocaleCount <= LOCALES.length,
+                "Parameter aLocaleCount must be between 1 and " + LOCALES.length);
+        localeCount = aLocaleCount;
+        return this;
+    }
+
+    /**
+     * @param aKeysPerBundle The number of keys of every bundle, not counting the colliding keys.
+     */
+    public CorpusGenerator withKeysPerBundle(final int aKeysPerBundle) {
+        Validate.isTrue(aKeysPerBundle > 0, "Parameter aKeysPerBundle must be positive");
+        keysPerBundle = aKeysPerBundle;
+        return this;
+    }
+
+    /**
+     * @param anXmlBundleRatio The fraction of the bundles which are written in the XML format.
+     */
+    public CorpusGenerator withXmlBundleRatio(final double anXmlBundleRatio) {
+        Validate.isTrue(anXmlBundleRatio >= 0 && anXmlBundleRatio <= 1, "Parameter anXmlBundleRatio must be between 0 and 1");
+        xmlBundleRatio = anXmlBundleRatio;
+        return this;
+    }
+
+    /**
+     * @param aCollidingKeyRatio The fraction of the keys which get a second key that is converted to the same Java
+     *                           constant identifier.
+     */
+    public CorpusGenerator withCollidingKeyRatio(final double aCollidingKeyRatio) {
+        Validate.isTrue(aCollidingKeyRatio >= 0 && aCollidingKeyRatio <= 1, "Parameter aCollidingKeyRatio must be between 0 and 1");
+        collidingKeyRatio = aCollidingKeyRatio;
+        return this;
+    }
+
+    /**
+     * @param aMissingTranslationRatio The fraction of the bundles of which one locale, other than the default locale,
+     *                                 misses one to three keys. Only applies when there are at least two locales.
+     */
+    public CorpusGenerator withMissingTranslationRatio(final double aMissingTranslationRatio) {
+        Validate.isTrue(aMissingTranslationRatio >= 0 && aMissingTranslationRatio <= 1, "Parameter aMissingTranslationRatio must be between 0 and 1");
+        missingTranslationRatio = aMissingTranslationRatio;
+        return this;
+    }
+
+    /**
+     * Writes the corpus.
+     *
+     * @param directory The source directory of the corpus, which is created if it does not exist.
+     * @return The written corpus.
+     * @throws IOException If a file could not be written.
+     */
+    public GeneratedCorpus generate(final File directory) throws IOException {
+        Validate.notNull(directory, "Parameter directory is not allowed to be null");
+
+        final Random random = new Random(seed);
+        final List<File> resourceBundles = new ArrayList<File>(packageCount * bundlesPerPackage * localeCount);
+        final List<String> bundlesWithMissingTranslations = new ArrayList<String>();
+        int collidingKeyCount = 0;
+
+        for (int p = 0; p < packageCount; p++) {
+            final String packagePath = "com/acme/" + MODULES[(p / PACKAGES_PER_MODULE) % MODULES.length]
+                    + (p / PACKAGES_PER_MODULE / MODULES.length) + "/" + SEGMENTS[p % SEGMENTS.length] + p;
+            final File packageDirectory = new File(directory, packagePath);
+            if (!packageDirectory.isDirectory() && !packageDirectory.mkdirs()) {
+                throw new IOException("Unable to create " + packageDirectory);
+            }
+            writeOtherFile(new File(packageDirectory, "package.html"));
+
+            for (int b = 0; b < bundlesPerPackage; b++) {
+                final String bundleName = BUNDLE_NAMES[b % BUNDLE_NAMES.length] + (b < BUNDLE_NAMES.length ? "" : String.valueOf(b / BUNDLE_NAMES.length));
+                final Bundle bundle = createBundle(random);
+                collidingKeyCount += bundle.collidingKeyCount;
+                if (bundle.missingLocale != -1) {
+                    bundlesWithMissingTranslations.add(packagePath + "/" + bundleName);
+                }
+
+                for (int l = 0; l < localeCount; l++) {
+                    final String fileName = bundleName + (l == 0 ? "" : "_" + LOCALES[l]) + (bundle.xml ? ".xml" : ".properties");
+                    final File resourceBundle = new File(packageDirectory, fileName);
+                    final List<String> keys = l == bundle.missingLocale ? bundle.keysWithMissingTranslations : bundle.keys;
+                    if (bundle.xml) {
+                        writeXmlResourceBundle(resourceBundle, keys, l, random);
+                    } else {
+                        writePropertiesResourceBundle(resourceBundle, keys, l, random);
+                    }
+                    resourceBundles.add(resourceBundle);
+                }
+            }
+        }
+
+        return new GeneratedCorpus(directory, resourceBundles, packageCount * bundlesPerPackage, keysPerBundle,
+                collidingKeyCount, bundlesWithMissingTranslations);
+    }
+
+    private Bundle createBundle(final Random random) {
+        final Bundle bundle = new Bundle();
+        bundle.xml = random.nextDouble() < xmlBundleRatio;
+
+        final Set<String> identifiers = new HashSet<String>();
+        final List<String> collidingKeys = new ArrayList<String>();
+        final List<String> candidatesForMissing = new ArrayList<String>();
+        for (int k = 0; k < keysPerBundle; k++) {
+            String key = createKey(random, k);
+            while (!identifiers.add(toIdentifier(key))) {
+                key = key + "." + LEAVES[random.nextInt(LEAVES.length)] + k;
+            }
+            bundle.keys.add(key);
+
+            final String collidingKey = random.nextDouble() < collidingKeyRatio ? createCollidingKey(key) : null;
+            if (collidingKey != null) {
+                collidingKeys.add(collidingKey);
+            } else {
+                candidatesForMissing.add(key);
+            }
+        }
+        for (final String collidingKey : collidingKeys) {
+            bundle.keys.add(random.nextInt(bundle.keys.size() + 1), collidingKey);
+        }
+        bundle.collidingKeyCount = collidingKeys.size();
+
+        bundle.keysWithMissingTranslations = bundle.keys;
+        if (localeCount > 1 && random.nextDouble() < missingTranslationRatio && !candidatesForMissing.isEmpty()) {
+            // A missing key which collides with another key would not change the number of keys of the locale.
+            bundle.missingLocale = 1 + random.nextInt(localeCount - 1);
+            bundle.keysWithMissingTranslations = new ArrayList<String>(bundle.keys);
+            final int missingCount = Math.min(1 + random.nextInt(MAXIMUM_MISSING_KEYS), candidatesForMissing.size());
+            for (int i = 0; i < missingCount; i++) {
+                bundle.keysWithMissingTranslations.remove(candidatesForMissing.remove(random.nextInt(candidatesForMissing.size())));
+            }
+        }
+        return bundle;
+    }
+
+    private static String createKey(final Random random, final int index) {
+        final int shape = random.nextInt(10);
+        final String segment = SEGMENTS[random.nextInt(SEGMENTS.length)];
+        final String leaf = LEAVES[random.nextInt(LEAVES.length)];
+        switch (shape) {
+            case 6:
+                return segment + "_" + SEGMENTS[random.nextInt(SEGMENTS.length)] + "_" + leaf;
+            case 7:
+                return segment + ".step" + (1 + random.nextInt(9)) + "." + leaf;
+            case 8:
+                // Separators in keys have to be escaped in the .properties format.
+                return segment + (random.nextBoolean() ? ":" : "=") + SEGMENTS[random.nextInt(SEGMENTS.length)] + "." + leaf;
+            case 9:
+                return segment + "." + NON_ASCII_SEGMENTS[random.nextInt(NON_ASCII_SEGMENTS.length)] + "." + leaf;
+            default:
+                final StringBuilder key = new StringBuilder(segment);
+                final int depth = random.nextInt(3);
+                for (int i = 0; i < depth; i++) {
+                    key.append('.').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+                    if (random.nextInt(4) == 0) {
+                        final String camelCase = SEGMENTS[random.nextInt(SEGMENTS.length)];
+                        key.append(Character.toUpperCase(camelCase.charAt(0))).append(camelCase.substring(1));
+                    }
+                }
+                return key.append('.').append(leaf).toString();
+        }
+    }
+
+    /**
+     * @return A different key which is converted to the same Java constant identifier as the given key.
+     */
+    private static String createCollidingKey(final String key) {
+        final int separator = key.indexOf('.');
+        if (separator != -1) {
+            return key.substring(0, separator) + "-" + key.substring(separator + 1);
+        }
+        return Character.toUpperCase(key.charAt(0)) + key.substring(1);
+    }
+
+    private static String toIdentifier(final String key) {
+        return Util.replaceInvalidJavaIdentifierCharsWithUnderscore(key).toUpperCase();
+    }
+
+    private static String createValue(final Random random, final int locale) {
+        final List<String> words = new ArrayList<String>();
+        final int wordCount = 2 + random.nextInt(14);
+        for (int w = 0; w < wordCount; w++) {
+            if (locale > 0 && random.nextInt(6) == 0) {
+                words.add(NON_LATIN_WORDS[random.nextInt(NON_LATIN_WORDS.length)]);
+            } else {
+                words.add(WORDS[random.nextInt(WORDS.length)]);
+            }
+        }
+        if (random.nextInt(4) == 0) {
+            words.add(random.nextInt(words.size() + 1), PLACEHOLDERS[random.nextInt(PLACEHOLDERS.length)]);
+        }
+        if (random.nextInt(10) == 0) {
+            words.add(random.nextInt(words.size() + 1), "\n\t");
+        }
+        if (random.nextInt(20) == 0) {
+            words.add(0, "");
+        }
+        return join(words);
+    }
+
+    private void writePropertiesResourceBundle(final File resourceBundle, final List<String> keys, final int locale,
+                                               final Random random) throws IOException {
+        final String lineSeparator = random.nextInt(5) == 0 ? "\r\n" : "\n";
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(resourceBundle), "ISO-8859-1"));
+        try {
+            writer.write("# Resource bundle " + resourceBundle.getName() + ", generated with seed " + seed + lineSeparator);
+            for (int k = 0; k < keys.size(); k++) {
+                if (k % KEYS_PER_SECTION == 0) {
+                    writer.write(lineSeparator + (random.nextBoolean() ? "# " : "! ") + "Section " + (k / KEYS_PER_SECTION) + lineSeparator);
+                }
+                writer.write(escapeKey(keys.get(k)));
+                writer.write(SEPARATORS[random.nextInt(SEPARATORS.length)]);
+                writer.write(escapeValue(createValue(random, locale), random.nextInt(8) == 0 ? lineSeparator : null));
+                writer.write(lineSeparator);
+            }
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String escapeKey(final String key) {
+        final StringBuilder escaped = new StringBuilder(key.length() + 8);
+        for (int i = 0; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (c == ' ' || c == ':' || c == '=' || c == '#' || c == '!') {
+                escaped.append('\\').append(c);
+            } else {
+                appendEscaped(escaped, c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Escapes the given value. If a line separator is given, long values continue on the next line after a space.
+     */
+    private static String escapeValue(final String value, final String lineSeparator) {
+        final StringBuilder escaped = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == ' ' && i == 0) {
+                escaped.append("\\ ");
+            } else if (c == ' ' && lineSeparator != null && i > 0 && i % 40 == 0) {
+                escaped.append(" \\").append(lineSeparator).append("    ");
+            } else {
+                appendEscaped(escaped, c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static void appendEscaped(final StringBuilder escaped, final char c) {
+        switch (c) {
+            case '\\':
+                escaped.append("\\\\");
+                break;
+            case '\t':
+                escaped.append("\\t");
+                break;
+            case '\n':
+                escaped.append("\\n");
+                break;
+            case '\r':
+                escaped.append("\\r");
+                break;
+            case '\f':
+                escaped.append("\\f");
+                break;
+            default:
+                if (c < 0x20 || c > 0xFF) {
+                    escaped.append(String.format("\\u%04x", (int) c));
+                } else {
+                    escaped.append(c);
+                }
+        }
+    }
+
+    private void writeXmlResourceBundle(final File resourceBundle, final List<String> keys, final int locale,
+                                        final Random random) throws IOException {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(resourceBundle), "UTF-8"));
+        try {
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+            writer.write("<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">\n");
+            writer.write("<properties>\n");
+            writer.write("  <comment>Resource bundle " + resourceBundle.getName() + ", generated with seed " + seed + "</comment>\n");
+            for (int k = 0; k < keys.size(); k++) {
+                if (k % KEYS_PER_SECTION == 0) {
+                    writer.write("  <!-- Section " + (k / KEYS_PER_SECTION) + " -->\n");
+                }
+                final String value = createValue(random, locale);
+                writer.write("  <entry key=\"" + escapeXml(keys.get(k)) + "\">");
+                writer.write(random.nextInt(10) == 0 ? "<![CDATA[" + value + "]]>" : escapeXml(value));
+                writer.write("</entry>\n");
+            }
+            writer.write("</properties>\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String escapeXml(final String text) {
+        final StringBuilder escaped = new StringBuilder(text.length() + 8);
+        for (int i = 0; i < text.length(); i++) {
+            final char c = text.charAt(i);
+            if (c == '&') {
+                escaped.append("&amp;");
+            } else if (c == '<') {
+                escaped.append("&lt;");
+            } else if (c == '>') {
+                escaped.append("&gt;");
+            } else if (c == '"') {
+                escaped.append("&quot;");
+            } else if (c == '\n' || c == '\t') {
+                // Attribute values are normalized, whitespace characters are only kept as character references.
+                escaped.append("&#").append((int) c).append(';');
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static void writeOtherFile(final File file) throws IOException {
+        final Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        try {
+            writer.write("<html><body>Not a resource bundle.</body></html>\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static String join(final List<String> words) {
+        final StringBuilder text = new StringBuilder();
+        for (final String word : words) {
+            if (text.length() > 0 || word.isEmpty()) {
+                text.append(' ');
+            }
+            text.append(word);
+        }
+        return text.toString();
+    }
+
+    /**
+     * The keys of a bundle, which are the same for every locale except for the locale with missing translations.
+     */
+    private static final class Bundle {
+        private boolean xml;
+        private final List<String> keys = new ArrayList<String>();
+        private List<String> keysWithMissingTranslations;
+        private int missingLocale = -1;
+        private int collidingKeyCount;
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.corpus;
+
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.capatect.restatic.core.model.PropertiesKeyScanner;
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResLocale;
+import org.capatect.restatic.core.model.ResModel;
+import org.capatect.restatic.core.model.XmlPropertiesKeyScanner;
+import org.capatect.restatic.core.parser.ResourceBundleParserImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class CorpusGeneratorTest {
+    private File workDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("restatic-corpus").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(workDirectory);
+    }
+
+    @Test
+    public void sameSeedWritesSameCorpus() throws IOException {
+        final GeneratedCorpus first = new CorpusGenerator().withSeed(7L).generate(new File(workDirectory, "first"));
+        final GeneratedCorpus second = new CorpusGenerator().withSeed(7L).generate(new File(workDirectory, "second"));
+
+        assertEquals(first.getResourceBundles().size(), second.getResourceBundles().size());
+        for (int i = 0; i < first.getResourceBundles().size(); i++) {
+            final File firstFile = first.getResourceBundles().get(i);
+            final File secondFile = second.getResourceBundles().get(i);
+            assertEquals(relativePath(first, firstFile), relativePath(second, secondFile));
+            assertArrayEquals(firstFile.getPath(), Files.readAllBytes(firstFile.toPath()), Files.readAllBytes(secondFile.toPath()));
+        }
+        assertEquals(first.getCollidingKeyCount(), second.getCollidingKeyCount());
+        assertEquals(first.getBundlesWithMissingTranslations(), second.getBundlesWithMissingTranslations());
+    }
+
+    @Test
+    public void otherSeedWritesOtherCorpus() throws IOException {
+        final GeneratedCorpus first = new CorpusGenerator().withSeed(7L).generate(new File(workDirectory, "first"));
+        final GeneratedCorpus second = new CorpusGenerator().withSeed(8L).generate(new File(workDirectory, "second"));
+
+        final File firstFile = first.getResourceBundles().get(0);
+        final File secondFile = second.getResourceBundles().get(0);
+        assertFalse(Arrays.equals(Files.readAllBytes(firstFile.toPath()), Files.readAllBytes(secondFile.toPath())));
+    }
+
+    @Test
+    public void writesAllBundlesAndLocales() throws IOException {
+        final GeneratedCorpus corpus = new CorpusGenerator()
+                .withPackageCount(3)
+                .withBundlesPerPackage(10)
+                .withLocaleCount(30)
+                .withKeysPerBundle(5)
+                .generate(workDirectory);
+
+        assertEquals(30, corpus.getBundleCount());
+        assertEquals(900, corpus.getResourceBundles().size());
+        assertEquals(900, new HashSet<File>(corpus.getResourceBundles()).size());
+        for (final File resourceBundle : corpus.getResourceBundles()) {
+            assertTrue(resourceBundle.getPath(), resourceBundle.isFile());
+        }
+    }
+
+    /**
+     * The generated files are valid resource bundles, and the key scanners read the same keys as Properties.
+     */
+    @Test
+    public void resourceBundlesLoadWithProperties() throws IOException {
+        final GeneratedCorpus corpus = new CorpusGenerator()
+                .withPackageCount(20)
+                .withLocaleCount(6)
+                .withXmlBundleRatio(0.3)
+                .generate(workDirectory);
+
+        boolean xmlBundles = false;
+        for (final File resourceBundle : corpus.getResourceBundles()) {
+            final byte[] content = Files.readAllBytes(resourceBundle.toPath());
+            final Properties properties = new Properties();
+            final Set<String> keys;
+            if (resourceBundle.getName().endsWith(".xml")) {
+                xmlBundles = true;
+                properties.loadFromXML(new ByteArrayInputStream(content));
+                keys = XmlPropertiesKeyScanner.scanKeys(new ByteArrayInputStream(content));
+            } else {
+                properties.load(new ByteArrayInputStream(content));
+                keys = PropertiesKeyScanner.scanKeys(new ByteArrayInputStream(content));
+            }
+            assertEquals(resourceBundle.getPath(), properties.stringPropertyNames(), keys);
+        }
+        assertTrue(xmlBundles);
+    }
+
+    @Test
+    public void collidingKeysAreConvertedToOneConstant() throws IOException {
+        final GeneratedCorpus corpus = new CorpusGenerator()
+                .withPackageCount(20)
+                .withCollidingKeyRatio(0.1)
+                .withMissingTranslationRatio(0)
+                .generate(workDirectory);
+        assertTrue(corpus.getCollidingKeyCount() > 0);
+
+        final ResModel resModel = parse(corpus);
+        assertTrue(resModel.isValid());
+
+        int keyCount = 0;
+        for (final ResBundle bundle : resModel.getBundles()) {
+            for (final ResLocale locale : bundle.getLocales()) {
+                assertEquals(bundle.getBundleClassName(), corpus.getKeysPerBundle(), locale.getKeys().size());
+            }
+            keyCount += bundle.getLocales().iterator().next().getKeys().size();
+        }
+        assertEquals(corpus.getBundleCount() * corpus.getKeysPerBundle(), keyCount);
+        assertEquals(corpus.getBundleCount() * corpus.getKeysPerBundle() + corpus.getCollidingKeyCount(), countDefaultLocaleKeys(corpus));
+    }
+
+    @Test
+    public void missingTranslationsFailValidation() throws IOException {
+        final GeneratedCorpus corpus = new CorpusGenerator()
+                .withPackageCount(20)
+                .withMissingTranslationRatio(0.2)
+                .generate(workDirectory);
+        assertTrue(corpus.getBundlesWithMissingTranslations().size() > 0);
+
+        assertEquals(corpus.getBundlesWithMissingTranslations().size(), parse(corpus).getValidationResults().size());
+    }
+
+    private ResModel parse(final GeneratedCorpus corpus) {
+        return new ResourceBundleParserImpl(new ConfigurationBuilder()
+                .addSourceDirectory(corpus.getDirectory())
+                .toOutputDirectory(new File(workDirectory, "generated"))
+                .getConfiguration()).parse(corpus.getResourceBundles());
+    }
+
+    private static int countDefaultLocaleKeys(final GeneratedCorpus corpus) throws IOException {
+        int keyCount = 0;
+        for (final File resourceBundle : corpus.getResourceBundles()) {
+            if (!resourceBundle.getName().contains("_")) {
+                final Properties properties = new Properties();
+                final InputStream input = new FileInputStream(resourceBundle);
+                try {
+                    if (resourceBundle.getName().endsWith(".xml")) {
+                        properties.loadFromXML(input);
+                    } else {
+                        properties.load(input);
+                    }
+                } finally {
+                    input.close();
+                }
+                keyCount += properties.size();
+            }
+        }
+        return keyCount;
+    }
+
+    private static String relativePath(final GeneratedCorpus corpus, final File file) {
+        return corpus.getDirectory().toURI().relativize(file.toURI()).getPath();
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.corpus;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A corpus of resource bundles written by the CorpusGenerator, with what was generated into it so tests can verify
+ * how the corpus is processed.
+ * <p/>
+ * This class is immutable.
+ *
+ * @author Jamie Craane
+ */
+public final class GeneratedCorpus {
+    private final File directory;
+    private final List<File> resourceBundles;
+    private final int bundleCount;
+    private final int keysPerBundle;
+    private final int collidingKeyCount;
+    private final List<String> bundlesWithMissingTranslations;
+
+    GeneratedCorpus(final File directory, final List<File> resourceBundles, final int bundleCount, final int keysPerBundle,
+                    final int collidingKeyCount, final List<String> bundlesWithMissingTranslations) {
+        this.directory = directory;
+        this.resourceBundles = Collections.unmodifiableList(resourceBundles);
+        this.bundleCount = bundleCount;
+        this.keysPerBundle = keysPerBundle;
+        this.collidingKeyCount = collidingKeyCount;
+        this.bundlesWithMissingTranslations = Collections.unmodifiableList(bundlesWithMissingTranslations);
+    }
+
+    /**
+     * @return The source directory of the corpus.
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return All resource bundle files of the corpus, one per bundle and locale, in the order in which they were written.
+     */
+    public List<File> getResourceBundles() {
+        return resourceBundles;
+    }
+
+    /**
+     * @return The number of bundles, a bundle has a resource bundle file for every locale.
+     */
+    public int getBundleCount() {
+        return bundleCount;
+    }
+
+    /**
+     * @return The number of keys of every bundle after they are converted to Java constant identifiers.
+     */
+    public int getKeysPerBundle() {
+        return keysPerBundle;
+    }
+
+    /**
+     * @return The number of extra keys over all bundles which are converted to the same Java constant identifier as
+     *         another key of their bundle, for example order.total next to order-total. The colliding keys are present
+     *         in all locales of their bundle.
+     */
+    public int getCollidingKeyCount() {
+        return collidingKeyCount;
+    }
+
+    /**
+     * @return The bundles, as path relative to the corpus directory without locale and extension, of which a locale
+     *         other than the default locale misses keys.
+     */
+    public List<String> getBundlesWithMissingTranslations() {
+        return bundlesWithMissingTranslations;
+    }
+
+    /**
+     * Deletes the directory of the corpus and everything in it.
+     */
+    public void delete() {
+        delete(directory);
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,136 @@
+package org.capatect.restatic.core.discoverer.file;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+import org.springframework.core.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static junit.framework.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class AntPatternAutomatonTest {
+    private static final String[] SEGMENTS = {"org", "capatect", "test", "i18n", "a", "ab", "resources.properties",
+            "labels.properties", "resources_nl_NL.properties", "bundle.xml", "*", "**", "*.properties", "res*",
+            "?", "??", "*_nl_??.properties", "a?", " org ", ""};
+
+    @Test
+    public void matchLiteralPath() {
+        AntPatternAutomaton automaton = AntPatternAutomaton.compile(Arrays.asList("org/test/resources.properties"));
+        assertTrue(automaton.matches("org/test/resources.properties"));
+        assertFalse(automaton.matches("org/test/labels.properties"));
+        assertFalse(automaton.matches("org/resources.properties"));
+        assertFalse(automaton.matches("org/test/resources.properties/nested"));
+    }
+
+    @Test
+    public void matchWildcards() {
+        AntPatternAutomaton automaton = AntPatternAutomaton.compile(Arrays.asList("org/*/res??rces_*.properties"));
+        assertTrue(automaton.matches("org/test/resources_nl.properties"));
+        assertTrue(automaton.matches("org/capatect/resxxrces_.properties"));
+        assertFalse(automaton.matches("org/test/resources.properties"));
+        assertFalse(automaton.matches("org/test/nested/resources_nl.properties"));
+    }
+
+    @Test
+    public void matchDoubleWildcards() {
+        AntPatternAutomaton automaton = AntPatternAutomaton.compile(Arrays.asList("org/**/i18n/**/*.properties"));
+        assertTrue(automaton.matches("org/i18n/resources.properties"));
+        assertTrue(automaton.matches("org/capatect/i18n/resources.properties"));
+        assertTrue(automaton.matches("org/capatect/web/i18n/errors/resources.properties"));
+        assertFalse(automaton.matches("org/capatect/resources.properties"));
+        assertFalse(automaton.matches("com/i18n/resources.properties"));
+    }
+
+    @Test
+    public void matchOneOfMultiplePatterns() {
+        AntPatternAutomaton automaton = AntPatternAutomaton.compile(Arrays.asList("org/test/*.properties", "org/test/*.xml", "**/labels.properties"));
+        assertTrue(automaton.matches("org/test/resources.properties"));
+        assertTrue(automaton.matches("org/test/resources.xml"));
+        assertTrue(automaton.matches("nl/labels.properties"));
+        assertFalse(automaton.matches("nl/resources.properties"));
+    }
+
+    @Test
+    public void matchStart() {
+        AntPatternAutomaton automaton = AntPatternAutomaton.compile(Arrays.asList("com/acme/i18n/**/*.properties"));
+        assertTrue(automaton.matchesStart("com"));
+        assertTrue(automaton.matchesStart("com/acme/i18n/deeply/nested"));
+        assertFalse(automaton.matchesStart("com/acme/web"));
+    }
+
+    @Test
+    public void sameResultsAsAntPathMatcher() {
+        final AntPathMatcher antPathMatcher = new AntPathMatcher();
+        final Random random = new Random(20111017L);
+
+        for (int i = 0; i < 2000; i++) {
+            final List<String> patterns = new ArrayList<String>();
+            final int patternCount = 1 + random.nextInt(3);
+            for (int j = 0; j < patternCount; j++) {
+                patterns.add(randomPath(random, true));
+            }
+
+            final AntPatternAutomaton automaton = AntPatternAutomaton.compile(patterns);
+            for (int j = 0; j < 20; j++) {
+                final String path = randomPath(random, false);
+
+                boolean expectedMatch = false;
+                boolean expectedMatchStart = false;
+                for (final String pattern : patterns) {
+                    expectedMatch |= antPathMatcher.match(pattern, path);
+                    expectedMatchStart |= antPathMatcher.matchStart(pattern, path);
+                }
+
+                assertEquals(patterns + " match " + path, expectedMatch, automaton.matches(path));
+                assertEquals(patterns + " matchStart " + path, expectedMatchStart, automaton.matchesStart(path));
+            }
+        }
+    }
+
+    private String randomPath(final Random random, final boolean wildcards) {
+        final StringBuilder path = new StringBuilder();
+        if (random.nextInt(10) == 0) {
+            path.append('/');
+        }
+
+        final int segments = random.nextInt(5);
+        for (int i = 0; i < segments; i++) {
+            if (i > 0) {
+                path.append('/');
+            }
+
+            String segment;
+            do {
+                segment = SEGMENTS[random.nextInt(SEGMENTS.length)];
+            } while (!wildcards && (segment.indexOf('*') != -1 || segment.indexOf('?') != -1));
+            path.append(segment);
+        }
+
+        if (random.nextInt(10) == 0) {
+            path.append('/');
+        }
+        return path.toString();
+    }
+}
@@ -71,4 +71,46 @@ public class AntStylePatternFileNameFilterTest {
         assertFalse(filter.matches("nl/company/test/bundle.properties"));
 
     }
+
+    @Test
+    public void directoryOutsideLiteralPrefixCannotContainMatches() {
+        AntStylePatternFileNameFilter filter = AntStylePatternFileNameFilter.create("com/acme/i18n/**/*.properties");
+        assertTrue(filter.mayContainMatches("com"));
+        assertTrue(filter.mayContainMatches("com/acme"));
+        assertTrue(filter.mayContainMatches("com/acme/i18n"));
+        assertTrue(filter.mayContainMatches("com/acme/i18n/messages/errors"));
+        assertFalse(filter.mayContainMatches("org"));
+        assertFalse(filter.mayContainMatches("com/other"));
+        assertFalse(filter.mayContainMatches("com/acme/web/i18n"));
+    }
+
+    @Test
+    public void directoryMatchedWithWildcardSegments() {
+        AntStylePatternFileNameFilter filter = AntStylePatternFileNameFilter.create("org/*/i18n/*.properties");
+        assertTrue(filter.mayContainMatches("org/capatect"));
+        assertTrue(filter.mayContainMatches("org/capatect/i18n"));
+        assertFalse(filter.mayContainMatches("org/capatect/web"));
+        assertFalse(filter.mayContainMatches("org/capatect/i18n/nested"));
+    }
+
+    @Test
+    public void everyDirectoryMayContainMatchesForLeadingWildcard() {
+        AntStylePatternFileNameFilter filter = AntStylePatternFileNameFilter.create("**/*.properties");
+        assertTrue(filter.mayContainMatches("org"));
+        assertTrue(filter.mayContainMatches("org/test/application"));
+    }
+
+    @Test
+    public void noDirectoryMayContainMatchesForRootFilePattern() {
+        AntStylePatternFileNameFilter filter = AntStylePatternFileNameFilter.create("resources.properties");
+        assertFalse(filter.mayContainMatches("org"));
+    }
+
+    @Test
+    public void directoryMayContainMatchesIfOnePatternMatches() {
+        AntStylePatternFileNameFilter filter = AntStylePatternFileNameFilter.create("org/test/*.properties", "nl/**/*.xml");
+        assertTrue(filter.mayContainMatches("org/test"));
+        assertTrue(filter.mayContainMatches("nl/company"));
+        assertFalse(filter.mayContainMatches("com"));
+    }
 }
@@ -0,0 +1,75 @@
+package org.capatect.restatic.core.discoverer.file;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class CountingFileFilterTest {
+    @Test
+    public void countsMatchedFiles() {
+        final CountingFileFilter filter = CountingFileFilter.wrap(AntStylePatternFileNameFilter.create("**/*.properties"));
+
+        assertTrue(filter.matches("org/capatect/resources.properties"));
+        assertFalse(filter.matches("org/capatect/Resources.java"));
+        assertEquals(2, filter.getVisitedFileCount());
+    }
+
+    @Test
+    public void delegatesDirectoryPruning() {
+        final CountingFileFilter filter = CountingFileFilter.wrap(AntStylePatternFileNameFilter.create("org/capatect/**/*.properties"));
+
+        assertTrue(filter.mayContainMatches("org"));
+        assertFalse(filter.mayContainMatches("com"));
+        assertEquals(0, filter.getVisitedFileCount());
+    }
+
+    @Test
+    public void visitsAllDirectoriesIfDelegateIsNoDirectoryFilter() {
+        final CountingFileFilter filter = CountingFileFilter.wrap(new FileFilter() {
+            public boolean matches(final String name) {
+                return true;
+            }
+        });
+
+        assertTrue(filter.mayContainMatches("com"));
+    }
+
+    @Test
+    public void countsFilesVisitedByCollector() {
+        final File baseDir = new File(System.getProperty("basedir", "restatic-core"));
+        final File rootPath = new File(baseDir, "src/test/resources");
+        final CountingFileFilter filter = CountingFileFilter.wrap(AntStylePatternFileNameFilter.create("**/*.properties"));
+
+        final int matched = FileCollectorImpl.createWithPathAndFilter(filter).collect(rootPath).size();
+
+        assertEquals(3, matched);
+        assertEquals(3, filter.getVisitedFileCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nullDelegate() {
+        CountingFileFilter.wrap(null);
+    }
+}
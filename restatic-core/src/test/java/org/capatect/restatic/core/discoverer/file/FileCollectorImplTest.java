@@ -15,12 +15,15 @@ package org.capatect.restatic.core.discoverer.file;
  * limitations under the License.
  */
 
+import org.capatect.restatic.core.FileTestUtils;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 
 import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
 
 /**
  * @author Jamie Craane
@@ -36,6 +39,18 @@ public class FileCollectorImplTest {
         assertEquals(3, matchedFiles.size());
     }
 
+    @Test
+    public void collectDoesNotReturnFilesOfPreviousCollect() {
+        FileFilter filter = AntStylePatternFileNameFilter.create("**/*.properties");
+        File baseDir = new File(System.getProperty("basedir", "restatic-core"));
+        File rootPath = new File(baseDir, "src/test/resources");
+        FileCollector fileCollector = FileCollectorImpl.createWithPathAndFilter(filter);
+        List<File> firstMatchedFiles = fileCollector.collect(rootPath);
+        List<File> secondMatchedFiles = fileCollector.collect(rootPath);
+        assertEquals(3, firstMatchedFiles.size());
+        assertEquals(3, secondMatchedFiles.size());
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void emptyNullFilter() {
         FileCollectorImpl.createWithPathAndFilter(null);
@@ -51,6 +66,20 @@ public class FileCollectorImplTest {
         assertEquals(1, matchedFiles.size());
     }
 
+    @Test
+    public void skipDirectoriesWhichCannotContainMatches() {
+        RecordingFileFilter filter = new RecordingFileFilter("org/capatect/restatic/discoverer/**/*.properties");
+        File baseDir = new File(System.getProperty("basedir", "restatic-core"));
+        File rootPath = new File(baseDir, "src/test");
+        FileCollector fileCollector = FileCollectorImpl.createWithPathAndFilter(filter);
+        List<File> matchedFiles = fileCollector.collect(rootPath);
+        assertEquals(0, matchedFiles.size());
+        assertEquals(3, filter.matchedNames.size());
+        for (final String name : filter.matchedNames) {
+            assertTrue(name.startsWith(FileTestUtils.getSystemIndependentPath("resources/")));
+        }
+    }
+
     /**
      * Implementation of the FileFilter which only exists for testing purposes.
      * <p/>
@@ -61,4 +90,25 @@ public class FileCollectorImplTest {
             return false;  //To change body of implemented methods use File | Settings | File Templates.
         }
     }
+
+    /**
+     * FileFilter which records every file name it is asked to match and prunes directories with the given pattern.
+     */
+    private static class RecordingFileFilter implements FileFilter, DirectoryFilter {
+        private final AntStylePatternFileNameFilter directoryFilter;
+        private final List<String> matchedNames = new ArrayList<String>();
+
+        private RecordingFileFilter(final String pattern) {
+            directoryFilter = AntStylePatternFileNameFilter.create(FileTestUtils.getSystemIndependentPath("resources/") + pattern);
+        }
+
+        public synchronized boolean matches(final String name) {
+            matchedNames.add(name);
+            return false;
+        }
+
+        public boolean mayContainMatches(final String directoryName) {
+            return directoryFilter.mayContainMatches(directoryName);
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package org.capatect.restatic.core.discoverer.file;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.capatect.restatic.core.FileTestUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static junit.framework.Assert.assertEquals;
+import static junit.framework.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class ParallelFileCollectorImplTest {
+    @Test
+    public void findPropertiesFiles() {
+        FileFilter filter = AntStylePatternFileNameFilter.create("**/*.properties");
+        File baseDir = new File(System.getProperty("basedir", "restatic-core"));
+        File rootPath = new File(baseDir, "src/test/resources");
+        FileCollector fileCollector = ParallelFileCollectorImpl.createWithFilter(filter);
+        List<File> matchedFiles = fileCollector.collect(rootPath);
+        assertEquals(3, matchedFiles.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyNullFilter() {
+        ParallelFileCollectorImpl.createWithFilter(null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidParallelism() {
+        ParallelFileCollectorImpl.createWithFilterAndParallelism(AntStylePatternFileNameFilter.create("**/*.properties"), 0);
+    }
+
+    @Test
+    public void findSpecificResourceBundle() {
+        FileFilter filter = AntStylePatternFileNameFilter.create("org/capatect/restatic/discoverer/resources/bundleone/resources.properties");
+        File baseDir = new File(System.getProperty("basedir", "restatic-core"));
+        File rootPath = new File(baseDir, "src/test/resources");
+        FileCollector fileCollector = ParallelFileCollectorImpl.createWithFilter(filter);
+        List<File> matchedFiles = fileCollector.collect(rootPath);
+        assertEquals(1, matchedFiles.size());
+    }
+
+    @Test
+    public void collectsSameFilesAsSequentialCollector() {
+        FileFilter filter = AntStylePatternFileNameFilter.create("**/*.properties", "**/*.xml");
+        File baseDir = new File(System.getProperty("basedir", "restatic-core"));
+        File rootPath = new File(baseDir, "src/test");
+
+        List<File> sequentialFiles = FileCollectorImpl.createWithPathAndFilter(filter).collect(rootPath);
+        List<File> parallelFiles = ParallelFileCollectorImpl.createWithFilterAndParallelism(filter, 4).collect(rootPath);
+
+        assertEquals(sequentialFiles.size(), parallelFiles.size());
+        assertEquals(new HashSet<File>(sequentialFiles), new HashSet<File>(parallelFiles));
+    }
+
+    @Test
+    public void skipDirectoriesWhichCannotContainMatches() {
+        RecordingFileFilter filter = new RecordingFileFilter("org/capatect/restatic/discoverer/**/*.properties");
+        File baseDir = new File(System.getProperty("basedir", "restatic-core"));
+        File rootPath = new File(baseDir, "src/test");
+        FileCollector fileCollector = ParallelFileCollectorImpl.createWithFilter(filter);
+        List<File> matchedFiles = fileCollector.collect(rootPath);
+        assertEquals(0, matchedFiles.size());
+        assertEquals(3, filter.matchedNames.size());
+        for (final String name : filter.matchedNames) {
+            assertTrue(name.startsWith(FileTestUtils.getSystemIndependentPath("resources/")));
+        }
+    }
+
+    /**
+     * FileFilter which records every file name it is asked to match and prunes directories with the given pattern.
+     */
+    private static class RecordingFileFilter implements FileFilter, DirectoryFilter {
+        private final AntStylePatternFileNameFilter directoryFilter;
+        private final List<String> matchedNames = new ArrayList<String>();
+
+        private RecordingFileFilter(final String pattern) {
+            directoryFilter = AntStylePatternFileNameFilter.create(FileTestUtils.getSystemIndependentPath("resources/") + pattern);
+        }
+
+        public synchronized boolean matches(final String name) {
+            matchedNames.add(name);
+            return false;
+        }
+
+        public boolean mayContainMatches(final String directoryName) {
+            return directoryFilter.mayContainMatches(directoryName);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class ClassFileBudgetTest {
+    private File workDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("restatic-budget").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(workDirectory);
+    }
+
+    @Test
+    public void bundleWithinBudgetIsNotSharded() throws IOException {
+        final ResModel resModel = createResModel();
+        resModel.addResourceBundle(writeBundle("small.properties", 64));
+
+        final List<BundleClass> bundles = new ClassFileBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET).split(resModel);
+        assertEquals(1, bundles.size());
+        assertFalse(bundles.get(0).isSharded());
+        assertEquals(64, bundles.get(0).getKeys().size());
+        assertEquals(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET, bundles.get(0).getConstantPoolEntries());
+    }
+
+    @Test
+    public void oversizedBundleIsSplitInNumberedShards() throws IOException {
+        final ResModel resModel = createResModel();
+        resModel.addResourceBundle(writeBundle("large.properties", 150));
+        final ClassFileBudget budget = new ClassFileBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET);
+
+        final List<BundleClass> bundles = budget.split(resModel);
+        final BundleClass bundle = bundles.get(0);
+        assertTrue(bundle.isSharded());
+        assertTrue(bundle.getKeys().isEmpty());
+        assertEquals(3, bundle.getShards().size());
+
+        final List<ResKey> keys = new ArrayList<ResKey>();
+        for (int i = 0; i < bundle.getShards().size(); i++) {
+            final BundleShard shard = bundle.getShards().get(i);
+            assertEquals("LARGE_SHARD_" + (i + 1), shard.getName());
+            assertTrue(shard.getConstantPoolEntries() <= Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET);
+            keys.addAll(shard.getKeys());
+        }
+        assertEquals(budget.getKeysPerClass(), bundle.getShards().get(0).getKeys().size());
+        assertEquals(new ArrayList<ResKey>(resModel.getBundles().iterator().next().getAllUniqueKeysForLocales()), keys);
+        assertTrue(budget.estimateRootClass(bundles) <= Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET);
+    }
+
+    @Test
+    public void sameModelIsSplitTheSameWay() throws IOException {
+        final ResModel resModel = createResModel();
+        resModel.addResourceBundle(writeBundle("large.properties", 1000));
+
+        final List<BundleClass> first = new ClassFileBudget(1000).split(resModel);
+        final List<BundleClass> second = new ClassFileBudget(1000).split(resModel);
+        assertEquals(first.get(0).getShards().size(), second.get(0).getShards().size());
+        for (int i = 0; i < first.get(0).getShards().size(); i++) {
+            assertEquals(first.get(0).getShards().get(i).getName(), second.get(0).getShards().get(i).getName());
+            assertEquals(first.get(0).getShards().get(i).getKeys(), second.get(0).getShards().get(i).getKeys());
+        }
+    }
+
+    @Test(expected = GeneratorException.class)
+    public void shardWithNameOfOtherBundleFails() throws IOException {
+        final ResModel resModel = createResModel();
+        resModel.addResourceBundle(writeBundle("large.properties", 150));
+        resModel.addResourceBundle(writeBundle("large/shard/1.properties", 1));
+
+        new ClassFileBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET).split(resModel);
+    }
+
+    @Test(expected = GeneratorException.class)
+    public void bundleWithMoreShardsThanFitFails() throws IOException {
+        final ResModel resModel = createResModel();
+        // 64 keys per shard, the bundle class has room for 38 shards.
+        resModel.addResourceBundle(writeBundle("huge.properties", 64 * 39));
+
+        new ClassFileBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET).split(resModel);
+    }
+
+    @Test(expected = GeneratorException.class)
+    public void rootClassWithMoreBundlesThanFitFails() throws IOException {
+        final ResModel resModel = createResModel();
+        for (int i = 0; i < 39; i++) {
+            resModel.addResourceBundle(writeBundle("bundle" + i + ".properties", 1));
+        }
+
+        new ClassFileBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET).split(resModel);
+    }
+
+    @Test(expected = GeneratorException.class)
+    public void keyLongerThanStringConstantFails() throws IOException {
+        final StringBuilder key = new StringBuilder();
+        for (int i = 0; i < 22000; i++) {
+            key.append('\u20ac');
+        }
+        final File bundle = new File(workDirectory, "long.properties");
+        Files.write(bundle.toPath(), (key + "=value\n").getBytes(Charset.forName("UTF-8")));
+        final ResModel resModel = ResModel.create(new ConfigurationBuilder()
+                .addSourceDirectory(workDirectory)
+                .toOutputDirectory(new File(workDirectory, "generated"))
+                .withResourceBundleEncoding(Charset.forName("UTF-8"))
+                .getConfiguration());
+        resModel.addResourceBundle(bundle);
+
+        new ClassFileBudget(Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET).split(resModel);
+    }
+
+    @Test
+    public void messageTableWithinBudget() throws IOException {
+        final ResModel resModel = createResModel();
+        resModel.addResourceBundle(writeBundle("messages.properties", 1500));
+        final MessageTable table = new MessageTableReader(Charset.forName("ISO-8859-1"))
+                .read(resModel, resModel.getBundles().iterator().next()).get(0);
+
+        // 4 constants per message and 3 per method which fills the contents of 1000 messages.
+        assertEquals(64 + 4 * 1500 + 3 * 2, new ClassFileBudget(Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET).checkMessageTable(table));
+    }
+
+    @Test(expected = GeneratorException.class)
+    public void messageTableWithMoreMessagesThanFitFails() throws IOException {
+        final ResModel resModel = createResModel();
+        resModel.addResourceBundle(writeBundle("messages.properties", 200));
+        final MessageTable table = new MessageTableReader(Charset.forName("ISO-8859-1"))
+                .read(resModel, resModel.getBundles().iterator().next()).get(0);
+
+        new ClassFileBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET).checkMessageTable(table);
+    }
+
+    @Test(expected = GeneratorException.class)
+    public void keyTableWithMoreKeysThanFitFails() throws IOException {
+        final ResModel resModel = createResModel();
+        // 3 constants per key ID and 5 per locale, 62 keys fit in the class of the key table.
+        resModel.addResourceBundle(writeBundle("messages.properties", 150));
+        final KeyTable table = new MessageTableReader(Charset.forName("ISO-8859-1"))
+                .readKeyTable(resModel, resModel.getBundles().iterator().next());
+
+        new ClassFileBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET).checkKeyTable(table);
+    }
+
+    @Test
+    public void keyTableWithFormatAccessorsWithinBudget() throws IOException {
+        final ResModel resModel = createResModel();
+        final File bundle = new File(workDirectory, "messages.properties");
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            content.append("key.").append(i).append("=Value {0} of {1}\n");
+        }
+        Files.write(bundle.toPath(), content.toString().getBytes(Charset.forName("ISO-8859-1")));
+        resModel.addResourceBundle(bundle);
+        final KeyTable table = new MessageTableReader(Charset.forName("ISO-8859-1"), true)
+                .readKeyTable(resModel, resModel.getBundles().iterator().next());
+
+        // The nested class of the default locale is the largest: 2 constants per message, 2 per literal segment of
+        // the 3 of every pattern and 3 per method, one which fills the messages and two which create the patterns.
+        assertEquals(64 + 2 * 500 + 2 * 3 * 500 + 3 * 3,
+                new ClassFileBudget(Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET).checkKeyTable(table));
+    }
+
+    @Test
+    public void keyEnumFitsInBudget() throws IOException {
+        final ResModel resModel = createResModel();
+        resModel.addResourceBundle(writeBundle("messages.properties", 38));
+        final ResBundle bundle = resModel.getBundles().iterator().next();
+        final KeyEnum keyEnum = new KeyEnum("R_MESSAGES_Keys", bundle.getOriginalPathAndName(),
+                new ArrayList<ResKey>(bundle.getAllUniqueKeysForLocales()));
+
+        // 5 constants per key, 38 keys fit in the enum.
+        assertEquals(254, new ClassFileBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET).checkKeyEnum(keyEnum));
+    }
+
+    @Test(expected = GeneratorException.class)
+    public void keyEnumWithMoreKeysThanFitInStaticInitializerFails() throws IOException {
+        final ResModel resModel = createResModel();
+        // 27 bytes of code per key, at most 2426 keys fit in the static initializer.
+        resModel.addResourceBundle(writeBundle("messages.properties", 2500));
+        final ResBundle bundle = resModel.getBundles().iterator().next();
+        final KeyEnum keyEnum = new KeyEnum("R_MESSAGES_Keys", bundle.getOriginalPathAndName(),
+                new ArrayList<ResKey>(bundle.getAllUniqueKeysForLocales()));
+
+        new ClassFileBudget(Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET).checkKeyEnum(keyEnum);
+    }
+
+    private ResModel createResModel() {
+        return ResModel.create(new ConfigurationBuilder()
+                .addSourceDirectory(workDirectory)
+                .toOutputDirectory(new File(workDirectory, "generated"))
+                .getConfiguration());
+    }
+
+    private File writeBundle(final String fileName, final int keyCount) throws IOException {
+        final File bundle = new File(workDirectory, fileName);
+        assertTrue(bundle.getParentFile().isDirectory() || bundle.getParentFile().mkdirs());
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < keyCount; i++) {
+            content.append("key.").append(i).append("=").append(i).append('\n');
+        }
+        Files.write(bundle.toPath(), content.toString().getBytes(Charset.forName("ISO-8859-1")));
+        return bundle;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,455 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.FileTestUtils;
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.GeneratorBackend;
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResModel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.ResourceBundle;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Verifies the class files of the BYTECODE generator backend by loading them and reflecting over the constants.
+ *
+ * @author Jamie Craane
+ */
+public class ClassFileEmitterTest {
+    private static final int CONSTANT_MODIFIERS = Modifier.PUBLIC | Modifier.STATIC | Modifier.FINAL;
+
+    private File rootPath;
+    private File workDirectory;
+    private File classesDirectory;
+    private File sourcesJar;
+    private Configuration configuration;
+
+    @Before
+    public void setUp() throws IOException {
+        rootPath = FileTestUtils.getRootPath("src/test/generator-test");
+        workDirectory = Files.createTempDirectory("restatic-bytecode").toFile();
+        classesDirectory = new File(workDirectory, "classes");
+        sourcesJar = new File(workDirectory, "restatic-sources.jar");
+        configuration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(rootPath)
+                .toOutputDirectory(new File(workDirectory, "generated-sources"))
+                .withGeneratorBackend(GeneratorBackend.BYTECODE)
+                .toClassOutputDirectory(classesDirectory)
+                .withSourcesJar(sourcesJar)
+                .getConfiguration();
+    }
+
+    @After
+    public void tearDown() {
+        delete(workDirectory);
+    }
+
+    @Test
+    public void generatedClassesDeclareTheConstants() throws Exception {
+        final File escapes = new File(workDirectory, "escapes.properties");
+        Files.write(escapes.toPath(), "say\"hi=1\nback\\\\slash=2\nunicode\\u00e9=3\n".getBytes(Charset.forName("ISO-8859-1")));
+        final ResModel resModel = createResModel();
+        resModel.addResourceBundle(escapes);
+        new ResourceClassGeneratorImpl(configuration).generate(resModel);
+
+        final URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()}, null);
+        try {
+            final Class<?> rootClass = classLoader.loadClass("org.capatec.R");
+            assertEquals(Modifier.PUBLIC | Modifier.FINAL, rootClass.getModifiers());
+            assertNotNull(rootClass.newInstance());
+            assertEquals(resModel.getBundles().size(), rootClass.getDeclaredClasses().length);
+
+            for (final ResBundle bundle : resModel.getBundles()) {
+                final Class<?> bundleClass = classLoader.loadClass("org.capatec.R$" + bundle.getBundleClassName());
+                assertTrue(bundleClass.isMemberClass());
+                assertSame(rootClass, bundleClass.getDeclaringClass());
+                assertEquals(bundle.getBundleClassName(), bundleClass.getSimpleName());
+                assertEquals(CONSTANT_MODIFIERS, bundleClass.getModifiers());
+                assertNotNull(bundleClass.newInstance());
+
+                assertEquals(bundle.getAllUniqueKeysForLocales().size(), bundleClass.getDeclaredFields().length);
+                for (final ResKey key : bundle.getAllUniqueKeysForLocales()) {
+                    final Field field = bundleClass.getField(key.getName());
+                    assertEquals(CONSTANT_MODIFIERS, field.getModifiers());
+                    assertEquals(String.class, field.getType());
+                    assertEquals(key.getOriginalName(), field.get(null));
+                }
+            }
+        } finally {
+            classLoader.close();
+        }
+    }
+
+    /**
+     * Code compiles against the generated classes the same as against the generated source.
+     */
+    @Test
+    public void codeCompilesAgainstGeneratedClasses() throws IOException {
+        new ResourceClassGeneratorImpl(configuration).generate(createResModel());
+
+        final File usage = new File(workDirectory, "Usage.java");
+        Files.write(usage.toPath(), ("public class Usage {"
+                + " static final String KEY = org.capatec.R.ORG_CAPATECT_TEST_RESOURCES.PERSON_FIRSTNAME;"
+                + " String label = org.capatec.R.ORG_CAPATECT_TEST_LABELS.class.getName(); }").getBytes(Charset.forName("UTF-8")));
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, new ByteArrayOutputStream(), System.err,
+                "-cp", classesDirectory.getPath(), "-d", workDirectory.getPath(), usage.getPath()));
+    }
+
+    /**
+     * The keys of a sharded bundle are declared by the shards and are referred to through the bundle class.
+     */
+    @Test
+    public void shardedBundleImplementsShards() throws Exception {
+        final Configuration shardedConfiguration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(workDirectory)
+                .toOutputDirectory(new File(workDirectory, "generated-sources"))
+                .withGeneratorBackend(GeneratorBackend.BYTECODE)
+                .toClassOutputDirectory(classesDirectory)
+                .withClassConstantPoolBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET)
+                .getConfiguration();
+        final File bundleFile = new File(workDirectory, "large.properties");
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 150; i++) {
+            content.append("key.").append(i).append("=").append(i).append('\n');
+        }
+        Files.write(bundleFile.toPath(), content.toString().getBytes(Charset.forName("ISO-8859-1")));
+        final ResModel resModel = ResModel.create(shardedConfiguration);
+        resModel.addResourceBundle(bundleFile);
+
+        final GenerationStatistics statistics = new ResourceClassGeneratorImpl(shardedConfiguration).generate(resModel);
+        assertEquals(1, statistics.getShardedBundleCount());
+        assertEquals(3, statistics.getShardCount());
+        assertTrue(statistics.getLargestClassConstantPoolEntries() <= Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET);
+
+        final URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()}, null);
+        try {
+            final Class<?> rootClass = classLoader.loadClass("org.capatec.R");
+            assertEquals(4, rootClass.getDeclaredClasses().length);
+            final Class<?> bundleClass = classLoader.loadClass("org.capatec.R$LARGE");
+            assertEquals(0, bundleClass.getDeclaredFields().length);
+            assertEquals(3, bundleClass.getInterfaces().length);
+            for (int shard = 1; shard <= 3; shard++) {
+                final Class<?> shardClass = classLoader.loadClass("org.capatec.R$LARGE_SHARD_" + shard);
+                assertTrue(shardClass.isInterface());
+                assertSame(rootClass, shardClass.getDeclaringClass());
+                assertSame(shardClass, bundleClass.getInterfaces()[shard - 1]);
+            }
+            for (int i = 0; i < 150; i++) {
+                assertEquals("key." + i, bundleClass.getField("KEY_" + i).get(null));
+            }
+        } finally {
+            classLoader.close();
+        }
+
+        final File usage = new File(workDirectory, "Usage.java");
+        Files.write(usage.toPath(), "public class Usage { static final String KEY = org.capatec.R.LARGE.KEY_99; }"
+                .getBytes(Charset.forName("UTF-8")));
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, new ByteArrayOutputStream(), System.err,
+                "-cp", classesDirectory.getPath(), "-d", workDirectory.getPath(), usage.getPath()));
+    }
+
+    /**
+     * The message tables load with ResourceBundle.getBundle and contain the same messages as the resource bundle files.
+     */
+    @Test
+    public void messageTablesLoadAsResourceBundles() throws Exception {
+        final Configuration messageTablesConfiguration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(workDirectory)
+                .toOutputDirectory(new File(workDirectory, "generated-sources"))
+                .withGeneratorBackend(GeneratorBackend.BYTECODE)
+                .toClassOutputDirectory(classesDirectory)
+                .withMessageTablesEnabled(true)
+                .getConfiguration();
+        final File bundleFile = new File(workDirectory, "messages.properties");
+        final StringBuilder content = new StringBuilder("greeting=Hello\nfarewell=Caf\\u00e9 \\u20ac\n");
+        for (int i = 0; i < 2500; i++) {
+            content.append("key.").append(i).append("=value ").append(i).append('\n');
+        }
+        Files.write(bundleFile.toPath(), content.toString().getBytes(Charset.forName("ISO-8859-1")));
+        final File translationFile = new File(workDirectory, "messages_nl_NL.properties");
+        Files.write(translationFile.toPath(), "greeting=Hallo\n".getBytes(Charset.forName("ISO-8859-1")));
+        final File packageDirectory = new File(classesDirectory, "org/capatec");
+        assertTrue(packageDirectory.mkdirs());
+        final File staleClassFile = new File(packageDirectory, "R_REMOVED_Messages_de.class");
+        final File otherClassFile = new File(packageDirectory, "R_Other.class");
+        Files.write(staleClassFile.toPath(), new byte[]{1, 2, 3});
+        Files.write(otherClassFile.toPath(), new byte[]{1, 2, 3});
+
+        final ResModel resModel = ResModel.create(messageTablesConfiguration);
+        resModel.addResourceBundle(bundleFile);
+        resModel.addResourceBundle(translationFile);
+        final GenerationStatistics statistics = new ResourceClassGeneratorImpl(messageTablesConfiguration).generate(resModel);
+        assertEquals(1, statistics.getSourceFilesDeleted());
+        assertFalse(staleClassFile.exists());
+        assertTrue(otherClassFile.exists());
+
+        final Properties expected = new Properties();
+        expected.load(new StringReader(content.toString()));
+        final String baseName = "org.capatec.R_" + resModel.getBundles().iterator().next().getBundleClassName() + "_Messages";
+        final ResourceBundle.Control control = ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_CLASS);
+        final URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()}, null);
+        try {
+            final ResourceBundle defaultBundle = ResourceBundle.getBundle(baseName, Locale.ROOT, classLoader, control);
+            assertEquals(expected.stringPropertyNames(), defaultBundle.keySet());
+            for (final String key : expected.stringPropertyNames()) {
+                assertEquals(key, expected.getProperty(key), defaultBundle.getString(key));
+            }
+            assertEquals("Caf\u00e9 \u20ac", defaultBundle.getString("farewell"));
+
+            final ResourceBundle translatedBundle = ResourceBundle.getBundle(baseName, new Locale("nl", "NL"), classLoader, control);
+            assertEquals(new Locale("nl", "NL"), translatedBundle.getLocale());
+            assertEquals("Hallo", translatedBundle.getString("greeting"));
+            assertEquals("value 2499", translatedBundle.getString("key.2499"));
+        } finally {
+            classLoader.close();
+        }
+    }
+
+    /**
+     * The key enum is an enum which code can switch over and use in an EnumMap, also with more keys than fit in ldc.
+     */
+    @Test
+    public void keyEnumsLoadAsEnums() throws Exception {
+        final Configuration keyEnumsConfiguration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(workDirectory)
+                .toOutputDirectory(new File(workDirectory, "generated-sources"))
+                .withGeneratorBackend(GeneratorBackend.BYTECODE)
+                .toClassOutputDirectory(classesDirectory)
+                .withKeyEnumsEnabled(true)
+                .getConfiguration();
+        final File bundleFile = new File(workDirectory, "messages.properties");
+        final StringBuilder content = new StringBuilder("greeting=Hello\nfarewell=Bye\n");
+        for (int i = 0; i < 2000; i++) {
+            content.append("key.").append(i).append("=value ").append(i).append('\n');
+        }
+        Files.write(bundleFile.toPath(), content.toString().getBytes(Charset.forName("ISO-8859-1")));
+        final ResModel resModel = ResModel.create(keyEnumsConfiguration);
+        resModel.addResourceBundle(bundleFile);
+        new ResourceClassGeneratorImpl(keyEnumsConfiguration).generate(resModel);
+
+        final URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()}, null);
+        try {
+            final Class<?> keyEnum = classLoader.loadClass("org.capatec.R_MESSAGES_Keys");
+            assertTrue(keyEnum.isEnum());
+            final Object[] constants = keyEnum.getEnumConstants();
+            assertEquals(2002, constants.length);
+            final Method key = keyEnum.getMethod("key");
+            assertEquals("FAREWELL", ((Enum<?>) constants[0]).name());
+            assertEquals("farewell", key.invoke(constants[0]));
+            assertEquals(1, ((Enum<?>) constants[1]).ordinal());
+            final Object lastKey = keyEnum.getMethod("valueOf", String.class).invoke(null, "KEY_999");
+            assertSame(constants[2001], lastKey);
+            assertEquals("key.999", key.invoke(lastKey));
+            assertEquals("GREETING", keyEnum.getField("GREETING").get(null).toString());
+        } finally {
+            classLoader.close();
+        }
+
+        final File usage = new File(workDirectory, "KeyUsage.java");
+        Files.write(usage.toPath(), ("import org.capatec.R_MESSAGES_Keys;"
+                + " public class KeyUsage {"
+                + " final java.util.EnumMap<R_MESSAGES_Keys, String> labels = new java.util.EnumMap<R_MESSAGES_Keys, String>(R_MESSAGES_Keys.class);"
+                + " static String label(final R_MESSAGES_Keys key) {"
+                + " switch (key) { case GREETING: return \"Hi\"; default: return key.key(); } } }").getBytes(Charset.forName("UTF-8")));
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, new ByteArrayOutputStream(), System.err,
+                "-cp", classesDirectory.getPath(), "-d", workDirectory.getPath(), usage.getPath()));
+    }
+
+    @Test
+    public void sourcesJarContainsSourceOfGeneratedClasses() throws IOException {
+        final ResModel resModel = createResModel();
+        new ResourceClassGeneratorImpl(configuration).generate(resModel);
+
+        final StringWriter expected = new StringWriter();
+        new JavaSourceEmitter().renderRootClass(resModel,
+                new ClassFileBudget(configuration.getClassConstantPoolBudget()).split(resModel), expected);
+        final JarFile jar = new JarFile(sourcesJar);
+        try {
+            final JarEntry entry = jar.getJarEntry("org/capatec/R.java");
+            assertNotNull(entry);
+            final InputStream input = jar.getInputStream(entry);
+            try {
+                final ByteArrayOutputStream source = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[4096];
+                for (int read = input.read(buffer); read != -1; read = input.read(buffer)) {
+                    source.write(buffer, 0, read);
+                }
+                assertEquals(expected.toString(), new String(source.toByteArray(), Charset.defaultCharset()));
+            } finally {
+                input.close();
+            }
+        } finally {
+            jar.close();
+        }
+    }
+
+    /**
+     * The sources jar also contains the source of the message tables and the key enums, which compiles to the same
+     * classes as the class files.
+     */
+    @Test
+    public void sourcesJarContainsSourceOfMessageTablesAndKeyEnums() throws IOException {
+        final Configuration tablesConfiguration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(rootPath)
+                .toOutputDirectory(new File(workDirectory, "generated-sources"))
+                .withGeneratorBackend(GeneratorBackend.BYTECODE)
+                .toClassOutputDirectory(classesDirectory)
+                .withSourcesJar(sourcesJar)
+                .withMessageTablesEnabled(true)
+                .withKeyEnumsEnabled(true)
+                .getConfiguration();
+        final ResModel resModel = ResModel.create(tablesConfiguration);
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources_nl_NL.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/labels.properties"));
+        new ResourceClassGeneratorImpl(tablesConfiguration).generate(resModel);
+
+        final File sourcesDirectory = new File(workDirectory, "jar-sources");
+        final List<String> sourceFiles = new ArrayList<String>();
+        final JarFile jar = new JarFile(sourcesJar);
+        try {
+            final Enumeration<JarEntry> entries = jar.entries();
+            while (entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+                final File sourceFile = new File(sourcesDirectory, entry.getName());
+                assertTrue(sourceFile.getParentFile().isDirectory() || sourceFile.getParentFile().mkdirs());
+                final InputStream input = jar.getInputStream(entry);
+                try {
+                    Files.copy(input, sourceFile.toPath());
+                } finally {
+                    input.close();
+                }
+                sourceFiles.add(sourceFile.getPath());
+            }
+        } finally {
+            jar.close();
+        }
+        final File sourcePackageDirectory = new File(sourcesDirectory, "org/capatec");
+        assertTrue(new File(sourcePackageDirectory, "R_ORG_CAPATECT_TEST_RESOURCES_Keys.java").isFile());
+        assertTrue(new File(sourcePackageDirectory, "R_ORG_CAPATECT_TEST_LABELS_Keys.java").isFile());
+        assertTrue(new File(sourcePackageDirectory, "R_ORG_CAPATECT_TEST_RESOURCES_Messages_nl_NL.java").isFile());
+
+        final File compiledDirectory = new File(workDirectory, "jar-classes");
+        assertTrue(compiledDirectory.mkdirs());
+        sourceFiles.add(0, "-d");
+        sourceFiles.add(1, compiledDirectory.getPath());
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertEquals(0, compiler.run(null, new ByteArrayOutputStream(), System.err, sourceFiles.toArray(new String[sourceFiles.size()])));
+        assertEquals(new HashSet<String>(Arrays.asList(new File(classesDirectory, "org/capatec").list())),
+                new HashSet<String>(Arrays.asList(new File(compiledDirectory, "org/capatec").list())));
+    }
+
+    @Test
+    public void unchangedClassFilesAreNotWritten() {
+        final GenerationStatistics first = new ResourceClassGeneratorImpl(configuration).generate(createResModel());
+        final GenerationStatistics second = new ResourceClassGeneratorImpl(configuration).generate(createResModel());
+
+        // The root class, two nested classes and the sources jar.
+        assertEquals(4, first.getSourceFilesWritten());
+        assertEquals(0, second.getSourceFilesWritten());
+        assertEquals(4, second.getSourceFilesUnchanged());
+    }
+
+    @Test
+    public void staleClassFilesAndGeneratedSourceFilesAreDeleted() throws IOException {
+        final File packageDirectory = new File(classesDirectory, "org/capatec");
+        final File sourcePackageDirectory = new File(configuration.getOutputDirectory(), "org/capatec");
+        assertTrue(packageDirectory.mkdirs() && sourcePackageDirectory.mkdirs());
+        final File staleClassFile = new File(packageDirectory, "R$ORG_CAPATECT_REMOVED.class");
+        final File generatedSourceFile = new File(sourcePackageDirectory, "R.java");
+        final File generatedBundleSourceFile = new File(sourcePackageDirectory, "R_ORG_CAPATECT_TEST_LABELS.java");
+        final File otherSourceFile = new File(sourcePackageDirectory, "Resources.java");
+        final File otherRootSourceFile = new File(sourcePackageDirectory, "RAdmin.java");
+        Files.write(staleClassFile.toPath(), new byte[]{1, 2, 3});
+        Files.write(generatedSourceFile.toPath(), "/** This class is generated by Restatic. */ public final class R {}".getBytes(Charset.defaultCharset()));
+        Files.write(generatedBundleSourceFile.toPath(), "/** This class is generated by Restatic. */ final class R_ORG_CAPATECT_TEST_LABELS {}".getBytes(Charset.defaultCharset()));
+        Files.write(otherSourceFile.toPath(), "public final class Resources {}".getBytes(Charset.defaultCharset()));
+        Files.write(otherRootSourceFile.toPath(), "/** This class is generated by Restatic. */ public final class RAdmin {}".getBytes(Charset.defaultCharset()));
+
+        final GenerationStatistics statistics = new ResourceClassGeneratorImpl(configuration).generate(createResModel());
+
+        assertEquals(3, statistics.getSourceFilesDeleted());
+        assertFalse(staleClassFile.exists());
+        assertFalse(generatedSourceFile.exists());
+        assertFalse(generatedBundleSourceFile.exists());
+        assertTrue(otherSourceFile.exists());
+        assertTrue(otherRootSourceFile.exists());
+        assertTrue(new File(packageDirectory, "R$ORG_CAPATECT_TEST_LABELS.class").isFile());
+    }
+
+    private ResModel createResModel() {
+        final ResModel resModel = ResModel.create(configuration);
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources_nl_NL.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/labels.properties"));
+        return resModel;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
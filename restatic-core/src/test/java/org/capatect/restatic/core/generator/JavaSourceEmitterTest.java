@@ -0,0 +1,408 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.FileTestUtils;
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.GeneratorBackend;
+import org.capatect.restatic.core.configuration.SourceLayout;
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.capatect.restatic.core.corpus.CorpusGenerator;
+import org.capatect.restatic.core.corpus.GeneratedCorpus;
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResModel;
+import org.capatect.restatic.core.parser.ResourceBundleParserImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JavaSourceEmitter writes byte for byte the same source as the templates of resourceclass.stg.
+ *
+ * @author Jamie Craane
+ */
+public class JavaSourceEmitterTest {
+    private final SourceRenderer templates = new TemplateSourceRenderer();
+    private final SourceRenderer emitter = new JavaSourceEmitter();
+
+    private File rootPath;
+    private File workDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        rootPath = FileTestUtils.getRootPath("src/test/generator-test");
+        workDirectory = Files.createTempDirectory("restatic-emitter").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(workDirectory);
+    }
+
+    @Test
+    public void sameSourceAsTemplates() throws IOException {
+        final ResModel resModel = ResModel.create(createConfiguration("org.capatec.R", rootPath));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources_nl_NL.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/labels.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test2/version.properties"));
+
+        assertSameSource(resModel);
+    }
+
+    @Test
+    public void sameSourceInDefaultPackage() throws IOException {
+        final ResModel resModel = ResModel.create(createConfiguration("R", rootPath));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/labels.properties"));
+
+        assertSameSource(resModel);
+    }
+
+    @Test
+    public void sameSourceWithoutBundles() throws IOException {
+        assertSameSource(ResModel.create(createConfiguration("org.capatec.R", rootPath)));
+        assertSameSource(ResModel.create(createConfiguration("R", rootPath)));
+    }
+
+    @Test
+    public void sameSourceForBundleWithoutKeys() throws IOException {
+        final File emptyBundle = write("empty.properties", "# No keys.\n");
+        final ResModel resModel = ResModel.create(createConfiguration("org.capatec.R", workDirectory));
+        resModel.addResourceBundle(emptyBundle);
+
+        assertSameSource(resModel);
+    }
+
+    @Test
+    public void keysAreEscapedForStringLiterals() throws IOException {
+        final File bundle = write("escapes.properties", "say\"hi=1\nback\\\\slash=2\ntab\\tbed=3\nbell\\u0007=4\n");
+        final ResModel resModel = ResModel.create(createConfiguration("org.capatec.R", workDirectory));
+        resModel.addResourceBundle(bundle);
+
+        assertSameSource(resModel);
+        final String source = render(emitter, "rootClass", resModel, split(resModel, Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET));
+        assertTrue(source, source.contains("= \"say\\\"hi\";"));
+        assertTrue(source, source.contains("= \"back\\\\slash\";"));
+        assertTrue(source, source.contains("= \"tab\\tbed\";"));
+        assertTrue(source, source.contains("= \"bell\\u0007\";"));
+    }
+
+    @Test
+    public void sameSourceForCorpus() throws IOException {
+        final GeneratedCorpus corpus = new CorpusGenerator()
+                .withPackageCount(10)
+                .withLocaleCount(3)
+                .withCollidingKeyRatio(0.1)
+                .withXmlBundleRatio(0.2)
+                .generate(new File(workDirectory, "corpus"));
+        final ResModel resModel = new ResourceBundleParserImpl(createConfiguration("com.acme.R", corpus.getDirectory()))
+                .parse(corpus.getResourceBundles());
+
+        assertSameSource(resModel);
+    }
+
+    @Test
+    public void sameSourceForShardedCorpus() throws IOException {
+        final GeneratedCorpus corpus = new CorpusGenerator()
+                .withPackageCount(2)
+                .withKeysPerBundle(150)
+                .generate(new File(workDirectory, "corpus"));
+        final ResModel resModel = new ResourceBundleParserImpl(createConfiguration("com.acme.R", corpus.getDirectory()))
+                .parse(corpus.getResourceBundles());
+
+        // 149 keys per class, every bundle is split in two shards.
+        final List<BundleClass> bundles = split(resModel, 512);
+        assertTrue(bundles.get(0).isSharded());
+        assertSameSource(resModel, bundles);
+    }
+
+    @Test
+    public void sameSourceForMessageTables() throws IOException {
+        final StringBuilder content = new StringBuilder("say\"hi=\"Hi\"\nback\\\\slash=C:\\\\temp\ntab\\tbed=a\\tb\n"
+                + "euro=\\u20ac 5\nbell=\\u0007\nmulti=line\\nbreak\n");
+        for (int i = 0; i < 1200; i++) {
+            content.append("key.").append(i).append("=").append(i).append('\n');
+        }
+        final File bundle = write("messages.properties", content.toString());
+        final File translation = write("messages_nl_NL.properties", "say\"hi=Hallo\n");
+        for (final String rootClassName : Arrays.asList("org.capatec.R", "R")) {
+            final ResModel resModel = ResModel.create(createConfiguration(rootClassName, workDirectory));
+            resModel.addResourceBundle(bundle);
+            resModel.addResourceBundle(translation);
+            final List<MessageTable> tables = new MessageTableReader(Charset.forName("ISO-8859-1"))
+                    .read(resModel, resModel.getBundles().iterator().next());
+            assertEquals(2, tables.size());
+            assertEquals(2, tables.get(0).getChunks().size());
+
+            for (final MessageTable table : tables) {
+                final StringWriter expected = new StringWriter();
+                templates.renderMessageTable(resModel, table, expected);
+                final StringWriter actual = new StringWriter();
+                final int characterCount = emitter.renderMessageTable(resModel, table, actual);
+
+                assertEquals(table.getClassName(), expected.toString(), actual.toString());
+                assertEquals(actual.toString().length(), characterCount);
+            }
+        }
+
+        final ResModel resModel = ResModel.create(createConfiguration("org.capatec.R", workDirectory));
+        resModel.addResourceBundle(bundle);
+        final StringWriter writer = new StringWriter();
+        emitter.renderMessageTable(resModel, new MessageTableReader(Charset.forName("ISO-8859-1"))
+                .read(resModel, resModel.getBundles().iterator().next()).get(0), writer);
+        final String source = writer.toString();
+        assertTrue(source, source.contains("new Object[]{\"say\\\"hi\", \"\\\"Hi\\\"\"}"));
+        assertTrue(source, source.contains("new Object[]{\"back\\\\slash\", \"C:\\\\temp\"}"));
+        assertTrue(source, source.contains("new Object[]{\"euro\", \"\\u20ac 5\"}"));
+        assertTrue(source, source.contains("new Object[]{\"multi\", \"line\\nbreak\"}"));
+    }
+
+    @Test
+    public void sameSourceForKeyTables() throws IOException {
+        final StringBuilder content = new StringBuilder("say\"hi=\"Hi\"\neuro=\\u20ac 5\norder.total=1\norder-total=2\n");
+        for (int i = 0; i < 1200; i++) {
+            content.append("key.").append(i).append("=").append(i).append('\n');
+        }
+        final File bundle = write("messages.properties", content.toString());
+        final File translation = write("messages_nl_NL.properties", "say\"hi=Hallo\n");
+        final File empty = write("empty.properties", "# No keys.\n");
+        final File withoutDefault = write("translated_nl.properties", "greeting=Hallo\n");
+        for (final String rootClassName : Arrays.asList("org.capatec.R", "R")) {
+            final ResModel resModel = ResModel.create(createConfiguration(rootClassName, workDirectory));
+            resModel.addResourceBundle(bundle);
+            resModel.addResourceBundle(translation);
+            resModel.addResourceBundle(empty);
+            resModel.addResourceBundle(withoutDefault);
+
+            for (final ResBundle resBundle : resModel.getBundles()) {
+                final KeyTable table = new MessageTableReader(Charset.forName("ISO-8859-1")).readKeyTable(resModel, resBundle);
+                final StringWriter expected = new StringWriter();
+                templates.renderKeyTable(resModel, table, expected);
+                final StringWriter actual = new StringWriter();
+                final int characterCount = emitter.renderKeyTable(resModel, table, actual);
+
+                assertEquals(table.getClassName(), expected.toString(), actual.toString());
+                assertEquals(actual.toString().length(), characterCount);
+            }
+        }
+    }
+
+    @Test
+    public void sameSourceForKeyTablesWithFormatAccessors() throws IOException {
+        final StringBuilder content = new StringBuilder("say\"hi=\"Hi\" {0}\neuro=\\u20ac {0,number,#.##}\n"
+                + "quoted=It''s '{'{1}'}'\nplain=Plain\n");
+        for (int i = 0; i < 1200; i++) {
+            content.append("key.").append(i).append("=Value {0} of {1}\n");
+        }
+        final File bundle = write("messages.properties", content.toString());
+        final File translation = write("messages_nl_BE_VARIANT.properties", "plain=Gewoon {0,date}\n");
+        final File empty = write("empty.properties", "# No keys.\n");
+        final File withoutDefault = write("translated_nl.properties", "greeting=Hallo {0}\n");
+        for (final String rootClassName : Arrays.asList("org.capatec.R", "R")) {
+            final ResModel resModel = ResModel.create(createConfiguration(rootClassName, workDirectory));
+            resModel.addResourceBundle(bundle);
+            resModel.addResourceBundle(translation);
+            resModel.addResourceBundle(empty);
+            resModel.addResourceBundle(withoutDefault);
+
+            for (final ResBundle resBundle : resModel.getBundles()) {
+                final KeyTable table = new MessageTableReader(Charset.forName("ISO-8859-1"), true)
+                        .readKeyTable(resModel, resBundle);
+                final StringWriter expected = new StringWriter();
+                templates.renderKeyTable(resModel, table, expected);
+                final StringWriter actual = new StringWriter();
+                final int characterCount = emitter.renderKeyTable(resModel, table, actual);
+
+                assertEquals(table.getClassName(), expected.toString(), actual.toString());
+                assertEquals(actual.toString().length(), characterCount);
+                if (resBundle.getOriginalPathAndName().endsWith("messages")) {
+                    assertEquals(1204, table.getFormatAccessors().size());
+                    assertTrue(table.getLocales().get(0).getPatternChunks().size() > 1);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sameSourceForKeyEnums() throws IOException {
+        final File bundle = write("messages.properties", "say\"hi=\"Hi\"\neuro\\u20ac=5\norder.total=1\norder-total=2\n");
+        final File empty = write("empty.properties", "# No keys.\n");
+        for (final String rootClassName : Arrays.asList("org.capatec.R", "R")) {
+            final ResModel resModel = ResModel.create(createConfiguration(rootClassName, workDirectory));
+            resModel.addResourceBundle(bundle);
+            resModel.addResourceBundle(empty);
+
+            for (final ResBundle resBundle : resModel.getBundles()) {
+                final KeyEnum keyEnum = new KeyEnum("R_" + resBundle.getBundleClassName() + "_Keys",
+                        resBundle.getOriginalPathAndName(), new ArrayList<ResKey>(resBundle.getAllUniqueKeysForLocales()));
+                final StringWriter expected = new StringWriter();
+                templates.renderKeyEnum(resModel, keyEnum, expected);
+                final StringWriter actual = new StringWriter();
+                final int characterCount = emitter.renderKeyEnum(resModel, keyEnum, actual);
+
+                assertEquals(keyEnum.getClassName(), expected.toString(), actual.toString());
+                assertEquals(actual.toString().length(), characterCount);
+            }
+        }
+    }
+
+    /**
+     * Both backends generate the same source files, in both source layouts, with and without shards.
+     */
+    @Test
+    public void generatorWritesSameSourceFiles() throws IOException {
+        assertGeneratorWritesSameSourceFiles(Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET);
+    }
+
+    @Test
+    public void generatorWritesSameShardedSourceFiles() throws IOException {
+        assertGeneratorWritesSameSourceFiles(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET);
+    }
+
+    private void assertGeneratorWritesSameSourceFiles(final int classConstantPoolBudget) throws IOException {
+        final GeneratedCorpus corpus = new CorpusGenerator()
+                .withPackageCount(2)
+                .withKeysPerBundle(100)
+                .generate(new File(workDirectory, "corpus"));
+        for (final SourceLayout sourceLayout : SourceLayout.values()) {
+            final File templateDirectory = new File(workDirectory, sourceLayout + "-template");
+            final File emitterDirectory = new File(workDirectory, sourceLayout + "-emitter");
+            generate(sourceLayout, GeneratorBackend.TEMPLATE, classConstantPoolBudget, corpus, templateDirectory);
+            generate(sourceLayout, GeneratorBackend.EMITTER, classConstantPoolBudget, corpus, emitterDirectory);
+
+            final String[] sourceFiles = new File(templateDirectory, "org/capatec").list();
+            Arrays.sort(sourceFiles);
+            final String[] emittedSourceFiles = new File(emitterDirectory, "org/capatec").list();
+            Arrays.sort(emittedSourceFiles);
+            assertArrayEquals(sourceFiles, emittedSourceFiles);
+            for (final String sourceFile : sourceFiles) {
+                assertArrayEquals(sourceFile,
+                        Files.readAllBytes(new File(templateDirectory, "org/capatec/" + sourceFile).toPath()),
+                        Files.readAllBytes(new File(emitterDirectory, "org/capatec/" + sourceFile).toPath()));
+            }
+        }
+    }
+
+    private void generate(final SourceLayout sourceLayout, final GeneratorBackend backend, final int classConstantPoolBudget,
+                          final GeneratedCorpus corpus, final File outputDirectory) {
+        final Configuration configuration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(rootPath)
+                .addSourceDirectory(corpus.getDirectory())
+                .toOutputDirectory(outputDirectory)
+                .withSourceLayout(sourceLayout)
+                .withGeneratorBackend(backend)
+                .withClassConstantPoolBudget(classConstantPoolBudget)
+                .getConfiguration();
+        final ResModel resModel = ResModel.create(configuration);
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/labels.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test3/another-bundle.properties"));
+        resModel.addResourceBundle(corpus.getResourceBundles().get(0));
+        new ResourceClassGeneratorImpl(configuration).generate(resModel);
+    }
+
+    private void assertSameSource(final ResModel resModel) throws IOException {
+        assertSameSource(resModel, split(resModel, Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET));
+    }
+
+    private void assertSameSource(final ResModel resModel, final List<BundleClass> bundles) throws IOException {
+        assertSameSource("rootClass", resModel, bundles, null, null);
+        assertSameSource("rootIndex", resModel, bundles, null, null);
+        for (final BundleClass bundle : bundles) {
+            assertSameSource("resourceBundleFile", resModel, bundles, bundle, null);
+            for (final BundleShard shard : bundle.getShards()) {
+                assertSameSource("resourceBundleShardFile", resModel, bundles, bundle, shard);
+            }
+        }
+    }
+
+    private void assertSameSource(final String templateName, final ResModel resModel, final List<BundleClass> bundles,
+                                  final BundleClass bundle, final BundleShard shard) throws IOException {
+        final StringWriter expected = new StringWriter();
+        render(templates, templateName, resModel, bundles, bundle, shard, expected);
+        final StringWriter actual = new StringWriter();
+        final int characterCount = render(emitter, templateName, resModel, bundles, bundle, shard, actual);
+
+        assertEquals(templateName, expected.toString(), actual.toString());
+        // StringTemplate does not count the line separators, the emitter counts all characters.
+        assertEquals(templateName, actual.toString().length(), characterCount);
+    }
+
+    private static List<BundleClass> split(final ResModel resModel, final int classConstantPoolBudget) {
+        return new ClassFileBudget(classConstantPoolBudget).split(resModel);
+    }
+
+    private static String render(final SourceRenderer renderer, final String templateName, final ResModel resModel,
+                                 final List<BundleClass> bundles) throws IOException {
+        final StringWriter writer = new StringWriter();
+        render(renderer, templateName, resModel, bundles, null, null, writer);
+        return writer.toString();
+    }
+
+    private static int render(final SourceRenderer renderer, final String templateName, final ResModel resModel,
+                              final List<BundleClass> bundles, final BundleClass bundle, final BundleShard shard,
+                              final StringWriter writer) throws IOException {
+        if ("rootClass".equals(templateName)) {
+            return renderer.renderRootClass(resModel, bundles, writer);
+        } else if ("rootIndex".equals(templateName)) {
+            return renderer.renderRootIndex(resModel, bundles, writer);
+        } else if ("resourceBundleShardFile".equals(templateName)) {
+            return renderer.renderShardFile(resModel, bundle, shard, writer);
+        }
+        return renderer.renderBundleFile(resModel, bundle, writer);
+    }
+
+    private Configuration createConfiguration(final String rootClassName, final File sourceDirectory) {
+        return new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName(rootClassName)
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(new File(workDirectory, "generated"))
+                .getConfiguration();
+    }
+
+    private File write(final String fileName, final String content) throws IOException {
+        final File file = new File(workDirectory, fileName);
+        Files.write(file.toPath(), content.getBytes(Charset.forName("ISO-8859-1")));
+        return file;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.junit.Test;
+
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class MessagePatternTest {
+    @Test
+    public void splitsPatternWithoutFormats() {
+        final MessagePattern pattern = MessagePattern.parse(3, "Hello {0}, you have {1} messages");
+
+        assertEquals(3, pattern.getIndex());
+        assertTrue(pattern.isSplit());
+        assertEquals(Arrays.asList("Hello ", ", you have ", " messages"), pattern.getLiterals());
+        assertEquals(Arrays.asList(0, 1), pattern.getArguments());
+        assertEquals(2, pattern.getArgumentCount());
+    }
+
+    @Test
+    public void resolvesQuotes() {
+        final MessagePattern pattern = MessagePattern.parse(0, "It''s '{'{0}'}' '{1}'");
+
+        assertEquals(Arrays.asList("It's {", "} {1}"), pattern.getLiterals());
+        assertEquals(Collections.singletonList(0), pattern.getArguments());
+        assertEquals(1, pattern.getArgumentCount());
+    }
+
+    @Test
+    public void argumentsInAnyOrder() {
+        final MessagePattern pattern = MessagePattern.parse(0, "{2} and {0} and {2}");
+
+        assertEquals(Arrays.asList("", " and ", " and ", ""), pattern.getLiterals());
+        assertEquals(Arrays.asList(2, 0, 2), pattern.getArguments());
+        assertEquals(3, pattern.getArgumentCount());
+    }
+
+    @Test
+    public void patternWithoutArguments() {
+        final MessagePattern pattern = MessagePattern.parse(0, "Don''t panic");
+
+        assertTrue(pattern.isSplit());
+        assertEquals(Collections.singletonList("Don't panic"), pattern.getLiterals());
+        assertEquals(0, pattern.getArgumentCount());
+    }
+
+    @Test
+    public void patternWithFormatIsNotSplit() {
+        final MessagePattern pattern = MessagePattern.parse(0, "{0,number,#.##} items on {1, DATE}");
+
+        assertFalse(pattern.isSplit());
+        assertEquals(Arrays.asList("number", "date"), pattern.getFormatTypes());
+        assertEquals("{0,number,#.##} items on {1, DATE}", pattern.getPattern());
+    }
+
+    @Test
+    public void countsArgumentsOfPatternsNestedInChoiceFormat() {
+        final MessagePattern pattern = MessagePattern.parse(0, "{0,choice,0#no files|1#one file|1<{0} files in {2}}");
+
+        assertFalse(pattern.isSplit());
+        assertEquals(Collections.singletonList(0), pattern.getArguments());
+        assertEquals(3, pattern.getArgumentCount());
+    }
+
+    /**
+     * The literal segments and argument slots format String arguments the same way as MessageFormat.
+     */
+    @Test
+    public void sameResultAsMessageFormat() {
+        final Object[] arguments = {"a", "b", "c"};
+        for (final String message : Arrays.asList("{0}", "x{1}y{0}z", "'{0}'{1}", "''{2}''", "'quoted ''{0}'' text'{0}",
+                "{0}{0}{0}", "'unterminated {0}", "a}b{1}c")) {
+            final MessagePattern pattern = MessagePattern.parse(0, message);
+            final StringBuilder result = new StringBuilder(pattern.getLiterals().get(0));
+            for (int slot = 0; slot < pattern.getArguments().size(); slot++) {
+                result.append(arguments[pattern.getArguments().get(slot)]).append(pattern.getLiterals().get(slot + 1));
+            }
+
+            assertEquals(message, new MessageFormat(message, Locale.ROOT).format(arguments), result.toString());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unmatchedBraceIsNotAPattern() {
+        MessagePattern.parse(0, "Hello {0");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void argumentWhichIsNotANumberIsNotAPattern() {
+        MessagePattern.parse(0, "Hello {name}");
+    }
+}
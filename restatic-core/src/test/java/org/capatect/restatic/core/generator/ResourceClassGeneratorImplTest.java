@@ -20,12 +20,34 @@ package org.capatect.restatic.core.generator;
 
 import org.capatect.restatic.core.FileTestUtils;
 import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.SourceLayout;
 import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
 import org.capatect.restatic.core.model.ResModel;
 import org.junit.Before;
 import org.junit.Test;
+import org.stringtemplate.v4.ST;
 
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Jamie Craane
@@ -60,4 +82,374 @@ public class ResourceClassGeneratorImplTest {
         generator.generate(resModel);
     }
 
+    @Test
+    public void generateSourceFilePerBundle() throws IOException {
+        final File outputDirectory = FileTestUtils.getRootPath("target/generated-sources/restatic-per-bundle");
+        final Configuration configuration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(rootPath)
+                .toOutputDirectory(outputDirectory)
+                .withSourceLayout(SourceLayout.FILE_PER_BUNDLE)
+                .getConfiguration();
+
+        final File packageDirectory = new File(outputDirectory, "org/capatec");
+        final File staleSourceFile = new File(packageDirectory, "R_ORG_CAPATECT_REMOVED.java");
+        assertTrue(packageDirectory.isDirectory() || packageDirectory.mkdirs());
+        write(staleSourceFile, "/** Interface generated from removed.properties by Restatic. */ public interface R_ORG_CAPATECT_REMOVED {}");
+
+        ResModel resModel = ResModel.create(configuration);
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources_nl_NL.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/labels.properties"));
+        final GenerationStatistics statistics = new ResourceClassGeneratorImpl(configuration).generate(resModel);
+        assertEquals(3, statistics.getSourceFilesWritten() + statistics.getSourceFilesUnchanged());
+        assertEquals(1, statistics.getSourceFilesDeleted());
+
+        final File rootClass = new File(packageDirectory, "R.java");
+        final File resourcesBundle = new File(packageDirectory, "R_ORG_CAPATECT_TEST_RESOURCES.java");
+        final File labelsBundle = new File(packageDirectory, "R_ORG_CAPATECT_TEST_LABELS.java");
+        assertTrue(rootClass.isFile());
+        assertTrue(resourcesBundle.isFile());
+        assertTrue(labelsBundle.isFile());
+        assertFalse(staleSourceFile.exists());
+
+        // The keys are referenced through the root class, the same as with a single source file.
+        final File usage = new File(outputDirectory, "Usage.java");
+        write(usage, "public class Usage { String key = org.capatec.R.ORG_CAPATECT_TEST_RESOURCES.PERSON_FIRSTNAME; }");
+        try {
+            assertEquals(0, compile(rootClass, resourcesBundle, labelsBundle, usage));
+        } finally {
+            usage.delete();
+        }
+    }
+
+    /**
+     * A bundle with more keys than fit in one class is split over shard source files, its keys are still referenced
+     * through the bundle class of the root class.
+     */
+    @Test
+    public void generateShardedSourceFiles() throws IOException {
+        final File sourceDirectory = FileTestUtils.getRootPath("target/generated-test-resources/restatic-sharded");
+        assertTrue(sourceDirectory.isDirectory() || sourceDirectory.mkdirs());
+        final File bundleFile = new File(sourceDirectory, "large.properties");
+        final StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 150; i++) {
+            content.append("key.").append(i).append("=").append(i).append('\n');
+        }
+        write(bundleFile, content.toString());
+
+        for (final SourceLayout sourceLayout : SourceLayout.values()) {
+            final File outputDirectory = FileTestUtils.getRootPath("target/generated-sources/restatic-sharded-" + sourceLayout);
+            final Configuration configuration = new ConfigurationBuilder()
+                    .withFullyQualitiedRootClassName("org.capatec.R")
+                    .addSourceDirectory(sourceDirectory)
+                    .toOutputDirectory(outputDirectory)
+                    .withSourceLayout(sourceLayout)
+                    .withClassConstantPoolBudget(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET)
+                    .getConfiguration();
+            final ResModel resModel = ResModel.create(configuration);
+            resModel.addResourceBundle(bundleFile);
+            final GenerationStatistics statistics = new ResourceClassGeneratorImpl(configuration).generate(resModel);
+            assertEquals(1, statistics.getShardedBundleCount());
+            assertEquals(3, statistics.getShardCount());
+            assertEquals(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET, statistics.getConstantPoolBudget());
+
+            final File packageDirectory = new File(outputDirectory, "org/capatec");
+            final File[] sourceFiles = packageDirectory.listFiles();
+            assertEquals(sourceLayout == SourceLayout.FILE_PER_BUNDLE ? 5 : 1, sourceFiles.length);
+            if (sourceLayout == SourceLayout.FILE_PER_BUNDLE) {
+                assertTrue(new File(packageDirectory, "R_LARGE_SHARD_3.java").isFile());
+            }
+
+            final File usage = new File(outputDirectory, "Usage.java");
+            write(usage, "public class Usage { String first = org.capatec.R.LARGE.KEY_0; String last = org.capatec.R.LARGE.KEY_149; }");
+            try {
+                final File[] compiledFiles = new File[sourceFiles.length + 1];
+                System.arraycopy(sourceFiles, 0, compiledFiles, 0, sourceFiles.length);
+                compiledFiles[sourceFiles.length] = usage;
+                assertEquals(0, compile(compiledFiles));
+            } finally {
+                usage.delete();
+            }
+        }
+    }
+
+    @Test
+    public void generateMessageTableSourceFiles() throws IOException {
+        final File outputDirectory = FileTestUtils.getRootPath("target/generated-sources/restatic-message-tables");
+        final Configuration configuration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(rootPath)
+                .toOutputDirectory(outputDirectory)
+                .withMessageTablesEnabled(true)
+                .getConfiguration();
+        final ResModel resModel = ResModel.create(configuration);
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources_nl_NL.properties"));
+        new ResourceClassGeneratorImpl(configuration).generate(resModel);
+
+        final File packageDirectory = new File(outputDirectory, "org/capatec");
+        final File defaultTable = new File(packageDirectory, "R_ORG_CAPATECT_TEST_RESOURCES_Messages.java");
+        final File translatedTable = new File(packageDirectory, "R_ORG_CAPATECT_TEST_RESOURCES_Messages_nl_NL.java");
+        assertTrue(defaultTable.isFile());
+        assertTrue(translatedTable.isFile());
+        assertEquals(0, compile(defaultTable, translatedTable));
+
+        final File classesDirectory = FileTestUtils.getRootPath("target/generated-classes/restatic-per-bundle");
+        final URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()}, null);
+        final URLClassLoader resourceLoader = new URLClassLoader(new URL[]{rootPath.toURI().toURL()}, null);
+        try {
+            final ResourceBundle bundle = ResourceBundle.getBundle("org.capatec.R_ORG_CAPATECT_TEST_RESOURCES_Messages",
+                    new Locale("nl", "NL"), classLoader, ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_CLASS));
+            final ResourceBundle expected = ResourceBundle.getBundle("org.capatect.test.resources", new Locale("nl", "NL"),
+                    resourceLoader, ResourceBundle.Control.getNoFallbackControl(ResourceBundle.Control.FORMAT_PROPERTIES));
+            assertEquals(expected.keySet(), bundle.keySet());
+            for (final String key : expected.keySet()) {
+                assertEquals(key, expected.getString(key), bundle.getString(key));
+            }
+        } finally {
+            classLoader.close();
+            resourceLoader.close();
+        }
+
+        // Without message tables the source files of the message tables are stale.
+        new ResourceClassGeneratorImpl(new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(rootPath)
+                .toOutputDirectory(outputDirectory)
+                .getConfiguration()).generate(resModel);
+        assertFalse(defaultTable.exists());
+        assertFalse(translatedTable.exists());
+    }
+
+    @Test
+    public void generateKeyTableSourceFiles() throws Exception {
+        final File sourceDirectory = FileTestUtils.getRootPath("target/generated-test-resources/restatic-key-tables");
+        assertTrue(sourceDirectory.isDirectory() || sourceDirectory.mkdirs());
+        final File bundleFile = new File(sourceDirectory, "messages.properties");
+        final File translationFile = new File(sourceDirectory, "messages_nl.properties");
+        final File regionFile = new File(sourceDirectory, "messages_nl_BE.properties");
+        write(bundleFile, "greeting=Hello\nfarewell=Goodbye\norder.total=Total\n");
+        write(translationFile, "greeting=Hallo\n");
+        write(regionFile, "farewell=Salut\n");
+        final File outputDirectory = FileTestUtils.getRootPath("target/generated-sources/restatic-key-tables");
+        final Configuration configuration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withKeyTablesEnabled(true)
+                .getConfiguration();
+        final ResModel resModel = ResModel.create(configuration);
+        resModel.addResourceBundle(bundleFile);
+        resModel.addResourceBundle(translationFile);
+        resModel.addResourceBundle(regionFile);
+        new ResourceClassGeneratorImpl(configuration).generate(resModel);
+
+        final File keyTable = new File(outputDirectory, "org/capatec/R_MESSAGES_Strings.java");
+        assertTrue(keyTable.isFile());
+        assertEquals(0, compile(keyTable));
+
+        final File classesDirectory = FileTestUtils.getRootPath("target/generated-classes/restatic-per-bundle");
+        final URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()}, null);
+        try {
+            final Class<?> keyTableClass = classLoader.loadClass("org.capatec.R_MESSAGES_Strings");
+            // The keys sorted by name have dense IDs.
+            assertEquals(0, keyTableClass.getField("FAREWELL").getInt(null));
+            assertEquals(1, keyTableClass.getField("GREETING").getInt(null));
+            assertEquals(2, keyTableClass.getField("ORDER_TOTAL").getInt(null));
+
+            final Method forLocale = keyTableClass.getMethod("forLocale", Locale.class);
+            final Method get = keyTableClass.getMethod("get", int.class);
+            final Object dutch = forLocale.invoke(null, new Locale("nl", "NL"));
+            assertEquals("nl", keyTableClass.getMethod("locale").invoke(dutch));
+            assertEquals("Hallo", get.invoke(dutch, 1));
+            assertEquals("Hallo", keyTableClass.getMethod("GREETING").invoke(dutch));
+            // Not translated, the message of the default locale.
+            assertEquals("Goodbye", get.invoke(dutch, 0));
+            assertSame(dutch, forLocale.invoke(null, new Locale("nl")));
+
+            // The fallbacks are merged: nl_BE falls back to nl and then to the default locale.
+            final Object belgian = forLocale.invoke(null, new Locale("nl", "BE", "VARIANT"));
+            assertEquals("nl_BE", keyTableClass.getMethod("locale").invoke(belgian));
+            assertEquals("Salut", get.invoke(belgian, 0));
+            assertEquals("Hallo", get.invoke(belgian, 1));
+            assertEquals("Total", get.invoke(belgian, 2));
+
+            final Object english = forLocale.invoke(null, Locale.ENGLISH);
+            assertEquals("", keyTableClass.getMethod("locale").invoke(english));
+            assertEquals("Total", keyTableClass.getMethod("ORDER_TOTAL").invoke(english));
+        } finally {
+            classLoader.close();
+        }
+    }
+
+    /**
+     * The format accessors format the messages like MessageFormat, with a parameter for every argument.
+     */
+    @Test
+    public void generateFormatAccessorSourceFiles() throws Exception {
+        final File sourceDirectory = FileTestUtils.getRootPath("target/generated-test-resources/restatic-format-accessors");
+        assertTrue(sourceDirectory.isDirectory() || sourceDirectory.mkdirs());
+        final File bundleFile = new File(sourceDirectory, "messages.properties");
+        final File translationFile = new File(sourceDirectory, "messages_nl.properties");
+        write(bundleFile, "greeting=Hello {0}, you have {1} messages\ntotal=Total: {0,number,#.##}\n"
+                + "quoted=It''s '{'{0}'}'\nplain=No {arguments\nfarewell=Goodbye\n");
+        write(translationFile, "greeting=Hallo {0}, je hebt {1} berichten\nfarewell=Dag {0}\n");
+        final File outputDirectory = FileTestUtils.getRootPath("target/generated-sources/restatic-format-accessors");
+        final Configuration configuration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withKeyTablesEnabled(true)
+                .withFormatAccessorsEnabled(true)
+                .getConfiguration();
+        final ResModel resModel = ResModel.create(configuration);
+        resModel.addResourceBundle(bundleFile);
+        resModel.addResourceBundle(translationFile);
+        new ResourceClassGeneratorImpl(configuration).generate(resModel);
+
+        final File keyTable = new File(outputDirectory, "org/capatec/R_MESSAGES_Strings.java");
+        assertTrue(keyTable.isFile());
+        assertEquals(0, compile(keyTable));
+
+        final File classesDirectory = FileTestUtils.getRootPath("target/generated-classes/restatic-per-bundle");
+        final URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()}, null);
+        try {
+            final Class<?> keyTableClass = classLoader.loadClass("org.capatec.R_MESSAGES_Strings");
+            final Method forLocale = keyTableClass.getMethod("forLocale", Locale.class);
+            final Object english = forLocale.invoke(null, Locale.ENGLISH);
+            final Object dutch = forLocale.invoke(null, new Locale("nl"));
+
+            final Method greeting = keyTableClass.getMethod("GREETING", Object.class, Object.class);
+            assertEquals(new MessageFormat("Hello {0}, you have {1} messages", Locale.ROOT).format(new Object[]{"Jamie", 1234}),
+                    greeting.invoke(english, "Jamie", 1234));
+            assertEquals(new MessageFormat("Hallo {0}, je hebt {1} berichten", new Locale("nl")).format(new Object[]{"Jamie", 1234}),
+                    greeting.invoke(dutch, "Jamie", 1234));
+            assertEquals("Hello null, you have 1 messages", greeting.invoke(english, null, 1));
+
+            // A number format types the parameter and is formatted by a MessageFormat.
+            final Method total = keyTableClass.getMethod("TOTAL", Number.class);
+            assertEquals("Total: 3.14", total.invoke(english, 3.14159));
+            // The MessageFormat is parsed once per thread and reused by the following calls.
+            assertRepeatedTotals(total, english);
+            final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+            final Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        assertRepeatedTotals(total, english);
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                }
+            });
+            thread.start();
+            thread.join();
+            assertNull(failure.get());
+            assertEquals("It's {Jamie}", keyTableClass.getMethod("QUOTED", Object.class).invoke(dutch, "Jamie"));
+
+            // An argument in one locale is enough, the message of the other locale is formatted as a pattern too.
+            final Method farewell = keyTableClass.getMethod("FAREWELL", Object.class);
+            assertEquals("Goodbye", farewell.invoke(english, "Jamie"));
+            assertEquals("Dag Jamie", farewell.invoke(dutch, "Jamie"));
+
+            // Not a pattern with arguments, only the accessor without arguments.
+            for (final Method method : keyTableClass.getMethods()) {
+                assertFalse(method.getName().equals("PLAIN") && method.getParameterTypes().length > 0);
+            }
+            assertEquals("No {arguments", keyTableClass.getMethod("PLAIN").invoke(english));
+        } finally {
+            classLoader.close();
+        }
+    }
+
+    /**
+     * The ordinal of every constant of the key enum is the ID of its key in the key table.
+     */
+    @Test
+    public void generateKeyEnumSourceFiles() throws Exception {
+        final File sourceDirectory = FileTestUtils.getRootPath("target/generated-test-resources/restatic-key-enums");
+        assertTrue(sourceDirectory.isDirectory() || sourceDirectory.mkdirs());
+        final File bundleFile = new File(sourceDirectory, "messages.properties");
+        write(bundleFile, "greeting=Hello\nfarewell=Goodbye\norder.total=Total\n");
+        final File outputDirectory = FileTestUtils.getRootPath("target/generated-sources/restatic-key-enums");
+        final Configuration configuration = new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(sourceDirectory)
+                .toOutputDirectory(outputDirectory)
+                .withKeyTablesEnabled(true)
+                .withKeyEnumsEnabled(true)
+                .getConfiguration();
+        final ResModel resModel = ResModel.create(configuration);
+        resModel.addResourceBundle(bundleFile);
+        new ResourceClassGeneratorImpl(configuration).generate(resModel);
+
+        final File keyEnum = new File(outputDirectory, "org/capatec/R_MESSAGES_Keys.java");
+        final File keyTable = new File(outputDirectory, "org/capatec/R_MESSAGES_Strings.java");
+        assertTrue(keyEnum.isFile());
+        assertEquals(0, compile(keyEnum, keyTable));
+
+        final File classesDirectory = FileTestUtils.getRootPath("target/generated-classes/restatic-per-bundle");
+        final URLClassLoader classLoader = new URLClassLoader(new URL[]{classesDirectory.toURI().toURL()}, null);
+        try {
+            final Class<?> keyEnumClass = classLoader.loadClass("org.capatec.R_MESSAGES_Keys");
+            final Class<?> keyTableClass = classLoader.loadClass("org.capatec.R_MESSAGES_Strings");
+            assertTrue(keyEnumClass.isEnum());
+            assertEquals(3, keyEnumClass.getEnumConstants().length);
+            for (final Object constant : keyEnumClass.getEnumConstants()) {
+                final String name = ((Enum<?>) constant).name();
+                assertEquals(name, keyTableClass.getField(name).getInt(null), ((Enum<?>) constant).ordinal());
+            }
+            assertEquals("order.total", keyEnumClass.getMethod("key").invoke(keyEnumClass.getField("ORDER_TOTAL").get(null)));
+        } finally {
+            classLoader.close();
+        }
+    }
+
+    /**
+     * The streamed source file is the same as the rendered template.
+     */
+    @Test
+    public void sourceFileIsRenderedTemplate() throws IOException {
+        final ResModel resModel = ResModel.create(defaultConfiguration);
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/labels.properties"));
+        new ResourceClassGeneratorImpl(defaultConfiguration).generate(resModel);
+
+        final ST rootClass = ResourceClassTemplates.getInstanceOf("rootClass");
+        rootClass.add("model", resModel);
+        rootClass.add("bundles", new ClassFileBudget(defaultConfiguration.getClassConstantPoolBudget()).split(resModel));
+        final File sourceFile = new File(defaultConfiguration.getOutputDirectory(), "org/capatec/R.java");
+        assertEquals(rootClass.render(), new String(Files.readAllBytes(sourceFile.toPath()), Charset.defaultCharset()));
+    }
+
+    private static void assertRepeatedTotals(final Method total, final Object strings) throws Exception {
+        for (int i = 0; i < 100; i++) {
+            final double value = i / 3.0;
+            assertEquals(new MessageFormat("Total: {0,number,#.##}", Locale.ROOT).format(new Object[]{value}),
+                    total.invoke(strings, value));
+        }
+    }
+
+    private static int compile(final File... sourceFiles) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final File classesDirectory = FileTestUtils.getRootPath("target/generated-classes/restatic-per-bundle");
+        assertTrue(classesDirectory.isDirectory() || classesDirectory.mkdirs());
+
+        final String[] arguments = new String[sourceFiles.length + 2];
+        arguments[0] = "-d";
+        arguments[1] = classesDirectory.getPath();
+        for (int i = 0; i < sourceFiles.length; i++) {
+            arguments[i + 2] = sourceFiles[i].getPath();
+        }
+        return compiler.run(null, new ByteArrayOutputStream(), System.err, arguments);
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+        final FileWriter writer = new FileWriter(file);
+        try {
+            writer.write(content);
+        } finally {
+            writer.close();
+        }
+    }
 }
@@ -0,0 +1,108 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+package org.capatect.restatic.core.generator;
+
+import org.capatect.restatic.core.FileTestUtils;
+import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.capatect.restatic.core.model.ResModel;
+import org.junit.Before;
+import org.junit.Test;
+import org.stringtemplate.v4.ST;
+import org.stringtemplate.v4.STGroup;
+import org.stringtemplate.v4.STGroupFile;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class ResourceClassTemplatesTest {
+    private ResModel resModel;
+    private List<BundleClass> bundles;
+
+    @Before
+    public void setUp() {
+        final File rootPath = FileTestUtils.getRootPath("src/test/generator-test");
+        resModel = ResModel.create(new ConfigurationBuilder()
+                .withFullyQualitiedRootClassName("org.capatec.R")
+                .addSourceDirectory(rootPath)
+                .toOutputDirectory(FileTestUtils.getRootPath("target/generated-sources/restatic"))
+                .getConfiguration());
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/resources_nl_NL.properties"));
+        resModel.addResourceBundle(new File(rootPath, "org/capatect/test/labels.properties"));
+        bundles = new ClassFileBudget(Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET).split(resModel);
+    }
+
+    /**
+     * The ResModelAdaptor renders the same source as StringTemplate's reflective ObjectModelAdaptor.
+     */
+    @Test
+    public void rendersSameSourceAsReflection() {
+        final STGroup reflectiveGroup = new STGroupFile(ResourceClassTemplates.GROUP_FILE_NAME,
+                ResourceClassTemplates.DELIMITER_CHAR, ResourceClassTemplates.DELIMITER_CHAR);
+
+        for (final String templateName : new String[]{"rootClass", "rootIndex"}) {
+            final ST expected = reflectiveGroup.getInstanceOf(templateName);
+            expected.add("model", resModel);
+            expected.add("bundles", bundles);
+            final ST actual = ResourceClassTemplates.getInstanceOf(templateName);
+            actual.add("model", resModel);
+            actual.add("bundles", bundles);
+            assertEquals(templateName, expected.render(), actual.render());
+        }
+
+        for (final BundleClass bundle : bundles) {
+            final ST expected = reflectiveGroup.getInstanceOf("resourceBundleFile");
+            expected.add("model", resModel);
+            expected.add("bundle", bundle);
+            final ST actual = ResourceClassTemplates.getInstanceOf("resourceBundleFile");
+            actual.add("model", resModel);
+            actual.add("bundle", bundle);
+            assertEquals(bundle.getBundleClassName(), expected.render(), actual.render());
+        }
+    }
+
+    @Test
+    public void rendersKeys() {
+        final ST rootClass = ResourceClassTemplates.getInstanceOf("rootClass");
+        rootClass.add("model", resModel);
+        rootClass.add("bundles", bundles);
+        final String rendered = rootClass.render();
+
+        assertTrue(rendered, rendered.contains("package org.capatec;"));
+        assertTrue(rendered, rendered.contains("public static final class ORG_CAPATECT_TEST_RESOURCES {"));
+        assertTrue(rendered, rendered.contains("public static final String PERSON_FIRSTNAME = \"person.firstname\";"));
+    }
+
+    @Test
+    public void everyCallReturnsNewInstance() {
+        assertNotSame(ResourceClassTemplates.getInstanceOf("rootClass"), ResourceClassTemplates.getInstanceOf("rootClass"));
+    }
+
+    @Test(expected = GeneratorException.class)
+    public void unknownTemplate() {
+        ResourceClassTemplates.getInstanceOf("unknown");
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.generator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class SourceFileWriterTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final long ONE_MINUTE_AGO = System.currentTimeMillis() - 60000L;
+
+    private final SourceFileWriter sourceFileWriter = new SourceFileWriter(UTF_8);
+    private File directory;
+    private File sourceFile;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("sourcefilewriter", "");
+        assertTrue(directory.delete() && directory.mkdirs());
+        sourceFile = new File(directory, "R.java");
+    }
+
+    @After
+    public void tearDown() {
+        sourceFile.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void writeNewSourceFile() throws IOException {
+        assertTrue(sourceFileWriter.write(sourceFile, "public class R {}"));
+        assertEquals("public class R {}", read(sourceFile));
+    }
+
+    @Test
+    public void unchangedSourceFileIsNotWritten() throws IOException {
+        sourceFileWriter.write(sourceFile, "public class R {}");
+        assertTrue(sourceFile.setLastModified(ONE_MINUTE_AGO));
+
+        assertFalse(sourceFileWriter.write(sourceFile, "public class R {}"));
+        assertEquals(ONE_MINUTE_AGO / 1000, sourceFile.lastModified() / 1000);
+    }
+
+    @Test
+    public void changedSourceFileWithSameLengthIsWritten() throws IOException {
+        sourceFileWriter.write(sourceFile, "public class R {}");
+
+        assertTrue(sourceFileWriter.write(sourceFile, "public class S {}"));
+        assertEquals("public class S {}", read(sourceFile));
+    }
+
+    @Test
+    public void changedSourceFileWithDifferentLengthIsWritten() throws IOException {
+        sourceFileWriter.write(sourceFile, "public class R {}");
+
+        assertTrue(sourceFileWriter.write(sourceFile, "public class R { int \u00e9; }"));
+        assertEquals("public class R { int \u00e9; }", read(sourceFile));
+    }
+
+    @Test
+    public void noTemporaryFilesAreLeft() throws IOException {
+        sourceFileWriter.write(sourceFile, "public class R {}");
+        sourceFileWriter.write(sourceFile, "public class S {}");
+
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    @Test
+    public void sourceFileWhichStartsWithContentIsWritten() throws IOException {
+        sourceFileWriter.write(sourceFile, "public class R {} // comment");
+
+        assertTrue(sourceFileWriter.write(sourceFile, "public class R {}"));
+        assertEquals("public class R {}", read(sourceFile));
+    }
+
+    @Test
+    public void contentWhichStartsWithSourceFileIsWritten() throws IOException {
+        sourceFileWriter.write(sourceFile, "public class R {}");
+
+        assertTrue(sourceFileWriter.write(sourceFile, "public class R {} // comment"));
+        assertEquals("public class R {} // comment", read(sourceFile));
+    }
+
+    @Test
+    public void emptySourceFileIsWritten() throws IOException {
+        assertTrue(sourceFileWriter.write(sourceFile, ""));
+        assertTrue(sourceFile.isFile());
+
+        assertFalse(sourceFileWriter.write(sourceFile, ""));
+    }
+
+    /**
+     * Content which is larger than the buffers and streamed in many parts, with a difference far from the start.
+     */
+    @Test
+    public void streamedContentWithLateDifferenceIsWritten() throws IOException {
+        sourceFileWriter.write(sourceFile, createContent(100000, "a"));
+        assertTrue(sourceFile.setLastModified(ONE_MINUTE_AGO));
+
+        assertFalse(stream(createContent(100000, "a")));
+        assertEquals(ONE_MINUTE_AGO / 1000, sourceFile.lastModified() / 1000);
+
+        assertTrue(stream(createContent(100000, "b")));
+        assertEquals(createContent(100000, "b"), read(sourceFile));
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    @Test
+    public void uncommittedOutputLeavesSourceFileUntouched() throws IOException {
+        sourceFileWriter.write(sourceFile, "public class R {}");
+
+        final SourceFileWriter.Output output = sourceFileWriter.open(sourceFile);
+        try {
+            output.getWriter().write("public class S { int field; }");
+            output.getWriter().flush();
+        } finally {
+            output.close();
+        }
+
+        assertEquals("public class R {}", read(sourceFile));
+        assertEquals(1, directory.listFiles().length);
+    }
+
+    private boolean stream(final String content) throws IOException {
+        final SourceFileWriter.Output output = sourceFileWriter.open(sourceFile);
+        try {
+            for (int i = 0; i < content.length(); i++) {
+                output.getWriter().write(content.charAt(i));
+            }
+            return output.commit();
+        } finally {
+            output.close();
+        }
+    }
+
+    private static String createContent(final int keyCount, final String lastValue) {
+        final StringBuilder content = new StringBuilder("public class R {\n");
+        for (int i = 0; i < keyCount; i++) {
+            content.append("    public static final String KEY_").append(i).append(" = \"")
+                    .append(i == keyCount - 1 ? lastValue : "key." + i).append("\";\n");
+        }
+        return content.append("}\n").toString();
+    }
+
+    private static String read(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), UTF_8);
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.capatect.restatic.core.jfr;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.capatect.restatic.core.RestaticCoreImpl;
+import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
+import org.capatect.restatic.core.corpus.CorpusGenerator;
+import org.capatect.restatic.core.corpus.GeneratedCorpus;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class RestaticEventsTest {
+    private static final String[] EVENT_NAMES = {
+            "org.capatect.restatic.Collection",
+            "org.capatect.restatic.Parse",
+            "org.capatect.restatic.Validation",
+            "org.capatect.restatic.Render",
+            "org.capatect.restatic.Write"
+    };
+
+    private File workDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        workDirectory = Files.createTempDirectory("restatic-jfr").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        delete(workDirectory);
+    }
+
+    @Test
+    public void eventsAreNotBegunWithoutRecording() {
+        assertNull(RestaticEvents.beginCollection());
+        assertNull(RestaticEvents.beginParse());
+        assertNull(RestaticEvents.beginValidation());
+        assertNull(RestaticEvents.beginRender());
+        assertNull(RestaticEvents.beginWrite());
+
+        // Committing an event which is not begun does nothing.
+        RestaticEvents.commitWrite(null, new File("R.java"), true);
+    }
+
+    @Test
+    public void runIsRecorded() throws IOException {
+        final GeneratedCorpus corpus = new CorpusGenerator()
+                .withPackageCount(2)
+                .withMissingTranslationRatio(0)
+                .generate(new File(workDirectory, "resources"));
+
+        final File recordingFile = new File(workDirectory, "restatic.jfr");
+        final Recording recording = new Recording();
+        try {
+            for (final String eventName : EVENT_NAMES) {
+                recording.enable(eventName);
+            }
+            recording.start();
+            new RestaticCoreImpl(new ConfigurationBuilder()
+                    .addSourceDirectory(corpus.getDirectory())
+                    .toOutputDirectory(new File(workDirectory, "generated"))
+                    .withResourceBundleValidationEnabled(true)
+                    .getConfiguration()).run();
+            recording.stop();
+            recording.dump(recordingFile.toPath());
+        } finally {
+            recording.close();
+        }
+
+        final Map<String, Integer> eventCounts = new HashMap<String, Integer>();
+        long bytesRead = 0;
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile.toPath());
+        for (final RecordedEvent event : events) {
+            final String eventName = event.getEventType().getName();
+            final Integer eventCount = eventCounts.get(eventName);
+            eventCounts.put(eventName, eventCount == null ? 1 : eventCount + 1);
+            if (eventName.equals("org.capatect.restatic.Parse")) {
+                assertFalse(event.getBoolean("cached"));
+                bytesRead += event.getLong("bytesRead");
+            }
+            if (eventName.equals("org.capatect.restatic.Write")) {
+                assertTrue(event.getBoolean("written"));
+            }
+        }
+
+        final int propertiesFileCount = countPropertiesFiles(corpus);
+        assertEquals(Integer.valueOf(1), eventCounts.get("org.capatect.restatic.Collection"));
+        assertEquals(Integer.valueOf(propertiesFileCount), eventCounts.get("org.capatect.restatic.Parse"));
+        assertTrue(eventCounts.get("org.capatect.restatic.Validation") >= 1);
+        assertEquals(Integer.valueOf(1), eventCounts.get("org.capatect.restatic.Render"));
+        assertEquals(Integer.valueOf(1), eventCounts.get("org.capatect.restatic.Write"));
+        assertTrue(bytesRead > 0);
+    }
+
+    /**
+     * The default file filter only matches .properties resource bundles.
+     */
+    private static int countPropertiesFiles(final GeneratedCorpus corpus) {
+        int count = 0;
+        for (final File resourceBundle : corpus.getResourceBundles()) {
+            if (resourceBundle.getName().endsWith(".properties")) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void delete(final File file) {
+        final File[] children = file.listFiles();
+        if (children != null) {
+            for (final File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,219 @@
+package org.capatect.restatic.core.model;
+/*
+ * Copyright 2002-2011 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jamie Craane
+ */
+public class ParseCacheTest {
+    private static final long ONE_MINUTE_AGO = System.currentTimeMillis() - 60000L;
+    private static final List<ResKey> KEYS = Arrays.asList(ResKey.createAndConvertConstantIdentifier("key1"),
+            ResKey.createAndConvertConstantIdentifier("key.2"));
+
+    private File directory;
+    private File cacheFile;
+    private File resourceBundle;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = File.createTempFile("parsecache", "");
+        assertTrue(directory.delete() && directory.mkdirs());
+
+        cacheFile = new File(new File(directory, "cache"), ParseCache.CACHE_FILE_NAME);
+        resourceBundle = new File(directory, "resources.properties");
+        writeResourceBundle("key1=value1\nkey.2=value2\n", ONE_MINUTE_AGO);
+    }
+
+    @After
+    public void tearDown() {
+        cacheFile.delete();
+        cacheFile.getParentFile().delete();
+        resourceBundle.delete();
+        directory.delete();
+    }
+
+    @Test
+    public void missWhenNotCached() {
+        final ParseCache parseCache = ParseCache.load(cacheFile, false);
+        assertNull(parseCache.getKeys(resourceBundle));
+    }
+
+    @Test
+    public void hitWhenUnchanged() {
+        saveKeys(false);
+
+        final List<ResKey> keys = ParseCache.load(cacheFile, false).getKeys(resourceBundle);
+        assertEquals(2, keys.size());
+        assertEquals("KEY1", keys.get(0).getName());
+        assertEquals("key1", keys.get(0).getOriginalName());
+        assertEquals("KEY_2", keys.get(1).getName());
+        assertEquals("key.2", keys.get(1).getOriginalName());
+    }
+
+    @Test
+    public void missWhenChanged() throws IOException {
+        saveKeys(false);
+        writeResourceBundle("key1=value1\nkey.2=value2\nkey3=value3\n", ONE_MINUTE_AGO);
+
+        assertNull(ParseCache.load(cacheFile, false).getKeys(resourceBundle));
+    }
+
+    @Test
+    public void missWhenTouchedWithoutContentHash() {
+        saveKeys(false);
+        assertTrue(resourceBundle.setLastModified(ONE_MINUTE_AGO + 1000L));
+
+        assertNull(ParseCache.load(cacheFile, false).getKeys(resourceBundle));
+    }
+
+    @Test
+    public void hitWhenTouchedWithContentHash() {
+        saveKeys(true);
+        assertTrue(resourceBundle.setLastModified(ONE_MINUTE_AGO + 1000L));
+
+        assertEquals(KEYS, ParseCache.load(cacheFile, true).getKeys(resourceBundle));
+    }
+
+    @Test
+    public void recentlyModifiedResourceBundleIsNotCached() throws IOException {
+        writeResourceBundle("key1=value1\nkey.2=value2\n", System.currentTimeMillis());
+        saveKeys(false);
+
+        assertNull(ParseCache.load(cacheFile, false).getKeys(resourceBundle));
+    }
+
+    @Test
+    public void onlyUsedEntriesAreSaved() throws IOException {
+        saveKeys(false);
+        ParseCache.load(cacheFile, false).save();
+
+        assertNull(ParseCache.load(cacheFile, false).getKeys(resourceBundle));
+    }
+
+    @Test
+    public void unchangedCacheIsNotWritten() {
+        saveKeys(false);
+        assertTrue(cacheFile.setLastModified(ONE_MINUTE_AGO));
+
+        final ParseCache parseCache = ParseCache.load(cacheFile, false);
+        parseCache.getKeys(resourceBundle);
+        parseCache.save();
+
+        assertEquals(ONE_MINUTE_AGO / 1000, cacheFile.lastModified() / 1000);
+    }
+
+    @Test
+    public void corruptCacheFileIsIgnored() throws IOException {
+        saveKeys(false);
+        final RandomAccessFile file = new RandomAccessFile(cacheFile, "rw");
+        try {
+            file.seek(file.length() / 2);
+            final int value = file.read();
+            file.seek(file.length() / 2);
+            file.write(value ^ 0xFF);
+        } finally {
+            file.close();
+        }
+
+        assertNull(ParseCache.load(cacheFile, false).getKeys(resourceBundle));
+    }
+
+    @Test
+    public void truncatedCacheFileIsIgnored() throws IOException {
+        saveKeys(false);
+        final RandomAccessFile file = new RandomAccessFile(cacheFile, "rw");
+        try {
+            file.setLength(file.length() - 3);
+        } finally {
+            file.close();
+        }
+
+        assertNull(ParseCache.load(cacheFile, false).getKeys(resourceBundle));
+    }
+
+    @Test
+    public void resLocaleIsCreatedFromCachedKeys() {
+        final ParseCache parseCache = ParseCache.load(cacheFile, false);
+        parseCache.putKeys(resourceBundle, Arrays.asList(ResKey.createAndConvertConstantIdentifier("cached")));
+        parseCache.save();
+
+        final ResLocale resLocale = ResLocale.createFromResourceBundle(resourceBundle, ParseCache.load(cacheFile, false));
+        assertEquals(1, resLocale.getKeys().size());
+        assertEquals("CACHED", resLocale.getKeys().iterator().next().getName());
+    }
+
+    @Test
+    public void resLocaleKeysAreCachedAfterParsing() {
+        final ParseCache parseCache = ParseCache.load(cacheFile, false);
+        ResLocale.createFromResourceBundle(resourceBundle, parseCache);
+        parseCache.save();
+
+        assertEquals(new HashSet<ResKey>(KEYS), new HashSet<ResKey>(ParseCache.load(cacheFile, false).getKeys(resourceBundle)));
+    }
+
+    @Test
+    public void missWhenEncodingChanged() {
+        final ParseCache parseCache = ParseCache.load(cacheFile, false, Charset.forName("UTF-8"));
+        parseCache.putKeys(resourceBundle, KEYS);
+        parseCache.save();
+
+        assertEquals(KEYS, ParseCache.load(cacheFile, false, Charset.forName("UTF-8")).getKeys(resourceBundle));
+        assertNull(ParseCache.load(cacheFile, false, Charset.forName("ISO-8859-1")).getKeys(resourceBundle));
+    }
+
+    @Test
+    public void disabledCacheNeverReturnsKeys() {
+        final ParseCache parseCache = ParseCache.disabled();
+        parseCache.putKeys(resourceBundle, KEYS);
+        parseCache.save();
+
+        assertNull(parseCache.getKeys(resourceBundle));
+    }
+
+    private void saveKeys(final boolean contentHashEnabled) {
+        final ParseCache parseCache = ParseCache.load(cacheFile, contentHashEnabled);
+        parseCache.putKeys(resourceBundle, KEYS);
+        parseCache.save();
+    }
+
+    private void writeResourceBundle(final String content, final long lastModified) throws IOException {
+        final OutputStream output = new FileOutputStream(resourceBundle);
+        try {
+            output.write(content.getBytes("ISO-8859-1"));
+        } finally {
+            output.close();
+        }
+        assertTrue(resourceBundle.setLastModified(lastModified));
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Jamie Craane
+ */
+public class PropertiesKeyScannerTest {
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void simpleKeys() throws IOException {
+        assertKeys("first=1\nsecond:2\nthird 3\nfourth\n", "first", "second", "third", "fourth");
+    }
+
+    @Test
+    public void keysInDocumentOrder() throws IOException {
+        assertEquals(Arrays.asList("b", "a", "c"), new ArrayList<String>(scan("b=1\na=2\nb=3\nc=4")));
+    }
+
+    @Test
+    public void commentsAndBlankLines() throws IOException {
+        assertKeys("# comment=1\n! other:2\n\n   \t\n  # indented\nkey=value\n", "key");
+    }
+
+    @Test
+    public void whitespaceAroundSeparators() throws IOException {
+        assertKeys("  one   =   1\n\ttwo\t:\t2\nthree\f3\nfour =\n", "one", "two", "three", "four");
+    }
+
+    @Test
+    public void lineTerminators() throws IOException {
+        assertKeys("one=1\r\ntwo=2\rthree=3\n\r\nfour=4", "one", "two", "three", "four");
+    }
+
+    @Test
+    public void continuationLines() throws IOException {
+        assertKeys("one=first \\\n    # not a comment \\\r\n  second=value\ntwo=2\\\\\nthree=\\\r   \\\n\nfour=4", "one", "two", "three", "four");
+    }
+
+    @Test
+    public void commentAfterContinuationOfEmptyLine() throws IOException {
+        // The LineReader of Java 8 reads such a comment as a key, later versions skip it.
+        assertEquals(new HashSet<String>(Arrays.asList("key")), scan("\\\n  # comment=1 \\\n\\\r! other\nkey=2"));
+    }
+
+    @Test
+    public void continuationInKey() throws IOException {
+        assertKeys("long\\\n    key=1\nother\\\r\n\tkey\\\n\n", "longkey", "otherkey");
+    }
+
+    @Test
+    public void escapedKeys() throws IOException {
+        assertKeys("a\\=b=1\nc\\:d:2\ne\\ f 3\ng\\\\=4\nh\\tab\\n\\r\\f\\x=5\n\\#no-comment=6", "a=b", "c:d", "e f", "g\\", "h\tab\n\r\fx", "#no-comment");
+    }
+
+    @Test
+    public void unicodeEscapes() throws IOException {
+        assertKeys("caf\\u00e9=1\n\\u0041\\u0062c=2\n", "caf\u00e9", "Abc");
+    }
+
+    @Test
+    public void valuesAreNotDecoded() throws IOException {
+        // Properties.load rejects the malformed escape sequence in the value.
+        assertEquals(new HashSet<String>(Arrays.asList("value", "next")), scan("value=\\uZZZZ\nnext=1"));
+    }
+
+    @Test
+    public void latin1Bytes() throws IOException {
+        final byte[] input = {'k', (byte) 0xE9, '=', (byte) 0xFF, '\n', (byte) 0xFF, '=', '1'};
+        assertEquals(load(input), scan(input));
+    }
+
+    @Test
+    public void utf8Keys() throws IOException {
+        final String properties = "caf\u00e9=1\n\u65e5\u672c=2\n\ud83d\ude00=3\nna\\u00efve=na\u00efve\n";
+        final byte[] input = properties.getBytes("UTF-8");
+        final Set<String> expected = new HashSet<String>(Arrays.asList("caf\u00e9", "\u65e5\u672c", "\ud83d\ude00", "na\u00efve"));
+
+        assertEquals(expected, loadUtf8(input));
+        assertEquals(expected, PropertiesKeyScanner.scanKeys(new ByteArrayInputStream(input), UTF_8));
+    }
+
+    @Test
+    public void malformedUtf8IsReplaced() throws IOException {
+        final byte[] input = {'a', (byte) 0xC3, '=', '1', '\n', (byte) 0xE6, (byte) 0x97, 'b', '=', '2', '\n',
+                (byte) 0xC0, (byte) 0x80, '=', '3', '\n', (byte) 0xFF, '=', '4'};
+
+        assertEquals(loadUtf8(input), PropertiesKeyScanner.scanKeys(new ByteArrayInputStream(input), UTF_8));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedCharset() throws IOException {
+        PropertiesKeyScanner.scanKeys(new ByteArrayInputStream(new byte[0]), Charset.forName("UTF-16"));
+    }
+
+    @Test
+    public void emptyKeys() throws IOException {
+        assertKeys("=value\n:other\n", "");
+    }
+
+    @Test
+    public void trailingBackslashAtEndOfInput() throws IOException {
+        assertKeys("key\\", "key");
+    }
+
+    @Test
+    public void emptyInput() throws IOException {
+        assertKeys("");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void malformedUnicodeEscapeInKey() throws IOException {
+        scan("ke\\u12G4y=1");
+    }
+
+    @Test
+    public void inputLargerThanTheBuffer() throws IOException {
+        final StringBuilder properties = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            properties.append("section.key").append(i).append(" = value with \\\n    a continuation \\\\ and escapes ").append(i).append('\n');
+        }
+        assertKeys(properties.toString());
+        assertEquals(2000, scan(properties.toString()).size());
+    }
+
+    @Test
+    public void sameKeysAsPropertiesForRandomInput() throws IOException {
+        // Comments are complete lines, Properties.load does not reset its state at the end of a comment line which
+        // ends with a backslash. The input is encoded in ISO-8859-1, the last tokens are the UTF-8 encoding of
+        // U+00E9, U+65E5 and U+1F600 so the input is also scanned as UTF-8.
+        final String[] tokens = {"a", "key", ".", "=", ":", " ", "\t", "\f", "\\", "\\\\", "\\=", "\\ ", "\\u0041",
+                "\n# comment\n", "\r! comment=1\r\n", "\n", "\r", "\r\n", "\\\n", "\\\r\n", "\\\r", "value", "\u00e9",
+                "\u00c3\u00a9", "\u00e6\u0097\u00a5", "\u00f0\u009f\u0098\u0080"};
+        final Random random = new Random(42L);
+        for (int i = 0; i < 10000; i++) {
+            final StringBuilder properties = new StringBuilder();
+            final int length = random.nextInt(40);
+            for (int j = 0; j < length; j++) {
+                properties.append(tokens[random.nextInt(tokens.length)]);
+            }
+            final byte[] input = properties.toString().getBytes("ISO-8859-1");
+            if (isComparable(input)) {
+                assertEquals(properties.toString(), load(input), scan(input));
+                assertEquals(properties.toString(), loadUtf8(input), PropertiesKeyScanner.scanKeys(new ByteArrayInputStream(input), UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Properties.load fails on malformed escape sequences in values, which are not decoded by the scanner, and returns
+     * a key with the stale content of its line buffer when the input ends with a continuation of an empty line.
+     */
+    private static boolean isComparable(final byte[] input) throws IOException {
+        try {
+            load(input);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        int end = input.length;
+        while (end > 0 && (input[end - 1] == '\r' || input[end - 1] == '\n')) {
+            end--;
+        }
+        return end == 0 || input[end - 1] != '\\';
+    }
+
+    private static void assertKeys(final String properties, final String... expectedKeys) throws IOException {
+        final byte[] input = properties.getBytes("ISO-8859-1");
+        final Set<String> keys = scan(input);
+        assertEquals(load(input), keys);
+        if (expectedKeys.length > 0) {
+            assertEquals(new HashSet<String>(Arrays.asList(expectedKeys)), keys);
+        }
+    }
+
+    private static Set<String> scan(final String properties) throws IOException {
+        return scan(properties.getBytes("ISO-8859-1"));
+    }
+
+    private static Set<String> scan(final byte[] input) throws IOException {
+        return PropertiesKeyScanner.scanKeys(new ByteArrayInputStream(input));
+    }
+
+    private static Set<String> loadUtf8(final byte[] input) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(new InputStreamReader(new ByteArrayInputStream(input), UTF_8));
+        return new HashSet<String>(properties.stringPropertyNames());
+    }
+
+    private static Set<String> load(final byte[] input) throws IOException {
+        final Properties properties = new Properties();
+        final InputStream stream = new ByteArrayInputStream(input);
+        properties.load(stream);
+        final List<String> keys = new ArrayList<String>(properties.stringPropertyNames());
+        return new HashSet<String>(keys);
+    }
+}
@@ -25,8 +25,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
-import java.lang.reflect.Field;
-import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import static junit.framework.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -37,13 +37,11 @@ import static org.junit.Assert.assertTrue;
 public class ResBundleTest {
     private Configuration defaultConfiguration;
     private File rootPath;
+    private ConcurrentMap<String, ResBundle> bundles;
 
     @Before
-    public void setup() throws NoSuchFieldException, IllegalAccessException {
-        Field bundles = ResBundle.class.getDeclaredField("bundles");
-        bundles.setAccessible(true);
-        bundles.set(null, new HashMap<String, ResBundle>());
-
+    public void setup() {
+        bundles = new ConcurrentHashMap<String, ResBundle>();
         rootPath = FileTestUtils.getRootPath("src/test/resbundle-test");
         defaultConfiguration = new ConfigurationBuilder().addSourceDirectory(rootPath).toOutputDirectory(new File("target/generated-sources")).getConfiguration();
 
@@ -51,18 +49,18 @@ public class ResBundleTest {
 
     @Test(expected = IllegalArgumentException.class)
     public void noNullConfiguration() {
-        ResBundle.createOrReturn(new File("Test"), null);
+        createOrReturn(new File("Test"), null);
     }
 
     @Test(expected = IllegalArgumentException.class)
     public void nullResourceBundle() {
-        ResBundle.createOrReturn(null, defaultConfiguration);
+        createOrReturn(null, defaultConfiguration);
     }
 
     @Test
     public void createWithDefaultLocale() {
         File resourceBundle = new File(rootPath, "org/capatect/test/resources.properties");
-        ResBundle resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
+        ResBundle resBundle = createOrReturn(resourceBundle, defaultConfiguration);
         assertEquals("ORG_CAPATECT_TEST_RESOURCES", resBundle.getBundleClassName());
         String separator = File.separator;
         assertEquals("org" + separator + "capatect" + separator + "test" + separator + "resources.properties",
@@ -73,7 +71,7 @@ public class ResBundleTest {
     @Test
     public void createWithLocale() {
         File resourceBundle = new File(rootPath, "org/capatect/test/resources_nl_NL.properties");
-        ResBundle resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
+        ResBundle resBundle = createOrReturn(resourceBundle, defaultConfiguration);
         assertEquals("ORG_CAPATECT_TEST_RESOURCES", resBundle.getBundleClassName());
         assertTrue(resBundle.getValidationResult().getErrors().size() == 0);
     }
@@ -81,7 +79,7 @@ public class ResBundleTest {
     @Test
     public void createWithDefaultPackage() {
         File resourceBundle = new File(rootPath, "default-package-resources.properties");
-        ResBundle resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
+        ResBundle resBundle = createOrReturn(resourceBundle, defaultConfiguration);
         assertEquals("DEFAULT_PACKAGE_RESOURCES", resBundle.getBundleClassName());
         assertTrue(resBundle.getValidationResult().getErrors().size() == 0);
     }
@@ -92,7 +90,7 @@ public class ResBundleTest {
                 toOutputDirectory(new File("test")).aliasPackage("org.capatect.test").to("test").getConfiguration();
 
         File resourceBundle = new File(rootPath, "org/capatect/test/resources.properties");
-        ResBundle resBundle = ResBundle.createOrReturn(resourceBundle, configurationWithAliases);
+        ResBundle resBundle = createOrReturn(resourceBundle, configurationWithAliases);
         assertEquals("TEST_RESOURCES", resBundle.getBundleClassName());
         assertTrue(resBundle.getValidationResult().getErrors().size() == 0);
     }
@@ -105,9 +103,9 @@ public class ResBundleTest {
                 aliasPackage("org.capatect.test2").to("test").getConfiguration();
 
         File resourceBundle = new File(rootPath, "org/capatect/test/resources.properties");
-        ResBundle resBundle = ResBundle.createOrReturn(resourceBundle, configurationWithAliases);
+        ResBundle resBundle = createOrReturn(resourceBundle, configurationWithAliases);
         resourceBundle = new File(rootPath, "org/capatect/test2/resources.properties");
-        resBundle = ResBundle.createOrReturn(resourceBundle, configurationWithAliases);
+        resBundle = createOrReturn(resourceBundle, configurationWithAliases);
 
         assertEquals("TEST_RESOURCES", resBundle.getBundleClassName());
         assertEquals(4, resBundle.getAllUniqueKeysForLocales().size());
@@ -116,12 +114,12 @@ public class ResBundleTest {
     @Test
     public void createBundleAndAddLocales() {
         File resourceBundle = new File(rootPath, "org/capatect/test/locale_nl_NL.properties");
-        ResBundle resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
+        ResBundle resBundle = createOrReturn(resourceBundle, defaultConfiguration);
         assertEquals("ORG_CAPATECT_TEST_LOCALE", resBundle.getBundleClassName());
         assertEquals(1, resBundle.getLocales().size());
 
         resourceBundle = new File(rootPath, "org/capatect/test/locale_en_US.properties");
-        resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
+        resBundle = createOrReturn(resourceBundle, defaultConfiguration);
         assertEquals("ORG_CAPATECT_TEST_LOCALE", resBundle.getBundleClassName());
         assertEquals(2, resBundle.getLocales().size());
     }
@@ -129,12 +127,12 @@ public class ResBundleTest {
     @Test
     public void getAllUniqueKeysFromLocales() {
         File resourceBundle = new File(rootPath, "org/capatect/test/locale_nl_NL.properties");
-        ResBundle resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
+        ResBundle resBundle = createOrReturn(resourceBundle, defaultConfiguration);
         assertEquals("ORG_CAPATECT_TEST_LOCALE", resBundle.getBundleClassName());
         assertEquals(1, resBundle.getLocales().size());
 
         resourceBundle = new File(rootPath, "org/capatect/test/locale_en_US.properties");
-        resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
+        resBundle = createOrReturn(resourceBundle, defaultConfiguration);
         assertEquals("ORG_CAPATECT_TEST_LOCALE", resBundle.getBundleClassName());
         assertEquals(2, resBundle.getLocales().size());
 
@@ -144,9 +142,9 @@ public class ResBundleTest {
     @Test
     public void isValid() {
         File resourceBundle = new File(rootPath, "org/capatect/test/invalid.properties");
-        ResBundle resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
+        ResBundle resBundle = createOrReturn(resourceBundle, defaultConfiguration);
         resourceBundle = new File(rootPath, "org/capatect/test/invalid_en_US.properties");
-        resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
+        resBundle = createOrReturn(resourceBundle, defaultConfiguration);
 
         assertTrue(resBundle.getValidationResult().getErrors().size() > 0);
     }
@@ -154,8 +152,34 @@ public class ResBundleTest {
     @Test(expected = IllegalStateException.class)
     public void addSameResourceBundleTwice() {
         File resourceBundle = new File(rootPath, "org/capatect/test/resources_nl_NL.properties");
-        ResBundle resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
-        resBundle = ResBundle.createOrReturn(resourceBundle, defaultConfiguration);
+        ResBundle resBundle = createOrReturn(resourceBundle, defaultConfiguration);
+        resBundle = createOrReturn(resourceBundle, defaultConfiguration);
+    }
+
+    @Test
+    public void keysAreSortedByName() {
+        File resourceBundle = new File(rootPath, "org/capatect/test/locale_nl_NL.properties");
+        createOrReturn(resourceBundle, defaultConfiguration);
+        resourceBundle = new File(rootPath, "org/capatect/test/locale_en_US.properties");
+        ResBundle resBundle = createOrReturn(resourceBundle, defaultConfiguration);
+
+        String previousName = "";
+        for (final ResKey resKey : resBundle.getAllUniqueKeysForLocales()) {
+            assertTrue(previousName.compareTo(resKey.getName()) < 0);
+            previousName = resKey.getName();
+        }
+    }
+
+    @Test
+    public void originalPathAndNameDoesNotDependOnOrder() {
+        File resourceBundle = new File(rootPath, "org/capatect/test/locale_nl_NL.properties");
+        createOrReturn(resourceBundle, defaultConfiguration);
+        resourceBundle = new File(rootPath, "org/capatect/test/locale_en_US.properties");
+        ResBundle resBundle = createOrReturn(resourceBundle, defaultConfiguration);
+
+        String separator = File.separator;
+        assertEquals("org" + separator + "capatect" + separator + "test" + separator + "locale_en_US.properties",
+                resBundle.getOriginalPathAndName());
     }
 
     @Test
@@ -178,4 +202,8 @@ public class ResBundleTest {
         className = ResBundle.ResourceBundleToJavaClassIdentifierConverter.convert("", "default-resources.properties");
         assertEquals("DEFAULT_RESOURCES", className);
     }
+
+    private ResBundle createOrReturn(final File resourceBundle, final Configuration configuration) {
+        return ResBundle.createOrReturn(resourceBundle, configuration, bundles, ParseCache.disabled(), new ParseStatistics());
+    }
 }
@@ -23,6 +23,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.nio.charset.Charset;
 
 import static junit.framework.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -67,6 +68,14 @@ public class ResLocaleTest {
         assertTrue(resLocale.getKeys().contains(ResKey.createAndConvertConstantIdentifier("button.label")));
     }
 
+    @Test
+    public void createFromUtf8ResourceBundle() {
+        File resourceBundle = new File(rootPath, "org/capatect/test/resources.properties");
+        ResLocale utf8 = ResLocale.createFromResourceBundle(resourceBundle, ParseCache.disabled(), Charset.forName("UTF-8"));
+        assertEquals(3, utf8.getKeys().size());
+        assertEquals(ResLocale.createFromResourceBundle(resourceBundle).getKeys(), utf8.getKeys());
+    }
+
     @Test
     public void createXmlResourceBundle() {
         ResLocale resLocale = ResLocale.createFromResourceBundle(new File(rootPath, "org/capatect/xml/resources.xml"));
@@ -0,0 +1,126 @@
+/*
+ *
+ *  * Copyright 2002-2011 the original author or authors.
+ *  *
+ *  * Licensed under the Apache License, Version 2.0 (the "License");
+ *  * you may not use this file except in compliance with the License.
+ *  * You may obtain a copy of the License at
+ *  *
+ *  *      http://www.apache.org/licenses/LICENSE-2.0
+ *  *
+ *  * Unless required by applicable law or agreed to in writing, software
+ *  * distributed under the License is distributed on an "AS IS" BASIS,
+ *  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  * See the License for the specific language governing permissions and
+ *  * limitations under the License.
+ *
+ */
+
+package org.capatect.restatic.core.model;
+
+import org.capatect.restatic.core.FileTestUtils;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.InvalidPropertiesFormatException;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Jamie Craane
+ */
+public class XmlPropertiesKeyScannerTest {
+    private static final String HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!DOCTYPE properties SYSTEM \"http://java.sun.com/dtd/properties.dtd\">\n";
+
+    @Test
+    public void sameKeysAsLoadFromXml() throws IOException {
+        final File resourceBundle = new File(FileTestUtils.getRootPath("src/test/reslocale-test"), "org/capatect/xml/resources.xml");
+        final InputStream input = new FileInputStream(resourceBundle);
+        try {
+            final byte[] bytes = read(input);
+            assertEquals(new HashSet<String>(Arrays.asList("person.firstname", "person.lastname")), scan(bytes));
+            assertEquals(loadFromXml(bytes), scan(bytes));
+        } finally {
+            input.close();
+        }
+    }
+
+    @Test
+    public void keysInDocumentOrder() throws IOException {
+        final String xml = HEADER + "<properties><entry key=\"b\">1</entry><entry key=\"a\">2</entry><entry key=\"b\">3</entry></properties>";
+        assertEquals(Arrays.asList("b", "a"), new ArrayList<String>(scan(xml.getBytes("UTF-8"))));
+    }
+
+    @Test
+    public void commentsEntitiesAndCharacterData() throws IOException {
+        final String xml = HEADER + "<properties>\n"
+                + "  <comment>Generated &amp; maintained by hand</comment>\n"
+                + "  <!-- <entry key=\"commented\">out</entry> -->\n"
+                + "  <entry key=\"a&amp;b\">&lt;value&gt;</entry>\n"
+                + "  <entry key=\"caf&#233;\"><![CDATA[<entry key=\"nested\">]]></entry>\n"
+                + "  <entry key=\"\u65e5\u672c\"/>\n"
+                + "</properties>";
+        final byte[] bytes = xml.getBytes("UTF-8");
+
+        assertEquals(new HashSet<String>(Arrays.asList("a&b", "caf\u00e9", "\u65e5\u672c")), scan(bytes));
+        assertEquals(loadFromXml(bytes), scan(bytes));
+    }
+
+    @Test
+    public void documentWithoutDoctype() throws IOException {
+        assertEquals(new HashSet<String>(Arrays.asList("key")), scan("<properties><entry key=\"key\">value</entry></properties>".getBytes("UTF-8")));
+    }
+
+    @Test
+    public void externalDtdIsNotLoaded() throws IOException {
+        final String xml = "<?xml version=\"1.0\"?>\n<!DOCTYPE properties SYSTEM \"http://restatic.invalid/properties.dtd\">\n"
+                + "<properties><entry key=\"key\">value</entry></properties>";
+        assertEquals(new HashSet<String>(Arrays.asList("key")), scan(xml.getBytes("UTF-8")));
+    }
+
+    @Test(expected = InvalidPropertiesFormatException.class)
+    public void otherRootElement() throws IOException {
+        scan((HEADER + "<entries><entry key=\"key\">value</entry></entries>").getBytes("UTF-8"));
+    }
+
+    @Test(expected = InvalidPropertiesFormatException.class)
+    public void entryWithoutKey() throws IOException {
+        scan((HEADER + "<properties><entry>value</entry></properties>").getBytes("UTF-8"));
+    }
+
+    @Test(expected = InvalidPropertiesFormatException.class)
+    public void malformedXml() throws IOException {
+        scan((HEADER + "<properties><entry key=\"key\">value</properties>").getBytes("UTF-8"));
+    }
+
+    private static Set<String> scan(final byte[] bytes) throws IOException {
+        return XmlPropertiesKeyScanner.scanKeys(new ByteArrayInputStream(bytes));
+    }
+
+    private static Set<String> loadFromXml(final byte[] bytes) throws IOException {
+        final Properties properties = new Properties();
+        properties.loadFromXML(new ByteArrayInputStream(bytes));
+        return new HashSet<String>(properties.stringPropertyNames());
+    }
+
+    private static byte[] read(final InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[4096];
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            output.write(buffer, 0, read);
+        }
+        return output.toByteArray();
+    }
+}
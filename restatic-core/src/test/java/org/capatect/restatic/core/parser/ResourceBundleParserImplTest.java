@@ -23,10 +23,19 @@ import org.capatect.restatic.core.configuration.Configuration;
 import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
 import org.capatect.restatic.core.discoverer.file.FileCollector;
 import org.capatect.restatic.core.discoverer.file.FileCollectorImpl;
+import org.capatect.restatic.core.model.ResBundle;
+import org.capatect.restatic.core.model.ResKey;
+import org.capatect.restatic.core.model.ResLocale;
 import org.capatect.restatic.core.model.ResModel;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNotNull;
@@ -56,10 +65,76 @@ public class ResourceBundleParserImplTest {
         Configuration configuration = new ConfigurationBuilder()
                 .addSourceDirectory(rootPath)
                 .toOutputDirectory(FileTestUtils.getRootPath("target/generated-sources/restatic"))
+                .withResourceBundleValidationEnabled(true)
                 .getConfiguration();
         ResourceBundleParser parser = new ResourceBundleParserImpl(configuration);
 
         FileCollector fileCollector = FileCollectorImpl.createWithPathAndFilter(configuration.getFileFilter());
         parser.parse(fileCollector.collect(rootPath));
     }
+
+    @Test
+    public void parseInParallel() {
+        File rootPath = FileTestUtils.getRootPath("src/test/parse-test");
+        ConfigurationBuilder builder = new ConfigurationBuilder()
+                .addSourceDirectory(rootPath)
+                .toOutputDirectory(FileTestUtils.getRootPath("target/generated-sources/restatic"));
+        List<File> resourceBundles = FileCollectorImpl.createWithPathAndFilter(builder.getConfiguration().getFileFilter()).collect(rootPath);
+
+        ResModel sequentialModel = new ResourceBundleParserImpl(builder.getConfiguration()).parse(resourceBundles);
+        ResModel parallelModel = new ResourceBundleParserImpl(builder.withParserThreadCount(4).getConfiguration()).parse(resourceBundles);
+
+        assertEquals(describe(sequentialModel), describe(parallelModel));
+    }
+
+    @Test
+    public void parseOnExecutorInAnyOrder() {
+        File rootPath = FileTestUtils.getRootPath("src/test/parse-test");
+        Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(rootPath)
+                .toOutputDirectory(FileTestUtils.getRootPath("target/generated-sources/restatic"))
+                .getConfiguration();
+        List<File> resourceBundles = new ArrayList<File>(FileCollectorImpl.createWithPathAndFilter(configuration.getFileFilter()).collect(rootPath));
+        String expected = describe(new ResourceBundleParserImpl(configuration).parse(resourceBundles));
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Random random = new Random(7L);
+            for (int i = 0; i < 50; i++) {
+                Collections.shuffle(resourceBundles, random);
+                assertEquals(expected, describe(new ResourceBundleParserImpl(configuration, executor).parse(resourceBundles)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void invalidResourceBundleInParallel() {
+        File rootPath = FileTestUtils.getRootPath("src/test/parse-test");
+        Configuration configuration = new ConfigurationBuilder()
+                .addSourceDirectory(rootPath)
+                .toOutputDirectory(FileTestUtils.getRootPath("target/generated-sources/restatic"))
+                .withResourceBundleValidationEnabled(true)
+                .withParserThreadCount(4)
+                .getConfiguration();
+        ResourceBundleParser parser = new ResourceBundleParserImpl(configuration);
+
+        FileCollector fileCollector = FileCollectorImpl.createWithPathAndFilter(configuration.getFileFilter());
+        parser.parse(fileCollector.collect(rootPath));
+    }
+
+    private static String describe(final ResModel resModel) {
+        StringBuilder description = new StringBuilder();
+        for (final ResBundle bundle : resModel.getBundles()) {
+            description.append(bundle.getBundleClassName()).append(' ').append(bundle.getOriginalPathAndName()).append('\n');
+            for (final ResLocale locale : bundle.getLocales()) {
+                description.append(" locale ").append(locale.getLocale()).append('\n');
+            }
+            for (final ResKey key : bundle.getAllUniqueKeysForLocales()) {
+                description.append(" key ").append(key.getName()).append('=').append(key.getOriginalName()).append('\n');
+            }
+        }
+        return description.toString();
+    }
 }
@@ -23,13 +23,21 @@ import org.apache.maven.plugin.MojoFailureException;
 import org.apache.maven.project.MavenProject;
 import org.capatect.restatic.core.RestaticCore;
 import org.capatect.restatic.core.RestaticCoreImpl;
+import org.capatect.restatic.core.RunStatistics;
 import org.capatect.restatic.core.configuration.Configuration;
+import org.capatect.restatic.core.configuration.GeneratorBackend;
+import org.capatect.restatic.core.configuration.SourceLayout;
 import org.capatect.restatic.core.configuration.builder.ConfigurationBuilder;
 import org.capatect.restatic.core.discoverer.file.AntStylePatternFileNameFilter;
+import org.capatect.restatic.core.model.PropertiesKeyScanner;
 import org.slf4j.impl.StaticLoggerBinder;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
 import java.text.MessageFormat;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -60,6 +68,22 @@ import java.util.Set;
  *          <outputDirectory>${project.basedir}/target/generated-source/restatic</outputDirectory>
  *          <resourceBundleValidationEnabled>Resources</resourceBundleValidationEnabled>
  *          <resourceBundleValidationEnabled>true</resourceBundleValidationEnabled>
+ *          <parallelFileCollectionEnabled>true</parallelFileCollectionEnabled>
+ *          <parseCacheEnabled>true</parseCacheEnabled>
+ *          <parseCacheDirectory>${project.build.directory}/restatic-cache</parseCacheDirectory>
+ *          <parseCacheContentHashEnabled>false</parseCacheContentHashEnabled>
+ *          <sourceLayout>FILE_PER_BUNDLE</sourceLayout>
+ *          <generatorBackend>BYTECODE</generatorBackend>
+ *          <classOutputDirectory>${project.build.outputDirectory}</classOutputDirectory>
+ *          <sourcesJar>${project.build.directory}/restatic-sources.jar</sourcesJar>
+ *          <classConstantPoolBudget>65535</classConstantPoolBudget>
+ *          <messageTablesEnabled>true</messageTablesEnabled>
+ *          <keyTablesEnabled>false</keyTablesEnabled>
+ *          <keyEnumsEnabled>true</keyEnumsEnabled>
+ *          <formatAccessorsEnabled>false</formatAccessorsEnabled>
+ *          <parserThreadCount>4</parserThreadCount>
+ *          <resourceBundleEncoding>UTF-8</resourceBundleEncoding>
+ *          <statisticsReportFile>${project.build.directory}/restatic-statistics.json</statisticsReportFile>
  *      </configuration>
  *      <executions>
  *          <execution>
@@ -121,6 +145,129 @@ public class GenerateRestaticSourcesMojo extends AbstractMojo {
      */
     private boolean resourceBundleValidationEnabled;
 
+    /**
+     * Flag to indicate if the source directories should be scanned for resource bundles in parallel.
+     *
+     * @parameter default-value="false"
+     */
+    private boolean parallelFileCollectionEnabled;
+
+    /**
+     * Flag to indicate if the keys of parsed resource bundles should be cached between builds.
+     *
+     * @parameter default-value="true"
+     */
+    private boolean parseCacheEnabled;
+
+    /**
+     * The directory where the keys of parsed resource bundles are cached. Defaults to
+     * ${project.build.directory}/restatic-cache.
+     *
+     * @parameter default-value="${project.build.directory}/restatic-cache"
+     */
+    private File parseCacheDirectory;
+
+    /**
+     * Flag to indicate if the parse cache should detect changed resource bundles by content hash instead of only by
+     * size and last modified time.
+     *
+     * @parameter default-value="false"
+     */
+    private boolean parseCacheContentHashEnabled;
+
+    /**
+     * The layout of the generated source files, SINGLE_FILE or FILE_PER_BUNDLE.
+     *
+     * @parameter default-value="SINGLE_FILE"
+     */
+    private String sourceLayout;
+
+    /**
+     * How the source files are generated, TEMPLATE or EMITTER, which generate the same source, or BYTECODE, which
+     * writes class files to the classOutputDirectory instead.
+     *
+     * @parameter default-value="TEMPLATE"
+     */
+    private String generatorBackend;
+
+    /**
+     * The directory where the BYTECODE generator backend writes the class files. Defaults to
+     * ${project.build.outputDirectory}.
+     *
+     * @parameter default-value="${project.build.outputDirectory}"
+     */
+    private File classOutputDirectory;
+
+    /**
+     * The jar to which the BYTECODE generator backend writes the source of the generated classes, for IDEs. No sources
+     * jar is written if not set.
+     *
+     * @parameter
+     */
+    private File sourcesJar;
+
+    /**
+     * The number of constant pool entries a generated class may use, at most 65535. Resource bundles with more keys
+     * than fit are split over shards.
+     *
+     * @parameter default-value="65535"
+     */
+    private int classConstantPoolBudget;
+
+    /**
+     * Flag to indicate if a ListResourceBundle with the messages is generated for every locale of every resource
+     * bundle, so ResourceBundle.getBundle does not read the .properties files at runtime.
+     *
+     * @parameter default-value="false"
+     */
+    private boolean messageTablesEnabled;
+
+    /**
+     * Flag to indicate if a class is generated for every resource bundle which looks the messages up by int key ID in
+     * an array. Not supported by the BYTECODE generatorBackend.
+     *
+     * @parameter default-value="false"
+     */
+    private boolean keyTablesEnabled;
+
+    /**
+     * Flag to indicate if an enum with a constant for every key is generated for every resource bundle, for switch
+     * statements and EnumMaps.
+     *
+     * @parameter default-value="false"
+     */
+    private boolean keyEnumsEnabled;
+
+    /**
+     * Flag to indicate if the key tables get an accessor which formats the message with its arguments for every key
+     * whose messages are MessageFormat patterns. Requires keyTablesEnabled.
+     *
+     * @parameter default-value="false"
+     */
+    private boolean formatAccessorsEnabled;
+
+    /**
+     * The number of threads used to parse the resource bundles.
+     *
+     * @parameter default-value="1"
+     */
+    private int parserThreadCount;
+
+    /**
+     * The encoding of .properties resource bundles, ISO-8859-1 or UTF-8.
+     *
+     * @parameter default-value="ISO-8859-1"
+     */
+    private String resourceBundleEncoding;
+
+    /**
+     * The file the timings and counts of the phases of the run are written to as JSON. Defaults to
+     * ${project.build.directory}/restatic-statistics.json.
+     *
+     * @parameter default-value="${project.build.directory}/restatic-statistics.json"
+     */
+    private File statisticsReportFile;
+
     /**
      * The name of the root class.
      *
@@ -163,7 +310,27 @@ public class GenerateRestaticSourcesMojo extends AbstractMojo {
                 .addFileFilter(AntStylePatternFileNameFilter.create(includes.toArray(new String[includes.size()])))
                 .withFullyQualitiedRootClassName(fullyQualifiedGeneratedRootClassName)
                 .withResourceBundleValidationEnabled(resourceBundleValidationEnabled)
-                .toOutputDirectory(outputDirectory);
+                .withParallelFileCollectionEnabled(parallelFileCollectionEnabled)
+                .withParseCacheContentHashEnabled(parseCacheContentHashEnabled)
+                .withSourceLayout(SourceLayout.valueOf(sourceLayout))
+                .withGeneratorBackend(GeneratorBackend.valueOf(generatorBackend))
+                .withParserThreadCount(parserThreadCount)
+                .withResourceBundleEncoding(Charset.forName(resourceBundleEncoding))
+                .withClassConstantPoolBudget(classConstantPoolBudget)
+                .withMessageTablesEnabled(messageTablesEnabled)
+                .withKeyTablesEnabled(keyTablesEnabled)
+                .withKeyEnumsEnabled(keyEnumsEnabled)
+                .withFormatAccessorsEnabled(formatAccessorsEnabled)
+                .toOutputDirectory(outputDirectory)
+                .toClassOutputDirectory(classOutputDirectory);
+
+        if (parseCacheEnabled) {
+            builder.withParseCacheDirectory(parseCacheDirectory);
+        }
+
+        if (sourcesJar != null) {
+            builder.withSourcesJar(sourcesJar);
+        }
 
         // Aliases
         for (final Map.Entry<String, String> alias : aliases.entrySet()) {
@@ -184,12 +351,35 @@ public class GenerateRestaticSourcesMojo extends AbstractMojo {
 
         // Generate sources using the restatic-core.
         final RestaticCore core = new RestaticCoreImpl(configuration);
-        core.run();
+        final RunStatistics statistics = core.run();
+        getLog().info("Restatic run statistics: " + statistics.toSummary());
+        writeStatisticsReport(statistics);
 
         // Add generated resources to project.
         addResourceToProject();
     }
 
+    /**
+     * Writes the statistics of the run as JSON to the statisticsReportFile.
+     *
+     * @throws MojoExecutionException if the report cannot be written.
+     */
+    private void writeStatisticsReport(final RunStatistics statistics) throws MojoExecutionException {
+        final File reportDirectory = statisticsReportFile.getAbsoluteFile().getParentFile();
+        if (!reportDirectory.isDirectory() && !reportDirectory.mkdirs()) {
+            throw new MojoExecutionException(MessageFormat.format(
+                    "Unable to create the directory of statistics report {0}", statisticsReportFile));
+        }
+
+        try {
+            Files.write(statisticsReportFile.toPath(), statistics.toJson().getBytes(Charset.forName("UTF-8")));
+        } catch (IOException e) {
+            throw new MojoExecutionException(MessageFormat.format(
+                    "Unable to write statistics report {0}", statisticsReportFile), e);
+        }
+        getLog().debug("Wrote Restatic statistics report to " + statisticsReportFile);
+    }
+
     /**
      * Adds the resources generated by the restatic-core to the MavenProject.
      */
@@ -241,5 +431,63 @@ public class GenerateRestaticSourcesMojo extends AbstractMojo {
         if (StringUtils.isBlank(fullyQualifiedGeneratedRootClassName)) {
             throw new MojoExecutionException("Illegal rootClassName found. Root class name is not allowed to be empty");
         }
+
+        // Validate parserThreadCount.
+        if (parserThreadCount < 1) {
+            throw new MojoExecutionException("Illegal parserThreadCount found. Parser thread count must be at least 1");
+        }
+
+        // Validate classConstantPoolBudget.
+        if (classConstantPoolBudget < Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET
+                || classConstantPoolBudget > Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET) {
+            throw new MojoExecutionException(MessageFormat.format(
+                    "Illegal classConstantPoolBudget found. Class constant pool budget {0} is not between {1} and {2}",
+                    String.valueOf(classConstantPoolBudget), String.valueOf(Configuration.MIN_CLASS_CONSTANT_POOL_BUDGET),
+                    String.valueOf(Configuration.MAX_CLASS_CONSTANT_POOL_BUDGET)));
+        }
+
+        // Validate statisticsReportFile.
+        if (statisticsReportFile == null || statisticsReportFile.isDirectory()) {
+            throw new MojoExecutionException(MessageFormat.format(
+                    "Illegal statisticsReportFile found. Statistics report {0} is not a file", statisticsReportFile));
+        }
+
+        // Validate resourceBundleEncoding.
+        if (!isSupportedEncoding(resourceBundleEncoding)) {
+            throw new MojoExecutionException(MessageFormat.format(
+                    "Illegal resourceBundleEncoding found. Resource bundle encoding {0} is not ISO-8859-1 or UTF-8", resourceBundleEncoding));
+        }
+
+        // Validate sourceLayout.
+        try {
+            SourceLayout.valueOf(sourceLayout);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(MessageFormat.format(
+                    "Illegal sourceLayout found. Source layout {0} is not one of {1}", sourceLayout,
+                    Arrays.toString(SourceLayout.values())));
+        }
+
+        // Validate generatorBackend.
+        try {
+            GeneratorBackend.valueOf(generatorBackend);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException(MessageFormat.format(
+                    "Illegal generatorBackend found. Generator backend {0} is not one of {1}", generatorBackend,
+                    Arrays.toString(GeneratorBackend.values())));
+        }
+
+        // Validate keyTablesEnabled.
+        if (keyTablesEnabled && GeneratorBackend.BYTECODE.name().equals(generatorBackend)) {
+            throw new MojoExecutionException("Illegal keyTablesEnabled found. Key tables are not supported by the BYTECODE generatorBackend");
+        }
+    }
+
+    private static boolean isSupportedEncoding(final String encoding) {
+        try {
+            return PropertiesKeyScanner.isSupported(Charset.forName(encoding));
+        } catch (IllegalArgumentException e) {
+            // Illegal or unsupported charset name.
+            return false;
+        }
     }
 }